@@ -0,0 +1,84 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.benchmarks;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.utils.BayesianNetworkSampler;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * This class contains the helpers shared by the benchmarks.
+ */
+final class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Generates a random {@link BayesianNetwork} with {@link BayesianNetworkGenerator}. Half of the variables
+     * are multinomial with two states and the remaining ones are Gaussian.
+     * @param nVars an {@code int} that represents the number of variables.
+     * @param seed an {@code int} that represents the seed.
+     * @return a {@link BayesianNetwork} object.
+     */
+    static BayesianNetwork generateNetwork(int nVars, int seed) {
+        BayesianNetworkGenerator.setSeed(seed);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(nVars / 2, 2);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(nVars - nVars / 2);
+        BayesianNetworkGenerator.setNumberOfLinks((int) (1.3 * nVars));
+        return BayesianNetworkGenerator.generateBayesianNetwork();
+    }
+
+    /**
+     * Samples a data set from a given {@link BayesianNetwork} and keeps it on memory.
+     * @param bn a {@link BayesianNetwork} object.
+     * @param nSamples an {@code int} that represents the number of samples.
+     * @param seed an {@code int} that represents the seed.
+     * @return a {@link DataOnMemory} object.
+     */
+    static DataOnMemory<DataInstance> sampleData(BayesianNetwork bn, int nSamples, int seed) {
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(seed);
+        return sampler.sampleToDataStream(nSamples).toDataOnMemory();
+    }
+
+    /**
+     * Runs a task inside a {@code ForkJoinPool} with a given parallelism, so that the parallel streams
+     * used by the task are limited to that number of cores.
+     * @param nCores an {@code int} that represents the number of cores.
+     * @param task a task to be run.
+     * @param <T> the type of the result of the task.
+     * @return the result of the task.
+     */
+    static <T> T runWithCores(int nCores, Supplier<T> task) {
+        ForkJoinPool pool = new ForkJoinPool(nCores);
+        try {
+            return pool.submit(task::get).get();
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.benchmarks;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFDataReader;
+import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFMappedDataReader;
+import eu.amidst.core.io.DataStreamWriter;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkSampler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the generation and the reading of data: sampling from a random {@link BayesianNetwork}
+ * with {@link BayesianNetworkSampler}, and parsing the same ARFF file with {@link ARFFDataReader} and
+ * {@link ARFFMappedDataReader}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataBenchmarks {
+
+    /** Represents the number of variables of the generated network. */
+    @Param({"10", "50"})
+    public int nVars;
+
+    /** Represents the number of samples. */
+    @Param({"10000", "100000"})
+    public int nSamples;
+
+    private BayesianNetwork bn;
+
+    private File arffFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.bn = BenchmarkUtils.generateNetwork(this.nVars, 0);
+        this.arffFile = File.createTempFile("amidst-benchmark", ".arff");
+        DataStreamWriter.writeDataToFile(BenchmarkUtils.sampleData(this.bn, this.nSamples, 0), this.arffFile.getPath());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.arffFile.delete();
+    }
+
+    @Benchmark
+    public void bayesianNetworkSampler(Blackhole blackhole) {
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(this.bn);
+        sampler.setSeed(0);
+        for (DataInstance instance : sampler.sampleToDataStream(this.nSamples)) {
+            blackhole.consume(instance.toArray());
+        }
+    }
+
+    @Benchmark
+    public void arffDataReader(Blackhole blackhole) {
+        ARFFDataReader reader = new ARFFDataReader();
+        reader.loadFromFile(this.arffFile.getPath());
+        List<Attribute> attributes = reader.getAttributes().getFullListOfAttributes();
+        reader.stream().forEach(row -> {
+            for (Attribute att : attributes) {
+                blackhole.consume(row.getValue(att));
+            }
+        });
+    }
+
+    @Benchmark
+    public void arffMappedDataReader(Blackhole blackhole) {
+        ARFFMappedDataReader reader = new ARFFMappedDataReader();
+        reader.loadFromFile(this.arffFile.getPath());
+        List<Attribute> attributes = reader.getAttributes().getFullListOfAttributes();
+        reader.stream().forEach(row -> {
+            for (Attribute att : attributes) {
+                blackhole.consume(row.getValue(att));
+            }
+        });
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.benchmarks;
+
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.inference.DynamicVMP;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkGenerator;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkSampler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * This class benchmarks the filtering of sequences sampled from a random dynamic naive Bayes model
+ * with {@link DynamicVMP}. The class variable is hidden and its filtered posterior is queried at every time step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicInferenceBenchmarks {
+
+    /** Represents the number of discrete and the number of continuous variables of the generated network. */
+    @Param({"5", "25"})
+    public int nVarsPerType;
+
+    /** Represents the number of sequences. */
+    @Param({"10"})
+    public int nSequences;
+
+    /** Represents the length of each sequence. */
+    @Param({"100", "1000"})
+    public int sequenceLength;
+
+    private DynamicBayesianNetwork dbn;
+
+    private Variable classVar;
+
+    private List<DynamicDataInstance> data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(this.nVarsPerType);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(this.nVarsPerType);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(2);
+        this.dbn = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0), 2, true);
+        this.classVar = this.dbn.getDynamicVariables().getVariableByName("ClassVar");
+
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(this.dbn);
+        sampler.setSeed(0);
+        sampler.setHiddenVar(this.classVar);
+        this.data = sampler.sampleToDataBase(this.nSequences, this.sequenceLength).stream().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void dynamicVMP(Blackhole blackhole) {
+        DynamicVMP dynamicVMP = new DynamicVMP();
+        dynamicVMP.setModel(this.dbn);
+        long sequenceID = -1;
+        for (DynamicDataInstance instance : this.data) {
+            if (instance.getSequenceID() != sequenceID) {
+                dynamicVMP.reset();
+                sequenceID = instance.getSequenceID();
+            }
+            dynamicVMP.addDynamicEvidence(instance);
+            dynamicVMP.runInference();
+            blackhole.consume(dynamicVMP.getFilteredPosterior(this.classVar));
+        }
+    }
+}
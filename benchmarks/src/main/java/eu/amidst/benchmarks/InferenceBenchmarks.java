@@ -0,0 +1,131 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.benchmarks;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.inference.ImportanceSampling;
+import eu.amidst.core.inference.MAPInference;
+import eu.amidst.core.inference.messagepassing.VMP;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * This class benchmarks the inference algorithms on a random {@link BayesianNetwork}. The evidence is made
+ * of the values of one half of the variables in a sampled instance, and the posteriors are queried for
+ * the remaining ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InferenceBenchmarks {
+
+    /** Represents the number of variables of the generated network. */
+    @Param({"10", "50"})
+    public int nVars;
+
+    /** Represents the number of samples drawn by the sampling based algorithms. */
+    @Param({"10000"})
+    public int sampleSize;
+
+    /** Represents the number of cores used by the parallel algorithms. */
+    @Param({"1", "4"})
+    public int nCores;
+
+    /** Represents the search algorithm used by {@link MAPInference}. */
+    @Param({"HC_LOCAL", "SA_LOCAL"})
+    public String searchAlgorithm;
+
+    private BayesianNetwork bn;
+
+    private Assignment evidence;
+
+    private List<Variable> queryVars;
+
+    private VMP vmp;
+
+    private ImportanceSampling importanceSampling;
+
+    private MAPInference mapInference;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.bn = BenchmarkUtils.generateNetwork(this.nVars, 0);
+        DataInstance instance = BenchmarkUtils.sampleData(this.bn, 1, 0).getDataInstance(0);
+
+        List<Variable> variables = this.bn.getVariables().getListOfVariables();
+        HashMapAssignment assignment = new HashMapAssignment(variables.size() / 2);
+        variables.stream().filter(var -> var.getVarID() % 2 == 0)
+                .forEach(var -> assignment.setValue(var, instance.getValue(var)));
+        this.evidence = assignment;
+        this.queryVars = variables.stream().filter(var -> var.getVarID() % 2 == 1).collect(Collectors.toList());
+
+        this.vmp = new VMP();
+        this.vmp.setSeed(0);
+        this.vmp.setModel(this.bn);
+
+        this.importanceSampling = new ImportanceSampling();
+        this.importanceSampling.setSeed(0);
+        this.importanceSampling.setSampleSize(this.sampleSize);
+        this.importanceSampling.setKeepDataOnMemory(true);
+        this.importanceSampling.setParallelMode(this.nCores > 1);
+        this.importanceSampling.setModel(this.bn);
+
+        this.mapInference = new MAPInference();
+        this.mapInference.setSeed(0);
+        this.mapInference.setSampleSize(this.sampleSize / 100);
+        this.mapInference.setParallelMode(this.nCores > 1);
+        this.mapInference.setModel(this.bn);
+        this.mapInference.setMAPVariables(this.queryVars.stream().filter(Variable::isMultinomial).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<UnivariateDistribution> vmp() {
+        this.vmp.setEvidence(this.evidence);
+        this.vmp.runInference();
+        return this.queryVars.stream().map(var -> (UnivariateDistribution) this.vmp.getPosterior(var)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<UnivariateDistribution> importanceSampling() {
+        return BenchmarkUtils.runWithCores(this.nCores, () -> {
+            this.importanceSampling.setEvidence(this.evidence);
+            this.importanceSampling.runInference();
+            return this.importanceSampling.getPosteriors(this.queryVars);
+        });
+    }
+
+    @Benchmark
+    public Assignment mapInference() {
+        return BenchmarkUtils.runWithCores(this.nCores, () -> {
+            this.mapInference.setEvidence(this.evidence);
+            this.mapInference.runInference(MAPInference.SearchAlgorithm.valueOf(this.searchAlgorithm));
+            return this.mapInference.getEstimate();
+        });
+    }
+}
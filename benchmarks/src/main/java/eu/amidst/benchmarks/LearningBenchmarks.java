@@ -0,0 +1,106 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.benchmarks;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.learning.parametric.ParallelMaximumLikelihood;
+import eu.amidst.core.learning.parametric.bayesian.ParallelSVB;
+import eu.amidst.core.learning.parametric.bayesian.SVB;
+import eu.amidst.core.models.BayesianNetwork;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the parameter learning algorithms on data sampled from a random {@link BayesianNetwork}.
+ * Each operation learns the parameters from the whole data set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LearningBenchmarks {
+
+    /** Represents the number of variables of the generated network. */
+    @Param({"10", "50"})
+    public int nVars;
+
+    /** Represents the number of samples used for learning. */
+    @Param({"10000", "100000"})
+    public int nSamples;
+
+    /** Represents the number of cores used by the parallel algorithms. */
+    @Param({"1", "4"})
+    public int nCores;
+
+    /** Represents the size of the batches. */
+    @Param({"1000"})
+    public int windowsSize;
+
+    private BayesianNetwork bn;
+
+    private DataOnMemory<DataInstance> data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.bn = BenchmarkUtils.generateNetwork(this.nVars, 0);
+        this.data = BenchmarkUtils.sampleData(this.bn, this.nSamples, 0);
+    }
+
+    @Benchmark
+    public BayesianNetwork parallelMaximumLikelihood() {
+        return BenchmarkUtils.runWithCores(this.nCores, () -> {
+            ParallelMaximumLikelihood parameterLearningAlgorithm = new ParallelMaximumLikelihood();
+            parameterLearningAlgorithm.setWindowsSize(this.windowsSize);
+            parameterLearningAlgorithm.setParallelMode(this.nCores > 1);
+            parameterLearningAlgorithm.setLaplace(true);
+            parameterLearningAlgorithm.setDAG(this.bn.getDAG());
+            parameterLearningAlgorithm.setDataStream(this.data);
+            parameterLearningAlgorithm.runLearning();
+            return parameterLearningAlgorithm.getLearntBayesianNetwork();
+        });
+    }
+
+    @Benchmark
+    public BayesianNetwork svb() {
+        SVB svb = new SVB();
+        svb.setWindowsSize(this.windowsSize);
+        svb.setSeed(0);
+        svb.setOutput(false);
+        svb.setDAG(this.bn.getDAG());
+        svb.setDataStream(this.data);
+        svb.runLearning();
+        return svb.getLearntBayesianNetwork();
+    }
+
+    @Benchmark
+    public BayesianNetwork parallelSVB() {
+        ParallelSVB parallelSVB = new ParallelSVB();
+        parallelSVB.setNCores(this.nCores);
+        parallelSVB.setSeed(0);
+        parallelSVB.setWindowsSize(this.windowsSize);
+        parallelSVB.setOutput(false);
+        parallelSVB.setDAG(this.bn.getDAG());
+        parallelSVB.setDataStream(this.data);
+        parallelSVB.runLearning();
+        return parallelSVB.getLearntBayesianNetwork();
+    }
+}
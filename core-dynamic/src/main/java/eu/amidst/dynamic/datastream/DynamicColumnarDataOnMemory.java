@@ -0,0 +1,306 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.datastream;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.variables.DynamicVariables;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The DynamicColumnarDataOnMemory class implements the {@link DataOnMemory} interface for dynamic data.
+ * The values are stored by columns in a {@link ColumnarDataOnMemory} object, including the SEQUENCE_ID and TIME_ID
+ * columns, and the {@link DynamicDataInstance} objects are light views over a row of the columns.
+ *
+ * <p> The rows of a sequence are expected to be consecutive and sorted by time. The past values of a row, i.e.,
+ * the values of the interface variables, are read from the previous row when both rows belong to the same sequence,
+ * and they are missing otherwise. </p>
+ */
+public class DynamicColumnarDataOnMemory implements DataOnMemory<DynamicDataInstance>, Serializable {
+
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 4107783324901370839L;
+
+    /** Represents the values of the data set. */
+    private final ColumnarDataOnMemory data;
+
+    /** Represents the dynamic variables of the data set. */
+    private final DynamicVariables dynamicVariables;
+
+    /** Represents the column of the SEQUENCE_ID attribute. */
+    private final int sequenceColumn;
+
+    /** Represents the column of the TIME_ID attribute. */
+    private final int timeColumn;
+
+    /**
+     * Creates a new DynamicColumnarDataOnMemory with all the values missing.
+     * @param attributes the attributes of the data set, which must include the SEQUENCE_ID and TIME_ID attributes.
+     * @param variables the dynamic variables, which are linked to the attributes with the same name.
+     * @param nInstances the number of data instances.
+     */
+    public DynamicColumnarDataOnMemory(Attributes attributes, DynamicVariables variables, int nInstances) {
+        if (attributes.getSeq_id() == null || attributes.getTime_id() == null)
+            throw new IllegalArgumentException("The SEQUENCE_ID and TIME_ID attributes are required.");
+
+        List<Variable> columnVariables = attributes.getFullListOfAttributes().stream()
+                .map(att -> att.isSpecialAttribute() ? null : variables.getVariableByName(att.getName()))
+                .collect(Collectors.toList());
+
+        this.data = new ColumnarDataOnMemory(attributes, columnVariables, nInstances);
+        this.dynamicVariables = variables;
+        this.sequenceColumn = this.data.getColumnIndex(attributes.getSeq_id());
+        this.timeColumn = this.data.getColumnIndex(attributes.getTime_id());
+    }
+
+    /**
+     * Returns the columns of the data set, which can be used to read or write the values directly.
+     * @return a {@link ColumnarDataOnMemory} object.
+     */
+    public ColumnarDataOnMemory getColumnarData() {
+        return data;
+    }
+
+    /**
+     * Returns the column of the SEQUENCE_ID attribute.
+     * @return the position of the column.
+     */
+    public int getSequenceColumn() {
+        return sequenceColumn;
+    }
+
+    /**
+     * Returns the column of the TIME_ID attribute.
+     * @return the position of the column.
+     */
+    public int getTimeColumn() {
+        return timeColumn;
+    }
+
+    /**
+     * Tests whether the previous row belongs to the same sequence as a given row.
+     * @param row the position of the data instance.
+     * @return true if the previous row belongs to the same sequence.
+     */
+    private boolean hasPast(int row) {
+        return row > 0 && this.data.getValue(row - 1, this.sequenceColumn) == this.data.getValue(row, this.sequenceColumn);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfDataInstances() {
+        return this.data.getNumberOfDataInstances();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DynamicDataInstance getDataInstance(int i) {
+        if (i < 0 || i >= this.getNumberOfDataInstances())
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.getNumberOfDataInstances());
+        return new DynamicColumnarDataInstance(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<DynamicDataInstance> getList() {
+        return new AbstractList<DynamicDataInstance>() {
+            @Override
+            public DynamicDataInstance get(int index) {
+                return getDataInstance(index);
+            }
+
+            @Override
+            public int size() {
+                return getNumberOfDataInstances();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attributes getAttributes() {
+        return this.data.getAttributes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<DynamicDataInstance> stream() {
+        return IntStream.range(0, this.getNumberOfDataInstances()).mapToObj(DynamicColumnarDataInstance::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRestartable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restart() {
+
+    }
+
+    /**
+     * This class implements the {@link DynamicDataInstance} interface as a view over a row of the columns.
+     */
+    private final class DynamicColumnarDataInstance implements DynamicDataInstance, Serializable {
+
+        /** Represents the serial version ID for serializing the object. */
+        private static final long serialVersionUID = 4107783324901370839L;
+
+        /** Represents the position of the data instance. */
+        private final int row;
+
+        DynamicColumnarDataInstance(int row) {
+            this.row = row;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getSequenceID() {
+            return (long) data.getValue(row, sequenceColumn);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long getTimeID() {
+            return (long) data.getValue(row, timeColumn);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Attributes getAttributes() {
+            return data.getAttributes();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getValue(Attribute att, boolean present) {
+            int column = data.getColumnIndex(att);
+            if (column == -1)
+                return Utils.missingValue();
+            if (present || att.isSpecialAttribute())
+                return data.getValue(row, column);
+            return hasPast(row) ? data.getValue(row - 1, column) : Utils.missingValue();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValue(Attribute att, double val, boolean present) {
+            int column = data.getColumnIndex(att);
+            if (column == -1 || att.isSpecialAttribute())
+                return;
+            if (present)
+                data.setValue(row, column, val);
+            else if (hasPast(row))
+                data.setValue(row - 1, column, val);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getValue(Variable var) {
+            if (var.isInterfaceVariable()) {
+                int column = data.getColumnIndex(dynamicVariables.getVariableFromInterface(var));
+                return (column == -1 || !hasPast(row)) ? Utils.missingValue() : data.getValue(row - 1, column);
+            } else {
+                int column = data.getColumnIndex(var);
+                return (column == -1) ? Utils.missingValue() : data.getValue(row, column);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValue(Variable var, double val) {
+            if (var.isInterfaceVariable()) {
+                int column = data.getColumnIndex(dynamicVariables.getVariableFromInterface(var));
+                if (column != -1 && hasPast(row))
+                    data.setValue(row - 1, column, val);
+            } else {
+                int column = data.getColumnIndex(var);
+                if (column != -1)
+                    data.setValue(row, column, val);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double[] toArray() {
+            double[] values = new double[data.getNumberOfColumns()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = data.getValue(row, i);
+            }
+            return values;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return this.outputString();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.datastream;
+
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataOnMemoryListContainer;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.utils.FixedBatchParallelSpliteratorWrapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.util.stream.StreamSupport.stream;
+
+/**
+ * The SequenceAwareSpliterator class implements a {@link Spliterator} of {@link DynamicDataInstance} objects which
+ * is only split at the boundaries between sequences, so that each split contains whole sequences.
+ *
+ * <p> The underlying data, e.g. a file, is read sequentially by the thread invoking {@link #trySplit()}, so the
+ * past {@link eu.amidst.core.datastream.filereaders.DataRow} of each instance is still set by the
+ * {@link eu.amidst.dynamic.datastream.filereaders.NextDynamicDataInstance} reading it. Then, the splits are processed
+ * by the fork-join workers. A split contains at least {@code batchSize} instances, unless the data ends, and it is
+ * extended up to the end of the last sequence, so a sequence is never processed by two different threads. </p>
+ *
+ * <p> For further details about the splitting of streams into batches, look at
+ * {@link FixedBatchParallelSpliteratorWrapper}. </p>
+ */
+public class SequenceAwareSpliterator implements Spliterator<DynamicDataInstance> {
+
+    /** Represents the wrapped Spliterator of DynamicDataInstance objects. */
+    private final Spliterator<DynamicDataInstance> spliterator;
+
+    /** Represents the minimum number of instances of each split. */
+    private final int batchSize;
+
+    /** Represents the characteristics. */
+    private final int characteristics;
+
+    /** Represents the estimated size. */
+    private long est;
+
+    /** Represents the first instance of the next sequence, which was read when looking for the end of a sequence. */
+    private DynamicDataInstance nextInstance = null;
+
+    /**
+     * Creates a new SequenceAwareSpliterator.
+     * @param toWrap a sequential {@link Spliterator} of {@link DynamicDataInstance} objects, sorted by sequence.
+     * @param batchSize the minimum number of instances of each split.
+     */
+    public SequenceAwareSpliterator(Spliterator<DynamicDataInstance> toWrap, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("The batch size must be positive.");
+        this.spliterator = toWrap;
+        this.batchSize = batchSize;
+        final int c = toWrap.characteristics();
+        this.characteristics = ((c & SIZED) != 0 ? c | SUBSIZED : c) | ORDERED;
+        this.est = toWrap.estimateSize();
+    }
+
+    /**
+     * Returns a parallel {@link Stream} of {@link DynamicDataInstance} objects, where each thread processes whole
+     * sequences.
+     * @param dataStream a {@link DataStream} object.
+     * @param batchSize the minimum number of instances processed by a thread at once.
+     * @return a parallel Stream object.
+     */
+    public static Stream<DynamicDataInstance> toParallelStream(DataStream<DynamicDataInstance> dataStream, int batchSize) {
+        return stream(new SequenceAwareSpliterator(dataStream.stream().spliterator(), batchSize), true);
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of {@link DataOnMemory} objects, where each batch contains whole sequences.
+     * @param dataStream a {@link DataStream} object.
+     * @param batchSize the minimum size of the batches.
+     * @return a sequential Stream object.
+     */
+    public static Stream<DataOnMemory<DynamicDataInstance>> toStreamOfBatches(DataStream<DynamicDataInstance> dataStream, int batchSize) {
+        SequenceAwareSpliterator spliterator = new SequenceAwareSpliterator(dataStream.stream().spliterator(), batchSize);
+        Spliterator<DataOnMemory<DynamicDataInstance>> batches = new Spliterators.AbstractSpliterator<DataOnMemory<DynamicDataInstance>>(Long.MAX_VALUE, ORDERED | NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super DataOnMemory<DynamicDataInstance>> action) {
+                List<DynamicDataInstance> batch = spliterator.nextBatch();
+                if (batch.isEmpty())
+                    return false;
+                action.accept(new DataOnMemoryListContainer<>(dataStream.getAttributes(), batch));
+                return true;
+            }
+        };
+        return stream(batches, false);
+    }
+
+    /**
+     * Returns a parallel {@link Stream} of {@link DataOnMemory} objects, where each batch contains whole sequences.
+     * @param dataStream a {@link DataStream} object.
+     * @param batchSize the minimum size of the batches.
+     * @return a parallel Stream object.
+     */
+    public static Stream<DataOnMemory<DynamicDataInstance>> toParallelStreamOfBatches(DataStream<DynamicDataInstance> dataStream, int batchSize) {
+        return FixedBatchParallelSpliteratorWrapper.toFixedBatchStream(toStreamOfBatches(dataStream, batchSize), 1);
+    }
+
+    /**
+     * Reads the next batch of whole sequences.
+     * @return a list with at least {@code batchSize} instances, unless the data ends, or an empty list.
+     */
+    private List<DynamicDataInstance> nextBatch() {
+        final HoldingConsumer<DynamicDataInstance> holder = new HoldingConsumer<>();
+        List<DynamicDataInstance> batch = new ArrayList<>(this.batchSize);
+
+        if (this.nextInstance != null) {
+            batch.add(this.nextInstance);
+            this.nextInstance = null;
+        } else if (this.spliterator.tryAdvance(holder)) {
+            batch.add(holder.value);
+        } else {
+            return batch;
+        }
+
+        while (this.spliterator.tryAdvance(holder)) {
+            DynamicDataInstance last = batch.get(batch.size() - 1);
+            if (batch.size() >= this.batchSize && holder.value.getSequenceID() != last.getSequenceID()) {
+                this.nextInstance = holder.value;
+                break;
+            }
+            batch.add(holder.value);
+        }
+
+        if (this.est != Long.MAX_VALUE) this.est = Math.max(0, this.est - batch.size());
+        return batch;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<DynamicDataInstance> trySplit() {
+        List<DynamicDataInstance> batch = this.nextBatch();
+        if (batch.isEmpty())
+            return null;
+        return Spliterators.spliterator(batch, characteristics());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super DynamicDataInstance> action) {
+        if (this.nextInstance != null) {
+            DynamicDataInstance instance = this.nextInstance;
+            this.nextInstance = null;
+            action.accept(instance);
+            return true;
+        }
+        return this.spliterator.tryAdvance(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super DynamicDataInstance> action) {
+        if (this.nextInstance != null) {
+            DynamicDataInstance instance = this.nextInstance;
+            this.nextInstance = null;
+            action.accept(instance);
+        }
+        this.spliterator.forEachRemaining(action);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Comparator<? super DynamicDataInstance> getComparator() {
+        if (hasCharacteristics(SORTED)) return null;
+        throw new IllegalStateException();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize() { return est; }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics() { return characteristics; }
+
+    static final class HoldingConsumer<T> implements Consumer<T> {
+        T value;
+        @Override public void accept(T value) { this.value = value; }
+    }
+}
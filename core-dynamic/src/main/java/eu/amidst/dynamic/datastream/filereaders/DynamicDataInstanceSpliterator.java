@@ -116,19 +116,12 @@ public class DynamicDataInstanceSpliterator implements Spliterator<DynamicDataIn
 
     /**
      * {@inheritDoc}
+     * The file is read sequentially, as each instance depends on the {@link DataRow} of the previous one, so this
+     * spliterator is never split. Use {@link eu.amidst.dynamic.datastream.SequenceAwareSpliterator} to process the
+     * instances in parallel, splitting them at the boundaries between sequences.
      */
     @Override public Spliterator<DynamicDataInstance> trySplit() {
-        //this.reader.spliterator().trySplit()
         return null;
-        /*
-        final HoldingConsumer<DataRow> holder = new HoldingConsumer<>();
-        if (!spliterator.tryAdvance(holder)) return null;
-        final Object[] a = new Object[windowsSize];
-        int j = 0;
-        do a[j] = holder.value; while (++j < windowsSize && tryAdvance(holder));
-        if (est != Long.MAX_VALUE) est -= j;
-        return spliterator(a, 0, j, characteristics());
-        */
     }
 
     /**
@@ -24,7 +24,6 @@ import eu.amidst.core.inference.messagepassing.VMP;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
 import eu.amidst.core.utils.MultinomialIndex;
-import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.variables.*;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.dynamic.models.DynamicDAG;
@@ -775,7 +774,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
 
         MAPestimate = new HashMapAssignment(nTimeSteps);
         IntStream.range(0,nTimeSteps).forEach(t-> {
-            Variables variables = Serialization.deepCopy(this.unfoldedStaticModel.getVariables());
+            Variables variables = this.unfoldedStaticModel.getVariables().copy();
             Variable currentVar;
             if (variables.getVariableByName(MAPvarName + "_t" + Integer.toString(t))!=null) {
                 currentVar  = variables.getVariableByName(MAPvarName + "_t" + Integer.toString(t));
@@ -1785,8 +1784,8 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
         staticVar = variables.getVariableByName(groupedClassName + "_t0");
         dynVar = model.getDynamicVariables().getVariableByName(MAPvarName);
 
-        conDist0 = Serialization.deepCopy(model.getConditionalDistributionsTime0().get(dynVar.getVarID()));
-        conDistT = Serialization.deepCopy(model.getConditionalDistributionsTimeT().get(dynVar.getVarID()));
+        conDist0 = model.getConditionalDistributionsTime0().get(dynVar.getVarID()).copy();
+        conDistT = model.getConditionalDistributionsTimeT().get(dynVar.getVarID()).copy();
 
         Multinomial multinomial = groupedDistributionMAPVariableTime0(dynVar, staticVar, conDist0, conDistT, modelNumber);
 
@@ -1804,7 +1803,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
             Variable staticVar_current = variables.getVariableByName(groupedClassName + "_t1");
             Variable staticVar_interface = variables.getVariableByName(groupedClassName + "_t0");
             List<Variable> parents = bn.getDAG().getParentSet(staticVar_current).getParents();
-            ConditionalDistribution conDist_dynamic = Serialization.deepCopy(conDistT);
+            ConditionalDistribution conDist_dynamic = conDistT.copy();
 
             generalConditionalDistTimeT = groupedDistributionMAPVariableTimeT(dynVar, staticVar_current, staticVar_interface.getNumberOfStates(), parents, conDist_dynamic, modelNumber);
 
@@ -1813,7 +1812,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
             Variable staticVar_current = variables.getVariableByName(groupedClassName + "_t2");
             Variable staticVar_interface = variables.getVariableByName(groupedClassName + "_t1");
             List<Variable> parents = bn.getDAG().getParentSet(staticVar_current).getParents();
-            ConditionalDistribution conDist_dynamic = Serialization.deepCopy(conDistT);
+            ConditionalDistribution conDist_dynamic = conDistT.copy();
 
             generalConditionalDistTimeT = groupedDistributionMAPVariableTimeT(dynVar, staticVar_current, staticVar_interface.getNumberOfStates(), parents, conDist_dynamic, modelNumber);
 
@@ -1831,7 +1830,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
             Variable staticVar0 = variables.getVariableByName(groupedClassName + "_t1");
             Variable staticVar0_interface = variables.getVariableByName(groupedClassName + "_t0");
             List<Variable> parents = bn.getDAG().getParentSet(staticVar0).getParents();
-            ConditionalDistribution conDist_dynamic = Serialization.deepCopy(model.getConditionalDistributionsTimeT().get(dynVar.getVarID()));
+            ConditionalDistribution conDist_dynamic = model.getConditionalDistributionsTimeT().get(dynVar.getVarID()).copy();
             ConditionalDistribution conditionalDistTime1 = groupedDistributionMAPVariableTimeT(dynVar, staticVar0, staticVar0_interface.getNumberOfStates(), parents, conDist_dynamic, modelNumber);
             conditionalDistTime1.setVar(staticVar0);
             bn.setConditionalDistribution(staticVar0, conditionalDistTime1);
@@ -1848,7 +1847,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
 
         IntStream.range(initialTimeStep, finalTimeStep).forEach(timeStep -> {
             Variable staticVar1 = variables.getVariableByName(groupedClassName + "_t" + Integer.toString(timeStep));
-            ConditionalDistribution conditionalDistribution = Serialization.deepCopy(generalConditionalDistTimeT);
+            ConditionalDistribution conditionalDistribution = generalConditionalDistTimeT.copy();
             conditionalDistribution.setConditioningVariables(dag.getParentSet(staticVar1).getParents());
             conditionalDistribution.setVar(staticVar1);
             bn.setConditionalDistribution(staticVar1, conditionalDistribution);
@@ -1877,7 +1876,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
 
 
 //        dynVariablesWithClassParent.stream().forEach(dynVariable -> {
-//            ConditionalDistribution conditionalDistribution = Serialization.deepCopy(model.getConditionalDistributionTime0(dynVariable));
+//            ConditionalDistribution conditionalDistribution = model.getConditionalDistributionTime0(dynVariable).copy();
 //
 //            Variable staticMAPVar1 = variables.getVariableByName(groupedClassName + "_t0");
 //            Variable staticVar1 = variables.getVariableByName(dynVariable.getName() + "_t0");
@@ -1908,12 +1907,12 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
             IntStream.range(0, nTimeSteps).forEachOrdered(timeStep -> {
 
                 ConditionalDistribution dynamicConDist;
-                dynamicConDist = Serialization.deepCopy( timeStep==0 ? model.getConditionalDistributionTime0(dynVariable) : model.getConditionalDistributionTimeT(dynVariable) );
+                dynamicConDist = (timeStep==0 ? model.getConditionalDistributionTime0(dynVariable) : model.getConditionalDistributionTimeT(dynVariable)).copy();
 //                )if(timeStep==0) {
-//                     = Serialization.deepCopy(model.getConditionalDistributionTime0(dynVariable));
+//                     = model.getConditionalDistributionTime0(dynVariable).copy();
 //                }
 //                else {
-//                    dynamicConDist = Serialization.deepCopy(model.getConditionalDistributionTimeT(dynVariable));
+//                    dynamicConDist = model.getConditionalDistributionTimeT(dynVariable).copy();
 //                }
                 Variable staticVar2 = variables.getVariableByName(dynVariable.getName() + "_t" + Integer.toString(timeStep));
                 List<Variable> parentList = bn.getDAG().getParentSet(staticVar2).getParents();
@@ -1930,7 +1929,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
         dynVariablesNoClassParent.stream().forEach(dynVariable -> {
 
             // TIME T=0
-            ConditionalDistribution conditionalDistribution = Serialization.deepCopy(model.getConditionalDistributionTime0(dynVariable));
+            ConditionalDistribution conditionalDistribution = model.getConditionalDistributionTime0(dynVariable).copy();
             Variable staticVar1 = variables.getVariableByName(dynVariable.getName() + "_t0");
             List<Variable> thisVarParents = conditionalDistribution.getConditioningVariables();
             thisVarParents = thisVarParents.stream().map(parent -> variables.getVariableByName(parent.getName() + "_t0")).collect(Collectors.toList());
@@ -1941,7 +1940,7 @@ public class DynamicMAPInference implements InferenceAlgorithmForDBN {
 
             // TIMES T>0
             IntStream.range(1, nTimeSteps).forEach(i -> {
-                ConditionalDistribution conditionalDistribution1 = Serialization.deepCopy(model.getConditionalDistributionTimeT(dynVariable));
+                ConditionalDistribution conditionalDistribution1 = model.getConditionalDistributionTimeT(dynVariable).copy();
                 Variable staticVar2 = variables.getVariableByName(dynVariable.getName() + "_t" + Integer.toString(i));
                 List<Variable> thisVarParents1 = conditionalDistribution1.getConditioningVariables();
                 thisVarParents1 = thisVarParents1.stream().map(parent -> {
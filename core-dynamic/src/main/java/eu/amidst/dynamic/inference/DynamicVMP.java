@@ -25,6 +25,7 @@ import eu.amidst.core.inference.messagepassing.VMP;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.datastream.SequenceAwareSpliterator;
 import eu.amidst.dynamic.exponentialfamily.EF_DynamicBayesianNetwork;
 import eu.amidst.dynamic.learning.parametric.DynamicNaiveBayesClassifier;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
@@ -37,6 +38,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -64,9 +66,15 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
     /** Represents a {@link VMP} object for time 0. */
     VMP vmpTime0;
 
-    /** Represents a {@link VMP} object for time 0. */
+    /** Represents a {@link VMP} object for time T. */
     VMP vmpTimeT;
 
+    /** Represents a {@link VMP} object for time T, used as scratch space by {@link #getPredictivePosteriors(List, int)}. */
+    VMP vmpPrediction;
+
+    /** Represents the seed. */
+    int seed;
+
     /** Represents the time ID. */
     long timeID;
 
@@ -81,6 +89,7 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
         this.vmpTimeT = new VMP();
         this.setSeed(0);
         this.timeID=-1;
+        this.sequenceID=-1;
     }
 
     /**
@@ -88,8 +97,11 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
      * @param seed an {@code int} that represents the seed value to be set.
      */
     public void setSeed(int seed) {
+        this.seed = seed;
         this.vmpTime0.setSeed(seed);
         this.vmpTimeT.setSeed(seed);
+        if (this.vmpPrediction != null)
+            this.vmpPrediction.setSeed(seed);
     }
 
     /**
@@ -102,12 +114,35 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
 
         this.vmpTime0.setEFModel(ef_model.getBayesianNetworkTime0());
 
-        nodesTimeT = this.ef_model.getBayesianNetworkTimeT().getDistributionList()
+        nodesTimeT = this.newNodesTimeT();
+        nodesClone = this.newNodesClone();
+
+        List<Node> allNodes = new ArrayList();
+        allNodes.addAll(nodesTimeT);
+        allNodes.addAll(nodesClone);
+        this.vmpTimeT.setNodes(allNodes);
+        this.vmpTimeT.updateChildrenAndParents();
+
+        this.vmpPrediction = null;
+    }
+
+    /**
+     * Creates a new list of {@link Node}s for the variables at time T.
+     * @return a list of {@link Node} objects.
+     */
+    private List<Node> newNodesTimeT() {
+        return this.ef_model.getBayesianNetworkTimeT().getDistributionList()
                 .stream()
                 .map(dist ->  new Node(dist))
                 .collect(Collectors.toList());
+    }
 
-        nodesClone = this.ef_model.getBayesianNetworkTime0().getDistributionList()
+    /**
+     * Creates a new list of clone {@link Node}s for the interface variables.
+     * @return a list of {@link Node} objects.
+     */
+    private List<Node> newNodesClone() {
+        return this.ef_model.getBayesianNetworkTime0().getDistributionList()
                 .stream()
                 .map(dist -> {
                     Variable temporalClone = this.model.getDynamicVariables().getInterfaceVariable(dist.getVariable());
@@ -117,13 +152,25 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
                     return node;
                 })
                 .collect(Collectors.toList());
+    }
 
-        List<Node> allNodes = new ArrayList();
-        allNodes.addAll(nodesTimeT);
-        allNodes.addAll(nodesClone);
-        this.vmpTimeT.setNodes(allNodes);
-        this.vmpTimeT.updateChildrenAndParents();
-
+    /**
+     * Returns the {@link VMP} object used for predictions, creating it the first time. It has its own {@link Node}s
+     * over the same model at time T, so rolling it forward never modifies the filtered state of {@link #vmpTimeT}.
+     * @return a {@link VMP} object.
+     */
+    private VMP getVMPPrediction() {
+        if (this.vmpPrediction == null) {
+            List<Node> allNodes = new ArrayList();
+            allNodes.addAll(this.newNodesTimeT());
+            allNodes.addAll(this.newNodesClone());
+            VMP vmp = new VMP();
+            vmp.setSeed(this.seed);
+            vmp.setNodes(allNodes);
+            vmp.updateChildrenAndParents();
+            this.vmpPrediction = vmp;
+        }
+        return this.vmpPrediction;
     }
 
     /**
@@ -209,6 +256,97 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p> The window is rolled only once, on a separate set of nodes which is initialized from the current
+     * filtered state, so the filtered posteriors are left untouched. When no evidence has been processed yet,
+     * the horizon 1 refers to the time step 0. </p>
+     */
+    @Override
+    public List<List<UnivariateDistribution>> getPredictivePosteriors(List<Variable> vars, int maxHorizon) {
+        List<List<UnivariateDistribution>> predictions = new ArrayList<>(maxHorizon);
+        if (maxHorizon < 1)
+            return predictions;
+
+        VMP vmp = this.getVMPPrediction();
+        DynamicAssignment lastAssignment;
+        int nsteps;
+
+        if (this.timeID==-1) {
+            this.vmpTime0.setEvidence(null);
+            this.vmpTime0.runInference();
+            predictions.add(vars.stream().map(var -> (UnivariateDistribution) this.vmpTime0.getPosterior(var)).collect(Collectors.toList()));
+            this.vmpTime0.getNodes().forEach(node -> {
+                Variable temporalClone = this.model.getDynamicVariables().getInterfaceVariable(node.getMainVariable());
+                moveNodeQDist(vmp.getNodeOfVar(temporalClone), node);
+            });
+            this.vmpTime0.resetQs();
+            lastAssignment = null;
+            nsteps = maxHorizon - 1;
+        } else {
+            //Clone nodes hold the filtered state, which is copied as the starting point of the prediction.
+            //Clone nodes of observed variables have no posterior, their evidence is moved in the first step.
+            this.nodesClone.stream()
+                    .filter(node -> node.getQDist()!=null)
+                    .forEach(node -> moveNodeQDist(vmp.getNodeOfVar(node.getMainVariable()), node));
+            lastAssignment = this.assignment;
+            nsteps = maxHorizon;
+        }
+
+        //Start from the current posteriors at time T, as getPredictivePosterior does.
+        this.nodesTimeT.stream()
+                .filter(node -> node.getQDist()!=null)
+                .forEach(node -> vmp.getNodeOfVar(node.getMainVariable()).setQDist(node.getQDist().deepCopy()));
+
+        this.moveWindow(vmp, lastAssignment, nsteps,
+                step -> predictions.add(vars.stream().map(var -> (UnivariateDistribution) vmp.getPosterior(var)).collect(Collectors.toList())));
+
+        return predictions;
+    }
+
+    /**
+     * Returns the filtered posterior of a given variable at the last time step of each sequence of a data stream.
+     * The batches of whole sequences given by {@link SequenceAwareSpliterator} are filtered in parallel, each thread
+     * using its own copy of this DynamicVMP with the same model and seed. The state of this object is not modified.
+     * @param dataStream a {@link DataStream} of {@link DynamicDataInstance} objects, sorted by sequence.
+     * @param var a {@link Variable} object.
+     * @param batchSize the minimum number of instances filtered by a thread at once.
+     * @param <E> a class extending {@link UnivariateDistribution}.
+     * @return a list with the filtered posteriors, in the order of the sequences in the data stream.
+     */
+    public <E extends UnivariateDistribution> List<E> getLastFilteredPosteriors(DataStream<DynamicDataInstance> dataStream, Variable var, int batchSize) {
+        final DynamicBayesianNetwork dbn = this.model;
+        final int vmpSeed = this.seed;
+        ThreadLocal<DynamicVMP> threadVMP = ThreadLocal.withInitial(() -> {
+            DynamicVMP vmp = new DynamicVMP();
+            vmp.setSeed(vmpSeed);
+            vmp.setModel(dbn);
+            return vmp;
+        });
+
+        return SequenceAwareSpliterator.toParallelStreamOfBatches(dataStream, batchSize)
+                .flatMap(batch -> {
+                    DynamicVMP vmp = threadVMP.get();
+                    List<E> posteriors = new ArrayList<>();
+                    DynamicDataInstance last = null;
+                    vmp.reset();
+                    for (DynamicDataInstance dataInstance : batch) {
+                        if (last != null && last.getSequenceID() != dataInstance.getSequenceID()) {
+                            posteriors.add(vmp.getFilteredPosterior(var));
+                            vmp.reset();
+                        }
+                        vmp.addDynamicEvidence(dataInstance);
+                        vmp.runInference();
+                        last = dataInstance;
+                    }
+                    if (last != null)
+                        posteriors.add(vmp.getFilteredPosterior(var));
+                    return posteriors.stream();
+                })
+                .collect(Collectors.toList());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -278,28 +416,40 @@ public class DynamicVMP implements InferenceAlgorithmForDBN {
      * @param nsteps an {@link int} that represents a given number of time steps.
      */
     private void moveWindow(int nsteps){
+        this.moveWindow(this.vmpTimeT, this.assignment, nsteps, step -> {});
+    }
+
+    /**
+     * Moves the window of a given {@link VMP} object at time T ahead for a given number of time steps.
+     * @param vmp a {@link VMP} object over the variables at time T and their interface variables.
+     * @param lastAssignment the last observed {@link DynamicAssignment}, moved to the interface variables in the first step.
+     * @param nsteps an {@link int} that represents a given number of time steps.
+     * @param afterStep an {@code IntConsumer} called with the number of steps moved so far, after each step.
+     */
+    private void moveWindow(VMP vmp, DynamicAssignment lastAssignment, int nsteps, IntConsumer afterStep){
         //The first step we need to manually move the evidence from master to clone variables.
         HashMapDynamicAssignment newassignment = null;
 
-        if (this.assignment!=null) {
+        if (lastAssignment!=null) {
             newassignment=new HashMapDynamicAssignment(this.model.getNumberOfDynamicVars());
             for (Variable var : this.model.getDynamicVariables()) {
-                newassignment.setValue(this.model.getDynamicVariables().getInterfaceVariable(var), this.assignment.getValue(var));
+                newassignment.setValue(this.model.getDynamicVariables().getInterfaceVariable(var), lastAssignment.getValue(var));
                 newassignment.setValue(var, Utils.missingValue());
             }
         }
 
         for (int i = 0; i < nsteps; i++) {
-            this.vmpTimeT.setEvidence(newassignment);
-            this.vmpTimeT.runInference();
-            this.vmpTimeT.getNodes().stream()
+            vmp.setEvidence(newassignment);
+            vmp.runInference();
+            vmp.getNodes().stream()
                     .filter(node -> !node.getMainVariable().isInterfaceVariable())
                     .filter(node -> !node.isObserved())
                     .forEach(node -> {
                         Variable temporalClone = this.model.getDynamicVariables().getInterfaceVariable(node.getMainVariable());
-                        moveNodeQDist(this.vmpTimeT.getNodeOfVar(temporalClone), node);
+                        moveNodeQDist(vmp.getNodeOfVar(temporalClone), node);
                     });
             newassignment=null;
+            afterStep.accept(i + 1);
         }
     }
 
@@ -0,0 +1,730 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.inference;
+
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DataSequence;
+import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.models.DynamicDAG;
+import eu.amidst.dynamic.variables.DynamicAssignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class implements the interface {@link InferenceAlgorithmForDBN}.
+ * It runs exact inference on {@link DynamicBayesianNetwork} models with a single discrete hidden chain, such as
+ * hidden Markov models, auto-regressive HMMs and input-output HMMs.
+ *
+ * <p> The model must have a single non-observed multinomial variable, whose parents at time T are its interface
+ * variable and observed variables, and no other variable may have the interface variable of the chain as a parent.
+ * For each sequence, the log-probabilities of the transitions and the observations are computed once, and then
+ * filtering and smoothing are run with the scaled forward-backward algorithm, and decoding with the Viterbi algorithm
+ * in log-space, in O(T K^2) time for K hidden states. </p>
+ *
+ * <p> Evidence can be given one time step at a time through {@link #addDynamicEvidence(DynamicAssignment)}, as for the
+ * other inference algorithms for DBNs, or as whole {@link DataSequence} objects, which are processed in parallel. An
+ * observed variable may only be missing if no other variable depends on it. </p>
+ */
+public class ForwardBackwardForDBN implements InferenceAlgorithmForDBN {
+
+    /** Represents the {@link DynamicBayesianNetwork} model. */
+    private DynamicBayesianNetwork model;
+
+    /** Represents the hidden chain variable. */
+    private Variable hiddenVar;
+
+    /** Represents the interface variable of the hidden chain variable. */
+    private Variable hiddenInterfaceVar;
+
+    /** Represents the number of states of the hidden chain variable. */
+    private int nStates;
+
+    /** Represents the observed variables. */
+    private List<Variable> observedVars;
+
+    /** Represents, for each observed variable, whether it is a leaf, so it can be missing. */
+    private boolean[] isLeaf;
+
+    /** Represents whether some variable depends on the interface variables of the observed variables. */
+    private boolean usesObservedInterfaces;
+
+    /** Represents the log-transition probabilities, or {@code null} if they depend on observed inputs. */
+    private double[] logTransition;
+
+    /** Represents the last evidence. */
+    private DynamicAssignment assignment;
+
+    /** Represents the evidence before the last one. */
+    private DynamicAssignment previousAssignment;
+
+    /** Represents the filtered posterior of the hidden chain variable. */
+    private double[] filtered;
+
+    /** Represents the time ID of the filtered posterior. */
+    private long timeID = -1;
+
+    /** Represents the sequence ID. */
+    private long sequenceID = -1;
+
+    /**
+     * Sets the hidden chain variable. By default, it is the only dynamic variable without an attribute.
+     * It has to be set before the model when the hidden variable has an attribute, e.g. a class variable.
+     * @param hiddenVar a multinomial {@link Variable} object.
+     */
+    public void setHiddenVar(Variable hiddenVar) {
+        this.hiddenVar = hiddenVar;
+        if (this.model != null)
+            this.setModel(this.model);
+    }
+
+    /**
+     * Returns the hidden chain variable.
+     * @return a {@link Variable} object.
+     */
+    public Variable getHiddenVar() {
+        return hiddenVar;
+    }
+
+    /**
+     * Tests whether a model has a single discrete hidden chain, as required by this algorithm.
+     * @param model a {@link DynamicBayesianNetwork} model.
+     * @param hiddenVar the hidden chain variable.
+     * @return {@code true} if exact inference can be run with this algorithm, {@code false} otherwise.
+     */
+    public static boolean isSingleDiscreteChain(DynamicBayesianNetwork model, Variable hiddenVar) {
+        if (hiddenVar == null || !hiddenVar.isMultinomial())
+            return false;
+
+        DynamicDAG dag = model.getDynamicDAG();
+        Variable hiddenInterfaceVar = model.getDynamicVariables().getInterfaceVariable(hiddenVar);
+        for (Variable var : model.getDynamicVariables()) {
+            boolean hasHiddenInterfaceParent = dag.getParentSetTimeT(var).contains(hiddenInterfaceVar);
+            if (var.equals(hiddenVar) != hasHiddenInterfaceParent)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws UnsupportedOperationException if the model has not a single discrete hidden chain.
+     */
+    @Override
+    public void setModel(DynamicBayesianNetwork model_) {
+        this.model = model_;
+
+        if (this.hiddenVar == null || !model.getDynamicVariables().getListOfDynamicVariables().contains(this.hiddenVar)) {
+            List<Variable> hiddenVars = model.getDynamicVariables().getListOfDynamicVariables().stream()
+                    .filter(var -> !var.isObservable())
+                    .collect(Collectors.toList());
+            this.hiddenVar = hiddenVars.size() == 1 ? hiddenVars.get(0) : null;
+        }
+
+        if (!isSingleDiscreteChain(model, this.hiddenVar))
+            throw new UnsupportedOperationException("The model has not a single discrete hidden chain.");
+
+        this.hiddenInterfaceVar = model.getDynamicVariables().getInterfaceVariable(this.hiddenVar);
+        this.nStates = this.hiddenVar.getNumberOfStates();
+        this.observedVars = model.getDynamicVariables().getListOfDynamicVariables().stream()
+                .filter(var -> !var.equals(this.hiddenVar))
+                .collect(Collectors.toList());
+
+        DynamicDAG dag = model.getDynamicDAG();
+        this.isLeaf = new boolean[this.observedVars.size()];
+        for (int i = 0; i < this.isLeaf.length; i++) {
+            Variable var = this.observedVars.get(i);
+            Variable interfaceVar = model.getDynamicVariables().getInterfaceVariable(var);
+            this.isLeaf[i] = model.getDynamicVariables().getListOfDynamicVariables().stream()
+                    .noneMatch(child -> dag.getParentSetTimeT(child).contains(var)
+                            || dag.getParentSetTimeT(child).contains(interfaceVar)
+                            || dag.getParentSetTime0(child).contains(var));
+        }
+
+        this.usesObservedInterfaces = this.observedVars.stream()
+                .map(var -> model.getDynamicVariables().getInterfaceVariable(var))
+                .anyMatch(interfaceVar -> model.getDynamicVariables().getListOfDynamicVariables().stream()
+                        .anyMatch(child -> dag.getParentSetTimeT(child).contains(interfaceVar)));
+
+        boolean hasInputs = dag.getParentSetTimeT(this.hiddenVar).getNumberOfParents() > 1;
+        this.logTransition = hasInputs ? null : this.computeLogTransition(new ChainAssignment(null, null));
+
+        this.reset();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DynamicBayesianNetwork getOriginalModel() {
+        return this.model;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addDynamicEvidence(DynamicAssignment assignment_) {
+        if (this.sequenceID != -1 && this.sequenceID != assignment_.getSequenceID())
+            throw new IllegalArgumentException("The sequence ID does not match. If you want to change the sequence, invoke reset method");
+
+        if (this.timeID >= assignment_.getTimeID())
+            throw new IllegalArgumentException("The provided assignment is not posterior to the previous provided assignment.");
+
+        this.previousAssignment = this.assignment;
+        this.assignment = assignment_;
+        this.sequenceID = assignment_.getSequenceID();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if the evidence does not follow the previous one, or does not start at time 0,
+     * and the model depends on the observed variables of the previous time step.
+     */
+    @Override
+    public void runInference() {
+        if (this.assignment == null || this.assignment.getTimeID() == this.timeID)
+            return;
+
+        //The previous evidence is only used for the interface variables of consecutive time steps.
+        DynamicAssignment previous = (this.assignment.getTimeID() == this.timeID + 1) ? this.previousAssignment : null;
+        if (previous == null && this.assignment.getTimeID() > 0 && this.usesObservedInterfaces)
+            throw new IllegalArgumentException("The evidence at time " + this.assignment.getTimeID()
+                    + " does not follow the previous one, but the model depends on the observed variables of the previous time step.");
+
+        ChainAssignment chainAssignment = new ChainAssignment(this.assignment, previous);
+
+        double[] logEmission = this.computeLogEmission(chainAssignment, this.timeID == -1 && this.assignment.getTimeID() == 0);
+        if (this.timeID == -1 && this.assignment.getTimeID() == 0) {
+            this.filtered = this.computeLogPrior(chainAssignment);
+        } else {
+            double[] predictive = (this.timeID == -1) ? this.predictFromPrior() : this.filtered;
+            long steps = this.assignment.getTimeID() - Math.max(this.timeID, 0);
+            for (long i = 1; i < steps; i++) {
+                predictive = this.forwardStep(predictive, this.getUnconditionalLogTransition());
+            }
+            double[] logTransition = (this.logTransition != null) ? this.logTransition : this.computeLogTransition(chainAssignment);
+            this.filtered = this.logOf(this.forwardStep(predictive, logTransition));
+        }
+
+        for (int k = 0; k < this.nStates; k++) {
+            this.filtered[k] += logEmission[k];
+        }
+        this.filtered = Utils.logs2probs(this.filtered);
+        this.timeID = this.assignment.getTimeID();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        this.assignment = null;
+        this.previousAssignment = null;
+        this.filtered = null;
+        this.timeID = -1;
+        this.sequenceID = -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends UnivariateDistribution> E getFilteredPosterior(Variable var) {
+        this.checkHiddenVar(var);
+        return (E) this.toMultinomial(this.filtered == null ? this.predictFromPrior() : this.filtered);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends UnivariateDistribution> E getPredictivePosterior(Variable var, int nTimesAhead) {
+        this.checkHiddenVar(var);
+        double[] predictive;
+        int steps = nTimesAhead;
+        if (this.filtered == null) {
+            predictive = this.predictFromPrior();
+            steps--;
+        } else {
+            predictive = this.filtered;
+        }
+        for (int i = 0; i < steps; i++) {
+            predictive = this.forwardStep(predictive, this.getUnconditionalLogTransition());
+        }
+        return (E) this.toMultinomial(predictive);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimeIDOfLastEvidence() {
+        return this.assignment == null ? -1 : this.assignment.getTimeID();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimeIDOfPosterior() {
+        return this.timeID;
+    }
+
+    /**
+     * Returns the smoothed posteriors of the hidden chain variable for each time step of a sequence.
+     * @param sequence a {@link DataSequence} object.
+     * @return an array with the posterior probabilities of the hidden states for each time step.
+     */
+    public double[][] getSmoothedPosteriors(DataSequence sequence) {
+        return this.smooth(this.computeLogTables(this.toList(sequence)));
+    }
+
+    /**
+     * Returns the smoothed posteriors of the hidden chain variable for a list of sequences, processed in parallel.
+     * @param sequences a {@code List} of {@link DataSequence} objects.
+     * @return a {@code List} with the smoothed posteriors of each sequence, in the same order.
+     */
+    public List<double[][]> getSmoothedPosteriors(List<DataSequence> sequences) {
+        return sequences.parallelStream().map(this::getSmoothedPosteriors).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the most probable sequence of states of the hidden chain variable given a sequence of observations.
+     * @param sequence a {@link DataSequence} object.
+     * @return an array with the most probable hidden state for each time step.
+     */
+    public int[] getMostProbableSequence(DataSequence sequence) {
+        return this.viterbi(this.computeLogTables(this.toList(sequence)));
+    }
+
+    /**
+     * Returns the most probable sequences of states of the hidden chain variable for a list of sequences, processed
+     * in parallel.
+     * @param sequences a {@code List} of {@link DataSequence} objects.
+     * @return a {@code List} with the most probable hidden states of each sequence, in the same order.
+     */
+    public List<int[]> getMostProbableSequences(List<DataSequence> sequences) {
+        return sequences.parallelStream().map(this::getMostProbableSequence).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the log-probability of the observations of a sequence.
+     * @param sequence a {@link DataSequence} object.
+     * @return a {@code double} that represents the log-probability.
+     */
+    public double getLogProbabilityOfSequence(DataSequence sequence) {
+        LogTables tables = this.computeLogTables(this.toList(sequence));
+        double[][] alpha = new double[tables.logEmission.length][];
+        return this.forward(tables, alpha);
+    }
+
+    /**
+     * Collects the instances of a sequence.
+     * @param sequence a {@link DataSequence} object.
+     * @return a {@code List} of {@link DynamicDataInstance} objects.
+     */
+    private List<DynamicDataInstance> toList(DataSequence sequence) {
+        List<DynamicDataInstance> instances = new ArrayList<>();
+        sequence.forEach(instances::add);
+        return instances;
+    }
+
+    /**
+     * Computes the log-probabilities of the prior, the transitions and the observations of a sequence.
+     * @param instances the instances of the sequence, at consecutive time steps.
+     * @return a {@link LogTables} object.
+     * @throws IllegalArgumentException if the time steps of the instances are not consecutive.
+     */
+    private LogTables computeLogTables(List<DynamicDataInstance> instances) {
+        int nTimes = instances.size();
+        for (int t = 1; t < nTimes; t++) {
+            if (instances.get(t).getTimeID() != instances.get(t - 1).getTimeID() + 1)
+                throw new IllegalArgumentException("The time steps of the sequence are not consecutive: time "
+                        + instances.get(t).getTimeID() + " follows time " + instances.get(t - 1).getTimeID() + ".");
+        }
+
+        LogTables tables = new LogTables();
+        tables.logTransition = new double[nTimes][];
+        tables.logEmission = new double[nTimes][];
+
+        for (int t = 0; t < nTimes; t++) {
+            ChainAssignment chainAssignment = new ChainAssignment(instances.get(t), t == 0 ? null : instances.get(t - 1));
+            tables.logEmission[t] = this.computeLogEmission(chainAssignment, t == 0);
+            if (t == 0) {
+                tables.logPrior = this.computeLogPrior(chainAssignment);
+            } else {
+                tables.logTransition[t] = (this.logTransition != null) ? this.logTransition : this.computeLogTransition(chainAssignment);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Runs the scaled forward pass.
+     * @param tables the log-probabilities of the sequence.
+     * @param alpha the array where the normalized forward messages are stored, one per time step.
+     * @return the log-probability of the observations.
+     */
+    private double forward(LogTables tables, double[][] alpha) {
+        int nTimes = alpha.length;
+        double logLikelihood = 0;
+        for (int t = 0; t < nTimes; t++) {
+            double[] logAlpha = (t == 0) ? tables.logPrior.clone() : this.logOf(this.forwardStep(alpha[t - 1], tables.logTransition[t]));
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < this.nStates; k++) {
+                logAlpha[k] += tables.logEmission[t][k];
+                max = Math.max(max, logAlpha[k]);
+            }
+            double sum = 0;
+            alpha[t] = new double[this.nStates];
+            for (int k = 0; k < this.nStates; k++) {
+                alpha[t][k] = Math.exp(logAlpha[k] - max);
+                sum += alpha[t][k];
+            }
+            for (int k = 0; k < this.nStates; k++) {
+                alpha[t][k] /= sum;
+            }
+            logLikelihood += max + Math.log(sum);
+        }
+        return logLikelihood;
+    }
+
+    /**
+     * Runs the scaled forward-backward algorithm.
+     * @param tables the log-probabilities of the sequence.
+     * @return the smoothed posteriors, one per time step.
+     */
+    private double[][] smooth(LogTables tables) {
+        int nTimes = tables.logEmission.length;
+        double[][] alpha = new double[nTimes][];
+        this.forward(tables, alpha);
+        if (nTimes == 0)
+            return alpha;
+
+        double[] beta = new double[this.nStates];
+        Arrays.fill(beta, 1.0);
+        double[] scaled = new double[this.nStates];
+        for (int t = nTimes - 1; t >= 0; t--) {
+            double sum = 0;
+            for (int k = 0; k < this.nStates; k++) {
+                alpha[t][k] *= beta[k];
+                sum += alpha[t][k];
+            }
+            for (int k = 0; k < this.nStates; k++) {
+                alpha[t][k] /= sum;
+            }
+            if (t == 0)
+                break;
+
+            //beta_{t-1}(j) = sum_k A(j,k) e_t(k) beta_t(k), rescaled to avoid underflows.
+            double maxEmission = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < this.nStates; k++) {
+                maxEmission = Math.max(maxEmission, tables.logEmission[t][k]);
+            }
+            for (int k = 0; k < this.nStates; k++) {
+                scaled[k] = Math.exp(tables.logEmission[t][k] - maxEmission) * beta[k];
+            }
+            double[] logTransition = tables.logTransition[t];
+            double norm = 0;
+            double[] newBeta = new double[this.nStates];
+            for (int j = 0; j < this.nStates; j++) {
+                double value = 0;
+                for (int k = 0; k < this.nStates; k++) {
+                    value += Math.exp(logTransition[j * this.nStates + k]) * scaled[k];
+                }
+                newBeta[j] = value;
+                norm += value;
+            }
+            for (int j = 0; j < this.nStates; j++) {
+                newBeta[j] /= norm;
+            }
+            beta = newBeta;
+        }
+        return alpha;
+    }
+
+    /**
+     * Runs the Viterbi algorithm in log-space.
+     * @param tables the log-probabilities of the sequence.
+     * @return the most probable hidden state for each time step.
+     */
+    private int[] viterbi(LogTables tables) {
+        int nTimes = tables.logEmission.length;
+        int[] path = new int[nTimes];
+        if (nTimes == 0)
+            return path;
+
+        int[][] backPointers = new int[nTimes][this.nStates];
+        double[] delta = new double[this.nStates];
+        for (int k = 0; k < this.nStates; k++) {
+            delta[k] = tables.logPrior[k] + tables.logEmission[0][k];
+        }
+
+        double[] next = new double[this.nStates];
+        for (int t = 1; t < nTimes; t++) {
+            double[] logTransition = tables.logTransition[t];
+            for (int k = 0; k < this.nStates; k++) {
+                double best = Double.NEGATIVE_INFINITY;
+                int argBest = 0;
+                for (int j = 0; j < this.nStates; j++) {
+                    double value = delta[j] + logTransition[j * this.nStates + k];
+                    if (value > best) {
+                        best = value;
+                        argBest = j;
+                    }
+                }
+                next[k] = best + tables.logEmission[t][k];
+                backPointers[t][k] = argBest;
+            }
+            double[] tmp = delta;
+            delta = next;
+            next = tmp;
+        }
+
+        path[nTimes - 1] = Utils.maxIndex(delta);
+        for (int t = nTimes - 1; t > 0; t--) {
+            path[t - 1] = backPointers[t][path[t]];
+        }
+        return path;
+    }
+
+    /**
+     * Propagates a distribution of the hidden chain variable one time step ahead.
+     * @param probabilities the probabilities of the hidden states.
+     * @param logTransition the log-transition probabilities.
+     * @return the probabilities of the hidden states at the next time step.
+     */
+    private double[] forwardStep(double[] probabilities, double[] logTransition) {
+        double[] next = new double[this.nStates];
+        for (int j = 0; j < this.nStates; j++) {
+            if (probabilities[j] == 0)
+                continue;
+            for (int k = 0; k < this.nStates; k++) {
+                next[k] += probabilities[j] * Math.exp(logTransition[j * this.nStates + k]);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns the distribution of the hidden chain variable at time 0, without evidence.
+     * @return the probabilities of the hidden states.
+     */
+    private double[] predictFromPrior() {
+        if (this.model.getDynamicDAG().getParentSetTime0(this.hiddenVar).getNumberOfParents() > 0)
+            throw new UnsupportedOperationException("The prior of the hidden chain depends on observed inputs.");
+        return Utils.logs2probs(this.computeLogPrior(new ChainAssignment(null, null)));
+    }
+
+    /**
+     * Returns the log-transition probabilities when they do not depend on observed inputs.
+     * @return the log-transition probabilities, indexed by previous and current state.
+     */
+    private double[] getUnconditionalLogTransition() {
+        if (this.logTransition == null)
+            throw new UnsupportedOperationException("The transitions of the hidden chain depend on observed inputs.");
+        return this.logTransition;
+    }
+
+    /**
+     * Computes the log-prior probabilities of the hidden chain variable at time 0.
+     * @param chainAssignment the assignment of the time step.
+     * @return the log-probabilities of the hidden states.
+     */
+    private double[] computeLogPrior(ChainAssignment chainAssignment) {
+        ConditionalDistribution dist = this.model.getConditionalDistributionTime0(this.hiddenVar);
+        double[] logPrior = new double[this.nStates];
+        for (int k = 0; k < this.nStates; k++) {
+            chainAssignment.hiddenState = k;
+            logPrior[k] = dist.getLogConditionalProbability(chainAssignment);
+        }
+        return logPrior;
+    }
+
+    /**
+     * Computes the log-transition probabilities of the hidden chain variable.
+     * @param chainAssignment the assignment of the time step, for the observed inputs.
+     * @return the log-transition probabilities, indexed by previous and current state.
+     */
+    private double[] computeLogTransition(ChainAssignment chainAssignment) {
+        ConditionalDistribution dist = this.model.getConditionalDistributionTimeT(this.hiddenVar);
+        double[] logTransition = new double[this.nStates * this.nStates];
+        for (int j = 0; j < this.nStates; j++) {
+            chainAssignment.previousHiddenState = j;
+            for (int k = 0; k < this.nStates; k++) {
+                chainAssignment.hiddenState = k;
+                logTransition[j * this.nStates + k] = dist.getLogConditionalProbability(chainAssignment);
+            }
+        }
+        return logTransition;
+    }
+
+    /**
+     * Computes the log-probabilities of the observations of a time step for each hidden state.
+     * @param chainAssignment the assignment of the time step.
+     * @param time0 {@code true} if the distributions at time 0 are used.
+     * @return the log-probabilities, indexed by hidden state.
+     */
+    private double[] computeLogEmission(ChainAssignment chainAssignment, boolean time0) {
+        double[] logEmission = new double[this.nStates];
+
+        //The hidden variable may be observed at some time steps.
+        double hiddenValue = chainAssignment.present.getValue(this.hiddenVar);
+        if (!Utils.isMissingValue(hiddenValue)) {
+            Arrays.fill(logEmission, Double.NEGATIVE_INFINITY);
+            logEmission[(int) hiddenValue] = 0;
+        }
+
+        for (int i = 0; i < this.observedVars.size(); i++) {
+            Variable var = this.observedVars.get(i);
+            if (Utils.isMissingValue(chainAssignment.present.getValue(var))) {
+                if (!this.isLeaf[i])
+                    throw new IllegalArgumentException("The variable " + var.getName() + " can not be missing, since other variables depend on it.");
+                continue;
+            }
+            ConditionalDistribution dist = time0 ? this.model.getConditionalDistributionTime0(var) : this.model.getConditionalDistributionTimeT(var);
+            for (int k = 0; k < this.nStates; k++) {
+                chainAssignment.hiddenState = k;
+                logEmission[k] += dist.getLogConditionalProbability(chainAssignment);
+            }
+        }
+        return logEmission;
+    }
+
+    /**
+     * Returns the logarithm of each element of an array.
+     * @param probabilities an array of probabilities.
+     * @return an array of log-probabilities.
+     */
+    private double[] logOf(double[] probabilities) {
+        double[] logs = new double[probabilities.length];
+        for (int k = 0; k < probabilities.length; k++) {
+            logs[k] = Math.log(probabilities[k]);
+        }
+        return logs;
+    }
+
+    /**
+     * Creates a {@link Multinomial} distribution of the hidden chain variable.
+     * @param probabilities the probabilities of the hidden states.
+     * @return a {@link Multinomial} object.
+     */
+    private Multinomial toMultinomial(double[] probabilities) {
+        Multinomial multinomial = new Multinomial(this.hiddenVar);
+        multinomial.setProbabilities(probabilities.clone());
+        return multinomial;
+    }
+
+    /**
+     * Checks that the posterior of a variable can be computed.
+     * @param var a {@link Variable} object.
+     */
+    private void checkHiddenVar(Variable var) {
+        if (!var.equals(this.hiddenVar))
+            throw new UnsupportedOperationException("Only the posterior of the hidden chain variable can be computed.");
+    }
+
+    /**
+     * This class groups the log-probabilities of a sequence, i.e. the prior, the transitions into each time step,
+     * and the observations of each time step.
+     */
+    private static final class LogTables {
+
+        /** Represents the log-prior probabilities at time 0. */
+        double[] logPrior;
+
+        /** Represents the log-transition probabilities into each time step. */
+        double[][] logTransition;
+
+        /** Represents the log-probabilities of the observations of each time step, indexed by hidden state. */
+        double[][] logEmission;
+    }
+
+    /**
+     * This class implements {@link Assignment} for a time step: the observed variables take their values from the
+     * present evidence, their interface variables from the previous one, and the hidden chain variable and its
+     * interface variable take the states being evaluated.
+     */
+    private final class ChainAssignment implements Assignment {
+
+        /** Represents the evidence of the time step. */
+        final Assignment present;
+
+        /** Represents the evidence of the previous time step, or {@code null} if there is none. */
+        final Assignment past;
+
+        /** Represents the state of the hidden chain variable. */
+        int hiddenState;
+
+        /** Represents the state of the interface variable of the hidden chain variable. */
+        int previousHiddenState;
+
+        ChainAssignment(Assignment present, Assignment past) {
+            this.present = present;
+            this.past = past;
+        }
+
+        @Override
+        public double getValue(Variable var) {
+            if (var.equals(hiddenVar))
+                return this.hiddenState;
+            if (var.equals(hiddenInterfaceVar))
+                return this.previousHiddenState;
+            if (var.isInterfaceVariable())
+                return (this.past == null) ? Utils.missingValue() : this.past.getValue(model.getDynamicVariables().getVariableFromInterface(var));
+            return (this.present == null) ? Utils.missingValue() : this.present.getValue(var);
+        }
+
+        /**
+         * {@inheritDoc}
+         * Only the states of the hidden chain variable and its interface variable can be set, the evidence is read-only.
+         */
+        @Override
+        public void setValue(Variable var, double value) {
+            if (var.equals(hiddenVar))
+                this.hiddenState = (int) value;
+            else if (var.equals(hiddenInterfaceVar))
+                this.previousHiddenState = (int) value;
+            else
+                throw new UnsupportedOperationException("The evidence of this assignment is read-only.");
+        }
+
+        @Override
+        public Set<Variable> getVariables() {
+            Set<Variable> vars = new LinkedHashSet<>();
+            vars.add(hiddenVar);
+            vars.add(hiddenInterfaceVar);
+            if (this.present != null)
+                vars.addAll(observedVars);
+            if (this.past != null)
+                observedVars.forEach(var -> vars.add(model.getDynamicVariables().getInterfaceVariable(var)));
+            return vars;
+        }
+    }
+}
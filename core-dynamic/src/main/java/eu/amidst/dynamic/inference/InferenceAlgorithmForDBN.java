@@ -22,6 +22,9 @@ import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.dynamic.variables.DynamicAssignment;
 import eu.amidst.core.variables.Variable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This interface handles and defines the algorithm used to run inference in {@link DynamicBayesianNetwork} models.
  * For examples see eu.amidst.dynamic.examples.inference.
@@ -73,6 +76,26 @@ public interface InferenceAlgorithmForDBN {
      */
     <E extends UnivariateDistribution> E getPredictivePosterior(Variable var, int nTimesAhead);
 
+    /**
+     * Returns the predictive posterior distributions of a list of {@link Variable} objects for every number of time
+     * steps ahead from 1 to maxHorizon. By default, it invokes {@link #getPredictivePosterior(Variable, int)} for
+     * each variable and horizon, but implementations may compute all of them in a single pass.
+     * @param vars a list of {@link Variable} objects.
+     * @param maxHorizon an {@code int} that represents the maximum number of time steps ahead.
+     * @return a list with, for each horizon from 1 to maxHorizon, the list of predictive posteriors in the same order as {@code vars}.
+     */
+    default List<List<UnivariateDistribution>> getPredictivePosteriors(List<Variable> vars, int maxHorizon) {
+        List<List<UnivariateDistribution>> predictions = new ArrayList<>(maxHorizon);
+        for (int horizon = 1; horizon <= maxHorizon; horizon++) {
+            List<UnivariateDistribution> posteriors = new ArrayList<>(vars.size());
+            for (Variable var : vars) {
+                posteriors.add(this.getPredictivePosterior(var, horizon));
+            }
+            predictions.add(posteriors);
+        }
+        return predictions;
+    }
+
     /**
      * Returns the time of the last evidence of this InferenceAlgorithmForDBN.
      * @return a {@code long} that represents the time ID.
@@ -26,6 +26,9 @@ import java.util.stream.Stream;
 
 /**
  * This class defines the Inference Engine for Dynamic Bayesian Network models.
+ *
+ * <p> This class shares a single {@link InferenceAlgorithmForDBN} and is not thread-safe.
+ * Use {@link PooledInferenceEngineForDBN} to process several sequences concurrently. </p>
  */
 public final class InferenceEngineForDBN {
 
@@ -0,0 +1,1032 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.inference;
+
+import eu.amidst.core.distribution.BaseDistribution_MultinomialParents;
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.distribution.ConditionalLinearGaussian;
+import eu.amidst.core.distribution.Distribution;
+import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.distribution.Normal;
+import eu.amidst.core.distribution.Normal_MultinomialNormalParents;
+import eu.amidst.core.distribution.Normal_MultinomialParents;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DataSequence;
+import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.variables.DynamicAssignment;
+import eu.amidst.dynamic.variables.DynamicVariables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class implements the interface {@link InferenceAlgorithmForDBN}.
+ * It runs closed-form inference on linear-Gaussian {@link DynamicBayesianNetwork} models, such as Kalman filters,
+ * and on switching linear-Gaussian models, such as switching Kalman filters.
+ *
+ * <p> The model must only contain Normal variables, plus at most one multinomial hidden variable whose only parent
+ * is its own interface variable. The non-observed Normal variables form the hidden state, which may depend on its
+ * value at the previous time step and on the previous observations. The observed Normal variables may depend on the
+ * hidden state, on other observed variables and on the previous observations. When {@link #setModel(DynamicBayesianNetwork)}
+ * is invoked, the transition and emission matrices are extracted once from the {@link ConditionalLinearGaussian}
+ * distributions, and the filtering recursions then run over preallocated primitive arrays, with one scalar update
+ * per observed variable, so no matrix is inverted and no object is created per time step. </p>
+ *
+ * <p> Without a multinomial hidden variable, filtering is exact, and whole {@link DataSequence} objects can be
+ * smoothed with the Rauch-Tung-Striebel smoother. With a multinomial hidden variable, one Kalman filter is run for
+ * each of its states and they are combined with the interacting multiple model (IMM) approximation, see e.g.: </p>
+ *
+ * <p> Kevin P. Murphy. 2012. Machine Learning: A Probabilistic Perspective. The MIT Press. Section 18.6. </p>
+ *
+ * <p> An observed variable may only be missing if no other variable depends on it. </p>
+ */
+public class KalmanFilterForDBN implements InferenceAlgorithmForDBN {
+
+    /** Represents the {@link DynamicBayesianNetwork} model. */
+    private DynamicBayesianNetwork model;
+
+    /** Represents the multinomial hidden variable, or {@code null} if there is none. */
+    private Variable discreteVar;
+
+    /** Represents the Normal hidden variables, in causal order. */
+    private List<Variable> hiddenVars;
+
+    /** Represents the observed variables, in causal order. */
+    private List<Variable> observedVars;
+
+    /** Represents the number of states of the multinomial hidden variable, or 1 if there is none. */
+    private int nRegimes;
+
+    /** Represents the linear-Gaussian model at time 0, for each state of the multinomial hidden variable. */
+    private LinearGaussianSlice[] slicesTime0;
+
+    /** Represents the linear-Gaussian model at time T, for each state of the multinomial hidden variable. */
+    private LinearGaussianSlice[] slicesTimeT;
+
+    /** Represents the prior probabilities of the multinomial hidden variable at time 0. */
+    private double[] prior;
+
+    /** Represents the transition probabilities of the multinomial hidden variable, indexed by previous and current state. */
+    private double[] transition;
+
+    /** Represents the filtered state. */
+    private State state;
+
+    /** Represents the buffers used by the filtering recursions. */
+    private Workspace workspace;
+
+    /** Represents the last evidence. */
+    private DynamicAssignment assignment;
+
+    /** Represents the evidence before the last one. */
+    private DynamicAssignment previousAssignment;
+
+    /** Represents the log-probability of the evidence processed so far. */
+    private double logLikelihood;
+
+    /** Represents the time ID of the filtered posterior. */
+    private long timeID = -1;
+
+    /** Represents the sequence ID. */
+    private long sequenceID = -1;
+
+    /**
+     * {@inheritDoc}
+     * @throws UnsupportedOperationException if the model is not a (switching) linear-Gaussian model.
+     */
+    @Override
+    public void setModel(DynamicBayesianNetwork model_) {
+        this.model = model_;
+        DynamicVariables variables = model.getDynamicVariables();
+
+        List<Variable> discreteVars = variables.getListOfDynamicVariables().stream()
+                .filter(var -> !var.isNormal())
+                .collect(Collectors.toList());
+        if (discreteVars.size() > 1 || discreteVars.stream().anyMatch(var -> !var.isMultinomial() || var.isObservable()))
+            throw new UnsupportedOperationException("Only one multinomial hidden variable is supported.");
+        this.discreteVar = discreteVars.isEmpty() ? null : discreteVars.get(0);
+
+        List<Variable> causalOrder = eu.amidst.dynamic.utils.Utils.getCausalOrderTimeT(model.getDynamicDAG());
+        this.hiddenVars = causalOrder.stream().filter(var -> var.isNormal() && !var.isObservable()).collect(Collectors.toList());
+        this.observedVars = causalOrder.stream().filter(var -> var.isNormal() && var.isObservable()).collect(Collectors.toList());
+
+        if (this.discreteVar == null) {
+            this.nRegimes = 1;
+            this.prior = new double[]{1.0};
+            this.transition = new double[]{1.0};
+        } else {
+            Variable discreteInterfaceVar = variables.getInterfaceVariable(this.discreteVar);
+            List<Variable> parents = model.getDynamicDAG().getParentSetTimeT(this.discreteVar).getParents();
+            if (parents.size() != 1 || !parents.get(0).equals(discreteInterfaceVar))
+                throw new UnsupportedOperationException("The multinomial hidden variable may only depend on its interface variable.");
+
+            this.nRegimes = this.discreteVar.getNumberOfStates();
+            this.prior = new double[this.nRegimes];
+            this.transition = new double[this.nRegimes * this.nRegimes];
+            ConditionalDistribution distTime0 = model.getConditionalDistributionTime0(this.discreteVar);
+            ConditionalDistribution distTimeT = model.getConditionalDistributionTimeT(this.discreteVar);
+            HashMapAssignment regimes = new HashMapAssignment(2);
+            for (int k = 0; k < this.nRegimes; k++) {
+                regimes.setValue(this.discreteVar, k);
+                this.prior[k] = Math.exp(distTime0.getLogConditionalProbability(regimes));
+                for (int j = 0; j < this.nRegimes; j++) {
+                    regimes.setValue(discreteInterfaceVar, j);
+                    this.transition[j * this.nRegimes + k] = Math.exp(distTimeT.getLogConditionalProbability(regimes));
+                }
+            }
+        }
+
+        this.slicesTime0 = new LinearGaussianSlice[this.nRegimes];
+        this.slicesTimeT = new LinearGaussianSlice[this.nRegimes];
+        for (int k = 0; k < this.nRegimes; k++) {
+            this.slicesTime0[k] = this.buildSlice(true, k);
+            this.slicesTimeT[k] = this.buildSlice(false, k);
+        }
+
+        this.workspace = new Workspace(this.hiddenVars.size(), this.observedVars.size(), this.nRegimes);
+        this.reset();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DynamicBayesianNetwork getOriginalModel() {
+        return this.model;
+    }
+
+    /**
+     * Returns the Normal hidden variables, in the order used by the means and covariances of this algorithm.
+     * @return a {@code List} of {@link Variable} objects.
+     */
+    public List<Variable> getHiddenVars() {
+        return Collections.unmodifiableList(this.hiddenVars);
+    }
+
+    /**
+     * Returns the multinomial hidden variable.
+     * @return a {@link Variable} object, or {@code null} if the model has no multinomial hidden variable.
+     */
+    public Variable getDiscreteVar() {
+        return discreteVar;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addDynamicEvidence(DynamicAssignment assignment_) {
+        if (this.sequenceID != -1 && this.sequenceID != assignment_.getSequenceID())
+            throw new IllegalArgumentException("The sequence ID does not match. If you want to change the sequence, invoke reset method");
+
+        if (this.timeID >= assignment_.getTimeID())
+            throw new IllegalArgumentException("The provided assignment is not posterior to the previous provided assignment.");
+
+        this.previousAssignment = this.assignment;
+        this.assignment = assignment_;
+        this.sequenceID = assignment_.getSequenceID();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void runInference() {
+        if (this.assignment == null || this.assignment.getTimeID() == this.timeID)
+            return;
+
+        long newTimeID = this.assignment.getTimeID();
+
+        //The previous evidence is only used as input of consecutive time steps.
+        this.readValues(this.assignment, this.workspace.present);
+        this.readValues(newTimeID == this.timeID + 1 ? this.previousAssignment : null, this.workspace.previous);
+
+        long steps;
+        if (this.timeID == -1) {
+            this.logLikelihood += this.initialize(this.state, newTimeID == 0 ? this.assignment : null, this.workspace);
+            steps = newTimeID;
+        } else {
+            steps = newTimeID - this.timeID;
+        }
+
+        for (long i = 1; i <= steps; i++) {
+            if (i < steps) {
+                this.predict(this.state, this.workspace.missing, this.workspace);
+            } else {
+                this.predict(this.state, this.workspace.previous, this.workspace);
+                this.logLikelihood += this.update(this.slicesTimeT, this.state, this.assignment, this.workspace);
+            }
+        }
+        this.timeID = newTimeID;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        this.state = new State(this.hiddenVars.size(), this.nRegimes);
+        this.assignment = null;
+        this.previousAssignment = null;
+        this.logLikelihood = 0;
+        this.timeID = -1;
+        this.sequenceID = -1;
+    }
+
+    /**
+     * Returns the log-probability of the evidence processed so far. It is approximate when the model has a multinomial
+     * hidden variable.
+     * @return a {@code double} that represents the log-probability.
+     */
+    public double getLogProbabilityOfEvidence() {
+        return this.logLikelihood;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends UnivariateDistribution> E getFilteredPosterior(Variable var) {
+        if (this.timeID == -1)
+            return this.getPredictivePosterior(var, 1);
+        return (E) this.getPosterior(this.state, var);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends UnivariateDistribution> E getPredictivePosterior(Variable var, int nTimesAhead) {
+        Workspace ws = new Workspace(this.hiddenVars.size(), this.observedVars.size(), this.nRegimes);
+        State predictive = new State(this.hiddenVars.size(), this.nRegimes);
+        int steps = nTimesAhead;
+        if (this.timeID == -1) {
+            this.initialize(predictive, null, ws);
+            steps--;
+        } else {
+            predictive.copyFrom(this.state);
+        }
+        if (steps > 0 && Arrays.stream(this.slicesTimeT).anyMatch(slice -> slice.hasInputs))
+            throw new UnsupportedOperationException("The hidden state depends on the previous observations.");
+        for (int i = 0; i < steps; i++) {
+            this.predict(predictive, ws.missing, ws);
+        }
+        return (E) this.getPosterior(predictive, var);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimeIDOfLastEvidence() {
+        return this.assignment == null ? -1 : this.assignment.getTimeID();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimeIDOfPosterior() {
+        return this.timeID;
+    }
+
+    /**
+     * Returns the filtered mean of the hidden state, in the order given by {@link #getHiddenVars()}. With a multinomial
+     * hidden variable, it is the mean of the mixture over its states.
+     * @return an array of {@code double} values.
+     */
+    public double[] getFilteredMean() {
+        double[] mean = new double[this.hiddenVars.size()];
+        for (int i = 0; i < mean.length; i++) {
+            mean[i] = this.getMixtureMean(this.state, i);
+        }
+        return mean;
+    }
+
+    /**
+     * Returns the smoothed posteriors of the hidden state for each time step of a sequence, computed with the
+     * Rauch-Tung-Striebel smoother.
+     * @param sequence a {@link DataSequence} object, with consecutive time steps.
+     * @return a {@link StateSequence} object.
+     * @throws UnsupportedOperationException if the model has a multinomial hidden variable.
+     */
+    public StateSequence getSmoothedStates(DataSequence sequence) {
+        if (this.discreteVar != null)
+            throw new UnsupportedOperationException("Smoothing is not supported for switching models.");
+
+        List<DynamicDataInstance> instances = new ArrayList<>();
+        sequence.forEach(instances::add);
+
+        int n = this.hiddenVars.size();
+        int nTimes = instances.size();
+        Workspace ws = new Workspace(n, this.observedVars.size(), 1);
+        State filter = new State(n, 1);
+        double[][] filteredMeans = new double[nTimes][];
+        double[][] filteredCovariances = new double[nTimes][];
+        double[][] predictedMeans = new double[nTimes][];
+        double[][] predictedCovariances = new double[nTimes][];
+
+        //Forward pass
+        double logLikelihood = 0;
+        for (int t = 0; t < nTimes; t++) {
+            if (t == 0) {
+                logLikelihood += this.initialize(filter, instances.get(0), ws);
+            } else {
+                this.readValues(instances.get(t - 1), ws.previous);
+                this.predict(filter, ws.previous, ws);
+                predictedMeans[t] = filter.means[0].clone();
+                predictedCovariances[t] = filter.covariances[0].clone();
+                logLikelihood += this.update(this.slicesTimeT, filter, instances.get(t), ws);
+            }
+            filteredMeans[t] = filter.means[0].clone();
+            filteredCovariances[t] = filter.covariances[0].clone();
+        }
+
+        //Backward pass: J = P_t A' inv(P_{t+1|t}), computed as the transpose of inv(P_{t+1|t}) A P_t.
+        double[] transitionMatrix = this.slicesTimeT[0].transition;
+        double[] gain = new double[n * n];
+        double[] factor = new double[n * n];
+        double[] difference = new double[n * n];
+        for (int t = nTimes - 2; t >= 0; t--) {
+            multiply(transitionMatrix, filteredCovariances[t], gain, n);
+            System.arraycopy(predictedCovariances[t + 1], 0, factor, 0, n * n);
+            choleskySolve(factor, gain, n);
+
+            double[] mean = filteredMeans[t];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    mean[i] += gain[j * n + i] * (filteredMeans[t + 1][j] - predictedMeans[t + 1][j]);
+                }
+            }
+
+            //P_t + J (P_{t+1} - P_{t+1|t}) J'
+            for (int i = 0; i < n * n; i++) {
+                difference[i] = filteredCovariances[t + 1][i] - predictedCovariances[t + 1][i];
+            }
+            double[] covariance = filteredCovariances[t];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    double value = 0;
+                    for (int a = 0; a < n; a++) {
+                        double left = gain[a * n + i];
+                        if (left == 0)
+                            continue;
+                        for (int b = 0; b < n; b++) {
+                            value += left * difference[a * n + b] * gain[b * n + j];
+                        }
+                    }
+                    covariance[i * n + j] += value;
+                }
+            }
+        }
+
+        return new StateSequence(filteredMeans, filteredCovariances, logLikelihood);
+    }
+
+    /**
+     * Returns the smoothed posteriors of the hidden state for a list of sequences, processed in parallel.
+     * @param sequences a {@code List} of {@link DataSequence} objects.
+     * @return a {@code List} of {@link StateSequence} objects, in the same order.
+     */
+    public List<StateSequence> getSmoothedStates(List<DataSequence> sequences) {
+        return sequences.parallelStream().map(this::getSmoothedStates).collect(Collectors.toList());
+    }
+
+    /**
+     * Sets a state to the distribution at time 0, updated with the evidence if given.
+     * @param state the {@link State} to set.
+     * @param evidence the evidence at time 0, or {@code null}.
+     * @param ws the {@link Workspace} of the calling thread.
+     * @return the log-probability of the evidence.
+     */
+    private double initialize(State state, Assignment evidence, Workspace ws) {
+        for (int k = 0; k < this.nRegimes; k++) {
+            System.arraycopy(this.slicesTime0[k].offset, 0, state.means[k], 0, state.means[k].length);
+            System.arraycopy(this.slicesTime0[k].noise, 0, state.covariances[k], 0, state.covariances[k].length);
+            state.weights[k] = this.prior[k];
+        }
+        if (evidence == null)
+            return 0;
+
+        Arrays.fill(ws.previous, Utils.missingValue());
+        return this.update(this.slicesTime0, state, evidence, ws);
+    }
+
+    /**
+     * Moves a state one time step ahead. With a multinomial hidden variable, the Gaussian of each state is first mixed
+     * with the others according to the transition probabilities, as in the IMM algorithm.
+     * @param state the {@link State} to move.
+     * @param previous the values of the observed variables at the previous time step.
+     * @param ws the {@link Workspace} of the calling thread.
+     */
+    private void predict(State state, double[] previous, Workspace ws) {
+        int n = this.hiddenVars.size();
+        int nRegimes = this.nRegimes;
+
+        if (nRegimes > 1) {
+            for (int j = 0; j < nRegimes; j++) {
+                double predictive = 0;
+                for (int i = 0; i < nRegimes; i++) {
+                    predictive += this.transition[i * nRegimes + j] * state.weights[i];
+                }
+                ws.predictiveWeights[j] = predictive;
+
+                double[] mixedMean = ws.mixedMeans[j];
+                double[] mixedCovariance = ws.mixedCovariances[j];
+                if (predictive == 0) {
+                    System.arraycopy(state.means[j], 0, mixedMean, 0, n);
+                    System.arraycopy(state.covariances[j], 0, mixedCovariance, 0, n * n);
+                    continue;
+                }
+
+                Arrays.fill(mixedMean, 0);
+                Arrays.fill(mixedCovariance, 0);
+                for (int i = 0; i < nRegimes; i++) {
+                    double weight = this.transition[i * nRegimes + j] * state.weights[i] / predictive;
+                    if (weight == 0)
+                        continue;
+                    for (int a = 0; a < n; a++) {
+                        mixedMean[a] += weight * state.means[i][a];
+                    }
+                }
+                for (int i = 0; i < nRegimes; i++) {
+                    double weight = this.transition[i * nRegimes + j] * state.weights[i] / predictive;
+                    if (weight == 0)
+                        continue;
+                    double[] mean = state.means[i];
+                    double[] covariance = state.covariances[i];
+                    for (int a = 0; a < n; a++) {
+                        double da = mean[a] - mixedMean[a];
+                        for (int b = 0; b < n; b++) {
+                            mixedCovariance[a * n + b] += weight * (covariance[a * n + b] + da * (mean[b] - mixedMean[b]));
+                        }
+                    }
+                }
+            }
+            for (int j = 0; j < nRegimes; j++) {
+                System.arraycopy(ws.mixedMeans[j], 0, state.means[j], 0, n);
+                System.arraycopy(ws.mixedCovariances[j], 0, state.covariances[j], 0, n * n);
+                state.weights[j] = ws.predictiveWeights[j];
+            }
+        }
+
+        for (int k = 0; k < nRegimes; k++) {
+            LinearGaussianSlice slice = this.slicesTimeT[k];
+            double[] mean = state.means[k];
+            double[] covariance = state.covariances[k];
+
+            //m = A m + c + G y_{t-1}
+            for (int i = 0; i < n; i++) {
+                double value = slice.offset[i];
+                for (int j = 0; j < n; j++) {
+                    value += slice.transition[i * n + j] * mean[j];
+                }
+                value += this.dot(slice.inputs, i, previous, this.observedVars, "previous observations");
+                ws.vector[i] = value;
+            }
+            System.arraycopy(ws.vector, 0, mean, 0, n);
+
+            //P = A P A' + Q
+            multiply(slice.transition, covariance, ws.matrix, n);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    double value = slice.noise[i * n + j];
+                    for (int a = 0; a < n; a++) {
+                        value += ws.matrix[i * n + a] * slice.transition[j * n + a];
+                    }
+                    covariance[i * n + j] = value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates a state with the evidence of a time step, with one scalar update per observed variable.
+     * @param slices the linear-Gaussian models of the time step, one for each state of the multinomial hidden variable.
+     * @param state the {@link State} to update.
+     * @param evidence the evidence of the time step.
+     * @param ws the {@link Workspace} of the calling thread, whose {@code previous} values are used as inputs.
+     * @return the log-probability of the evidence given the past evidence.
+     */
+    private double update(LinearGaussianSlice[] slices, State state, Assignment evidence, Workspace ws) {
+        int n = this.hiddenVars.size();
+        int m = this.observedVars.size();
+        this.readValues(evidence, ws.present);
+
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < this.nRegimes; k++) {
+            LinearGaussianSlice slice = slices[k];
+            double[] mean = state.means[k];
+            double[] covariance = state.covariances[k];
+            double logLikelihood = 0;
+
+            for (int i = 0; i < m; i++) {
+                if (Utils.isMissingValue(ws.present[i]))
+                    continue;
+
+                //y_i - d_i - C_i y_t - E_i y_{t-1} = H_i x + e_i
+                double residual = ws.present[i] - slice.emissionOffset[i]
+                        - this.dot(slice.emissionObserved, i, ws.present, this.observedVars, "observations")
+                        - this.dot(slice.emissionInputs, i, ws.previous, this.observedVars, "previous observations");
+
+                double innovationVariance = slice.emissionVariance[i];
+                double innovation = residual;
+                for (int a = 0; a < n; a++) {
+                    double value = 0;
+                    for (int b = 0; b < n; b++) {
+                        value += covariance[a * n + b] * slice.emission[i * n + b];
+                    }
+                    ws.vector[a] = value;
+                    innovationVariance += slice.emission[i * n + a] * value;
+                    innovation -= slice.emission[i * n + a] * mean[a];
+                }
+
+                for (int a = 0; a < n; a++) {
+                    double gain = ws.vector[a] / innovationVariance;
+                    mean[a] += gain * innovation;
+                    for (int b = 0; b < n; b++) {
+                        covariance[a * n + b] -= gain * ws.vector[b];
+                    }
+                }
+                logLikelihood -= 0.5 * (Math.log(2 * Math.PI * innovationVariance) + innovation * innovation / innovationVariance);
+            }
+
+            ws.logWeights[k] = (state.weights[k] == 0) ? Double.NEGATIVE_INFINITY : Math.log(state.weights[k]) + logLikelihood;
+            maxLog = Math.max(maxLog, ws.logWeights[k]);
+        }
+
+        if (this.nRegimes == 1) {
+            state.weights[0] = 1;
+            return ws.logWeights[0];
+        }
+
+        double sum = 0;
+        for (int k = 0; k < this.nRegimes; k++) {
+            state.weights[k] = Math.exp(ws.logWeights[k] - maxLog);
+            sum += state.weights[k];
+        }
+        for (int k = 0; k < this.nRegimes; k++) {
+            state.weights[k] /= sum;
+        }
+        return maxLog + Math.log(sum);
+    }
+
+    /**
+     * Returns the product of a row of coefficients and a vector of observed values, checking that no value with a
+     * non-zero coefficient is missing.
+     * @param coefficients the coefficients, row-major.
+     * @param row the row of the coefficients.
+     * @param values the values of the observed variables.
+     * @param variables the observed variables.
+     * @param what a description of the values, for the error message.
+     * @return a {@code double} value.
+     */
+    private double dot(double[] coefficients, int row, double[] values, List<Variable> variables, String what) {
+        int m = values.length;
+        double value = 0;
+        for (int e = 0; e < m; e++) {
+            double coefficient = coefficients[row * m + e];
+            if (coefficient == 0)
+                continue;
+            if (Utils.isMissingValue(values[e]))
+                throw new IllegalArgumentException("The value of " + variables.get(e).getName() + " in the " + what
+                        + " can not be missing, since other variables depend on it.");
+            value += coefficient * values[e];
+        }
+        return value;
+    }
+
+    /**
+     * Reads the values of the observed variables.
+     * @param evidence an {@link Assignment} object, or {@code null} if there is no evidence.
+     * @param values the array where the values are stored.
+     */
+    private void readValues(Assignment evidence, double[] values) {
+        for (int e = 0; e < values.length; e++) {
+            values[e] = (evidence == null) ? Utils.missingValue() : evidence.getValue(this.observedVars.get(e));
+        }
+    }
+
+    /**
+     * Returns the posterior of a hidden variable from a state.
+     * @param state a {@link State} object.
+     * @param var a hidden {@link Variable}.
+     * @return a {@link Multinomial} for the multinomial hidden variable, or a {@link Normal} matching the moments of
+     * the mixture over its states for a Normal hidden variable.
+     */
+    private UnivariateDistribution getPosterior(State state, Variable var) {
+        if (var.equals(this.discreteVar)) {
+            Multinomial multinomial = new Multinomial(var);
+            multinomial.setProbabilities(state.weights.clone());
+            return multinomial;
+        }
+
+        int index = this.hiddenVars.indexOf(var);
+        if (index == -1)
+            throw new UnsupportedOperationException("Only the posterior of the hidden variables can be computed.");
+
+        int n = this.hiddenVars.size();
+        double mean = this.getMixtureMean(state, index);
+        double variance = 0;
+        for (int k = 0; k < this.nRegimes; k++) {
+            double difference = state.means[k][index] - mean;
+            variance += state.weights[k] * (state.covariances[k][index * n + index] + difference * difference);
+        }
+        Normal normal = new Normal(var);
+        normal.setMean(mean);
+        normal.setVariance(variance);
+        return normal;
+    }
+
+    /**
+     * Returns the mean of a hidden variable in the mixture over the states of the multinomial hidden variable.
+     * @param state a {@link State} object.
+     * @param index the index of the hidden variable.
+     * @return a {@code double} value.
+     */
+    private double getMixtureMean(State state, int index) {
+        double mean = 0;
+        for (int k = 0; k < this.nRegimes; k++) {
+            mean += state.weights[k] * state.means[k][index];
+        }
+        return mean;
+    }
+
+    /**
+     * Extracts the linear-Gaussian model of a time slice for a state of the multinomial hidden variable. The hidden
+     * variables which depend on other hidden variables of the same time step are solved in causal order, so that
+     * x_t = A x_{t-1} + c + G y_{t-1} + w, with w ~ N(0, Q).
+     * @param time0 {@code true} if the distributions at time 0 are used.
+     * @param regime the state of the multinomial hidden variable.
+     * @return a {@link LinearGaussianSlice} object.
+     */
+    private LinearGaussianSlice buildSlice(boolean time0, int regime) {
+        int n = this.hiddenVars.size();
+        int m = this.observedVars.size();
+        DynamicVariables variables = this.model.getDynamicVariables();
+        LinearGaussianSlice slice = new LinearGaussianSlice(n, m);
+
+        HashMapAssignment regimeAssignment = new HashMapAssignment(1);
+        if (this.discreteVar != null)
+            regimeAssignment.setValue(this.discreteVar, regime);
+
+        //Rows of inv(I - B), where B are the coefficients between hidden variables of the same time step.
+        double[] solved = new double[n * n];
+        double[] variances = new double[n];
+        for (int i = 0; i < n; i++) {
+            Variable var = this.hiddenVars.get(i);
+            LinearGaussian dist = linearize(this.getDistribution(var, time0), regimeAssignment);
+            slice.offset[i] = dist.intercept;
+            solved[i * n + i] = 1;
+            variances[i] = dist.variance;
+
+            for (int p = 0; p < dist.parents.size(); p++) {
+                Variable parent = dist.parents.get(p);
+                double coefficient = dist.coefficients[p];
+                int j = this.hiddenVars.indexOf(parent);
+                if (j >= 0) {
+                    slice.offset[i] += coefficient * slice.offset[j];
+                    for (int a = 0; a < n; a++) {
+                        slice.transition[i * n + a] += coefficient * slice.transition[j * n + a];
+                        solved[i * n + a] += coefficient * solved[j * n + a];
+                    }
+                    for (int e = 0; e < m; e++) {
+                        slice.inputs[i * m + e] += coefficient * slice.inputs[j * m + e];
+                    }
+                } else if (parent.isInterfaceVariable() && this.hiddenVars.contains(variables.getVariableFromInterface(parent))) {
+                    slice.transition[i * n + this.hiddenVars.indexOf(variables.getVariableFromInterface(parent))] += coefficient;
+                } else if (parent.isInterfaceVariable() && this.observedVars.contains(variables.getVariableFromInterface(parent))) {
+                    slice.inputs[i * m + this.observedVars.indexOf(variables.getVariableFromInterface(parent))] += coefficient;
+                    slice.hasInputs = true;
+                } else {
+                    throw new UnsupportedOperationException("The hidden variable " + var.getName() + " can not depend on " + parent.getName() + ".");
+                }
+            }
+        }
+
+        //Q = inv(I - B) D inv(I - B)'
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double value = 0;
+                for (int a = 0; a < n; a++) {
+                    value += solved[i * n + a] * variances[a] * solved[j * n + a];
+                }
+                slice.noise[i * n + j] = value;
+            }
+        }
+
+        for (int i = 0; i < m; i++) {
+            Variable var = this.observedVars.get(i);
+            LinearGaussian dist = linearize(this.getDistribution(var, time0), regimeAssignment);
+            slice.emissionOffset[i] = dist.intercept;
+            slice.emissionVariance[i] = dist.variance;
+
+            for (int p = 0; p < dist.parents.size(); p++) {
+                Variable parent = dist.parents.get(p);
+                double coefficient = dist.coefficients[p];
+                if (this.hiddenVars.contains(parent)) {
+                    slice.emission[i * n + this.hiddenVars.indexOf(parent)] += coefficient;
+                } else if (this.observedVars.contains(parent)) {
+                    slice.emissionObserved[i * m + this.observedVars.indexOf(parent)] += coefficient;
+                } else if (parent.isInterfaceVariable() && this.observedVars.contains(variables.getVariableFromInterface(parent))) {
+                    slice.emissionInputs[i * m + this.observedVars.indexOf(variables.getVariableFromInterface(parent))] += coefficient;
+                } else {
+                    throw new UnsupportedOperationException("The observed variable " + var.getName() + " can not depend on " + parent.getName() + ".");
+                }
+            }
+        }
+
+        return slice;
+    }
+
+    /**
+     * Returns the distribution of a variable.
+     * @param var a {@link Variable} object.
+     * @param time0 {@code true} if the distribution at time 0 is returned.
+     * @return a {@link ConditionalDistribution} object.
+     */
+    private ConditionalDistribution getDistribution(Variable var, boolean time0) {
+        return time0 ? this.model.getConditionalDistributionTime0(var) : this.model.getConditionalDistributionTimeT(var);
+    }
+
+    /**
+     * Returns the linear-Gaussian distribution of a Normal variable given the values of its multinomial parents.
+     * @param dist a {@link Distribution} object.
+     * @param regimeAssignment the values of the multinomial parents.
+     * @return a {@link LinearGaussian} object.
+     */
+    private static LinearGaussian linearize(Distribution dist, Assignment regimeAssignment) {
+        if (dist instanceof Normal_MultinomialNormalParents)
+            return linearize(((Normal_MultinomialNormalParents) dist).getNormal_NormalParentsDistribution(regimeAssignment), regimeAssignment);
+        if (dist instanceof Normal_MultinomialParents)
+            return linearize(((Normal_MultinomialParents) dist).getNormal(regimeAssignment), regimeAssignment);
+        if (dist instanceof BaseDistribution_MultinomialParents)
+            return linearize(((BaseDistribution_MultinomialParents<?>) dist).getBaseDistribution(regimeAssignment), regimeAssignment);
+        if (dist instanceof ConditionalLinearGaussian) {
+            ConditionalLinearGaussian clg = (ConditionalLinearGaussian) dist;
+            return new LinearGaussian(clg.getIntercept(), clg.getConditioningVariables(), clg.getCoeffParents(), clg.getVariance());
+        }
+        if (dist instanceof Normal) {
+            Normal normal = (Normal) dist;
+            return new LinearGaussian(normal.getMean(), Collections.emptyList(), new double[0], normal.getVariance());
+        }
+        throw new UnsupportedOperationException("The distribution " + dist.getClass().getSimpleName() + " is not linear-Gaussian.");
+    }
+
+    /**
+     * Multiplies two square matrices, stored row-major.
+     * @param left the left matrix.
+     * @param right the right matrix.
+     * @param result the matrix where the product is stored.
+     * @param n the dimension of the matrices.
+     */
+    private static void multiply(double[] left, double[] right, double[] result, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double value = 0;
+                for (int a = 0; a < n; a++) {
+                    value += left[i * n + a] * right[a * n + j];
+                }
+                result[i * n + j] = value;
+            }
+        }
+    }
+
+    /**
+     * Solves a linear system with a symmetric positive definite matrix using its Cholesky decomposition.
+     * @param matrix the n x n matrix, which is overwritten.
+     * @param rhs the n x n right-hand side, where the solution is stored.
+     * @param n the dimension of the system.
+     */
+    private static void choleskySolve(double[] matrix, double[] rhs, int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = matrix[j * n + j];
+            for (int a = 0; a < j; a++) {
+                diagonal -= matrix[j * n + a] * matrix[j * n + a];
+            }
+            if (diagonal <= 0)
+                throw new IllegalStateException("The predicted covariance matrix is not positive definite.");
+            diagonal = Math.sqrt(diagonal);
+            matrix[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double value = matrix[i * n + j];
+                for (int a = 0; a < j; a++) {
+                    value -= matrix[i * n + a] * matrix[j * n + a];
+                }
+                matrix[i * n + j] = value / diagonal;
+            }
+        }
+
+        for (int c = 0; c < n; c++) {
+            for (int i = 0; i < n; i++) {
+                double value = rhs[i * n + c];
+                for (int a = 0; a < i; a++) {
+                    value -= matrix[i * n + a] * rhs[a * n + c];
+                }
+                rhs[i * n + c] = value / matrix[i * n + i];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                double value = rhs[i * n + c];
+                for (int a = i + 1; a < n; a++) {
+                    value -= matrix[a * n + i] * rhs[a * n + c];
+                }
+                rhs[i * n + c] = value / matrix[i * n + i];
+            }
+        }
+    }
+
+    /**
+     * This class represents the smoothed posteriors of the hidden state over a sequence.
+     */
+    public static final class StateSequence {
+
+        /** Represents the means, one per time step. */
+        private final double[][] means;
+
+        /** Represents the covariance matrices, row-major, one per time step. */
+        private final double[][] covariances;
+
+        /** Represents the log-probability of the observations of the sequence. */
+        private final double logLikelihood;
+
+        StateSequence(double[][] means, double[][] covariances, double logLikelihood) {
+            this.means = means;
+            this.covariances = covariances;
+            this.logLikelihood = logLikelihood;
+        }
+
+        /**
+         * Returns the smoothed means of the hidden state, in the order given by {@link KalmanFilterForDBN#getHiddenVars()}.
+         * @return an array with one mean vector per time step.
+         */
+        public double[][] getMeans() {
+            return means;
+        }
+
+        /**
+         * Returns the smoothed covariance matrices of the hidden state, stored row-major.
+         * @return an array with one covariance matrix per time step.
+         */
+        public double[][] getCovariances() {
+            return covariances;
+        }
+
+        /**
+         * Returns the log-probability of the observations of the sequence.
+         * @return a {@code double} value.
+         */
+        public double getLogLikelihood() {
+            return logLikelihood;
+        }
+    }
+
+    /**
+     * This class represents a linear-Gaussian time slice, with matrices stored row-major. The hidden state follows
+     * x_t = A x_{t-1} + c + G y_{t-1} + w, with w ~ N(0, Q), and each observed variable follows
+     * y_i = d_i + H_i x_t + C_i y_t + E_i y_{t-1} + e_i, with e_i ~ N(0, R_i).
+     */
+    private static final class LinearGaussianSlice {
+
+        /** Represents A, n x n. */
+        final double[] transition;
+
+        /** Represents c, n. */
+        final double[] offset;
+
+        /** Represents G, n x m. */
+        final double[] inputs;
+
+        /** Represents Q, n x n. */
+        final double[] noise;
+
+        /** Represents H, m x n. */
+        final double[] emission;
+
+        /** Represents d, m. */
+        final double[] emissionOffset;
+
+        /** Represents C, m x m. */
+        final double[] emissionObserved;
+
+        /** Represents E, m x m. */
+        final double[] emissionInputs;
+
+        /** Represents R, m. */
+        final double[] emissionVariance;
+
+        /** Represents whether the hidden state depends on the previous observations. */
+        boolean hasInputs;
+
+        LinearGaussianSlice(int n, int m) {
+            this.transition = new double[n * n];
+            this.offset = new double[n];
+            this.inputs = new double[n * m];
+            this.noise = new double[n * n];
+            this.emission = new double[m * n];
+            this.emissionOffset = new double[m];
+            this.emissionObserved = new double[m * m];
+            this.emissionInputs = new double[m * m];
+            this.emissionVariance = new double[m];
+        }
+    }
+
+    /**
+     * This class represents a Gaussian over the hidden state for each state of the multinomial hidden variable, and
+     * the probabilities of these states.
+     */
+    private static final class State {
+
+        /** Represents the means, one per state. */
+        final double[][] means;
+
+        /** Represents the covariance matrices, row-major, one per state. */
+        final double[][] covariances;
+
+        /** Represents the probabilities of the states. */
+        final double[] weights;
+
+        State(int n, int nRegimes) {
+            this.means = new double[nRegimes][n];
+            this.covariances = new double[nRegimes][n * n];
+            this.weights = new double[nRegimes];
+        }
+
+        void copyFrom(State other) {
+            for (int k = 0; k < this.weights.length; k++) {
+                System.arraycopy(other.means[k], 0, this.means[k], 0, this.means[k].length);
+                System.arraycopy(other.covariances[k], 0, this.covariances[k], 0, this.covariances[k].length);
+            }
+            System.arraycopy(other.weights, 0, this.weights, 0, this.weights.length);
+        }
+    }
+
+    /**
+     * This class groups the buffers of the filtering recursions, so that no array is created per time step.
+     */
+    private static final class Workspace {
+
+        final double[] present;
+        final double[] previous;
+        final double[] missing;
+        final double[] vector;
+        final double[] matrix;
+        final double[] logWeights;
+        final double[] predictiveWeights;
+        final double[][] mixedMeans;
+        final double[][] mixedCovariances;
+
+        Workspace(int n, int m, int nRegimes) {
+            this.present = new double[m];
+            this.previous = new double[m];
+            this.missing = new double[m];
+            Arrays.fill(this.missing, Utils.missingValue());
+            this.vector = new double[n];
+            this.matrix = new double[n * n];
+            this.logWeights = new double[nRegimes];
+            this.predictiveWeights = new double[nRegimes];
+            this.mixedMeans = new double[nRegimes][n];
+            this.mixedCovariances = new double[nRegimes][n * n];
+        }
+    }
+
+    /**
+     * This class represents a Normal distribution whose mean is linear in its parents.
+     */
+    private static final class LinearGaussian {
+
+        final double intercept;
+        final List<Variable> parents;
+        final double[] coefficients;
+        final double variance;
+
+        LinearGaussian(double intercept, List<Variable> parents, double[] coefficients, double variance) {
+            this.intercept = intercept;
+            this.parents = parents;
+            this.coefficients = coefficients;
+            this.variance = variance;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.inference;
+
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.utils.BoundedPool;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.variables.DynamicAssignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * This class defines a thread-safe Inference Engine for a fixed {@link DynamicBayesianNetwork} model.
+ *
+ * <p> Unlike the static {@link InferenceEngineForDBN}, each query leases an {@link InferenceAlgorithmForDBN} from a
+ * bounded pool, so concurrent callers never share an algorithm. Each query processes a whole sequence of evidence:
+ * the leased algorithm is reset, fed with the sequence in order, and the posteriors after its last time step
+ * are returned. </p>
+ */
+public class PooledInferenceEngineForDBN {
+
+    /** Represents the model on which inference is performed. */
+    private final DynamicBayesianNetwork model;
+
+    /** Represents the pool of {@link InferenceAlgorithmForDBN} objects already set to the model. */
+    private final BoundedPool<InferenceAlgorithmForDBN> pool;
+
+    /** Represents the {@code Executor} used by the batch queries. */
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * Creates a new PooledInferenceEngineForDBN using {@link DynamicVMP} and as many algorithms as available processors.
+     * @param model a {@link DynamicBayesianNetwork} model.
+     */
+    public PooledInferenceEngineForDBN(DynamicBayesianNetwork model) {
+        this(model, DynamicVMP::new, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new PooledInferenceEngineForDBN.
+     * @param model a {@link DynamicBayesianNetwork} model.
+     * @param algorithmFactory a {@code Supplier} returning a new {@link InferenceAlgorithmForDBN} object on each call.
+     * @param poolSize the maximum number of {@link InferenceAlgorithmForDBN} objects, i.e. of concurrent queries.
+     */
+    public PooledInferenceEngineForDBN(DynamicBayesianNetwork model, Supplier<InferenceAlgorithmForDBN> algorithmFactory, int poolSize) {
+        this.model = model;
+        this.pool = new BoundedPool<>(poolSize, () -> {
+            InferenceAlgorithmForDBN algorithm = algorithmFactory.get();
+            algorithm.setModel(model);
+            return algorithm;
+        });
+    }
+
+    /**
+     * Sets the {@code Executor} used by {@link #posteriors(List, List)}.
+     * @param executor an {@code Executor} object.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the model of this PooledInferenceEngineForDBN.
+     * @return a {@link DynamicBayesianNetwork} object.
+     */
+    public DynamicBayesianNetwork getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the filtered posterior distributions of the given variables after the last time step of a sequence.
+     * @param sequence a {@code List} of {@link DynamicAssignment} objects of the same sequence, ordered by time.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @return a {@code List} of {@link UnivariateDistribution} objects, in the same order as {@code queries}.
+     */
+    public List<UnivariateDistribution> posterior(List<? extends DynamicAssignment> sequence, List<Variable> queries) {
+        return this.posterior(sequence, queries, 0);
+    }
+
+    /**
+     * Returns the posterior distributions of the given variables a number of time steps after the last time step
+     * of a sequence. A value of zero for {@code nTimesAhead} gives the filtered posteriors.
+     * @param sequence a {@code List} of {@link DynamicAssignment} objects of the same sequence, ordered by time.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @param nTimesAhead an {@code int} that represents the number of time steps ahead.
+     * @return a {@code List} of {@link UnivariateDistribution} objects, in the same order as {@code queries}.
+     */
+    public List<UnivariateDistribution> posterior(List<? extends DynamicAssignment> sequence, List<Variable> queries, int nTimesAhead) {
+        return this.pool.apply(algorithm -> this.posterior(algorithm, sequence, queries, nTimesAhead));
+    }
+
+    /**
+     * Runs a query on a leased algorithm.
+     * @param algorithm a leased {@link InferenceAlgorithmForDBN} object.
+     * @param sequence a {@code List} of {@link DynamicAssignment} objects of the same sequence, ordered by time.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @param nTimesAhead an {@code int} that represents the number of time steps ahead.
+     * @return a {@code List} of {@link UnivariateDistribution} objects, in the same order as {@code queries}.
+     */
+    private List<UnivariateDistribution> posterior(InferenceAlgorithmForDBN algorithm, List<? extends DynamicAssignment> sequence,
+                                                   List<Variable> queries, int nTimesAhead) {
+        algorithm.reset();
+        for (DynamicAssignment assignment : sequence) {
+            algorithm.addDynamicEvidence(assignment);
+            algorithm.runInference();
+        }
+        List<UnivariateDistribution> posteriors = new ArrayList<>(queries.size());
+        for (Variable var : queries) {
+            posteriors.add(nTimesAhead == 0 ? algorithm.getFilteredPosterior(var)
+                    : algorithm.getPredictivePosterior(var, nTimesAhead));
+        }
+        return posteriors;
+    }
+
+    /**
+     * Returns the filtered posterior distributions of the given variables for each of the given sequences.
+     * The sequences are processed concurrently on the {@code Executor} of this PooledInferenceEngineForDBN.
+     * @param sequences a {@code List} of sequences, each one a {@code List} of {@link DynamicAssignment} objects.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @return a {@code List} with the result of {@link #posterior(List, List)} for each sequence, in the same order.
+     */
+    public List<List<UnivariateDistribution>> posteriors(List<? extends List<? extends DynamicAssignment>> sequences,
+                                                         List<Variable> queries) {
+        return this.pool.applyAll(sequences, (algorithm, sequence) -> this.posterior(algorithm, sequence, queries, 0), this.executor);
+    }
+
+    /**
+     * Returns the filtered posterior distributions of all the dynamic variables for each of the given sequences.
+     * @param sequences a {@code List} of sequences, each one a {@code List} of {@link DynamicAssignment} objects.
+     * @return a {@code List} with the posteriors of all the dynamic variables for each sequence, in the same order.
+     */
+    public List<List<UnivariateDistribution>> posteriors(List<? extends List<? extends DynamicAssignment>> sequences) {
+        return this.posteriors(sequences, this.model.getDynamicVariables().getListOfDynamicVariables());
+    }
+}
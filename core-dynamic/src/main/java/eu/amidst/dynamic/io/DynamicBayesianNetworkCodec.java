@@ -0,0 +1,115 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.io;
+
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.io.BayesianNetworkCodec;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.models.DynamicDAG;
+import eu.amidst.dynamic.variables.DynamicVariables;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class implements a compact and versioned binary format for {@link DynamicBayesianNetwork} models.
+ * It shares the encoding of variables and distributions of {@link BayesianNetworkCodec}. Interface variables
+ * are referenced by their IDs, i.e., by the ID of their dynamic counterpart plus the number of dynamic variables.
+ */
+public final class DynamicBayesianNetworkCodec {
+
+    /** Represents the magic number at the beginning of a binary dynamic Bayesian network, "AMDB" in ASCII. */
+    public static final int MAGIC = 0x414D4442;
+
+    private DynamicBayesianNetworkCodec() {
+    }
+
+    /**
+     * Writes a {@link DynamicBayesianNetwork} to an output stream. The stream is not closed.
+     * @param dbn a {@link DynamicBayesianNetwork} model.
+     * @param outputStream an {@code OutputStream} object.
+     * @throws IOException in case of an error while writing to the stream.
+     */
+    public static void write(DynamicBayesianNetwork dbn, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        BayesianNetworkCodec.writeHeader(out, MAGIC);
+        BayesianNetworkCodec.writeString(out, dbn.getName());
+
+        DynamicVariables dynamicVariables = dbn.getDynamicVariables();
+        out.writeInt(dynamicVariables.getNumberOfVars());
+        for (Variable var : dynamicVariables) {
+            BayesianNetworkCodec.writeVariable(out, var);
+        }
+
+        DynamicDAG dynamicDAG = dbn.getDynamicDAG();
+        ToIntFunction<Variable> parentID = Variable::getVarID;
+        for (Variable var : dynamicVariables) {
+            BayesianNetworkCodec.writeParents(out, dynamicDAG.getParentSetTime0(var).getParents(), parentID);
+            BayesianNetworkCodec.writeParents(out, dynamicDAG.getParentSetTimeT(var).getParents(), parentID);
+        }
+        for (Variable var : dynamicVariables) {
+            BayesianNetworkCodec.writeDistribution(out, dbn.getConditionalDistributionTime0(var), parentID);
+            BayesianNetworkCodec.writeDistribution(out, dbn.getConditionalDistributionTimeT(var), parentID);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a {@link DynamicBayesianNetwork} from an input stream written with
+     * {@link #write(DynamicBayesianNetwork, OutputStream)}. The stream is neither buffered nor closed.
+     * @param inputStream an {@code InputStream} object.
+     * @return a {@link DynamicBayesianNetwork} model.
+     * @throws IOException in case of an error while reading the stream or if it is not a binary dynamic Bayesian network.
+     */
+    public static DynamicBayesianNetwork read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        BayesianNetworkCodec.readHeader(in, MAGIC);
+        String name = BayesianNetworkCodec.readString(in);
+
+        DynamicVariables dynamicVariables = new DynamicVariables();
+        int nVars = in.readInt();
+        for (int i = 0; i < nVars; i++) {
+            BayesianNetworkCodec.readVariable(in, dynamicVariables::newDynamicVariable);
+        }
+
+        DynamicDAG dynamicDAG = new DynamicDAG(dynamicVariables);
+        IntFunction<Variable> parentByID = id -> id < nVars ? dynamicVariables.getVariableById(id)
+                : dynamicVariables.getInterfaceVariable(dynamicVariables.getVariableById(id - nVars));
+        for (Variable var : dynamicVariables) {
+            for (Variable parent : BayesianNetworkCodec.readParents(in, parentByID)) {
+                dynamicDAG.getParentSetTime0(var).addParent(parent);
+            }
+            for (Variable parent : BayesianNetworkCodec.readParents(in, parentByID)) {
+                dynamicDAG.getParentSetTimeT(var).addParent(parent);
+            }
+        }
+        dynamicDAG.setName(name);
+
+        List<ConditionalDistribution> distributionsTime0 = new ArrayList<>(nVars);
+        List<ConditionalDistribution> distributionsTimeT = new ArrayList<>(nVars);
+        for (Variable var : dynamicVariables) {
+            distributionsTime0.add(BayesianNetworkCodec.readDistribution(in, var, parentByID));
+            distributionsTimeT.add(BayesianNetworkCodec.readDistribution(in, var, parentByID));
+        }
+        return new DynamicBayesianNetwork(dynamicDAG, distributionsTime0, distributionsTimeT);
+    }
+}
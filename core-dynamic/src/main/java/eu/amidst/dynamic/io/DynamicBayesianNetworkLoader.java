@@ -17,10 +17,13 @@
 
 package eu.amidst.dynamic.io;
 
+import eu.amidst.core.io.BayesianNetworkCodec;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 
 /**
@@ -29,17 +32,21 @@ import java.io.ObjectInputStream;
 public class DynamicBayesianNetworkLoader {
 
     /**
-     * Loads a {@link DynamicBayesianNetwork} from a file.
+     * Loads a {@link DynamicBayesianNetwork} from a file. Both the binary format of {@link DynamicBayesianNetworkCodec}
+     * and Java serialization are supported, the former being detected by its magic number.
      * @param fileName a name of the file from which the Dynamic Bayesian network will be loaded.
      * @return a {@link DynamicBayesianNetwork} model.
      * @throws ClassNotFoundException in case the class is not found.
      * @throws IOException in case of an error occurs while reading the file.
      */
     public static DynamicBayesianNetwork loadFromFile(String fileName) throws ClassNotFoundException, IOException {
-        ObjectInputStream ois = new ObjectInputStream(new FileInputStream(fileName));
-        Object obj = ois.readObject();
-        ois.close();
-        return (DynamicBayesianNetwork)obj;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(fileName))) {
+            if (BayesianNetworkCodec.startsWith(in, DynamicBayesianNetworkCodec.MAGIC))
+                return DynamicBayesianNetworkCodec.read(in);
+
+            ObjectInputStream ois = new ObjectInputStream(in);
+            return (DynamicBayesianNetwork) ois.readObject();
+        }
     }
 
 }
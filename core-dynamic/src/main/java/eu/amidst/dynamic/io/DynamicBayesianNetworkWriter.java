@@ -20,6 +20,7 @@ package eu.amidst.dynamic.io;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 
@@ -40,4 +41,18 @@ public class DynamicBayesianNetworkWriter {
         out.writeObject(dbn);
         out.close();
     }
+
+    /**
+     * Saves a {@link DynamicBayesianNetwork} model in a file using the binary format of {@link DynamicBayesianNetworkCodec},
+     * which is smaller and faster to load than Java serialization. The file can be read with
+     * {@link DynamicBayesianNetworkLoader#loadFromFile(String)}.
+     * @param dbn a {@link DynamicBayesianNetwork} model.
+     * @param fileName a name of a file where the Dynamic Bayesian network will be saved.
+     * @throws IOException in case of an error occurs while writing to the file.
+     */
+    public static void saveBinary(DynamicBayesianNetwork dbn, String fileName) throws IOException {
+        try (OutputStream out = new FileOutputStream(fileName)) {
+            DynamicBayesianNetworkCodec.write(dbn, out);
+        }
+    }
 }
@@ -21,7 +21,7 @@ import eu.amidst.core.datastream.DataStream;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
 import eu.amidst.core.datastream.filereaders.DataFileReader;
 import eu.amidst.dynamic.datastream.filereaders.DynamicDataStreamFromFile;
-import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFDataReader;
+import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFMappedDataReader;
 
 /**
  * This class allows to load a Dynamic Data Stream from disk.
@@ -29,7 +29,7 @@ import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFDataReader;
 public class DynamicDataStreamLoader {
 
     /** Represents the data file reader. */
-    private static DataFileReader dataFileReader = new ARFFDataReader();
+    private static DataFileReader dataFileReader = new ARFFMappedDataReader();
 
     /**
      * Loads a {@link DataStream} of {@link DynamicDataInstance} from a given file.
@@ -17,6 +17,7 @@ import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.exponentialfamily.SufficientStatistics;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.datastream.SequenceAwareSpliterator;
 import eu.amidst.dynamic.exponentialfamily.EF_DynamicBayesianNetwork;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.dynamic.models.DynamicDAG;
@@ -129,7 +130,7 @@ public class ParallelMLMissingData implements ParameterLearningAlgorithm {
 
         Stream<DataOnMemory<DynamicDataInstance>> stream = null;
         if (parallelMode){
-            stream = dataStream.parallelStreamOfBatches(windowsSize);
+            stream = SequenceAwareSpliterator.toParallelStreamOfBatches(dataStream, windowsSize);
         }else{
             stream = dataStream.streamOfBatches(windowsSize);
         }
@@ -183,7 +184,7 @@ public class ParallelMLMissingData implements ParameterLearningAlgorithm {
 
         Stream<DataOnMemory<DynamicDataInstance>> stream = null;
         if (parallelMode){
-            stream = dataStream.parallelStreamOfBatches(windowsSize);
+            stream = SequenceAwareSpliterator.toParallelStreamOfBatches(dataStream, windowsSize);
         }else{
             stream = dataStream.streamOfBatches(windowsSize);
         }
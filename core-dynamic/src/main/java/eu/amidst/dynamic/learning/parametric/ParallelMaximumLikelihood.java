@@ -18,6 +18,7 @@ import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.exponentialfamily.SufficientStatistics;
 import eu.amidst.core.models.DAG;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.datastream.SequenceAwareSpliterator;
 import eu.amidst.dynamic.exponentialfamily.EF_DynamicBayesianNetwork;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.dynamic.models.DynamicDAG;
@@ -146,7 +147,7 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm {
     public double updateModel(DataStream<DynamicDataInstance> dataStream) {
         Stream<DataOnMemory<DynamicDataInstance>> stream = null;
         if (parallelMode){
-            stream = dataStream.parallelStreamOfBatches(windowsSize);
+            stream = SequenceAwareSpliterator.toParallelStreamOfBatches(dataStream, windowsSize);
         }else{
             stream = dataStream.streamOfBatches(windowsSize);
         }
@@ -174,7 +175,7 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm {
 
         Stream<DataOnMemory<DynamicDataInstance>> stream = null;
         if (parallelMode){
-            stream = dataStream.parallelStreamOfBatches(windowsSize);
+            stream = SequenceAwareSpliterator.toParallelStreamOfBatches(dataStream, windowsSize);
         }else{
             stream = dataStream.streamOfBatches(windowsSize);
         }
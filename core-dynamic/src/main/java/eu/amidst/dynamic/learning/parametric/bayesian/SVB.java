@@ -21,6 +21,7 @@ import eu.amidst.dynamic.datastream.DynamicDataInstance;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.dynamic.models.DynamicDAG;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -187,15 +188,18 @@ public class SVB implements BayesianLearningAlgorithm {
     @Override
     public double updateModel(DataOnMemory<DynamicDataInstance> batch) {
 
-        List<DynamicDataInstance> data = batch.getList();
+        //A batch may contain several sequences, so every instance at time 0 updates the model at time 0.
+        List<DynamicDataInstance> data = new ArrayList<>(batch.getNumberOfDataInstances());
         double logprob = 0;
-        if (batch.getDataInstance(0).getTimeID()==0){
-            logprob+=this.updateModelTime0(batch.getDataInstance(0));
-            data.remove(0);
-            if (data.size()==0)
-                return logprob;
-
+        for (DynamicDataInstance dataInstance : batch) {
+            if (dataInstance.getTimeID()==0)
+                logprob+=this.updateModelTime0(dataInstance);
+            else
+                data.add(dataInstance);
         }
+        if (data.size()==0)
+            return logprob;
+
         logprob+=this.updateModelTimeT(data);
         return logprob;
     }
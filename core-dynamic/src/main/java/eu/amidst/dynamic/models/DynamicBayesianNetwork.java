@@ -29,7 +29,6 @@ package eu.amidst.dynamic.models;
 import eu.amidst.core.distribution.ConditionalDistribution;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
-import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Assignment;
 import eu.amidst.core.variables.Variable;
@@ -88,7 +87,7 @@ public final class DynamicBayesianNetwork implements Serializable {
         BayesianNetwork bnTime0 = new BayesianNetwork(dagTime0);
         for (Variable dynamicVar : this.getDynamicVariables()) {
             Variable staticVar = dagTime0.getVariables().getVariableByName(dynamicVar.getName());
-            ConditionalDistribution deepCopy = Serialization.deepCopy(this.getConditionalDistributionTime0(dynamicVar));
+            ConditionalDistribution deepCopy = this.getConditionalDistributionTime0(dynamicVar).copy();
             deepCopy.setVar(staticVar);
             List<Variable> newParents = deepCopy.getConditioningVariables().stream().map(var -> dagTime0.getVariables().getVariableByName(var.getName())).collect(Collectors.toList());
             deepCopy.setConditioningVariables(newParents);
@@ -106,7 +105,7 @@ public final class DynamicBayesianNetwork implements Serializable {
         BayesianNetwork bnTimeT = new BayesianNetwork(dagTimeT);
         for (Variable dynamicVar : this.getDynamicVariables()) {
             Variable staticVar = dagTimeT.getVariables().getVariableByName(dynamicVar.getName());
-            ConditionalDistribution deepCopy = Serialization.deepCopy(this.getConditionalDistributionTimeT(dynamicVar));
+            ConditionalDistribution deepCopy = this.getConditionalDistributionTimeT(dynamicVar).copy();
             deepCopy.setVar(staticVar);
             List<Variable> newParents = deepCopy.getConditioningVariables().stream().map(var -> dagTimeT.getVariables().getVariableByName(var.getName())).collect(Collectors.toList());
             deepCopy.setConditioningVariables(newParents);
@@ -20,7 +20,10 @@ package eu.amidst.dynamic.utils;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Sets;
 import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
 import eu.amidst.core.io.DataStreamWriter;
+import eu.amidst.core.utils.SplittableRandomGenerator;
+import eu.amidst.dynamic.datastream.DynamicColumnarDataOnMemory;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.core.utils.LocalRandomGenerator;
 import eu.amidst.core.utils.Utils;
@@ -29,9 +32,10 @@ import eu.amidst.core.variables.stateSpaceTypes.RealStateSpace;
 import eu.amidst.core.datastream.Attributes;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -67,6 +71,9 @@ public class DynamicBayesianNetworkSampler {
     /** Represents a {@code Map} containing the latent variables. */
     private Map<Variable, Boolean> latentVars = new HashMap();
 
+    /** Represents the number of sequences of each chunk in the parallel sampling methods. */
+    private int chunkSize = 100;
+
     /**
      * Creates a new DynamicBayesianNetworkSampler given an input {@link DynamicBayesianNetwork} object.
      * @param network1 an input {@link DynamicBayesianNetwork} object.
@@ -117,11 +124,11 @@ public class DynamicBayesianNetworkSampler {
     }
 
     /**
-     * Filters a given {@link HashMapAssignment} object, i.e., sets the values assigned to either missing or noisy variables to Double.NaN.
-     * @param assignment a given {@link HashMapAssignment} object.
-     * @return a filtered {@link HashMapAssignment} object.
+     * Filters a given {@link ArrayAssignment} object, i.e., sets the values assigned to either missing or noisy variables to Double.NaN.
+     * @param assignment a given {@link ArrayAssignment} object.
+     * @return a filtered {@link ArrayAssignment} object.
      */
-    private HashMapAssignment filter(HashMapAssignment assignment){
+    private ArrayAssignment filter(ArrayAssignment assignment){
         hiddenVars.keySet().stream().forEach(var -> assignment.setValue(var,Utils.missingValue()));
         marNoise.entrySet().forEach(e -> {
             if (random.nextDouble()<e.getValue())
@@ -129,7 +136,7 @@ public class DynamicBayesianNetworkSampler {
         });
 
         if (!latentVars.isEmpty()){
-            HashMapAssignment newassignment = new HashMapAssignment();
+            ArrayAssignment newassignment = new ArrayAssignment(network.getNumberOfVars());
             for (Variable variable : assignment.getVariables()) {
                 if (!this.latentVars.containsKey(variable))
                     newassignment.setValue(variable,assignment.getValue(variable));
@@ -171,6 +178,175 @@ public class DynamicBayesianNetworkSampler {
         return new TemporalDataStream(this,nSequences,sequenceLength);
     }
 
+    /**
+     * Sets the number of sequences of each chunk in the parallel sampling methods, i.e.,
+     * {@link #sampleToDataOnMemory(int, int)}, {@link #sampleToParallelDataStream(int, int)} and
+     * {@link #sampleToFile(int, int, String)}. Each chunk is sampled by a single thread with its own random generator,
+     * so the sampled values depend on the seed and on the chunk size, but not on the number of threads.
+     * @param chunkSize a positive {@code int} value.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the number of sequences of each chunk in the parallel sampling methods.
+     * @return a positive {@code int} value.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the attributes of the sampled data, i.e., the SEQUENCE_ID and TIME_ID attributes and the non latent
+     * variables, whose attribute index is given by their ID plus two.
+     * @return an {@link Attributes} object.
+     */
+    private Attributes getSampledAttributes() {
+        List<Attribute> list = new ArrayList<>();
+
+        list.add(new Attribute(0,Attributes.SEQUENCE_ID_ATT_NAME, new RealStateSpace()));
+        list.add(new Attribute(1,Attributes.TIME_ID_ATT_NAME, new RealStateSpace()));
+        list.addAll(this.network.getDynamicVariables().getListOfDynamicVariables().stream()
+                .filter(var -> !this.latentVars.containsKey(var))
+                .map(var -> new Attribute(var.getVarID() + 2, var.getName(), var.getStateSpaceType())).collect(Collectors.toList()));
+        return new Attributes(list);
+    }
+
+    /**
+     * Samples in parallel a data set of nSequences sequences, which is stored by columns. The sequences are divided
+     * into chunks, see {@link #setChunkSize(int)}, and the random generator of each chunk is derived from the seed with
+     * {@link SplittableRandomGenerator#forChunk(long, long)}, so the data set does not depend on the number of threads.
+     * @param nSequences an {@code int} that represents the number of sequences.
+     * @param sequenceLength an {@code int} that represents the length of each sequence.
+     * @return a {@link DynamicColumnarDataOnMemory} object.
+     */
+    public DynamicColumnarDataOnMemory sampleToDataOnMemory(int nSequences, int sequenceLength) {
+        DynamicColumnarDataOnMemory data = new DynamicColumnarDataOnMemory(this.getSampledAttributes(),
+                this.network.getDynamicVariables(), Math.multiplyExact(nSequences, sequenceLength));
+        this.sampleChunks(data, 0, nSequences, sequenceLength);
+        return data;
+    }
+
+    /**
+     * Samples a data stream of nSequences sequences, with the same values as {@link #sampleToDataOnMemory(int, int)}.
+     * The sequences are generated lazily in blocks of several chunks, and the chunks of each block are sampled in
+     * parallel, so the memory used does not depend on the number of sequences.
+     * @param nSequences an {@code int} that represents the number of sequences.
+     * @param sequenceLength an {@code int} that represents the length of each sequence.
+     * @return a {@link DataStream} of {@link DynamicDataInstance}s.
+     */
+    public DataStream<DynamicDataInstance> sampleToParallelDataStream(int nSequences, int sequenceLength) {
+        final Attributes atts = this.getSampledAttributes();
+        final int blockSize = this.chunkSize * 4 * Runtime.getRuntime().availableProcessors();
+        final int nBlocks = (int) (((long) nSequences + blockSize - 1) / blockSize);
+
+        return new DataStream<DynamicDataInstance>() {
+            @Override
+            public Attributes getAttributes() {
+                return atts;
+            }
+
+            @Override
+            public Stream<DynamicDataInstance> stream() {
+                return IntStream.range(0, nBlocks)
+                        .mapToObj(block -> {
+                            int first = block * blockSize;
+                            int size = Math.min(blockSize, nSequences - first);
+                            DynamicColumnarDataOnMemory data = new DynamicColumnarDataOnMemory(atts,
+                                    network.getDynamicVariables(), size * sequenceLength);
+                            sampleChunks(data, first, size, sequenceLength);
+                            return data;
+                        })
+                        .flatMap(DynamicColumnarDataOnMemory::stream);
+            }
+
+            @Override
+            public void close() {
+
+            }
+
+            @Override
+            public boolean isRestartable() {
+                return true;
+            }
+
+            @Override
+            public void restart() {
+
+            }
+        };
+    }
+
+    /**
+     * Samples nSequences sequences and writes them to a file, without keeping them on memory. The format of
+     * the file is given by its extension, see {@link DataStreamWriter#getDataFileWriter(String)}.
+     * @param nSequences an {@code int} that represents the number of sequences.
+     * @param sequenceLength an {@code int} that represents the length of each sequence.
+     * @param path the path of the file.
+     * @throws IOException in case of an error when writing to file.
+     */
+    public void sampleToFile(int nSequences, int sequenceLength, String path) throws IOException {
+        DataStreamWriter.writeDataToFile(this.sampleToParallelDataStream(nSequences, sequenceLength), path);
+    }
+
+    /**
+     * Samples in parallel the chunks of sequences of a {@link DynamicColumnarDataOnMemory} object. A single
+     * {@link ArrayAssignment} is used by each chunk, whose interface variables are set to the previous sampled values.
+     * @param data a {@link DynamicColumnarDataOnMemory} object with the attributes of the sampled data.
+     * @param firstSequence the ID of the first sequence of the data, which must be a multiple of the chunk size.
+     * @param nSequences an {@code int} that represents the number of sequences of the data.
+     * @param sequenceLength an {@code int} that represents the length of each sequence.
+     */
+    private void sampleChunks(DynamicColumnarDataOnMemory data, int firstSequence, int nSequences, int sequenceLength) {
+        final int size = this.chunkSize;
+        final int nChunks = (nSequences + size - 1) / size;
+        final ColumnarDataOnMemory columns = data.getColumnarData();
+        final List<Variable> allVars = this.network.getDynamicVariables().getListOfDynamicVariables();
+        final Variable[] vars = allVars.stream().filter(var -> !this.latentVars.containsKey(var)).toArray(Variable[]::new);
+        final Variable[] interfaceVars = allVars.stream().map(var -> this.network.getDynamicVariables().getInterfaceVariable(var)).toArray(Variable[]::new);
+        final int[] varColumns = new int[vars.length];
+        final double[] marProbs = new double[vars.length];
+        final boolean[] hidden = new boolean[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            varColumns[i] = columns.getColumnIndex(vars[i]);
+            hidden[i] = this.hiddenVars.containsKey(vars[i]);
+            marProbs[i] = this.marNoise.getOrDefault(vars[i], 0.0);
+        }
+
+        IntStream.range(0, nChunks).parallel().forEach(chunk -> {
+            Random random = SplittableRandomGenerator.forChunk(this.seed, firstSequence / size + chunk);
+            ArrayAssignment assignment = new ArrayAssignment(2 * this.network.getNumberOfVars());
+            int end = Math.min(nSequences, (chunk + 1) * size);
+            for (int sequence = chunk * size; sequence < end; sequence++) {
+                for (int k = 0; k < sequenceLength; k++) {
+                    if (k == 0) {
+                        for (Variable var : this.causalOrderTime0) {
+                            assignment.setValue(var, this.network.getConditionalDistributionsTime0().get(var.getVarID()).getUnivariateDistribution(assignment).sample(random));
+                        }
+                    } else {
+                        for (int i = 0; i < interfaceVars.length; i++) {
+                            assignment.setValue(interfaceVars[i], assignment.getValue(allVars.get(i)));
+                        }
+                        for (Variable var : this.causalOrderTimeT) {
+                            assignment.setValue(var, this.network.getConditionalDistributionsTimeT().get(var.getVarID()).getUnivariateDistribution(assignment).sample(random));
+                        }
+                    }
+
+                    int row = sequence * sequenceLength + k;
+                    columns.setValue(row, data.getSequenceColumn(), firstSequence + sequence);
+                    columns.setValue(row, data.getTimeColumn(), k);
+                    for (int i = 0; i < vars.length; i++) {
+                        boolean missing = hidden[i] || (marProbs[i] > 0 && random.nextDouble() < marProbs[i]);
+                        columns.setValue(row, varColumns[i], missing ? Utils.missingValue() : assignment.getValue(vars[i]));
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Returns a {@code Stream} of randomly sampled {@link DynamicDataInstance} for a given sequence sequenceID of length sequenceLength.
      * @param network a {@link DynamicBayesianNetwork} object.
@@ -183,12 +359,12 @@ public class DynamicBayesianNetworkSampler {
      */
     private Stream<DynamicDataInstance> sample(DynamicBayesianNetwork network, List<Variable> causalOrderTime0, List<Variable> causalOrderTimeT, Random random, int sequenceID, int sequenceLength) {
 
-        final HashMapAssignment[] data = new HashMapAssignment[2];
+        final ArrayAssignment[] data = new ArrayAssignment[2];
 
         return IntStream.range(0, sequenceLength).mapToObj( k ->
         {
             if (k==0) {
-                HashMapAssignment dataPresent = new HashMapAssignment(network.getNumberOfVars());
+                ArrayAssignment dataPresent = new ArrayAssignment(network.getNumberOfVars());
 
                 for (Variable var : causalOrderTime0) {
                     double sampledValue = network.getConditionalDistributionsTime0().get(var.getVarID()).getUnivariateDistribution(dataPresent).sample(random);
@@ -199,7 +375,7 @@ public class DynamicBayesianNetworkSampler {
 
                 return new DynamicDataInstanceImpl(network, null, data[1], sequenceID, 0);
             }else {
-                HashMapAssignment dataPresent = new HashMapAssignment(network.getNumberOfVars());
+                ArrayAssignment dataPresent = new ArrayAssignment(network.getNumberOfVars());
 
                 DynamicDataInstance d = new DynamicDataInstanceImpl(network, data[0], dataPresent, sequenceID, k);
 
@@ -221,11 +397,11 @@ public class DynamicBayesianNetworkSampler {
 
     /**
      * Replicates the present data in the past time.
-     * @param dataPresent a {@link HashMapAssignment} object that represents the present data.
-     * @return a {@link HashMapAssignment} object that represents the past data.
+     * @param dataPresent an {@link ArrayAssignment} object that represents the present data.
+     * @return an {@link ArrayAssignment} object that represents the past data.
      */
-    private HashMapAssignment replicateOnPast(HashMapAssignment dataPresent){
-        HashMapAssignment dataPast = new HashMapAssignment(network.getNumberOfVars());
+    private ArrayAssignment replicateOnPast(ArrayAssignment dataPresent){
+        ArrayAssignment dataPast = new ArrayAssignment(2 * network.getNumberOfVars());
         for (Variable var : network.getDynamicVariables().getListOfDynamicVariables()) {
             dataPast.setValue(network.getDynamicVariables().getInterfaceVariable(var), dataPresent.getValue(var));
         }
@@ -251,14 +427,7 @@ public class DynamicBayesianNetworkSampler {
             this.sampler=sampler1;
             this.nSequences = nSequences1;
             this.sequenceLength = sequenceLength1;
-            List<Attribute> list = new ArrayList<>();
-
-            list.add(new Attribute(0,Attributes.SEQUENCE_ID_ATT_NAME, new RealStateSpace()));
-            list.add(new Attribute(1,Attributes.TIME_ID_ATT_NAME, new RealStateSpace()));
-            list.addAll(this.sampler.network.getDynamicVariables().getListOfDynamicVariables().stream()
-                    .filter(var -> !sampler1.getLatentVars().contains(var))
-                    .map(var -> new Attribute(var.getVarID() + 2, var.getName(), var.getStateSpaceType())).collect(Collectors.toList()));
-            this.atts= new Attributes(list);
+            this.atts= this.sampler.getSampledAttributes();
         }
 
         /**
@@ -308,20 +477,20 @@ public class DynamicBayesianNetworkSampler {
     static class DynamicDataInstanceImpl implements DynamicDataInstance, Serializable {
 
         DynamicBayesianNetwork dbn;
-        private HashMapAssignment dataPresent;
-        private HashMapAssignment dataPast;
+        private ArrayAssignment dataPresent;
+        private ArrayAssignment dataPast;
         private long sequenceID;
         private long timeID;
 
         /**
          * Creates a new DynamicDataInstance.
          * @param dbn_ a {@link DynamicBayesianNetwork} object.
-         * @param dataPast1 a {@link HashMapAssignment} object representing the past data.
-         * @param dataPresent1 a {@link HashMapAssignment} object representing the present data.
+         * @param dataPast1 an {@link ArrayAssignment} object representing the past data.
+         * @param dataPresent1 an {@link ArrayAssignment} object representing the present data.
          * @param sequenceID1 an {@code int} that represents the sequence ID.
          * @param timeID1 an {@code int} that represents the time ID.
          */
-        public DynamicDataInstanceImpl(DynamicBayesianNetwork dbn_, HashMapAssignment dataPast1, HashMapAssignment dataPresent1, int sequenceID1, int timeID1){
+        public DynamicDataInstanceImpl(DynamicBayesianNetwork dbn_, ArrayAssignment dataPast1, ArrayAssignment dataPresent1, int sequenceID1, int timeID1){
             this.dbn=dbn_;
             dataPresent = dataPresent1;
             dataPast =  dataPast1;
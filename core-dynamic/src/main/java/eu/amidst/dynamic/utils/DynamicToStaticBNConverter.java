@@ -20,7 +20,6 @@ package eu.amidst.dynamic.utils;
 import eu.amidst.core.distribution.ConditionalDistribution;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
-import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.core.variables.VariableBuilder;
 import eu.amidst.core.variables.Variables;
@@ -100,7 +99,7 @@ public class DynamicToStaticBNConverter {
                 if(i==0) {
                     staticVar = variables.getVariableByName(dynamicVariables.getVariableById(j).getName() + "_t0");
 
-                    cdist = Serialization.deepCopy(dbn.getConditionalDistributionsTime0().get(j));
+                    cdist = dbn.getConditionalDistributionsTime0().get(j).copy();
                     cdist.getConditioningVariables().stream().forEachOrdered(cdvar -> parentList.add(variables.getVariableByName(cdvar.getName() + "_t0")));
                 }
                 else {
@@ -108,7 +107,7 @@ public class DynamicToStaticBNConverter {
                     final int final_i = i;
                     staticVar = variables.getVariableByName(dynamicVariables.getVariableById(j).getName() + "_t" + Integer.toString(final_i));
 
-                    cdist = Serialization.deepCopy(dbn.getConditionalDistributionsTimeT().get(j));
+                    cdist = dbn.getConditionalDistributionsTimeT().get(j).copy();
                     cdist.getConditioningVariables().stream().forEachOrdered(cdvar -> {
                         parentList.add(((cdvar.isInterfaceVariable() || (cdvar.getName().contains("_t"))) ?
                                 variables.getVariableByName(cdvar.getName().replace("_Interface", "_t" + Integer.toString(final_i - 1))) :
@@ -332,6 +332,26 @@ public class DynamicVariables  implements Iterable<Variable>, Serializable {
         return var;
     }
 
+    /**
+     * Creates a new dynamic Variable given a {@link VariableBuilder} object.
+     * @param builder a {@link VariableBuilder} object.
+     * @return a new dynamic {@link Variable} object.
+     */
+    public Variable newDynamicVariable(VariableBuilder builder) {
+        VariableImplementation var = new VariableImplementation(builder, nonInterfaceVariables.size());
+        if (mapping.containsKey(var.getName())) {
+            throw new IllegalArgumentException("Attribute list contains duplicated names: " + var.getName());
+        }
+        this.mapping.put(var.getName(), var.getVarID());
+        nonInterfaceVariables.add(var);
+
+        VariableImplementation interfaceVariable = VariableImplementation.newInterfaceVariable(var);
+        var.setInterfaceVariable(interfaceVariable);
+        interfaceVariables.add(var.getVarID(), interfaceVariable);
+
+        return var;
+    }
+
     /**
      * Creates a new real dynamic Variable given an {@link Variable} object.
      * @param var a given {@link Variable} object.
@@ -0,0 +1,112 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.datastream;
+
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.dynamic.learning.parametric.ParallelMaximumLikelihood;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkGenerator;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkSampler;
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that {@link SequenceAwareSpliterator} only splits the data at the boundaries between sequences.
+ */
+public class SequenceAwareSpliteratorTest extends TestCase {
+
+    private static final int N_SEQUENCES = 30;
+    private static final int SEQUENCE_LENGTH = 17;
+
+    private DynamicBayesianNetwork dbn;
+    private DataStream<DynamicDataInstance> data;
+
+    protected void setUp() {
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(1);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(3);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(2);
+        dbn = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0), 2, true);
+
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(dbn);
+        sampler.setSeed(0);
+        data = sampler.sampleToDataBase(N_SEQUENCES, SEQUENCE_LENGTH);
+    }
+
+    public void testBatchesOfWholeSequences() {
+        int batchSize = 40;
+        List<DataOnMemory<DynamicDataInstance>> batches = SequenceAwareSpliterator.toParallelStreamOfBatches(data, batchSize)
+                .collect(Collectors.toList());
+
+        Set<Long> seen = new HashSet<>();
+        int count = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            DataOnMemory<DynamicDataInstance> batch = batches.get(i);
+            if (i < batches.size() - 1)
+                assertTrue(batch.getNumberOfDataInstances() >= batchSize);
+
+            //Each sequence is complete, in order, and only appears in one batch.
+            for (Long sequenceID : batch.stream().map(DynamicDataInstance::getSequenceID).collect(Collectors.toSet())) {
+                assertTrue(seen.add(sequenceID));
+                List<DynamicDataInstance> sequence = batch.stream()
+                        .filter(instance -> instance.getSequenceID() == sequenceID)
+                        .collect(Collectors.toList());
+                assertEquals(SEQUENCE_LENGTH, sequence.size());
+                for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                    assertEquals(t, sequence.get(t).getTimeID());
+                }
+            }
+            count += batch.getNumberOfDataInstances();
+        }
+        assertEquals(N_SEQUENCES, seen.size());
+        assertEquals(N_SEQUENCES * SEQUENCE_LENGTH, count);
+    }
+
+    public void testParallelStream() {
+        List<DynamicDataInstance> sequential = data.stream().collect(Collectors.toList());
+        List<DynamicDataInstance> parallel = SequenceAwareSpliterator.toParallelStream(data, 25).collect(Collectors.toList());
+
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getSequenceID(), parallel.get(i).getSequenceID());
+            assertEquals(sequential.get(i).getTimeID(), parallel.get(i).getTimeID());
+        }
+    }
+
+    public void testParallelMaximumLikelihood() {
+        ParallelMaximumLikelihood sequential = new ParallelMaximumLikelihood();
+        sequential.setParallelMode(false);
+        sequential.setDynamicDAG(dbn.getDynamicDAG());
+        sequential.setDataStream(data);
+        sequential.runLearning();
+
+        ParallelMaximumLikelihood parallel = new ParallelMaximumLikelihood();
+        parallel.setParallelMode(true);
+        parallel.setWindowsSize(20);
+        parallel.setDynamicDAG(dbn.getDynamicDAG());
+        parallel.setDataStream(data);
+        parallel.runLearning();
+
+        assertTrue(sequential.getLearntDBN().equalDBNs(parallel.getLearntDBN(), 1e-8));
+    }
+}
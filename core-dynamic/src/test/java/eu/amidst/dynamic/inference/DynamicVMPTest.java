@@ -0,0 +1,142 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.inference;
+
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DataSequence;
+import eu.amidst.dynamic.datastream.DataSequenceStream;
+import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkGenerator;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkSampler;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Checks {@link DynamicVMP#getPredictivePosteriors(List, int)} against {@link DynamicVMP#getPredictivePosterior(Variable, int)},
+ * and the parallel filtering of a data stream against the sequential filtering of each sequence.
+ */
+public class DynamicVMPTest extends TestCase {
+
+    private static DynamicVMP runSequence(DynamicBayesianNetwork dbn, List<DynamicDataInstance> sequence) {
+        DynamicVMP vmp = new DynamicVMP();
+        vmp.setModel(dbn);
+        for (DynamicDataInstance instance : sequence) {
+            vmp.addDynamicEvidence(instance);
+            vmp.runInference();
+        }
+        return vmp;
+    }
+
+    public void testPredictivePosteriors() {
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(2);
+        DynamicBayesianNetwork dbn = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0), 3, true);
+
+        Variable classVar = dbn.getDynamicVariables().getVariableByName("ClassVar");
+        Variable continuousVar = dbn.getDynamicVariables().getListOfDynamicVariables().stream()
+                .filter(Variable::isNormal).findFirst().get();
+        List<Variable> vars = Arrays.asList(classVar, continuousVar);
+
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(dbn);
+        sampler.setSeed(1);
+        sampler.setHiddenVar(classVar);
+        List<DynamicDataInstance> sequence = sampler.sampleToDataBase(1, 5).stream().collect(Collectors.toList());
+
+        int maxHorizon = 4;
+        for (int length = 0; length <= sequence.size(); length++) {
+            List<DynamicDataInstance> prefix = sequence.subList(0, length);
+            DynamicVMP vmp = runSequence(dbn, prefix);
+
+            double[] filtered = length == 0 ? null : vmp.getFilteredPosterior(classVar).getParameters();
+            List<List<UnivariateDistribution>> predictions = vmp.getPredictivePosteriors(vars, maxHorizon);
+            assertEquals(maxHorizon, predictions.size());
+
+            //The filtered state is left untouched.
+            if (length > 0)
+                assertTrue(Arrays.equals(filtered, vmp.getFilteredPosterior(classVar).getParameters()));
+
+            //For the empty sequence, the first prediction is the posterior at time 0 with no evidence.
+            if (length == 0) {
+                DynamicVMP time0 = runSequence(dbn, prefix);
+                time0.vmpTime0.setEvidence(null);
+                time0.vmpTime0.runInference();
+                for (int i = 0; i < vars.size(); i++) {
+                    assertTrue(Arrays.equals(time0.vmpTime0.getPosterior(vars.get(i)).getParameters(),
+                            predictions.get(0).get(i).getParameters()));
+                }
+            }
+
+            //getPredictivePosterior only rolls the window forward after the second time step.
+            if (length < 2) {
+                for (List<UnivariateDistribution> prediction : predictions) {
+                    UnivariateDistribution classPrediction = prediction.get(0);
+                    assertEquals(1.0, classPrediction.getProbability(0) + classPrediction.getProbability(1)
+                            + classPrediction.getProbability(2), 1e-8);
+                }
+                continue;
+            }
+
+            for (int horizon = 1; horizon <= maxHorizon; horizon++) {
+                for (int i = 0; i < vars.size(); i++) {
+                    UnivariateDistribution expected = runSequence(dbn, prefix).getPredictivePosterior(vars.get(i), horizon);
+                    double[] actual = predictions.get(horizon - 1).get(i).getParameters();
+                    double[] expectedParams = expected.getParameters();
+                    for (int k = 0; k < expectedParams.length; k++) {
+                        assertEquals(expectedParams[k], actual[k], 1e-8);
+                    }
+                }
+            }
+        }
+    }
+
+    public void testLastFilteredPosteriors() {
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(1);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(2);
+        DynamicBayesianNetwork dbn = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0), 2, true);
+        Variable classVar = dbn.getDynamicVariables().getVariableByName("ClassVar");
+
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(dbn);
+        sampler.setSeed(1);
+        sampler.setHiddenVar(classVar);
+        DataStream<DynamicDataInstance> data = sampler.sampleToDataBase(12, 6);
+
+        DynamicVMP vmp = new DynamicVMP();
+        vmp.setModel(dbn);
+        List<UnivariateDistribution> posteriors = vmp.getLastFilteredPosteriors(data, classVar, 10);
+
+        List<DataSequence> sequences = DataSequenceStream.streamOfDataSequences(data).sequential().collect(Collectors.toList());
+        assertEquals(sequences.size(), posteriors.size());
+        for (int s = 0; s < sequences.size(); s++) {
+            List<DynamicDataInstance> sequence = sequences.get(s).stream().collect(Collectors.toList());
+            double[] expected = runSequence(dbn, sequence).getFilteredPosterior(classVar).getParameters();
+            double[] actual = posteriors.get(s).getParameters();
+            for (int k = 0; k < expected.length; k++) {
+                assertEquals(expected[k], actual[k], 1e-8);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.inference;
+
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DataSequence;
+import eu.amidst.dynamic.datastream.DataSequenceStream;
+import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkGenerator;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkSampler;
+import eu.amidst.dynamic.variables.HashMapDynamicAssignment;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Checks {@link ForwardBackwardForDBN} against the brute force enumeration of the hidden sequences.
+ */
+public class ForwardBackwardForDBNTest extends TestCase {
+
+    private static final int SEQUENCE_LENGTH = 5;
+
+    private DynamicBayesianNetwork dbn;
+    private Variable classVar;
+    private List<DataSequence> sequences;
+
+    protected void setUp() {
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(2);
+        dbn = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0), 2, true);
+        classVar = dbn.getDynamicVariables().getVariableByName("ClassVar");
+
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(dbn);
+        sampler.setSeed(1);
+        sampler.setHiddenVar(classVar);
+        sequences = DataSequenceStream.streamOfDataSequences(sampler.sampleToDataBase(3, SEQUENCE_LENGTH))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the log-probability of the observations of the first time steps of a sequence and a hidden path.
+     */
+    private double logJoint(List<DynamicDataInstance> instances, int[] path) {
+        double logProb = 0;
+        HashMapAssignment assignment = new HashMapAssignment();
+        for (int t = 0; t < path.length; t++) {
+            for (Variable var : dbn.getDynamicVariables()) {
+                double value = var.equals(classVar) ? path[t] : instances.get(t).getValue(var);
+                if (t > 0)
+                    assignment.setValue(var.getInterfaceVariable(), assignment.getValue(var));
+                assignment.setValue(var, value);
+            }
+            logProb += (t == 0) ? dbn.getLogProbabiltyOfFullAssignmentTime0(assignment) : dbn.getLogProbabiltyOfFullAssignmentTimeT(assignment);
+        }
+        return logProb;
+    }
+
+    private static int[] toPath(int index, int length, int nStates) {
+        int[] path = new int[length];
+        for (int t = 0; t < length; t++) {
+            path[t] = index % nStates;
+            index /= nStates;
+        }
+        return path;
+    }
+
+    public void testAgainstBruteForce() {
+        ForwardBackwardForDBN forwardBackward = new ForwardBackwardForDBN();
+        forwardBackward.setHiddenVar(classVar);
+        forwardBackward.setModel(dbn);
+
+        int nStates = classVar.getNumberOfStates();
+        int nPaths = (int) Math.pow(nStates, SEQUENCE_LENGTH);
+
+        List<double[][]> smoothed = forwardBackward.getSmoothedPosteriors(sequences);
+        List<int[]> decoded = forwardBackward.getMostProbableSequences(sequences);
+
+        for (int s = 0; s < sequences.size(); s++) {
+            List<DynamicDataInstance> instances = sequences.get(s).stream().collect(Collectors.toList());
+            assertEquals(SEQUENCE_LENGTH, instances.size());
+
+            double[] logJoints = new double[nPaths];
+            int best = 0;
+            for (int i = 0; i < nPaths; i++) {
+                logJoints[i] = logJoint(instances, toPath(i, SEQUENCE_LENGTH, nStates));
+                if (logJoints[i] > logJoints[best])
+                    best = i;
+            }
+
+            //Smoothed posteriors
+            double[] probs = Utils.logs2probs(logJoints.clone());
+            for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                double[] expected = new double[nStates];
+                for (int i = 0; i < nPaths; i++) {
+                    expected[toPath(i, SEQUENCE_LENGTH, nStates)[t]] += probs[i];
+                }
+                for (int k = 0; k < nStates; k++) {
+                    assertEquals(expected[k], smoothed.get(s)[t][k], 1e-8);
+                }
+            }
+
+            //Most probable sequence
+            int[] expectedPath = toPath(best, SEQUENCE_LENGTH, nStates);
+            for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                assertEquals(expectedPath[t], decoded.get(s)[t]);
+            }
+
+            //Log-probability of the observations
+            double max = logJoints[best];
+            double sum = 0;
+            for (double logJoint : logJoints) {
+                sum += Math.exp(logJoint - max);
+            }
+            assertEquals(max + Math.log(sum), forwardBackward.getLogProbabilityOfSequence(sequences.get(s)), 1e-8);
+
+            //Filtered posteriors, one time step at a time
+            forwardBackward.reset();
+            for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                forwardBackward.addDynamicEvidence(instances.get(t));
+                forwardBackward.runInference();
+
+                int nPrefixes = (int) Math.pow(nStates, t + 1);
+                double[] logPrefixes = new double[nPrefixes];
+                for (int i = 0; i < nPrefixes; i++) {
+                    logPrefixes[i] = logJoint(instances, toPath(i, t + 1, nStates));
+                }
+                double[] prefixProbs = Utils.logs2probs(logPrefixes);
+                double[] expected = new double[nStates];
+                for (int i = 0; i < nPrefixes; i++) {
+                    expected[toPath(i, t + 1, nStates)[t]] += prefixProbs[i];
+                }
+                double[] filtered = forwardBackward.getFilteredPosterior(classVar).getParameters();
+                for (int k = 0; k < nStates; k++) {
+                    assertEquals(expected[k], filtered[k], 1e-8);
+                }
+            }
+        }
+    }
+
+    public void testPredictivePosterior() {
+        ForwardBackwardForDBN forwardBackward = new ForwardBackwardForDBN();
+        forwardBackward.setHiddenVar(classVar);
+        forwardBackward.setModel(dbn);
+
+        for (DynamicDataInstance instance : sequences.get(0)) {
+            forwardBackward.addDynamicEvidence(instance);
+            forwardBackward.runInference();
+
+            double[] filtered = forwardBackward.getFilteredPosterior(classVar).getParameters();
+
+            //The predictive posterior propagates the filtered posterior through the transition probabilities.
+            double[] expectedPredictive = filtered;
+            for (int n = 0; n < 2; n++) {
+                double[] next = new double[expectedPredictive.length];
+                HashMapAssignment assignment = new HashMapAssignment();
+                for (int j = 0; j < next.length; j++) {
+                    assignment.setValue(classVar.getInterfaceVariable(), j);
+                    for (int k = 0; k < next.length; k++) {
+                        assignment.setValue(classVar, k);
+                        next[k] += expectedPredictive[j] * Math.exp(dbn.getConditionalDistributionTimeT(classVar).getLogConditionalProbability(assignment));
+                    }
+                }
+                expectedPredictive = next;
+            }
+            double[] predictive = forwardBackward.getPredictivePosterior(classVar, 2).getParameters();
+            for (int k = 0; k < predictive.length; k++) {
+                assertEquals(expectedPredictive[k], predictive[k], 1e-8);
+            }
+        }
+    }
+
+    public void testGapInTimeID() {
+        List<DynamicDataInstance> instances = sequences.get(0).stream().collect(Collectors.toList());
+
+        //The observed variables depend on their previous values, which are missing after a gap.
+        ForwardBackwardForDBN forwardBackward = new ForwardBackwardForDBN();
+        forwardBackward.setHiddenVar(classVar);
+        forwardBackward.setModel(dbn);
+        forwardBackward.addDynamicEvidence(instances.get(0));
+        forwardBackward.runInference();
+        forwardBackward.addDynamicEvidence(instances.get(2));
+        try {
+            forwardBackward.runInference();
+            fail();
+        } catch (IllegalArgumentException ex) {
+            //The model can not be filtered over the gap.
+        }
+
+        //Without temporal links between the observed variables, a gap is a time step without evidence.
+        DynamicBayesianNetwork naiveBayes = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0), 2, false);
+        Variable naiveBayesClassVar = naiveBayes.getDynamicVariables().getVariableByName("ClassVar");
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(naiveBayes);
+        sampler.setSeed(1);
+        sampler.setHiddenVar(naiveBayesClassVar);
+        instances = DataSequenceStream.streamOfDataSequences(sampler.sampleToDataBase(1, SEQUENCE_LENGTH))
+                .findFirst().get().stream().collect(Collectors.toList());
+
+        ForwardBackwardForDBN withGap = new ForwardBackwardForDBN();
+        withGap.setHiddenVar(naiveBayesClassVar);
+        withGap.setModel(naiveBayes);
+        ForwardBackwardForDBN withoutEvidence = new ForwardBackwardForDBN();
+        withoutEvidence.setHiddenVar(naiveBayesClassVar);
+        withoutEvidence.setModel(naiveBayes);
+
+        HashMapDynamicAssignment empty = new HashMapDynamicAssignment(0);
+        empty.setSequenceID((int) instances.get(0).getSequenceID());
+        empty.setTimeID(2);
+
+        for (int t : new int[]{0, 1, 3}) {
+            if (t == 3) {
+                withoutEvidence.addDynamicEvidence(empty);
+                withoutEvidence.runInference();
+            }
+            withGap.addDynamicEvidence(instances.get(t));
+            withGap.runInference();
+            withoutEvidence.addDynamicEvidence(instances.get(t));
+            withoutEvidence.runInference();
+        }
+
+        double[] expected = withoutEvidence.getFilteredPosterior(naiveBayesClassVar).getParameters();
+        double[] filtered = withGap.getFilteredPosterior(naiveBayesClassVar).getParameters();
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], filtered[k], 1e-8);
+        }
+    }
+
+    public void testUnsupportedModel() {
+        ForwardBackwardForDBN forwardBackward = new ForwardBackwardForDBN();
+        //The class variable is observable and there is no hidden variable, so the chain can not be detected.
+        try {
+            forwardBackward.setModel(dbn);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            assertFalse(ForwardBackwardForDBN.isSingleDiscreteChain(dbn, null));
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.inference;
+
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.distribution.Normal;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DataSequence;
+import eu.amidst.dynamic.datastream.DataSequenceStream;
+import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.models.DynamicDAG;
+import eu.amidst.dynamic.utils.DataSetGenerator;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkSampler;
+import eu.amidst.dynamic.variables.DynamicVariables;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Checks {@link KalmanFilterForDBN} against the exact joint Gaussian of the unrolled network.
+ */
+public class KalmanFilterForDBNTest extends TestCase {
+
+    private static final int SEQUENCE_LENGTH = 4;
+
+    /**
+     * Creates a Kalman filter with two hidden variables and three observed variables, where the first observed
+     * variable depends on the second one, and the first hidden variable on the second one. With a multinomial hidden
+     * variable, the Normal variables also depend on it, as in a switching Kalman filter.
+     */
+    private static DynamicBayesianNetwork createModel(boolean switching) {
+        DynamicVariables variables = new DynamicVariables(DataSetGenerator.generate(1, 10, 0, 3).getAttributes());
+        List<Variable> observedVars = new ArrayList<>(variables.getListOfDynamicVariables());
+        Variable hidden0 = variables.newGaussianDynamicVariable("gaussianHiddenVar0");
+        Variable hidden1 = variables.newGaussianDynamicVariable("gaussianHiddenVar1");
+        Variable discrete = switching ? variables.newMultinomialDynamicVariable("discreteHiddenVar", 2) : null;
+
+        DynamicDAG dag = new DynamicDAG(variables);
+        for (Variable hidden : Arrays.asList(hidden0, hidden1)) {
+            dag.getParentSetTimeT(hidden).addParent(hidden.getInterfaceVariable());
+            if (switching)
+                dag.getParentSetTimeT(hidden).addParent(discrete);
+        }
+        dag.getParentSetTimeT(hidden0).addParent(hidden1);
+        for (Variable observed : observedVars) {
+            dag.getParentSetTimeT(observed).addParent(hidden0);
+            dag.getParentSetTimeT(observed).addParent(hidden1);
+            if (switching)
+                dag.getParentSetTimeT(observed).addParent(discrete);
+        }
+        dag.getParentSetTimeT(observedVars.get(0)).addParent(observedVars.get(1));
+        if (switching)
+            dag.getParentSetTimeT(discrete).addParent(discrete.getInterfaceVariable());
+
+        DynamicBayesianNetwork dbn = new DynamicBayesianNetwork(dag);
+        dbn.randomInitialization(new Random(0));
+        return dbn;
+    }
+
+    private static List<DataSequence> sample(DynamicBayesianNetwork dbn, int nSequences) {
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(dbn);
+        sampler.setSeed(1);
+        return DataSequenceStream.streamOfDataSequences(sampler.sampleToDataBase(nSequences, SEQUENCE_LENGTH))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This class represents the joint Gaussian of the Normal variables of the first time steps of the unrolled
+     * network, for fixed values of the multinomial hidden variable.
+     */
+    private static final class UnrolledGaussian {
+
+        final List<Variable> vars = new ArrayList<>();
+        final List<Integer> times = new ArrayList<>();
+        final double[] mean;
+        final double[][] covariance;
+
+        UnrolledGaussian(DynamicBayesianNetwork dbn, int nTimes, int[] regimes) {
+            List<Variable> normalVars = dbn.getDynamicVariables().getListOfDynamicVariables().stream()
+                    .filter(Variable::isNormal).collect(Collectors.toList());
+            int size = normalVars.size() * nTimes;
+            mean = new double[size];
+            covariance = new double[size][size];
+            Variable discrete = dbn.getDynamicVariables().getListOfDynamicVariables().stream()
+                    .filter(Variable::isMultinomial).findFirst().orElse(null);
+
+            for (int t = 0; t < nTimes; t++) {
+                List<Variable> order = (t == 0) ? eu.amidst.dynamic.utils.Utils.getCausalOrderTime0(dbn.getDynamicDAG())
+                        : eu.amidst.dynamic.utils.Utils.getCausalOrderTimeT(dbn.getDynamicDAG());
+                for (Variable var : order) {
+                    if (!var.isNormal())
+                        continue;
+                    ConditionalDistribution dist = (t == 0) ? dbn.getConditionalDistributionTime0(var) : dbn.getConditionalDistributionTimeT(var);
+
+                    //The linear coefficients are recovered from the means given unit values of the parents.
+                    HashMapAssignment assignment = new HashMapAssignment();
+                    if (discrete != null) {
+                        assignment.setValue(discrete, regimes[t]);
+                        if (t > 0)
+                            assignment.setValue(discrete.getInterfaceVariable(), regimes[t - 1]);
+                    }
+                    List<Variable> parents = dist.getConditioningVariables().stream().filter(Variable::isNormal).collect(Collectors.toList());
+                    parents.forEach(parent -> assignment.setValue(parent, 0));
+                    Normal base = (Normal) dist.getUnivariateDistribution(assignment);
+
+                    int index = vars.size();
+                    mean[index] = base.getMean();
+                    covariance[index][index] = base.getVariance();
+                    for (Variable parent : parents) {
+                        assignment.setValue(parent, 1);
+                        double coefficient = ((Normal) dist.getUnivariateDistribution(assignment)).getMean() - base.getMean();
+                        assignment.setValue(parent, 0);
+
+                        int parentIndex = parent.isInterfaceVariable()
+                                ? indexOf(dbn.getDynamicVariables().getVariableFromInterface(parent), t - 1)
+                                : indexOf(parent, t);
+                        mean[index] += coefficient * mean[parentIndex];
+                        for (int u = 0; u < index; u++) {
+                            covariance[index][u] += coefficient * covariance[parentIndex][u];
+                        }
+                    }
+                    for (Variable parent : parents) {
+                        assignment.setValue(parent, 1);
+                        double coefficient = ((Normal) dist.getUnivariateDistribution(assignment)).getMean() - base.getMean();
+                        assignment.setValue(parent, 0);
+                        int parentIndex = parent.isInterfaceVariable()
+                                ? indexOf(dbn.getDynamicVariables().getVariableFromInterface(parent), t - 1)
+                                : indexOf(parent, t);
+                        covariance[index][index] += coefficient * covariance[index][parentIndex];
+                    }
+                    for (int u = 0; u < index; u++) {
+                        covariance[u][index] = covariance[index][u];
+                    }
+                    vars.add(var);
+                    times.add(t);
+                }
+            }
+        }
+
+        int indexOf(Variable var, int t) {
+            for (int i = 0; i < vars.size(); i++) {
+                if (vars.get(i).equals(var) && times.get(i) == t)
+                    return i;
+            }
+            throw new IllegalStateException();
+        }
+
+        /**
+         * Returns the log-density of the observations, and stores the posterior mean and variance of a node.
+         */
+        double condition(List<DynamicDataInstance> instances, int target, double[] posterior) {
+            List<Integer> observed = new ArrayList<>();
+            for (int i = 0; i < vars.size(); i++) {
+                if (vars.get(i).isObservable())
+                    observed.add(i);
+            }
+            int size = observed.size();
+            double[][] factor = new double[size][size];
+            double[] residual = new double[size];
+            double[] crossCovariance = new double[size];
+            for (int a = 0; a < size; a++) {
+                int i = observed.get(a);
+                residual[a] = instances.get(times.get(i)).getValue(vars.get(i)) - mean[i];
+                crossCovariance[a] = covariance[target][i];
+                for (int b = 0; b < size; b++) {
+                    factor[a][b] = covariance[i][observed.get(b)];
+                }
+            }
+
+            //Cholesky decomposition of the covariance of the observations.
+            double logDeterminant = 0;
+            for (int j = 0; j < size; j++) {
+                for (int a = 0; a < j; a++) {
+                    factor[j][j] -= factor[j][a] * factor[j][a];
+                }
+                factor[j][j] = Math.sqrt(factor[j][j]);
+                logDeterminant += 2 * Math.log(factor[j][j]);
+                for (int i = j + 1; i < size; i++) {
+                    for (int a = 0; a < j; a++) {
+                        factor[i][j] -= factor[i][a] * factor[j][a];
+                    }
+                    factor[i][j] /= factor[j][j];
+                }
+            }
+            double[] whitenedResidual = forwardSubstitution(factor, residual);
+            double[] whitenedCross = forwardSubstitution(factor, crossCovariance);
+
+            double quadratic = 0;
+            posterior[0] = mean[target];
+            posterior[1] = covariance[target][target];
+            for (int a = 0; a < size; a++) {
+                quadratic += whitenedResidual[a] * whitenedResidual[a];
+                posterior[0] += whitenedCross[a] * whitenedResidual[a];
+                posterior[1] -= whitenedCross[a] * whitenedCross[a];
+            }
+            return -0.5 * (size * Math.log(2 * Math.PI) + logDeterminant + quadratic);
+        }
+
+        private static double[] forwardSubstitution(double[][] factor, double[] vector) {
+            double[] result = new double[vector.length];
+            for (int i = 0; i < vector.length; i++) {
+                double value = vector[i];
+                for (int a = 0; a < i; a++) {
+                    value -= factor[i][a] * result[a];
+                }
+                result[i] = value / factor[i][i];
+            }
+            return result;
+        }
+    }
+
+    public void testFilteringAndSmoothing() {
+        DynamicBayesianNetwork dbn = createModel(false);
+        List<DataSequence> sequences = sample(dbn, 3);
+
+        KalmanFilterForDBN kalmanFilter = new KalmanFilterForDBN();
+        kalmanFilter.setModel(dbn);
+        List<Variable> hiddenVars = kalmanFilter.getHiddenVars();
+        assertEquals(2, hiddenVars.size());
+
+        List<KalmanFilterForDBN.StateSequence> smoothed = kalmanFilter.getSmoothedStates(sequences);
+
+        double[] posterior = new double[2];
+        for (int s = 0; s < sequences.size(); s++) {
+            List<DynamicDataInstance> instances = sequences.get(s).stream().collect(Collectors.toList());
+
+            kalmanFilter.reset();
+            for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                kalmanFilter.addDynamicEvidence(instances.get(t));
+                kalmanFilter.runInference();
+
+                UnrolledGaussian prefix = new UnrolledGaussian(dbn, t + 1, null);
+                double logLikelihood = 0;
+                for (Variable hiddenVar : hiddenVars) {
+                    logLikelihood = prefix.condition(instances, prefix.indexOf(hiddenVar, t), posterior);
+                    Normal filtered = kalmanFilter.getFilteredPosterior(hiddenVar);
+                    assertEquals(posterior[0], filtered.getMean(), 1e-6);
+                    assertEquals(posterior[1], filtered.getVariance(), 1e-6);
+                }
+                assertEquals(logLikelihood, kalmanFilter.getLogProbabilityOfEvidence(), 1e-6);
+            }
+
+            UnrolledGaussian full = new UnrolledGaussian(dbn, SEQUENCE_LENGTH, null);
+            KalmanFilterForDBN.StateSequence states = smoothed.get(s);
+            for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                for (int i = 0; i < hiddenVars.size(); i++) {
+                    double logLikelihood = full.condition(instances, full.indexOf(hiddenVars.get(i), t), posterior);
+                    assertEquals(posterior[0], states.getMeans()[t][i], 1e-6);
+                    assertEquals(posterior[1], states.getCovariances()[t][i * hiddenVars.size() + i], 1e-6);
+                    assertEquals(logLikelihood, states.getLogLikelihood(), 1e-6);
+                }
+            }
+        }
+    }
+
+    public void testSwitchingModel() {
+        DynamicBayesianNetwork dbn = createModel(true);
+        List<DataSequence> sequences = sample(dbn, 3);
+
+        KalmanFilterForDBN kalmanFilter = new KalmanFilterForDBN();
+        kalmanFilter.setModel(dbn);
+        Variable discrete = kalmanFilter.getDiscreteVar();
+        Variable hiddenVar = kalmanFilter.getHiddenVars().get(0);
+        assertNotNull(discrete);
+
+        double[] posterior = new double[2];
+        for (DataSequence sequence : sequences) {
+            List<DynamicDataInstance> instances = sequence.stream().collect(Collectors.toList());
+            kalmanFilter.reset();
+            for (int t = 0; t < SEQUENCE_LENGTH; t++) {
+                kalmanFilter.addDynamicEvidence(instances.get(t));
+                kalmanFilter.runInference();
+
+                //The exact posterior is a mixture over all the sequences of states of the multinomial variable.
+                int nPaths = 1 << (t + 1);
+                double[] logWeights = new double[nPaths];
+                double[] means = new double[nPaths];
+                double[] variances = new double[nPaths];
+                for (int path = 0; path < nPaths; path++) {
+                    int[] regimes = new int[t + 1];
+                    double logPrior = 0;
+                    for (int u = 0; u <= t; u++) {
+                        regimes[u] = (path >> u) & 1;
+                        HashMapAssignment assignment = new HashMapAssignment();
+                        assignment.setValue(discrete, regimes[u]);
+                        if (u > 0)
+                            assignment.setValue(discrete.getInterfaceVariable(), regimes[u - 1]);
+                        logPrior += (u == 0) ? dbn.getConditionalDistributionTime0(discrete).getLogConditionalProbability(assignment)
+                                : dbn.getConditionalDistributionTimeT(discrete).getLogConditionalProbability(assignment);
+                    }
+                    UnrolledGaussian prefix = new UnrolledGaussian(dbn, t + 1, regimes);
+                    logWeights[path] = logPrior + prefix.condition(instances, prefix.indexOf(hiddenVar, t), posterior);
+                    means[path] = posterior[0];
+                    variances[path] = posterior[1];
+                }
+                double[] weights = Utils.logs2probs(logWeights);
+                double[] expected = new double[2];
+                double expectedMean = 0;
+                for (int path = 0; path < nPaths; path++) {
+                    expected[(path >> t) & 1] += weights[path];
+                    expectedMean += weights[path] * means[path];
+                }
+                double expectedVariance = 0;
+                for (int path = 0; path < nPaths; path++) {
+                    expectedVariance += weights[path] * (variances[path] + Math.pow(means[path] - expectedMean, 2));
+                }
+
+                double[] filtered = kalmanFilter.getFilteredPosterior(discrete).getParameters();
+                Normal filteredHidden = kalmanFilter.getFilteredPosterior(hiddenVar);
+                if (t == 0) {
+                    //Without past time steps, the IMM approximation is exact.
+                    assertEquals(expected[0], filtered[0], 1e-6);
+                    assertEquals(expectedMean, filteredHidden.getMean(), 1e-6);
+                    assertEquals(expectedVariance, filteredHidden.getVariance(), 1e-6);
+                } else {
+                    assertEquals(expected[0], filtered[0], 0.1);
+                    assertEquals(expectedMean, filteredHidden.getMean(), 0.1 * Math.sqrt(expectedVariance));
+                }
+            }
+        }
+    }
+
+    public void testUnsupportedModel() {
+        DynamicVariables variables = new DynamicVariables(DataSetGenerator.generate(1, 10, 0, 1).getAttributes());
+        Variable observed = variables.getListOfDynamicVariables().get(0);
+        Variable hidden = variables.newGaussianDynamicVariable("gaussianHiddenVar");
+        DynamicDAG dag = new DynamicDAG(variables);
+        dag.getParentSetTimeT(hidden).addParent(observed);
+        DynamicBayesianNetwork dbn = new DynamicBayesianNetwork(dag);
+        dbn.randomInitialization(new Random(0));
+
+        try {
+            new KalmanFilterForDBN().setModel(dbn);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+        }
+    }
+}
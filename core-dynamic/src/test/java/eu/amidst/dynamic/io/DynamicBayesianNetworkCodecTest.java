@@ -0,0 +1,78 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.dynamic.io;
+
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
+import eu.amidst.dynamic.utils.DynamicBayesianNetworkGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Testing the binary format of {@link DynamicBayesianNetworkCodec}.
+ */
+public class DynamicBayesianNetworkCodecTest {
+
+    private static DynamicBayesianNetwork roundTrip(DynamicBayesianNetwork dbn) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DynamicBayesianNetworkCodec.write(dbn, out);
+        return DynamicBayesianNetworkCodec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTripOfStoredNetworks() throws Exception {
+        File folder = new File("../networks/simulated/");
+        for (File fileEntry : folder.listFiles()) {
+            if (!fileEntry.getName().endsWith(".dbn"))
+                continue;
+
+            DynamicBayesianNetwork dbn;
+            try {
+                dbn = DynamicBayesianNetworkLoader.loadFromFile(fileEntry.getPath());
+            } catch (ClassCastException ex) {
+                continue;
+            }
+
+            DynamicBayesianNetwork dbn2 = roundTrip(dbn);
+            Assert.assertEquals(dbn.getName(), dbn2.getName());
+            Assert.assertEquals(dbn.getNumberOfDynamicVars(), dbn2.getNumberOfDynamicVars());
+            Assert.assertTrue("Round trip failed for " + fileEntry.getName(), dbn.equalDBNs(dbn2, 0.0));
+        }
+    }
+
+    @Test
+    public void testLoaderDetectsBinaryFormat() throws Exception {
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(3);
+        DynamicBayesianNetwork dbn = DynamicBayesianNetworkGenerator.generateDynamicTAN(new Random(0), 2, true);
+
+        File file = File.createTempFile("codec", ".dbn");
+        file.deleteOnExit();
+        DynamicBayesianNetworkWriter.saveBinary(dbn, file.getPath());
+        Assert.assertTrue(dbn.equalDBNs(DynamicBayesianNetworkLoader.loadFromFile(file.getPath()), 0.0));
+
+        DynamicBayesianNetworkWriter.save(dbn, file.getPath());
+        Assert.assertTrue(dbn.equalDBNs(DynamicBayesianNetworkLoader.loadFromFile(file.getPath()), 0.0));
+    }
+}
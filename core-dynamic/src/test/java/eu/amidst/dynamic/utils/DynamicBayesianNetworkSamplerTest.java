@@ -18,12 +18,18 @@
 package eu.amidst.dynamic.utils;
 
 import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Variable;
+import eu.amidst.dynamic.datastream.DynamicColumnarDataOnMemory;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
 import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import junit.framework.TestCase;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * Created by andresmasegosa on 25/11/15.
@@ -53,4 +59,39 @@ public class DynamicBayesianNetworkSamplerTest extends TestCase {
         assertEquals(6,dataPredict.streamOfBatches(50).count());
     }
 
-}
\ No newline at end of file
+    public static void testParallelSampling() throws Exception {
+
+        DynamicBayesianNetworkGenerator.setNumberOfContinuousVars(1);
+        DynamicBayesianNetworkGenerator.setNumberOfDiscreteVars(2);
+        DynamicBayesianNetworkGenerator.setNumberOfStates(2);
+        DynamicBayesianNetwork dbn = DynamicBayesianNetworkGenerator.generateDynamicNaiveBayes(new Random(0),2,true);
+        Variable classVar = dbn.getDynamicVariables().getVariableByName("ClassVar");
+
+        DynamicBayesianNetworkSampler sampler = new DynamicBayesianNetworkSampler(dbn);
+        sampler.setSeed(1);
+        sampler.setChunkSize(7);
+        sampler.setMARVar(classVar,0.5);
+
+        DynamicColumnarDataOnMemory parallel = sampler.sampleToDataOnMemory(50, 20);
+        DynamicColumnarDataOnMemory sequential = new ForkJoinPool(1).submit(() -> sampler.sampleToDataOnMemory(50, 20)).get();
+        List<DynamicDataInstance> stream = sampler.sampleToParallelDataStream(50, 20).stream().collect(Collectors.toList());
+
+        assertEquals(1000,parallel.getNumberOfDataInstances());
+        assertEquals(1000,stream.size());
+        for (int i = 0; i < 1000; i++) {
+            DynamicDataInstance instance = parallel.getDataInstance(i);
+            assertTrue(Arrays.equals(instance.toArray(), sequential.getDataInstance(i).toArray()));
+            assertTrue(Arrays.equals(instance.toArray(), stream.get(i).toArray()));
+            assertEquals(i / 20, instance.getSequenceID());
+            assertEquals(i % 20, instance.getTimeID());
+
+            //The past values are the values of the previous time step of the same sequence.
+            Variable interfaceVar = dbn.getDynamicVariables().getInterfaceVariable(classVar);
+            if (instance.getTimeID() == 0)
+                assertTrue(Utils.isMissingValue(instance.getValue(interfaceVar)));
+            else
+                assertEquals(parallel.getDataInstance(i - 1).getValue(classVar), instance.getValue(interfaceVar));
+        }
+    }
+
+}
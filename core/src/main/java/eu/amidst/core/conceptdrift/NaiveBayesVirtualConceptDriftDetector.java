@@ -17,6 +17,7 @@
 package eu.amidst.core.conceptdrift;
 
 import eu.amidst.core.conceptdrift.utils.GaussianHiddenTransitionMethod;
+import eu.amidst.core.conceptdrift.utils.IncrementalGaussianHiddenDrift;
 import eu.amidst.core.datastream.Attribute;
 import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataOnMemory;
@@ -28,6 +29,7 @@ import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.core.variables.Variables;
+import eu.amidst.core.variables.StateSpaceTypeEnum;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -44,8 +46,13 @@ import java.util.List;
  */
 public class NaiveBayesVirtualConceptDriftDetector {
 
-    /** Represents the drift detection mode. Only the global mode is currently provided.*/
-    public enum DriftDetector {GLOBAL};
+    /**
+     * Represents the drift detection mode. In the GLOBAL mode, the model is learnt with the {@link SVB} class. In the
+     * GLOBAL_INCREMENTAL mode, the posterior of the global hidden variables is updated with each data instance and
+     * the parameters are updated at the end of each window, without running VMP, see
+     * {@link IncrementalGaussianHiddenDrift}. Only the Gaussian attributes depend on the hidden variables in this mode.
+     */
+    public enum DriftDetector {GLOBAL, GLOBAL_INCREMENTAL};
 
     /** Represents the data stream used for detecting the concepts drifts*/
     DataStream<DataInstance> data;
@@ -59,7 +66,7 @@ public class NaiveBayesVirtualConceptDriftDetector {
     /** Represents the index of the class variable of the classifier*/
     int classIndex = -1;
 
-    /** Represents the drift detection mode. Only the global mode is currently provided.*/
+    /** Represents the drift detection mode.*/
     DriftDetector conceptDriftDetector = DriftDetector.GLOBAL;
 
     /** Represents the seed of the class*/
@@ -68,6 +75,12 @@ public class NaiveBayesVirtualConceptDriftDetector {
     /** Represents the underlying learning engine*/
     SVB svb;
 
+    /** Represents the incremental model of the GLOBAL_INCREMENTAL mode*/
+    IncrementalGaussianHiddenDrift incrementalModel;
+
+    /** Represents the class variable of the GLOBAL_INCREMENTAL mode*/
+    Variable classVariable;
+
     /** Represents the list of hidden vars modelling concept drift*/
     List<Variable> hiddenVars;
 
@@ -85,6 +98,8 @@ public class NaiveBayesVirtualConceptDriftDetector {
      * @return A <code>Variable</code> object
      */
     public Variable getClassVariable(){
+        if (this.conceptDriftDetector == DriftDetector.GLOBAL_INCREMENTAL)
+            return this.classVariable;
         return this.svb.getLearntBayesianNetwork().getVariables().getVariableById(this.classIndex);
     }
 
@@ -111,6 +126,14 @@ public class NaiveBayesVirtualConceptDriftDetector {
      */
     public int getClassIndex(){return classIndex;}
 
+    /**
+     * Sets the drift detection mode. By default, the GLOBAL mode.
+     * @param conceptDriftDetector, a <code>DriftDetector</code> value.
+     */
+    public void setConceptDriftDetector(DriftDetector conceptDriftDetector) {
+        this.conceptDriftDetector = conceptDriftDetector;
+    }
+
     /**
      * Sets the data stream where the concept drift will be detected
      * @param data, a <code>DataStream</code> object
@@ -213,6 +236,30 @@ public class NaiveBayesVirtualConceptDriftDetector {
         svb.initLearning();
     }
 
+    /**
+     * Builds the incremental model of the GLOBAL_INCREMENTAL mode.
+     */
+    private void buildIncrementalModel(){
+        Variables variables = new Variables(data.getAttributes());
+        Attribute classAttribute = data.getAttributes().getFullListOfAttributes().get(classIndex);
+        hiddenVars = new ArrayList<Variable>();
+
+        for (int i = 0; i < this.numberOfGlobalVars ; i++) {
+            hiddenVars.add(variables.newGaussianVariable("GlobalHidden_"+i));
+        }
+
+        classVariable = variables.getVariableByName(classAttribute.getName());
+
+        List<Attribute> gaussianAttributes = new ArrayList<>();
+        for (Attribute att : data.getAttributes().getListOfNonSpecialAttributes()) {
+            if (!att.equals(classAttribute) && att.getStateSpaceType().getStateSpaceTypeEnum() == StateSpaceTypeEnum.REAL)
+                gaussianAttributes.add(att);
+        }
+
+        incrementalModel = new IncrementalGaussianHiddenDrift(classAttribute, gaussianAttributes,
+                this.numberOfGlobalVars, this.windowsSize, this.transitionVariance, this.fading, this.seed);
+    }
+
     /**
      * Initialises the class for concept drift detection.
      */
@@ -225,6 +272,9 @@ public class NaiveBayesVirtualConceptDriftDetector {
             case GLOBAL:
                 this.buildGlobalDAG();
                 break;
+            case GLOBAL_INCREMENTAL:
+                this.buildIncrementalModel();
+                break;
         }
     }
 
@@ -235,6 +285,16 @@ public class NaiveBayesVirtualConceptDriftDetector {
      * @return An array of double values containing the expected value of the global hidden variables.
      */
     public double[] updateModel(DataOnMemory<DataInstance> batch){
+        if (this.conceptDriftDetector == DriftDetector.GLOBAL_INCREMENTAL) {
+            for (DataInstance instance : batch)
+                this.incrementalModel.updateModel(instance);
+            double[] out = new double[hiddenVars.size()];
+            for (int i = 0; i < out.length; i++) {
+                out[i] = this.incrementalModel.getMean(i);
+            }
+            return out;
+        }
+
         svb.updateModel(batch);
         double[] out = new double[hiddenVars.size()];
         for (int i = 0; i < out.length; i++) {
@@ -245,6 +305,39 @@ public class NaiveBayesVirtualConceptDriftDetector {
         return out;
     }
 
+    /**
+     * Updates the model with a new data instance. Only available in the GLOBAL_INCREMENTAL mode, where each window
+     * is closed after windowsSize data instances.
+     * @param instance, a <code>DataInstance</code> object.
+     */
+    public void updateModel(DataInstance instance){
+        if (this.conceptDriftDetector != DriftDetector.GLOBAL_INCREMENTAL)
+            throw new UnsupportedOperationException("Updating with single instances requires the GLOBAL_INCREMENTAL mode.");
+        this.incrementalModel.updateModel(instance);
+    }
+
+    /**
+     * Returns the expected value of a global hidden variable. Only available in the GLOBAL_INCREMENTAL mode.
+     * @param i, the index of the global hidden variable.
+     * @return A double value.
+     */
+    public double getHiddenMean(int i){
+        if (this.conceptDriftDetector != DriftDetector.GLOBAL_INCREMENTAL)
+            throw new UnsupportedOperationException("Only available in the GLOBAL_INCREMENTAL mode.");
+        return this.incrementalModel.getMean(i);
+    }
+
+    /**
+     * Returns the drift score over a sliding window of windowsSize data instances, see
+     * {@link IncrementalGaussianHiddenDrift#getDriftScore()}. Only available in the GLOBAL_INCREMENTAL mode.
+     * @return A non negative double value.
+     */
+    public double getDriftScore(){
+        if (this.conceptDriftDetector != DriftDetector.GLOBAL_INCREMENTAL)
+            throw new UnsupportedOperationException("Only available in the GLOBAL_INCREMENTAL mode.");
+        return this.incrementalModel.getDriftScore();
+    }
+
     /**
      * Returns the list of global hidden variables
      * @return A list of <code>Variable</code> objects
@@ -258,6 +351,8 @@ public class NaiveBayesVirtualConceptDriftDetector {
      * @return A <code>BayesianNetwork</code> object.
      */
     public BayesianNetwork getLearntBayesianNetwork(){
+        if (this.conceptDriftDetector == DriftDetector.GLOBAL_INCREMENTAL)
+            throw new UnsupportedOperationException("Only available in the GLOBAL mode.");
         return svb.getLearntBayesianNetwork();
     }
 
@@ -0,0 +1,414 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.conceptdrift.utils;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class tracks the global hidden variables of a Naive Bayes concept drift model without running VMP.
+ * The model is the one built by {@link eu.amidst.core.conceptdrift.NaiveBayesVirtualConceptDriftDetector}: each
+ * Gaussian attribute depends on the class and on the global hidden variables H, i.e.,
+ * X | C=c, H=h ~ N(a_c + b_c h, s_c), and the hidden variables follow a Gaussian random walk between windows
+ * with the given transition variance. The multinomial attributes do not depend on the hidden variables.
+ *
+ * <p> All the statistics are stored in primitive arrays and no object is allocated per data instance:
+ * <ul>
+ *     <li> The Gaussian posterior of the hidden variables of the current window is updated with each data instance,
+ *     since the parameters of the model are fixed within a window. The posterior is mean field when there are several
+ *     hidden variables, as in VMP. </li>
+ *     <li> The per class sufficient statistics of the attributes are accumulated during the window, and the
+ *     parameters are updated at the end of the window by a regression on the posterior of the hidden variables,
+ *     which is the closed-form variational update. </li>
+ * </ul>
+ * </p>
+ *
+ * <p> The slopes b are randomly initialised, as the VMP of the {@link eu.amidst.core.learning.parametric.bayesian.SVB}
+ * class, and they have a weak Gaussian prior centred at their initial values, worth a single data instance. </p>
+ */
+public class IncrementalGaussianHiddenDrift implements Serializable {
+
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 4107783324901370839L;
+
+    /** Represents the minimum variance of an attribute. */
+    private static final double MIN_VARIANCE = 1e-6;
+
+    /** Represents the scale of the initial slopes, relative to the standard deviation of each attribute. */
+    private static final double INITIAL_SLOPE = 0.1;
+
+    /** Represents the class attribute. */
+    private final Attribute classAttribute;
+
+    /** Represents the Gaussian attributes. */
+    private final Attribute[] attributes;
+
+    /** Represents the number of class values. */
+    private final int nClasses;
+
+    /** Represents the number of hidden variables. */
+    private final int nHidden;
+
+    /** Represents the size of the window. */
+    private final int windowsSize;
+
+    /** Represents the variance added to the hidden variables between windows. */
+    private final double transitionVariance;
+
+    /** Represents the fading factor of the sufficient statistics. */
+    private final double fading;
+
+    /** Represents the random number generator used to initialise the slopes. */
+    private final Random random;
+
+    /** Represents the intercepts, indexed by attribute and class. */
+    private final double[] intercepts;
+
+    /** Represents the slopes, indexed by attribute, class and hidden variable. */
+    private final double[] slopes;
+
+    /** Represents the initial slopes, indexed by attribute, class and hidden variable. */
+    private final double[] initialSlopes;
+
+    /** Represents the variances, indexed by attribute and class. */
+    private final double[] variances;
+
+    /** Represents the number of data instances of the window, indexed by attribute and class. */
+    private final double[] windowCounts;
+
+    /** Represents the sum of the values of the window, indexed by attribute and class. */
+    private final double[] windowSums;
+
+    /** Represents the sum of the squared values of the window, indexed by attribute and class. */
+    private final double[] windowSquaredSums;
+
+    /** Represents the regression statistic E[z z'], with z = (1, h), indexed by attribute and class. */
+    private final double[] szz;
+
+    /** Represents the regression statistic E[z] x, indexed by attribute and class. */
+    private final double[] szx;
+
+    /** Represents the sum of the squared values, indexed by attribute and class. */
+    private final double[] sxx;
+
+    /** Represents the number of data instances, indexed by attribute and class. */
+    private final double[] sn;
+
+    /** Represents the precision of the posterior of each hidden variable. */
+    private final double[] precisions;
+
+    /** Represents the precision times the mean of the posterior of each hidden variable. */
+    private final double[] naturalMeans;
+
+    /** Represents the mean of the posterior of each hidden variable. */
+    private final double[] means;
+
+    /** Represents the posterior means of the last windowsSize data instances. */
+    private final double[] pastMeans;
+
+    /** Represents the posterior variances of the last windowsSize data instances. */
+    private final double[] pastVariances;
+
+    /** Represents the scratch matrix of the regression. */
+    private final double[] matrix;
+
+    /** Represents the scratch vector of the regression. */
+    private final double[] vector;
+
+    /** Represents the number of data instances processed. */
+    private long count = 0;
+
+    /** Represents the number of data instances of the current window. */
+    private int windowCount = 0;
+
+    /** Represents whether the parameters have been initialised with the first window. */
+    private boolean initialized = false;
+
+    /**
+     * Creates a new IncrementalGaussianHiddenDrift.
+     * @param classAttribute_ the class attribute, which must be multinomial.
+     * @param attributes_ the Gaussian attributes.
+     * @param nHidden_ the number of global hidden variables.
+     * @param windowsSize_ the size of the window.
+     * @param transitionVariance_ the variance added to the hidden variables between windows.
+     * @param fading_ the fading factor of the sufficient statistics.
+     * @param seed the seed used to initialise the slopes.
+     */
+    public IncrementalGaussianHiddenDrift(Attribute classAttribute_, List<Attribute> attributes_, int nHidden_,
+                                          int windowsSize_, double transitionVariance_, double fading_, int seed) {
+        if (windowsSize_ < 1)
+            throw new IllegalArgumentException("The window size must be positive.");
+        this.classAttribute = classAttribute_;
+        this.attributes = attributes_.toArray(new Attribute[attributes_.size()]);
+        this.nClasses = classAttribute_.getNumberOfStates();
+        this.nHidden = nHidden_;
+        this.windowsSize = windowsSize_;
+        this.transitionVariance = transitionVariance_;
+        this.fading = fading_;
+        this.random = new Random(seed);
+
+        int nParams = this.attributes.length * this.nClasses;
+        int dim = this.nHidden + 1;
+        this.intercepts = new double[nParams];
+        this.slopes = new double[nParams * this.nHidden];
+        this.initialSlopes = new double[nParams * this.nHidden];
+        this.variances = new double[nParams];
+        this.windowCounts = new double[nParams];
+        this.windowSums = new double[nParams];
+        this.windowSquaredSums = new double[nParams];
+        this.szz = new double[nParams * dim * dim];
+        this.szx = new double[nParams * dim];
+        this.sxx = new double[nParams];
+        this.sn = new double[nParams];
+        this.precisions = new double[this.nHidden];
+        this.naturalMeans = new double[this.nHidden];
+        this.means = new double[this.nHidden];
+        this.pastMeans = new double[this.windowsSize * this.nHidden];
+        this.pastVariances = new double[this.windowsSize * this.nHidden];
+        this.matrix = new double[dim * dim];
+        this.vector = new double[dim];
+
+        //The prior of the hidden variables is N(0,1).
+        Arrays.fill(this.precisions, 1.0);
+    }
+
+    /**
+     * Updates the model with a data instance.
+     * @param instance a {@link DataInstance} object.
+     */
+    public void updateModel(DataInstance instance) {
+        double classValue = instance.getValue(this.classAttribute);
+        if (!Utils.isMissingValue(classValue)) {
+            int c = (int) classValue;
+            for (int j = 0; j < this.attributes.length; j++) {
+                double x = instance.getValue(this.attributes[j]);
+                if (Utils.isMissingValue(x))
+                    continue;
+
+                int p = j * this.nClasses + c;
+                this.windowCounts[p]++;
+                this.windowSums[p] += x;
+                this.windowSquaredSums[p] += x * x;
+
+                if (!this.initialized)
+                    continue;
+
+                for (int l = 0; l < this.nHidden; l++) {
+                    double residual = x - this.intercepts[p];
+                    for (int m = 0; m < this.nHidden; m++) {
+                        if (m != l)
+                            residual -= this.slopes[p * this.nHidden + m] * this.means[m];
+                    }
+                    double b = this.slopes[p * this.nHidden + l];
+                    this.precisions[l] += b * b / this.variances[p];
+                    this.naturalMeans[l] += b * residual / this.variances[p];
+                }
+            }
+            for (int l = 0; l < this.nHidden; l++)
+                this.means[l] = this.naturalMeans[l] / this.precisions[l];
+        }
+
+        int pos = (int) (this.count % this.windowsSize);
+        for (int l = 0; l < this.nHidden; l++) {
+            this.pastMeans[pos * this.nHidden + l] = this.means[l];
+            this.pastVariances[pos * this.nHidden + l] = 1.0 / this.precisions[l];
+        }
+        this.count++;
+
+        if (++this.windowCount == this.windowsSize)
+            this.endWindow();
+    }
+
+    /**
+     * Closes the current window: updates the parameters with the sufficient statistics of the window, and applies
+     * the transition to the posterior of the hidden variables.
+     */
+    public void endWindow() {
+        if (!this.initialized)
+            this.initParameters();
+
+        int dim = this.nHidden + 1;
+        for (int p = 0; p < this.sn.length; p++) {
+            for (int i = 0; i < dim * dim; i++)
+                this.szz[p * dim * dim + i] *= this.fading;
+            for (int i = 0; i < dim; i++)
+                this.szx[p * dim + i] *= this.fading;
+            this.sxx[p] *= this.fading;
+            this.sn[p] *= this.fading;
+
+            double n = this.windowCounts[p];
+            if (n == 0)
+                continue;
+
+            //E[z z'] and E[z] with z = (1, h) under the mean field posterior of the window.
+            for (int r = 0; r < dim; r++) {
+                double zr = (r == 0) ? 1 : this.means[r - 1];
+                this.szx[p * dim + r] += zr * this.windowSums[p];
+                for (int s = 0; s < dim; s++) {
+                    double zs = (s == 0) ? 1 : this.means[s - 1];
+                    double zz = zr * zs + ((r == s && r > 0) ? 1.0 / this.precisions[r - 1] : 0);
+                    this.szz[(p * dim + r) * dim + s] += n * zz;
+                }
+            }
+            this.sxx[p] += this.windowSquaredSums[p];
+            this.sn[p] += n;
+
+            this.updateParameters(p);
+
+            this.windowCounts[p] = 0;
+            this.windowSums[p] = 0;
+            this.windowSquaredSums[p] = 0;
+        }
+
+        for (int l = 0; l < this.nHidden; l++) {
+            this.precisions[l] = 1.0 / (1.0 / this.precisions[l] + this.transitionVariance);
+            this.naturalMeans[l] = this.means[l] * this.precisions[l];
+        }
+        this.windowCount = 0;
+    }
+
+    /**
+     * Initialises the parameters with the statistics of the first window.
+     */
+    private void initParameters() {
+        for (int p = 0; p < this.sn.length; p++) {
+            double n = this.windowCounts[p];
+            double mean = (n > 0) ? this.windowSums[p] / n : 0;
+            double variance = (n > 1) ? Math.max(MIN_VARIANCE, this.windowSquaredSums[p] / n - mean * mean) : 1;
+            this.intercepts[p] = mean;
+            this.variances[p] = variance;
+            for (int l = 0; l < this.nHidden; l++) {
+                this.initialSlopes[p * this.nHidden + l] = INITIAL_SLOPE * Math.sqrt(variance) * this.random.nextGaussian();
+                this.slopes[p * this.nHidden + l] = this.initialSlopes[p * this.nHidden + l];
+            }
+        }
+        this.initialized = true;
+    }
+
+    /**
+     * Updates the parameters of an attribute and class value by solving the regression of the attribute on the
+     * hidden variables. The slopes have a Gaussian prior centred at their initial values and worth one data instance.
+     * @param p the index of the attribute and class value.
+     */
+    private void updateParameters(int p) {
+        int dim = this.nHidden + 1;
+        for (int r = 0; r < dim; r++) {
+            double prior = (r == 0) ? MIN_VARIANCE : 1;
+            for (int s = 0; s < dim; s++)
+                this.matrix[r * dim + s] = this.szz[(p * dim + r) * dim + s] + ((r == s) ? prior : 0);
+            this.vector[r] = this.szx[p * dim + r] + ((r == 0) ? 0 : prior * this.initialSlopes[p * this.nHidden + r - 1]);
+        }
+        solve(this.matrix, this.vector, dim);
+
+        this.intercepts[p] = this.vector[0];
+        for (int l = 0; l < this.nHidden; l++)
+            this.slopes[p * this.nHidden + l] = this.vector[l + 1];
+
+        //E[(x - w'z)^2] = sxx - 2 w'szx + w'szz w.
+        double residual = this.sxx[p];
+        for (int r = 0; r < dim; r++) {
+            residual -= 2 * this.vector[r] * this.szx[p * dim + r];
+            for (int s = 0; s < dim; s++)
+                residual += this.vector[r] * this.szz[(p * dim + r) * dim + s] * this.vector[s];
+        }
+        this.variances[p] = Math.max(MIN_VARIANCE, residual / this.sn[p]);
+    }
+
+    /**
+     * Solves in place a linear system with Gaussian elimination and partial pivoting.
+     * @param a the matrix of the system, by rows, which is overwritten.
+     * @param b the right-hand side of the system, which is overwritten with the solution.
+     * @param n the dimension of the system.
+     */
+    private static void solve(double[] a, double[] b, int n) {
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(a[i * n + k]) > Math.abs(a[pivot * n + k]))
+                    pivot = i;
+            }
+            if (pivot != k) {
+                for (int j = 0; j < n; j++) {
+                    double tmp = a[k * n + j];
+                    a[k * n + j] = a[pivot * n + j];
+                    a[pivot * n + j] = tmp;
+                }
+                double tmp = b[k];
+                b[k] = b[pivot];
+                b[pivot] = tmp;
+            }
+            for (int i = k + 1; i < n; i++) {
+                double factor = a[i * n + k] / a[k * n + k];
+                for (int j = k; j < n; j++)
+                    a[i * n + j] -= factor * a[k * n + j];
+                b[i] -= factor * b[k];
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            for (int j = k + 1; j < n; j++)
+                b[k] -= a[k * n + j] * b[j];
+            b[k] /= a[k * n + k];
+        }
+    }
+
+    /**
+     * Returns the mean of the posterior of a hidden variable.
+     * @param i the index of the hidden variable.
+     * @return a {@code double} value.
+     */
+    public double getMean(int i) {
+        return this.means[i];
+    }
+
+    /**
+     * Returns the variance of the posterior of a hidden variable.
+     * @param i the index of the hidden variable.
+     * @return a {@code double} value.
+     */
+    public double getVariance(int i) {
+        return 1.0 / this.precisions[i];
+    }
+
+    /**
+     * Returns the drift score over a sliding window of windowsSize data instances, i.e., the largest standardised
+     * difference between the posterior means of a hidden variable after the last and the first data instances of the
+     * sliding window. It is 0 until more than windowsSize data instances are processed.
+     * @return a non negative {@code double} value.
+     */
+    public double getDriftScore() {
+        if (this.count <= this.windowsSize)
+            return 0;
+
+        //The oldest entry of the buffer is the first data instance of the sliding window.
+        int oldest = (int) (this.count % this.windowsSize);
+        int last = (int) ((this.count - 1) % this.windowsSize);
+        double score = 0;
+        for (int l = 0; l < this.nHidden; l++) {
+            double diff = this.pastMeans[last * this.nHidden + l] - this.pastMeans[oldest * this.nHidden + l];
+            double variance = this.pastVariances[last * this.nHidden + l] + this.pastVariances[oldest * this.nHidden + l];
+            score = Math.max(score, Math.abs(diff) / Math.sqrt(variance));
+        }
+        return score;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.datastream;
+
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.Variable;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The ColumnarDataOnMemory class implements the {@link DataOnMemory} interface.
+ * It stores the values of each attribute in its own {@code double[]} column, and the {@link DataInstance} objects
+ * are light views over a row of the columns, created on demand.
+ *
+ * <p> The columns are given by the full list of attributes. Optionally, a list of {@link Variable} objects, one per
+ * column, can be provided, so that the values are also accessed through variables which are not linked to an
+ * attribute, e.g., the variables of a sampled {@link eu.amidst.core.models.BayesianNetwork}. </p>
+ */
+public class ColumnarDataOnMemory implements DataOnMemory<DataInstance>, Serializable {
+
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 4107783324901370839L;
+
+    /** Represents the attributes of the data set. */
+    private final Attributes attributes;
+
+    /** Represents the values of the data set, one column per attribute. */
+    private final double[][] columns;
+
+    /** Represents the column of each attribute, given its index. */
+    private final int[] columnOfAttribute;
+
+    /** Represents the column of each variable, given its ID, or {@code null} if the variables are not provided. */
+    private final int[] columnOfVariable;
+
+    /** Represents the variable of each column, or {@code null} if the variables are not provided. */
+    private final Variable[] variables;
+
+    /** Represents the number of data instances. */
+    private final int nInstances;
+
+    /**
+     * Creates a new ColumnarDataOnMemory with all the values missing.
+     * @param attributes_ the attributes of the data set.
+     * @param nInstances the number of data instances.
+     */
+    public ColumnarDataOnMemory(Attributes attributes_, int nInstances) {
+        this(attributes_, null, nInstances);
+    }
+
+    /**
+     * Creates a new ColumnarDataOnMemory with all the values missing.
+     * @param attributes_ the attributes of the data set.
+     * @param variables_ the variable of each column, in the order of the full list of attributes, or {@code null}.
+     *                   The entries of the columns without a variable, e.g., the special attributes, are {@code null}.
+     * @param nInstances the number of data instances.
+     */
+    public ColumnarDataOnMemory(Attributes attributes_, List<Variable> variables_, int nInstances) {
+        this.attributes = attributes_;
+        this.nInstances = nInstances;
+
+        List<Attribute> atts = attributes_.getFullListOfAttributes();
+        this.columns = new double[atts.size()][nInstances];
+        for (double[] column : this.columns) {
+            Arrays.fill(column, Utils.missingValue());
+        }
+
+        this.columnOfAttribute = new int[atts.stream().mapToInt(Attribute::getIndex).max().orElse(-1) + 1];
+        Arrays.fill(this.columnOfAttribute, -1);
+        for (int i = 0; i < atts.size(); i++) {
+            this.columnOfAttribute[atts.get(i).getIndex()] = i;
+        }
+
+        if (variables_ == null) {
+            this.variables = null;
+            this.columnOfVariable = null;
+        } else {
+            if (variables_.size() != atts.size())
+                throw new IllegalArgumentException("There must be one variable per attribute.");
+            this.variables = variables_.toArray(new Variable[variables_.size()]);
+            this.columnOfVariable = new int[variables_.stream().filter(Objects::nonNull).mapToInt(Variable::getVarID).max().orElse(-1) + 1];
+            Arrays.fill(this.columnOfVariable, -1);
+            for (int i = 0; i < this.variables.length; i++) {
+                if (this.variables[i] != null)
+                    this.columnOfVariable[this.variables[i].getVarID()] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of columns.
+     * @return the number of columns.
+     */
+    public int getNumberOfColumns() {
+        return this.columns.length;
+    }
+
+    /**
+     * Returns the column of a given attribute.
+     * @param att an {@link Attribute} object.
+     * @return the position of the column, or -1 if the attribute is not in the data set.
+     */
+    public int getColumnIndex(Attribute att) {
+        int index = att.getIndex();
+        return (index < this.columnOfAttribute.length) ? this.columnOfAttribute[index] : -1;
+    }
+
+    /**
+     * Returns the column of a given variable.
+     * @param var a {@link Variable} object.
+     * @return the position of the column, or -1 if the variable is not in the data set.
+     */
+    public int getColumnIndex(Variable var) {
+        if (this.columnOfVariable == null)
+            return (var.getAttribute() == null) ? -1 : this.getColumnIndex(var.getAttribute());
+        int id = var.getVarID();
+        if (id >= this.columnOfVariable.length || this.columnOfVariable[id] == -1 || !this.variables[this.columnOfVariable[id]].equals(var))
+            return -1;
+        return this.columnOfVariable[id];
+    }
+
+    /**
+     * Returns the values of a column. The returned array is not a copy, so it can be used to write the values.
+     * @param column the position of the column.
+     * @return an array of {@code double} values.
+     */
+    public double[] getColumn(int column) {
+        return this.columns[column];
+    }
+
+    /**
+     * Returns a value of the data set.
+     * @param row the position of the data instance.
+     * @param column the position of the column.
+     * @return a {@code double} value.
+     */
+    public double getValue(int row, int column) {
+        return this.columns[column][row];
+    }
+
+    /**
+     * Sets a value of the data set.
+     * @param row the position of the data instance.
+     * @param column the position of the column.
+     * @param value a {@code double} value.
+     */
+    public void setValue(int row, int column, double value) {
+        this.columns[column][row] = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNumberOfDataInstances() {
+        return this.nInstances;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataInstance getDataInstance(int i) {
+        if (i < 0 || i >= this.nInstances)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.nInstances);
+        return new ColumnarDataInstance(i);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<DataInstance> getList() {
+        return new AbstractList<DataInstance>() {
+            @Override
+            public DataInstance get(int index) {
+                return getDataInstance(index);
+            }
+
+            @Override
+            public int size() {
+                return nInstances;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attributes getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<DataInstance> stream() {
+        return IntStream.range(0, this.nInstances).mapToObj(ColumnarDataInstance::new);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRestartable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restart() {
+
+    }
+
+    /**
+     * This class implements the {@link DataInstance} interface as a view over a row of the columns.
+     */
+    private final class ColumnarDataInstance implements DataInstance, Serializable {
+
+        /** Represents the serial version ID for serializing the object. */
+        private static final long serialVersionUID = 4107783324901370839L;
+
+        /** Represents the position of the data instance. */
+        private final int row;
+
+        ColumnarDataInstance(int row) {
+            this.row = row;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getValue(Variable var) {
+            if (columnOfVariable == null)
+                return DataInstance.super.getValue(var);
+            int column = getColumnIndex(var);
+            return (column == -1) ? Utils.missingValue() : columns[column][row];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValue(Variable var, double value) {
+            if (columnOfVariable == null) {
+                DataInstance.super.setValue(var, value);
+                return;
+            }
+            int column = getColumnIndex(var);
+            if (column != -1)
+                columns[column][row] = value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getValue(Attribute att) {
+            int column = getColumnIndex(att);
+            return (column == -1) ? Utils.missingValue() : columns[column][row];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValue(Attribute att, double value) {
+            int column = getColumnIndex(att);
+            if (column != -1 && !att.isSpecialAttribute())
+                columns[column][row] = value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double[] toArray() {
+            double[] values = new double[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = columns[i][row];
+            }
+            return values;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return this.outputString();
+        }
+    }
+}
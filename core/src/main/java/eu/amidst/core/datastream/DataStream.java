@@ -18,6 +18,7 @@
 package eu.amidst.core.datastream;
 
 import eu.amidst.core.utils.FixedBatchParallelSpliteratorWrapper;
+import eu.amidst.core.utils.SplittableRandomGenerator;
 
 import java.util.Iterator;
 import java.util.stream.Collectors;
@@ -163,6 +164,52 @@ public interface DataStream<E extends DataInstance> extends Iterable<E> {
         };
     }
 
+    /**
+     * Returns a data stream whose data instances are shuffled with a buffer of a given size, see
+     * {@link ShuffleBufferSpliterator}. Each call to {@code stream()}, e.g., each training epoch, gives a different
+     * order, which only depends on the seed and on the number of previous calls. For a uniform shuffle of a large
+     * data file, see {@link eu.amidst.core.utils.ExternalShuffler}.
+     * @param bufferSize the size of the buffer.
+     * @param seed the seed of the shuffle.
+     * @return the new data stream.
+     */
+    default DataStream<E> shuffle(int bufferSize, long seed){
+
+        DataStream<E> initialStream = this;
+
+        return new DataStream<E>() {
+
+            /** Represents the number of calls to stream(). */
+            private long epoch = 0;
+
+            @Override
+            public Attributes getAttributes() {
+                return initialStream.getAttributes();
+            }
+
+            @Override
+            public void close() {
+                initialStream.close();
+            }
+
+            @Override
+            public boolean isRestartable() {
+                return initialStream.isRestartable();
+            }
+
+            @Override
+            public void restart() {
+                initialStream.restart();
+            }
+
+            @Override
+            public Stream<E> stream() {
+                return ShuffleBufferSpliterator.toShuffledStream(initialStream.stream(), bufferSize,
+                        SplittableRandomGenerator.forChunk(seed, epoch++));
+            }
+        };
+    }
+
     /**
      * Returns a Stream of DataInstance objects to be processed in parallel.
      * Internally, data samples are grouped into batches and all the samples
@@ -0,0 +1,146 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.datastream;
+
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The ShuffleBufferSpliterator class implements a {@link Spliterator} which shuffles a stream of data instances
+ * with a buffer of fixed size. The buffer is first filled with the first instances of the stream. Then, each
+ * returned instance is randomly picked from the buffer, and its place is taken by the next instance of the stream.
+ * This class is used by the class {@link DataStream}.
+ *
+ * <p> The memory used only depends on the size of the buffer, but instances can only move backwards a number of
+ * positions given by the size of the buffer. For a uniform shuffle of a large file, see
+ * {@link eu.amidst.core.utils.ExternalShuffler}. </p>
+ *
+ * @param <T> A generic Type that extends the interface {@link DataInstance}.
+ */
+public class ShuffleBufferSpliterator<T extends DataInstance> implements Spliterator<T> {
+
+    /** Represents the Spliterator of the data instances. */
+    private final Spliterator<T> spliterator;
+
+    /** Represents the buffer of data instances. */
+    private final Object[] buffer;
+
+    /** Represents the random number generator. */
+    private final Random random;
+
+    /** Represents the number of data instances in the buffer. */
+    private int size = 0;
+
+    /** Represents whether the buffer has been filled. */
+    private boolean filled = false;
+
+    /** Represents the last data instance given by the spliterator. */
+    private T holder;
+
+    /**
+     * Creates a new ShuffleBufferSpliterator.
+     * @param spliterator_ the spliterator of the data instances.
+     * @param bufferSize the size of the buffer.
+     * @param random_ the random number generator.
+     */
+    public ShuffleBufferSpliterator(Spliterator<T> spliterator_, int bufferSize, Random random_) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("The buffer size must be positive.");
+        this.spliterator = spliterator_;
+        this.buffer = new Object[bufferSize];
+        this.random = random_;
+    }
+
+    /**
+     * Creates a new sequential {@code Stream} which shuffles a given stream.
+     * @param stream the stream of data instances.
+     * @param bufferSize the size of the buffer.
+     * @param random the random number generator.
+     * @param <T> the type of stream elements.
+     * @return a new sequential {@code Stream}.
+     */
+    public static <T extends DataInstance> Stream<T> toShuffledStream(Stream<T> stream, int bufferSize, Random random) {
+        return StreamSupport.stream(new ShuffleBufferSpliterator<>(stream.spliterator(), bufferSize, random), false)
+                .onClose(stream::close);
+    }
+
+    /**
+     * Takes the next data instance of the spliterator.
+     * @return true if a data instance has been taken.
+     */
+    private boolean next() {
+        return this.spliterator.tryAdvance(value -> this.holder = value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!this.filled) {
+            while (this.size < this.buffer.length && this.next())
+                this.buffer[this.size++] = this.holder;
+            this.filled = true;
+        }
+
+        if (this.size == 0)
+            return false;
+
+        int i = this.random.nextInt(this.size);
+        @SuppressWarnings("unchecked")
+        T value = (T) this.buffer[i];
+        if (this.next()) {
+            this.buffer[i] = this.holder;
+        } else {
+            this.buffer[i] = this.buffer[--this.size];
+            this.buffer[this.size] = null;
+        }
+        this.holder = null;
+
+        action.accept(value);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize() {
+        long est = this.spliterator.estimateSize();
+        return (est == Long.MAX_VALUE) ? est : est + this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics() {
+        return this.spliterator.characteristics() & (SIZED | NONNULL | IMMUTABLE);
+    }
+}
@@ -0,0 +1,549 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.datastream.filereaders.arffFileReader;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.filereaders.DataFileReader;
+import eu.amidst.core.datastream.filereaders.DataRow;
+import eu.amidst.core.variables.StateSpaceTypeEnum;
+import eu.amidst.core.variables.stateSpaceTypes.FiniteStateSpace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class implements the interface {@link DataFileReader} and defines an ARFF data reader based on memory-mapped files.
+ *
+ * <p> Unlike {@link ARFFDataReader}, the header is parsed in a single pass and the byte offset of the {@code @data}
+ * line is remembered. The data section is then memory-mapped and every row is decoded directly from the mapped bytes
+ * into a {@code double[]}, without creating intermediate {@code String} objects. Numbers are parsed with an exact
+ * fast path (falling back to {@link Double#parseDouble(String)} only for values outside its range) and state names
+ * are resolved through a per-attribute byte-level hash table. </p>
+ *
+ * <p> Files larger than 2GB are handled by mapping consecutive windows of the data section. </p>
+ */
+public class ARFFMappedDataReader implements DataFileReader {
+
+    /** Represents the maximum size in bytes of a mapped window of the data section. */
+    private static final int WINDOW_SIZE = 1 << 30;
+
+    /** Represents the exactly representable powers of ten used by the fast number parser. */
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /** Represents the relation name. */
+    String relationName;
+
+    /** Represents the list of {@link Attributes}. */
+    private Attributes attributes;
+
+    /** Represents the path of the ARFF file to be read. */
+    private Path pathFile;
+
+    /** Represents the byte offset where the data section starts. */
+    private long dataOffset;
+
+    /** Represents the size in bytes of the file. */
+    private long fileSize;
+
+    /** Represents an array of {@link StateSpaceTypeEnum} for the corresponding list of {@link Attributes}. */
+    private StateSpaceTypeEnum[] stateSpace;
+
+    /** Represents, for each finite attribute, the byte-level index of its state names. */
+    private StateNameIndex[] stateNames;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadFromFile(String pathString) {
+        pathFile = Paths.get(pathString);
+        relationName = null;
+        try (FileChannel headerChannel = FileChannel.open(pathFile, StandardOpenOption.READ)) {
+            fileSize = headerChannel.size();
+            MappedByteBuffer buffer = headerChannel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, WINDOW_SIZE));
+
+            List<String> attLines = new ArrayList<>();
+            boolean dataFound = false;
+            int pos = 0;
+            int limit = buffer.limit();
+            while (pos < limit && !dataFound) {
+                int end = pos;
+                while (end < limit && buffer.get(end) != '\n')
+                    end++;
+
+                byte[] lineBytes = new byte[end - pos];
+                for (int i = 0; i < lineBytes.length; i++)
+                    lineBytes[i] = buffer.get(pos + i);
+                String line = new String(lineBytes, StandardCharsets.UTF_8).trim();
+                pos = end + 1;
+
+                if (line.isEmpty() || line.startsWith("%"))
+                    continue;
+
+                if (relationName == null) {
+                    if (!line.startsWith("@relation"))
+                        throw new IllegalArgumentException("ARFF file does not start with a @relation line.");
+                    relationName = line.split(" ")[1];
+                } else if (line.startsWith("@attribute")) {
+                    attLines.add(line);
+                } else if (line.startsWith("@data")) {
+                    dataFound = true;
+                }
+            }
+
+            if (!dataFound)
+                throw new IllegalArgumentException("ARFF file does not contain @data line.");
+
+            dataOffset = Math.min(pos, fileSize);
+
+            List<Attribute> atts = new ArrayList<>();
+            for (int i = 0; i < attLines.size(); i++) {
+                atts.add(ARFFDataReader.createAttributeFromLine(i, attLines.get(i)));
+            }
+            this.attributes = new Attributes(atts);
+
+            stateSpace = new StateSpaceTypeEnum[atts.size()];
+            stateNames = new StateNameIndex[atts.size()];
+            for (Attribute att : atts) {
+                stateSpace[att.getIndex()] = att.getStateSpaceType().getStateSpaceTypeEnum();
+                if (stateSpace[att.getIndex()] == StateSpaceTypeEnum.FINITE_SET)
+                    stateNames[att.getIndex()] = new StateNameIndex(att.getStateSpaceType());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attributes getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean doesItReadThisFile(String fileName) {
+        if (new File(fileName).isDirectory())
+            return false;
+        String[] parts = fileName.split("\\.");
+        return parts[parts.length-1].equals("arff");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<DataRow> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new RowIterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Tests whether a byte is a blank character (space, tab or carriage return).
+     * @param b a byte.
+     * @return true if the byte is blank.
+     */
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * This class iterates over the rows of the mapped data section, mapping the next window when needed.
+     * A mapping remains valid once its channel is closed, so no file handle is kept open between windows.
+     */
+    private final class RowIterator implements Iterator<DataRow> {
+
+        /** Represents the currently mapped window. */
+        private MappedByteBuffer buffer;
+
+        /** Represents the file offset of the currently mapped window. */
+        private long windowStart;
+
+        /** Represents the position of the next unread byte within the window. */
+        private int pos;
+
+        /** Represents the next decoded row, or null if it has not been decoded yet. */
+        private double[] next;
+
+        /** Represents the token start and end positions of the current line, reused across lines. */
+        private final int[] tokenStart;
+        private final int[] tokenEnd;
+
+        /**
+         * Creates a new RowIterator positioned at the beginning of the data section.
+         */
+        RowIterator() {
+            this.tokenStart = new int[stateSpace.length];
+            this.tokenEnd = new int[stateSpace.length];
+            try {
+                this.map(dataOffset);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /**
+         * Maps the window starting at the given file offset.
+         * @param offset a file offset.
+         */
+        private void map(long offset) throws IOException {
+            try (FileChannel fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ)) {
+                this.windowStart = offset;
+                this.buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(fileSize - offset, WINDOW_SIZE));
+                this.pos = 0;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            if (next == null)
+                next = this.readRow();
+            return next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public DataRow next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            double[] data = next;
+            next = null;
+            return new DataRowWeka(attributes, data);
+        }
+
+        /**
+         * Reads and decodes the next non-empty, non-comment line.
+         * @return the decoded values, or null if the end of the file has been reached.
+         */
+        private double[] readRow() {
+            try {
+                while (true) {
+                    int limit = buffer.limit();
+                    int end = pos;
+                    while (end < limit && buffer.get(end) != '\n')
+                        end++;
+
+                    if (end == limit && windowStart + limit < fileSize) {
+                        if (pos == 0)
+                            throw new IllegalStateException("ARFF line longer than the mapping window.");
+                        this.map(windowStart + pos);
+                        continue;
+                    }
+
+                    if (pos >= limit)
+                        return null;
+
+                    int start = pos;
+                    pos = end + 1;
+
+                    while (start < end && isBlank(buffer.get(start)))
+                        start++;
+                    if (start == end || buffer.get(start) == '%')
+                        continue;
+
+                    return this.decode(start, end);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /**
+         * Decodes the comma separated line found between two positions of the window.
+         * @param start the position of the first byte of the line.
+         * @param end the position after the last byte of the line.
+         * @return the decoded values.
+         */
+        private double[] decode(int start, int end) {
+            int nColumns = 0;
+            int tokenBegin = start;
+            for (int i = start; i <= end; i++) {
+                if (i == end || buffer.get(i) == ',') {
+                    if (nColumns == stateSpace.length)
+                        throw new IllegalStateException("The number of columns does not match the number of attributes.");
+                    int s = tokenBegin;
+                    int e = i;
+                    while (s < e && isBlank(buffer.get(s)))
+                        s++;
+                    while (e > s && isBlank(buffer.get(e - 1)))
+                        e--;
+                    tokenStart[nColumns] = s;
+                    tokenEnd[nColumns] = e;
+                    nColumns++;
+                    tokenBegin = i + 1;
+                }
+            }
+
+            if (nColumns != stateSpace.length)
+                throw new IllegalStateException("The number of columns does not match the number of attributes.");
+
+            double[] data = new double[nColumns];
+            for (int i = 0; i < nColumns; i++) {
+                int s = tokenStart[i];
+                int e = tokenEnd[i];
+                if (e - s == 1 && buffer.get(s) == '?') {
+                    data[i] = Double.NaN;
+                    continue;
+                }
+                switch (stateSpace[i]) {
+                    case REAL:
+                        data[i] = parseDouble(s, e, i);
+                        break;
+                    case FINITE_SET:
+                        data[i] = stateNames[i].indexOf(buffer, s, e, attributes.getFullListOfAttributes().get(i));
+                        break;
+                    case SPARSE_FINITE_SET:
+                        data[i] = parseDouble(s, e, i);
+                        if (data[i] != Math.rint(data[i]))
+                            throw new IllegalStateException(errorMessage(s, e, i));
+                        break;
+                }
+            }
+            return data;
+        }
+
+        /**
+         * Parses a decimal number between two positions of the window.
+         * Values whose mantissa or exponent are outside the exact fast path are delegated to {@link Double#parseDouble(String)}.
+         * @param start the position of the first byte of the number.
+         * @param end the position after the last byte of the number.
+         * @param column the column being parsed, used for error reporting.
+         * @return the parsed value.
+         */
+        private double parseDouble(int start, int end, int column) {
+            int i = start;
+            boolean negative = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            boolean anyDigit = false;
+
+            while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                    if (mantissa != 0)
+                        digits++;
+                } else {
+                    return slowParseDouble(start, end, column);
+                }
+                anyDigit = true;
+                i++;
+            }
+
+            if (i < end && buffer.get(i) == '.') {
+                i++;
+                while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                        if (mantissa != 0)
+                            digits++;
+                        exponent--;
+                    } else {
+                        return slowParseDouble(start, end, column);
+                    }
+                    anyDigit = true;
+                    i++;
+                }
+            }
+
+            if (!anyDigit)
+                return slowParseDouble(start, end, column);
+
+            if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+                i++;
+                boolean negativeExp = false;
+                if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                    negativeExp = buffer.get(i) == '-';
+                    i++;
+                }
+                int exp = 0;
+                boolean anyExpDigit = false;
+                while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                    if (exp > 1000)
+                        return slowParseDouble(start, end, column);
+                    exp = exp * 10 + (buffer.get(i) - '0');
+                    anyExpDigit = true;
+                    i++;
+                }
+                if (!anyExpDigit)
+                    return slowParseDouble(start, end, column);
+                exponent += negativeExp ? -exp : exp;
+            }
+
+            if (i != end || mantissa >= (1L << 53) || exponent < -22 || exponent > 22)
+                return slowParseDouble(start, end, column);
+
+            double value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses a number with {@link Double#parseDouble(String)}.
+         * @param start the position of the first byte of the number.
+         * @param end the position after the last byte of the number.
+         * @param column the column being parsed, used for error reporting.
+         * @return the parsed value.
+         */
+        private double slowParseDouble(int start, int end, int column) {
+            try {
+                return Double.parseDouble(this.token(start, end));
+            } catch (NumberFormatException ex) {
+                throw new IllegalStateException(errorMessage(start, end, column), ex);
+            }
+        }
+
+        /**
+         * Returns the token found between two positions of the window as a {@code String}.
+         * @param start the position of the first byte of the token.
+         * @param end the position after the last byte of the token.
+         * @return a {@code String} object.
+         */
+        private String token(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = buffer.get(start + i);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Builds the error message for a value which can not be read.
+         * @param start the position of the first byte of the value.
+         * @param end the position after the last byte of the value.
+         * @param column the column of the value.
+         * @return the error message.
+         */
+        private String errorMessage(int start, int end, int column) {
+            return "Error Reading ARFF: Attribute Name: " + attributes.getFullListOfAttributes().get(column).getName()
+                    + ", Error when reading value: " + this.token(start, end);
+        }
+    }
+
+    /**
+     * This class maps the UTF-8 bytes of the state names of a finite attribute to their indices
+     * using an open-addressing hash table.
+     */
+    private static final class StateNameIndex {
+
+        /** Represents the UTF-8 encoded state names. */
+        private final byte[][] names;
+
+        /** Represents the hash table, storing the state index plus one (zero meaning an empty slot). */
+        private final int[] table;
+
+        /** Represents the mask used to compute the slot of a hash. */
+        private final int mask;
+
+        /**
+         * Creates a new StateNameIndex for a given finite state space.
+         * @param stateSpace a {@link FiniteStateSpace} object.
+         */
+        StateNameIndex(FiniteStateSpace stateSpace) {
+            int nStates = stateSpace.getNumberOfStates();
+            this.names = new byte[nStates][];
+            int size = Integer.highestOneBit(Math.max(2, nStates) * 2 - 1) << 1;
+            this.table = new int[size];
+            this.mask = size - 1;
+            for (int i = 0; i < nStates; i++) {
+                names[i] = stateSpace.getStatesName(i).getBytes(StandardCharsets.UTF_8);
+                int slot = hash(names[i], 0, names[i].length) & mask;
+                while (table[slot] != 0)
+                    slot = (slot + 1) & mask;
+                table[slot] = i + 1;
+            }
+        }
+
+        /**
+         * Computes the hash of an array of bytes.
+         * @param bytes an array of bytes.
+         * @param start the first position.
+         * @param end the position after the last byte.
+         * @return the hash value.
+         */
+        private static int hash(byte[] bytes, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++)
+                h = 31 * h + bytes[i];
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * Returns the index of the state whose name is found between two positions of a buffer.
+         * @param buffer the mapped buffer.
+         * @param start the position of the first byte of the state name.
+         * @param end the position after the last byte of the state name.
+         * @param att the attribute being decoded, used for error reporting.
+         * @return the index of the state.
+         */
+        int indexOf(MappedByteBuffer buffer, int start, int end, Attribute att) {
+            int h = 0;
+            for (int i = start; i < end; i++)
+                h = 31 * h + buffer.get(i);
+            h ^= h >>> 16;
+
+            int slot = h & mask;
+            while (table[slot] != 0) {
+                byte[] name = names[table[slot] - 1];
+                if (name.length == end - start) {
+                    int j = 0;
+                    while (j < name.length && name[j] == buffer.get(start + j))
+                        j++;
+                    if (j == name.length)
+                        return table[slot] - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = buffer.get(start + i);
+            throw new IllegalStateException("Error Reading ARFF: Attribute Name: " + att.getName()
+                    + ", Attribute States: " + ((FiniteStateSpace) att.getStateSpaceType()).getStatesNames()
+                    + ", Error when reading value: " + new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -92,6 +92,16 @@ public class DataRowWeka implements DataRow{
         }
     }
 
+    /**
+     * Creates a new DataRowWeka from a given list of attributes and their already decoded values.
+     * @param atts_ an input list of the list of {@link Attributes}.
+     * @param data_ an array of doubles with the values of the corresponding input attributes.
+     */
+    DataRowWeka(Attributes atts_, double[] data_){
+        atts = atts_;
+        data = data_;
+    }
+
     /**
      * {@inheritDoc}
      */
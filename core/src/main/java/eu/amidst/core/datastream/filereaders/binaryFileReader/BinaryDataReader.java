@@ -0,0 +1,228 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.datastream.filereaders.binaryFileReader;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.filereaders.DataFileReader;
+import eu.amidst.core.datastream.filereaders.DataRow;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class implements the interface {@link DataFileReader} and defines a reader of the binary data files written
+ * by {@link BinaryDataWriter}. The file is read sequentially, one {@link DataRow} at a time.
+ */
+public class BinaryDataReader implements DataFileReader {
+
+    /** Represents the size of the input buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Represents the path of the binary file. */
+    private String path;
+
+    /** Represents the list of {@link Attributes}. */
+    private Attributes attributes;
+
+    /** Represents the position of each attribute in a row, given its index. */
+    private int[] positionOfAttribute;
+
+    /** Represents the input stream of the current iteration over the file. */
+    private DataInputStream input;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadFromFile(String pathString) {
+        this.path = pathString;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(pathString), BUFFER_SIZE))) {
+            this.attributes = readHeader(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        List<Attribute> atts = this.attributes.getFullListOfAttributes();
+        this.positionOfAttribute = new int[atts.stream().mapToInt(Attribute::getIndex).max().orElse(-1) + 1];
+        Arrays.fill(this.positionOfAttribute, -1);
+        for (int i = 0; i < atts.size(); i++) {
+            this.positionOfAttribute[atts.get(i).getIndex()] = i;
+        }
+    }
+
+    /**
+     * Reads the header of a binary data file.
+     * @param in a {@link DataInputStream} object.
+     * @return the {@link Attributes} of the data.
+     * @throws IOException in case of an error when reading the file.
+     */
+    private static Attributes readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != BinaryDataWriter.MAGIC)
+            throw new IOException("The file is not a binary data file.");
+        byte[] header = new byte[in.readInt()];
+        in.readFully(header);
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(header))) {
+            return (Attributes) objectIn.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Attributes getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean doesItReadThisFile(String fileName) {
+        if (new File(fileName).isDirectory())
+            return false;
+        String[] parts = fileName.split("\\.");
+        return parts[parts.length-1].equals("bin");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<DataRow> stream() {
+        this.close();
+        try {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(this.path), BUFFER_SIZE));
+            readHeader(this.input);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        final DataInputStream in = this.input;
+        final int nAtts = this.attributes.getNumberOfAttributes();
+        Spliterator<DataRow> spliterator = new Spliterators.AbstractSpliterator<DataRow>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super DataRow> action) {
+                if (nAtts == 0)
+                    return false;
+                double[] values = new double[nAtts];
+                try {
+                    try {
+                        values[0] = in.readDouble();
+                    } catch (EOFException ex) {
+                        return false;
+                    }
+                    for (int i = 1; i < nAtts; i++) {
+                        values[i] = in.readDouble();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                action.accept(new DataRowBinary(values));
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restart() {
+        this.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (this.input == null)
+            return;
+        try {
+            this.input.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            this.input = null;
+        }
+    }
+
+    /**
+     * This class implements the {@link DataRow} interface over the values read from a binary file.
+     */
+    private final class DataRowBinary implements DataRow {
+
+        /** Represents the values of the row. */
+        private final double[] data;
+
+        DataRowBinary(double[] data) {
+            this.data = data;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double getValue(Attribute att) {
+            return this.data[positionOfAttribute[att.getIndex()]];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValue(Attribute att, double value) {
+            this.data[positionOfAttribute[att.getIndex()]] = value;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public double[] toArray() {
+            return this.data;
+        }
+    }
+}
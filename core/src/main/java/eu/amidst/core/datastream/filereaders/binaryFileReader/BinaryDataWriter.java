@@ -0,0 +1,109 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.datastream.filereaders.binaryFileReader;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.datastream.filereaders.DataFileWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * This class implements the interface {@link DataFileWriter} and defines a binary data writer, which avoids the
+ * formatting and parsing of the values of the ARFF format.
+ *
+ * <p> A binary data file contains the magic number {@link #MAGIC}, the length in bytes and the Java serialization of
+ * the {@link Attributes} object, and then the values of each data instance as {@code double} values, in the order
+ * of the full list of attributes. Missing values are stored as {@code Double.NaN}. The files are read back with
+ * {@link BinaryDataReader}. </p>
+ */
+public class BinaryDataWriter implements DataFileWriter {
+
+    /** Represents the magic number at the beginning of the binary data files, i.e., "AMDB". */
+    public static final int MAGIC = 0x414D4442;
+
+    /** Represents the size of the output buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Saves a given data stream to a binary file.
+     * @param dataStream an input {@link DataStream}.
+     * @param path the path of the binary file where the data stream will be saved.
+     * @throws IOException in case of an error when writing to file
+     */
+    public static void writeToBinaryFile(DataStream<? extends DataInstance> dataStream, String path) throws IOException {
+        Attributes attributes = dataStream.getAttributes();
+        List<Attribute> atts = attributes.getFullListOfAttributes();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), BUFFER_SIZE))) {
+            writeHeader(out, attributes);
+            dataStream.stream().forEach(e -> {
+                try {
+                    for (Attribute att : atts) {
+                        out.writeDouble(e.getValue(att));
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Writes the header of a binary data file.
+     * @param out a {@link DataOutputStream} object.
+     * @param attributes the {@link Attributes} of the data.
+     * @throws IOException in case of an error when writing to file
+     */
+    static void writeHeader(DataOutputStream out, Attributes attributes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(attributes);
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getFileExtension() {
+        return "bin";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeToFile(DataStream<? extends DataInstance> dataStream, String path) throws IOException {
+        BinaryDataWriter.writeToBinaryFile(dataStream, path);
+    }
+}
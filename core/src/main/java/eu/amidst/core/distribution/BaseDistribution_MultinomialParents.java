@@ -39,6 +39,9 @@ import java.util.Random;
  */
 public class BaseDistribution_MultinomialParents<E extends Distribution> extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = -347409667496481976L;
+
     /** Represents the list of multinomial parents. */
     private List<Variable> multinomialParents;
 
@@ -135,6 +138,20 @@ public class BaseDistribution_MultinomialParents<E extends Distribution> extends
     }
 
 
+    /**
+     * Creates a new BaseDistribution_MultinomialParents with the same variables as a given one and a list of base distributions.
+     * @param other a BaseDistribution_MultinomialParents object.
+     * @param distributions1 the list of distributions.
+     */
+    private BaseDistribution_MultinomialParents(BaseDistribution_MultinomialParents<E> other, List<E> distributions1) {
+        this.var = other.var;
+        this.parents = new ArrayList<>(other.parents);
+        this.multinomialParents = new ArrayList<>(other.multinomialParents);
+        this.nonMultinomialParents = new ArrayList<>(other.nonMultinomialParents);
+        this.baseDistributions = distributions1;
+        this.isBaseConditionalDistribution = other.isBaseConditionalDistribution;
+    }
+
     /**
      * Returns the list of the multinomial parents.
      * @return the list of the multinomial parents.
@@ -396,4 +413,16 @@ public class BaseDistribution_MultinomialParents<E extends Distribution> extends
             return new EF_BaseDistribution_MultinomialParents<>(this.multinomialParents,base_ef_dists);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BaseDistribution_MultinomialParents<E> copy() {
+        List<E> distributions = new ArrayList<>(this.baseDistributions.size());
+        for (E baseDistribution : this.baseDistributions) {
+            distributions.add((E) ((ConditionalDistribution) baseDistribution).copy());
+        }
+        return new BaseDistribution_MultinomialParents<>(this, distributions);
+    }
 }
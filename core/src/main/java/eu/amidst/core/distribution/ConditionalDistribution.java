@@ -32,6 +32,9 @@ import java.util.List;
  */
 public abstract class ConditionalDistribution extends Distribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = -4892108977132491404L;
+
     /** Represents the list of parents of this Variable. */
     protected List<Variable> parents;
 
@@ -54,6 +57,14 @@ public abstract class ConditionalDistribution extends Distribution {
         this.parents=parents;
     }
 
+    /**
+     * Returns a copy of this ConditionalDistribution. The parameters are copied, whereas the main variable and the
+     * conditioning variables are shared with this ConditionalDistribution. They can be later replaced with
+     * {@link #setVar(Variable)} and {@link #setConditioningVariables(List)}.
+     * @return a {@link ConditionalDistribution} object.
+     */
+    public abstract ConditionalDistribution copy();
+
     /**
      * Returns the conditional probability of an {@link Assignment} given this ConditionalDistribution.
      * @param assignment an {@link Assignment} object.
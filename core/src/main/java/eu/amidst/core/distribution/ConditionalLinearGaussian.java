@@ -34,6 +34,8 @@ import eu.amidst.core.exponentialfamily.EF_Normal_NormalParents;
 import eu.amidst.core.variables.Assignment;
 import eu.amidst.core.variables.Variable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -50,6 +52,9 @@ import java.util.Random;
  */
 public class ConditionalLinearGaussian extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = -1244317794945390480L;
+
 
     /** Represents the intercept parameter of this ConditionalLinearGaussian distribution. */
     private double intercept;
@@ -317,4 +322,16 @@ public class ConditionalLinearGaussian extends ConditionalDistribution {
         return ef_normal_normalParents;
 
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConditionalLinearGaussian copy() {
+        ConditionalLinearGaussian copy = new ConditionalLinearGaussian(this.var, new ArrayList<>(this.parents));
+        copy.intercept = this.intercept;
+        copy.coeffParents = Arrays.copyOf(this.coeffParents, this.coeffParents.length);
+        copy.variance = this.variance;
+        return copy;
+    }
 }
@@ -34,6 +34,9 @@ import java.util.Random;
  */
 public class IndicatorDistribution extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 3145760259995333675L;
+
     /** Represents the conditional distribution {@link ConditionalDistribution}. */
     private ConditionalDistribution conditionalDistribution;
 
@@ -163,4 +166,12 @@ public class IndicatorDistribution extends ConditionalDistribution {
     public boolean equalDist(IndicatorDistribution dist, double threshold) {
         return this.getConditionalDistribution().equalDist(dist.getConditionalDistribution(),threshold);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndicatorDistribution copy() {
+        return new IndicatorDistribution(this.indicatorVar, this.conditionalDistribution.copy());
+    }
 }
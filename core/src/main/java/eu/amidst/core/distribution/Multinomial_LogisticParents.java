@@ -21,6 +21,8 @@ import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Assignment;
 import eu.amidst.core.variables.Variable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -36,6 +38,9 @@ import java.util.Random;
  */
 public class Multinomial_LogisticParents extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = -6008293793769690727L;
+
     /** Represents the set of intercept parameters of this distribution, one for each state. */
     private double[] intercept;
 
@@ -243,4 +248,17 @@ public class Multinomial_LogisticParents extends ConditionalDistribution {
         }
         return equals;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Multinomial_LogisticParents copy() {
+        Multinomial_LogisticParents copy = new Multinomial_LogisticParents(this.var, new ArrayList<>(this.parents));
+        copy.intercept = Arrays.copyOf(this.intercept, this.intercept.length);
+        for (int k = 0; k < this.coeffParents.length; k++) {
+            copy.coeffParents[k] = Arrays.copyOf(this.coeffParents[k], this.coeffParents[k].length);
+        }
+        return copy;
+    }
 }
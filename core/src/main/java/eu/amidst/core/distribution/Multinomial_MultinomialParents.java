@@ -49,6 +49,9 @@ import java.util.Random;
  */
 public class Multinomial_MultinomialParents extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = -5038540518467051484L;
+
     /**
      * Represents an array of {@link Multinomial} objects, one for each configuration of the parents.
      * These objects are ordered according to the criteria implemented in class {@link eu.amidst.core.utils.MultinomialIndex}.
@@ -262,4 +265,12 @@ public class Multinomial_MultinomialParents extends ConditionalDistribution {
     public EF_BaseDistribution_MultinomialParents<EF_Multinomial> toEFConditionalDistribution() {
         return (EF_BaseDistribution_MultinomialParents<EF_Multinomial>)this.base.toEFConditionalDistribution();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Multinomial_MultinomialParents copy() {
+        return new Multinomial_MultinomialParents(this.base.copy());
+    }
 }
\ No newline at end of file
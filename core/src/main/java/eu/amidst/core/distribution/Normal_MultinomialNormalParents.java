@@ -48,6 +48,9 @@ import java.util.Random;
  */
 public class Normal_MultinomialNormalParents extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 5774118302036986826L;
+
     /**
      * An array of <code>Normal_NormalParents</code> objects, one for each configuration of the Multinomial parents.
      * These objects are ordered according to the criteria implemented in class {@link eu.amidst.core.utils.MultinomialIndex}.
@@ -263,4 +266,12 @@ public class Normal_MultinomialNormalParents extends ConditionalDistribution {
     public EF_BaseDistribution_MultinomialParents<EF_Normal_NormalParents> toEFConditionalDistribution(){
         return (EF_BaseDistribution_MultinomialParents<EF_Normal_NormalParents>)this.base.toEFConditionalDistribution();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Normal_MultinomialNormalParents copy() {
+        return new Normal_MultinomialNormalParents(this.base.copy());
+    }
 }
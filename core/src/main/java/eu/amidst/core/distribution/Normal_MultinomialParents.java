@@ -36,6 +36,9 @@ import java.util.Random;
  */
 public class Normal_MultinomialParents extends ConditionalDistribution {
 
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 1667733626513792664L;
+
     /** Represents an array of {@link Normal} distributions, one for each assignment of the Multinomial parents. */
     private BaseDistribution_MultinomialParents<Normal> base;
 
@@ -249,4 +252,11 @@ public class Normal_MultinomialParents extends ConditionalDistribution {
         return (EF_BaseDistribution_MultinomialParents<EF_Normal>)this.base.toEFConditionalDistribution();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Normal_MultinomialParents copy() {
+        return new Normal_MultinomialParents(this.base.copy());
+    }
 }
@@ -118,5 +118,11 @@ public abstract class UnivariateDistribution extends ConditionalDistribution {
      */
     public abstract UnivariateDistribution deepCopy(Variable variable);
 
-
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UnivariateDistribution copy() {
+        return this.deepCopy(this.var);
+    }
 }
\ No newline at end of file
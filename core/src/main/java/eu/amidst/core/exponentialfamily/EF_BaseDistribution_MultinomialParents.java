@@ -225,6 +225,27 @@ public class EF_BaseDistribution_MultinomialParents<E extends EF_ConditionalDist
 
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSufficientStatisticsTo(Assignment instance, SufficientStatistics target, double weight) {
+
+        CompoundVector vector = (CompoundVector) target;
+
+        int position = MultinomialIndex.getIndexFromVariableAssignment(this.multinomialParents, instance);
+
+        vector.setBaseConf(position, vector.getBaseConf(position) + weight);
+
+        Vector baseVector = vector.getBaseVectors().getVectorByPosition(position);
+        if (baseVector == null) {
+            baseVector = this.getBaseEFDistribution(position).createZeroSufficientStatistics();
+            vector.setVectorByPosition(position, baseVector);
+        }
+
+        this.getBaseEFDistribution(position).addSufficientStatisticsTo(instance, (SufficientStatistics) baseVector, weight);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -663,6 +684,17 @@ public class EF_BaseDistribution_MultinomialParents<E extends EF_ConditionalDist
             this.baseVectors.sum(vector.getBaseVectors());
         }
 
+        @Override
+        public void sumTo(double[] target, int offset) {
+            for (int i = 0; i < baseConf.length; i++) {
+                target[offset + i] += baseConf[i];
+            }
+
+            int baseOffset = offset + nConf;
+            this.baseVectors.nonZeroEntries()
+                    .forEach(entry -> entry.getValue().sumTo(target, baseOffset + entry.getKey() * baseSSLength));
+        }
+
         @Override
         public void copy(Vector vector) {
             this.copy((CompoundVector) vector);
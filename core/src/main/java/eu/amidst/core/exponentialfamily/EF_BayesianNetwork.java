@@ -211,6 +211,18 @@ public class EF_BayesianNetwork extends EF_Distribution {
         return vectorSS;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSufficientStatisticsTo(Assignment data, SufficientStatistics target, double weight) {
+        CompoundVector vectorSS = (CompoundVector) target;
+        for (EF_ConditionalDistribution dist : this.distributionList) {
+            int varID = dist.getVariable().getVarID();
+            dist.addSufficientStatisticsTo(data, (SufficientStatistics) vectorSS.getVectorByPosition(varID), weight);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
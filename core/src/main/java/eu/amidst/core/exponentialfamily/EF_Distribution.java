@@ -111,6 +111,21 @@ public abstract class EF_Distribution implements Serializable {
      */
     public abstract SufficientStatistics getSufficientStatistics(Assignment assignment);
 
+    /**
+     * Adds the weighted vector of sufficient statistics for a given {@link Assignment} object to a target vector.
+     * This default implementation builds the vector with {@link #getSufficientStatistics(Assignment)}, subclasses
+     * override it to accumulate in place without allocating intermediate vectors.
+     * @param assignment an {@link Assignment} object.
+     * @param target a {@link SufficientStatistics} object, created by this EF_Distribution, where the statistics are accumulated.
+     * @param weight a {@code double} value multiplying the sufficient statistics.
+     */
+    public void addSufficientStatisticsTo(Assignment assignment, SufficientStatistics target, double weight) {
+        SufficientStatistics ss = this.getSufficientStatistics(assignment);
+        if (weight != 1.0)
+            ss.multiplyBy(weight);
+        target.sum(ss);
+    }
+
     /**
      * Returns the size of the sufficient statistics vector of this EF_Distribution.
      * @return an {@code int} that represents the size of the sufficient statistics vector.
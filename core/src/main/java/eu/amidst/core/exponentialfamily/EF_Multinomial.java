@@ -21,6 +21,7 @@ import eu.amidst.core.distribution.Multinomial;
 import eu.amidst.core.utils.ArrayVector;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.utils.Vector;
+import eu.amidst.core.variables.Assignment;
 import eu.amidst.core.variables.Variable;
 
 import java.util.ArrayList;
@@ -102,6 +103,15 @@ public class EF_Multinomial extends EF_UnivariateDistribution {
         return vec;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSufficientStatisticsTo(Assignment data, SufficientStatistics target, double weight) {
+        int index = (int) data.getValue(this.var);
+        target.set(index, target.get(index) + weight);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -273,6 +273,16 @@ public class EF_Normal extends EF_UnivariateDistribution {
         return this.getSufficientStatistics(data.getValue(this.var));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSufficientStatisticsTo(Assignment data, SufficientStatistics target, double weight) {
+        double val = data.getValue(this.var);
+        target.set(EXPECTED_MEAN, target.get(EXPECTED_MEAN) + weight * val);
+        target.set(EXPECTED_SQUARE, target.get(EXPECTED_SQUARE) + weight * val * val);
+    }
+
     /**
      * {@inheritDoc}
      */
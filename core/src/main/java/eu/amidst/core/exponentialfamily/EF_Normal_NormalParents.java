@@ -53,6 +53,9 @@ public class EF_Normal_NormalParents extends EF_ConditionalDistribution  {
     /** Represents the variance */
     double variance;
 
+    /** Represents, for each thread, the buffer where the values of the main variable and its parents are copied. */
+    private transient ThreadLocal<double[]> xyBuffer;
+
     /**
      * Creates a new EF_Normal_NormalParents distribution.
      * @param var_ the main variable.
@@ -191,6 +194,33 @@ public class EF_Normal_NormalParents extends EF_ConditionalDistribution  {
         return vectorSS;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSufficientStatisticsTo(Assignment data, SufficientStatistics target, double weight) {
+        CompoundVector vectorSS = (CompoundVector) target;
+
+        if (this.xyBuffer == null)
+            this.xyBuffer = ThreadLocal.withInitial(() -> new double[this.parents.size() + 1]);
+
+        double[] xy = this.xyBuffer.get();
+        xy[0] = data.getValue(this.var);
+        for (int i = 0; i < this.parents.size(); i++) {
+            xy[i + 1] = data.getValue(this.parents.get(i));
+        }
+
+        RealVector xyVector = vectorSS.getXYbaseMatrix();
+        RealMatrix covMatrix = vectorSS.getcovbaseMatrix();
+        for (int i = 0; i < xy.length; i++) {
+            double weightedValue = weight * xy[i];
+            xyVector.setEntry(i, xyVector.getEntry(i) + weightedValue);
+            for (int j = 0; j < xy.length; j++) {
+                covMatrix.addToEntry(i, j, weightedValue * xy[j]);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -143,9 +143,12 @@ public class EF_SparseDirichlet extends EF_UnivariateDistribution {
      */
     @Override
     public EF_UnivariateDistribution randomInitialization(Random random) {
-        for (int i = 0; i < this.nOfStates; i++) {
-            this.getNaturalParameters().set(i, 5*random.nextDouble() + 1 + 1e-5);
+        //Only the stored entries and the default value are initialized, so that the vector stays sparse.
+        SparseVectorDefaultValue naturalParameters = this.getSparseNaturalParameters();
+        for (Integer i : naturalParameters.getNonZeroEntries()) {
+            naturalParameters.set(i, 5*random.nextDouble() + 1 + 1e-5);
         }
+        naturalParameters.setDefaultValue(5*random.nextDouble() + 1 + 1e-5);
         fixNumericalInstability();
         this.updateMomentFromNaturalParameters();
 
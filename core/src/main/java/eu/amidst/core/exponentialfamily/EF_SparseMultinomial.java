@@ -33,6 +33,9 @@ import java.util.Random;
  */
 public class EF_SparseMultinomial extends EF_UnivariateDistribution {
 
+    /** Represents whether the Dirichlet parameter used for learning is sparse, i.e., an {@link EF_SparseDirichlet}. */
+    boolean sparseDirichletParameter = false;
+
     /**
      * Creates a new EF_Multinomial distribution for a given {@link Variable} object.
      * @param var a {@link Variable} object with a Multinomial distribution type.
@@ -55,6 +58,23 @@ public class EF_SparseMultinomial extends EF_UnivariateDistribution {
 
     }
 
+    /**
+     * Tests whether the Dirichlet parameter used for learning is an {@link EF_SparseDirichlet}.
+     * @return {@code true} if the Dirichlet parameter is sparse, {@code false} otherwise.
+     */
+    public boolean isSparseDirichletParameter() {
+        return sparseDirichletParameter;
+    }
+
+    /**
+     * Sets whether the Dirichlet parameter used for learning is an {@link EF_SparseDirichlet}. A sparse Dirichlet only
+     * stores the states with some observed count, which keeps the parameter small for large vocabularies.
+     * @param sparseDirichletParameter {@code true} to use a sparse Dirichlet parameter, {@code false} otherwise.
+     */
+    public void setSparseDirichletParameter(boolean sparseDirichletParameter) {
+        this.sparseDirichletParameter = sparseDirichletParameter;
+    }
+
     private SparseVectorDefaultValue getSparseNaturalParameters(){
         return ((SparseVectorDefaultValue)this.naturalParameters);
     }
@@ -206,27 +226,21 @@ public class EF_SparseMultinomial extends EF_UnivariateDistribution {
     @Override
     public List<EF_ConditionalDistribution> toExtendedLearningDistribution(ParameterVariables variables, String nameSuffix){
 
-        Variable varDirichlet = variables.newVariable(this.var.getName()+"_DirichletParameter_"+nameSuffix+"_"+variables.getNumberOfVars(), DistributionTypeEnum.DIRICHLET_PARAMETER, new SparseFiniteStateSpace(this.var.getNumberOfStates()));
-
-        EF_Dirichlet uni = varDirichlet.getDistributionType().newEFUnivariateDistribution();
+        if (this.sparseDirichletParameter) {
+            Variable varDirichlet = variables.newSparseDirichletParameter(this.var.getName()+"_DirichletParameter_"+nameSuffix+"_"+variables.getNumberOfVars(), this.var.getNumberOfStates());
 
-        return Arrays.asList(new EF_SparseMultinomial_Dirichlet(this.var, varDirichlet), uni);
-    }
+            EF_SparseDirichlet uni = varDirichlet.getDistributionType().newEFUnivariateDistribution();
 
-    /*
-        @Override
-    public List<EF_ConditionalDistribution> toExtendedLearningDistribution(ParameterVariables variables, String nameSuffix){
+            return Arrays.asList(new EF_SparseMultinomial_SparseDirichlet(this.var, varDirichlet), uni);
+        }
 
-        Variable varDirichlet = variables.newSparseDirichletParameter(this.var.getName()+"_DirichletParameter_"+nameSuffix+"_"+variables.getNumberOfVars(), this.var.getNumberOfStates());
+        Variable varDirichlet = variables.newVariable(this.var.getName()+"_DirichletParameter_"+nameSuffix+"_"+variables.getNumberOfVars(), DistributionTypeEnum.DIRICHLET_PARAMETER, new SparseFiniteStateSpace(this.var.getNumberOfStates()));
 
-        EF_SparseDirichlet uni = varDirichlet.getDistributionType().newEFUnivariateDistribution();
+        EF_Dirichlet uni = varDirichlet.getDistributionType().newEFUnivariateDistribution();
 
-        return Arrays.asList(new EF_SparseMultinomial_SparseDirichlet(this.var, varDirichlet), uni);
+        return Arrays.asList(new EF_SparseMultinomial_Dirichlet(this.var, varDirichlet), uni);
     }
 
-
-     */
-
     /**
      * {@inheritDoc}
      */
@@ -73,6 +73,26 @@ public class EF_SparseMultinomial_SparseDirichlet extends EF_ConditionalDistribu
         return dirichletVariable;
     }
 
+    /**
+     * {@inheritDoc}
+     * When the child is a single observed word, only the moment of the sparse Dirichlet at that word is read.
+     */
+    @Override
+    public double computeLogProbability(Map<Variable,MomentParameters> momentChildCoParents){
+
+        MomentParameters momentParametersDir = momentChildCoParents.get(this.dirichletVariable);
+        SparseVectorDefaultValue momentParametersWord = (SparseVectorDefaultValue)momentChildCoParents.get(this.getVariable());
+
+        if (momentParametersWord.getDefaultValue()==0 && momentParametersWord.getNonZeroEntries().size()==1) {
+            Integer integer = momentParametersWord.getNonZeroEntries().iterator().next();
+
+            return momentParametersDir.get(integer)*momentParametersWord.get(integer);
+
+        }else {
+            return this.getExpectedNaturalFromParents(momentChildCoParents).dotProduct(momentChildCoParents.get(this.getVariable())) - this.getExpectedLogNormalizer(momentChildCoParents);
+        }
+    }
+
 
     /**
      * {@inheritDoc}
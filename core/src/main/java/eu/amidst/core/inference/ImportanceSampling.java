@@ -18,7 +18,6 @@
 package eu.amidst.core.inference;
 
 import eu.amidst.core.distribution.ConditionalDistribution;
-import eu.amidst.core.distribution.Distribution;
 import eu.amidst.core.distribution.Multinomial;
 import eu.amidst.core.distribution.UnivariateDistribution;
 import eu.amidst.core.exponentialfamily.EF_UnivariateDistribution;
@@ -30,13 +29,12 @@ import eu.amidst.core.utils.LocalRandomGenerator;
 import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Assignment;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -72,10 +70,10 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
 
 
     private class WeightedAssignment {
-        private HashMapAssignment assignment;
+        private ArrayAssignment assignment;
         private double weight;
 
-        public WeightedAssignment(HashMapAssignment assignment_, double weight_){
+        public WeightedAssignment(ArrayAssignment assignment_, double weight_){
             this.assignment = assignment_;
             this.weight = weight_;
         }
@@ -84,8 +82,8 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
             StringBuilder str = new StringBuilder();
             str.append("[ ");
 
-            for (Map.Entry<Variable, Double> entry : this.assignment.entrySet()) {
-                str.append(entry.getKey().getName() + " = " + entry.getValue());
+            for (Variable var : this.assignment.getVariables()) {
+                str.append(var.getName() + " = " + this.assignment.getValue(var));
                 str.append(", ");
             }
             str.append("Weight = " + weight + " ]");
@@ -142,7 +140,8 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
      */
     public void setSamplingModel(BayesianNetwork samplingModel_) {
         this.samplingModel = new BayesianNetwork(samplingModel_.getDAG(),
-                Serialization.deepCopy(samplingModel_.getConditionalDistributions()));
+                samplingModel_.getConditionalDistributions().stream()
+                        .map(ConditionalDistribution::copy).collect(Collectors.toList()));
         this.causalOrder = Utils.getTopologicalOrder(samplingModel.getDAG());
 
         if (this.samplingModel.equalBNs(this.model,1E-10)) {
@@ -198,7 +197,7 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
 
     /**
      * Returns a {@link Stream} containing the drawn samples after running the inference.
-     * @return a {@link Stream} of {@link HashMapAssignment} objects.
+     * @return a {@link Stream} of {@link Assignment} objects.
      */
     public Stream<Assignment> getSamples() {
 
@@ -213,7 +212,7 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
 
     private WeightedAssignment getWeightedAssignmentSameModel(Random random) {
 
-        HashMapAssignment sample = new HashMapAssignment(this.model.getNumberOfVars());;
+        ArrayAssignment sample = this.model.getVariables().newAssignment();
 
         double logWeight = 0.0;
 
@@ -243,8 +242,8 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
             return getWeightedAssignmentSameModel(random);
         }
 
-        HashMapAssignment samplingAssignment = new HashMapAssignment(1);
-        HashMapAssignment modelAssignment = new HashMapAssignment(1);
+        ArrayAssignment samplingAssignment = this.samplingModel.getVariables().newAssignment();
+        ArrayAssignment modelAssignment = this.model.getVariables().newAssignment();
         double numerator = 0.0;
         double denominator = 0.0;
 
@@ -305,14 +304,25 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
      * {@inheritDoc}
      */
     @Override
-    //TODO For continuous variables, instead of returning a Gaussian distributions, we should return a Mixture of Gaussians!!
     public <E extends UnivariateDistribution> E getPosterior(Variable var) {
+        return (E) this.getPosteriors(Arrays.asList(var)).get(0);
+    }
 
-        Variable samplingVar = this.samplingModel.getVariables().getVariableByName(var.getName());
-        // TODO Could we build this object in a general way for Multinomial and Normal?
-        EF_UnivariateDistribution ef_univariateDistribution = samplingVar.newUnivariateDistribution().toEFUnivariateDistribution();
+    /**
+     * Returns the posterior distributions of a list of variables. All of them are estimated in a single pass
+     * over the weighted samples, which are drawn again only if they are not kept on memory.
+     * @param vars a {@code List} of {@link Variable} objects.
+     * @return a {@code List} of {@link UnivariateDistribution} objects, in the same order as {@code vars}.
+     */
+    //TODO For continuous variables, instead of returning a Gaussian distributions, we should return a Mixture of Gaussians!!
+    public List<UnivariateDistribution> getPosteriors(List<Variable> vars) {
 
-        AtomicInteger dataInstanceCount = new AtomicInteger(0);
+        // TODO Could we build this object in a general way for Multinomial and Normal?
+        EF_UnivariateDistribution[] ef_univariateDistributions = new EF_UnivariateDistribution[vars.size()];
+        for (int i = 0; i < vars.size(); i++) {
+            Variable samplingVar = this.samplingModel.getVariables().getVariableByName(vars.get(i).getName());
+            ef_univariateDistributions[i] = samplingVar.newUnivariateDistribution().toEFUnivariateDistribution();
+        }
 
         if(keepDataOnMemory) {
             weightedSampleStream = weightedSampleList.stream().sequential();
@@ -324,52 +334,88 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
             weightedSampleStream.parallel();
         }
 
-        if (!keepDataOnMemory) {
-            weightedSampleList = weightedSampleStream.collect(Collectors.toList());
-        }
+        PosteriorAccumulator sum = weightedSampleStream.collect(
+                () -> new PosteriorAccumulator(ef_univariateDistributions),
+                PosteriorAccumulator::add,
+                PosteriorAccumulator::combine);
+
+        List<UnivariateDistribution> posteriors = new ArrayList<>(vars.size());
+        for (int i = 0; i < vars.size(); i++) {
+            SufficientStatistics sumSS = sum.sumSS[i];
+            sumSS.divideBy(sum.sumWeights);
+
+            ef_univariateDistributions[i].setMomentParameters(sumSS);
 
-        double maxLogWeight;
+            UnivariateDistribution posteriorDistribution = ef_univariateDistributions[i].toUnivariateDistribution();
 
-        OptionalDouble optionalDouble = weightedSampleList.stream()
-                .mapToDouble(weightedAssignment -> weightedAssignment.weight)
-                .filter(Double::isFinite)
-                .max();
-        maxLogWeight = (optionalDouble.isPresent() ? optionalDouble.getAsDouble() : 0);
+            //Normalize Multinomial distributions
+            if(vars.get(i).isMultinomial()) {
+                double[] probabilities = ((Multinomial) posteriorDistribution).getProbabilities();
+                ((Multinomial) posteriorDistribution).setProbabilities(Utils.normalize(probabilities));
+            }
 
-        SufficientStatistics sumSS = weightedSampleStream
-                .peek(w -> {
-                    dataInstanceCount.getAndIncrement();
-                })
-                .map(e -> {
-                    SufficientStatistics SS = ef_univariateDistribution.getSufficientStatistics(e.assignment);
-                    SS.multiplyBy(Math.exp(e.weight-maxLogWeight));
-                    return SS;
-                })
-                .filter(ss-> Double.isFinite(ss.sum()))
-                .reduce(SufficientStatistics::sumVectorNonStateless).get();
+            posteriors.add(posteriorDistribution);
+        }
 
-        sumSS.multiplyBy(Math.exp(maxLogWeight));
-        sumSS.divideBy(dataInstanceCount.get());
+        return posteriors;
+    }
 
-        sumSS.divideBy(Math.exp(this.getLogProbabilityOfEvidence()));
+    /**
+     * This class accumulates the weighted sufficient statistics of several variables over a set of weighted samples.
+     * The weights are kept relative to the maximum log-weight seen so far, which avoids overflows and underflows
+     * when exponentiating them.
+     */
+    private static final class PosteriorAccumulator {
+
+        private final EF_UnivariateDistribution[] distributions;
+        private final SufficientStatistics[] sumSS;
+        private double maxLogWeight = Double.NEGATIVE_INFINITY;
+        private double sumWeights = 0;
+
+        PosteriorAccumulator(EF_UnivariateDistribution[] distributions) {
+            this.distributions = distributions;
+            this.sumSS = new SufficientStatistics[distributions.length];
+            for (int i = 0; i < distributions.length; i++) {
+                this.sumSS[i] = distributions[i].createZeroSufficientStatistics();
+            }
+        }
 
-        ef_univariateDistribution.setMomentParameters(sumSS);
+        void add(WeightedAssignment weightedAssignment) {
+            if (!Double.isFinite(weightedAssignment.weight))
+                return;
 
-        Distribution posteriorDistribution = ef_univariateDistribution.toUnivariateDistribution();
+            if (weightedAssignment.weight > this.maxLogWeight)
+                this.rescale(weightedAssignment.weight);
 
-        //Normalize Multinomial distributions
-        if(var.isMultinomial()) {
+            double weight = Math.exp(weightedAssignment.weight - this.maxLogWeight);
+            this.sumWeights += weight;
+            for (int i = 0; i < this.distributions.length; i++) {
+                this.distributions[i].addSufficientStatisticsTo(weightedAssignment.assignment, this.sumSS[i], weight);
+            }
+        }
 
-            double[] probabilities = ((Multinomial) posteriorDistribution).getProbabilities();
-            double probMax = Arrays.stream(probabilities).max().getAsDouble();
-            Arrays.stream(probabilities).map(prob -> prob/probMax);
+        void combine(PosteriorAccumulator other) {
+            if (other.maxLogWeight > this.maxLogWeight)
+                this.rescale(other.maxLogWeight);
+            else
+                other.rescale(this.maxLogWeight);
 
-            ((Multinomial) posteriorDistribution).setProbabilities(Utils.normalize(probabilities));
-//            ((Multinomial) posteriorDistribution).
-//                    setProbabilities(Utils.normalize(((Multinomial) posteriorDistribution).getProbabilities()));
+            this.sumWeights += other.sumWeights;
+            for (int i = 0; i < this.sumSS.length; i++) {
+                this.sumSS[i].sum(other.sumSS[i]);
+            }
         }
 
-        return (E)posteriorDistribution;
+        private void rescale(double newMaxLogWeight) {
+            if (this.sumWeights > 0) {
+                double factor = Math.exp(this.maxLogWeight - newMaxLogWeight);
+                this.sumWeights *= factor;
+                for (SufficientStatistics ss : this.sumSS) {
+                    ss.multiplyBy(factor);
+                }
+            }
+            this.maxLogWeight = newMaxLogWeight;
+        }
     }
 
     private void computeWeightedSampleStream(boolean saveDataOnMemory_) {
@@ -439,7 +485,7 @@ public class ImportanceSampling implements InferenceAlgorithm, Serializable {
         System.out.println("Evidence: Variable " + variable1.getName() + " = " + var1value + " and Variable " + variable2.getName() + " = " + var2value);
         System.out.println();
 
-        HashMapAssignment assignment = new HashMapAssignment(2);
+        ArrayAssignment assignment = new ArrayAssignment(2);
 
         assignment.setValue(variable1,var1value);
         assignment.setValue(variable2,var2value);
@@ -27,7 +27,7 @@ import eu.amidst.core.exponentialfamily.SufficientStatistics;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.utils.*;
 import eu.amidst.core.variables.Assignment;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 import org.apache.commons.math.complex.Complex;
 
@@ -36,6 +36,7 @@ import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.SynchronousQueue;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -72,10 +73,10 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
 
 
     private class WeightedAssignment {
-        private HashMapAssignment assignment;
+        private ArrayAssignment assignment;
         private double logWeight;
 
-        public WeightedAssignment(HashMapAssignment assignment_, double weight_){
+        public WeightedAssignment(ArrayAssignment assignment_, double weight_){
             this.assignment = assignment_;
             this.logWeight = weight_;
         }
@@ -84,8 +85,8 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
             StringBuilder str = new StringBuilder();
             str.append("[ ");
 
-            for (Map.Entry<Variable, Double> entry : this.assignment.entrySet()) {
-                str.append(entry.getKey().getName() + " = " + entry.getValue());
+            for (Variable var : this.assignment.getVariables()) {
+                str.append(var.getName() + " = " + this.assignment.getValue(var));
                 str.append(", ");
             }
             str.append("Weight = " + logWeight + " ]");
@@ -186,7 +187,8 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
      */
     public void setSamplingModel(BayesianNetwork samplingModel_) {
         this.samplingModel = new BayesianNetwork(samplingModel_.getDAG(),
-                Serialization.deepCopy(samplingModel_.getConditionalDistributions()));
+                samplingModel_.getConditionalDistributions().stream()
+                        .map(ConditionalDistribution::copy).collect(Collectors.toList()));
         this.causalOrder = Utils.getTopologicalOrder(samplingModel.getDAG());
 
         if (this.samplingModel.equalBNs(this.model,1E-10)) {
@@ -224,7 +226,7 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
     //
 //    /**
 //     * Returns a {@link Stream} containing the drawn samples after running the inference.
-//     * @return a {@link Stream} of {@link HashMapAssignment} objects.
+//     * @return a {@link Stream} of {@link Assignment} objects.
 //     */
 //    public Stream<Assignment> getSamples() {
 //
@@ -314,7 +316,7 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
 
     private WeightedAssignment generateSampleSameModel(Random random) {
 
-        HashMapAssignment sample = new HashMapAssignment(this.model.getNumberOfVars());;
+        ArrayAssignment sample = this.model.getVariables().newAssignment();
 
         double logWeight = 0.0;
 
@@ -349,8 +351,8 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
             return generateSampleSameModel(random);
         }
 
-        HashMapAssignment samplingAssignment = new HashMapAssignment(1);
-        HashMapAssignment modelAssignment = new HashMapAssignment(1);
+        ArrayAssignment samplingAssignment = this.samplingModel.getVariables().newAssignment();
+        ArrayAssignment modelAssignment = this.model.getVariables().newAssignment();
         double numerator = 0.0;
         double denominator = 0.0;
 
@@ -737,7 +739,7 @@ public class ImportanceSamplingRobust implements InferenceAlgorithm, Serializabl
         System.out.println("Evidence: Variable " + variableEvidence.getName() + " = " + varEvidenceValue);
         System.out.println();
 
-        HashMapAssignment assignment = new HashMapAssignment(1);
+        ArrayAssignment assignment = new ArrayAssignment(1);
 
         assignment.setValue(variableEvidence,varEvidenceValue);
 
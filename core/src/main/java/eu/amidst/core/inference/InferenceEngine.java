@@ -31,6 +31,9 @@ import java.util.function.Function;
 /**
  * This class defines the Inference Engine for Bayesian Network models.
  *
+ * <p> This class shares a single {@link InferenceAlgorithm} and is not thread-safe.
+ * Use {@link PooledInferenceEngine} to run concurrent queries on the same model. </p>
+ *
  * <p> For an example of use follow this link
  * <a href="http://amidst.github.io/toolbox/CodeExamples.html#inferenceengingeexample"> http://amidst.github.io/toolbox/CodeExamples.html#inferenceengingeexample </a>  </p>
  */
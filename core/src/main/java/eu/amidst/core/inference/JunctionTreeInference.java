@@ -0,0 +1,631 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.inference;
+
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.distribution.Normal;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.potential.MultinomialPotential;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * This class implements the interface {@link InferenceAlgorithm} and defines an exact inference algorithm
+ * based on a junction tree, following the Hugin architecture.
+ *
+ * <p> The junction tree is compiled once in {@link #setModel(BayesianNetwork)}: the moral graph of the multinomial
+ * variables is triangulated with the minimum fill-in heuristic, and the clique tables, stored as
+ * {@link MultinomialPotential} objects, are initialized with the conditional distributions of the model.
+ * The maps between clique and separator configurations are precomputed, so that a propagation only runs
+ * over flat arrays. When the new evidence only extends the previous one, the findings are entered in the
+ * current clique tables and propagated again. Otherwise, i.e., when some evidence is retracted or changed,
+ * the clique tables are restored from the compiled ones without compiling the model again. </p>
+ *
+ * <p> Normal variables are supported as long as their continuous parents are observed whenever they are observed.
+ * The posterior of a non-observed normal variable is the normal distribution with the same mean and variance
+ * as the exact mixture, and it requires its continuous parents to be observed. </p>
+ */
+public class JunctionTreeInference implements InferenceAlgorithm, Serializable {
+
+    private static final long serialVersionUID = -2815467413917359812L;
+
+    /** Represents the {@link BayesianNetwork} model. */
+    private BayesianNetwork model;
+
+    /** Represents the clique tables. */
+    private MultinomialPotential[] cliques;
+
+    /** Represents the clique tables before entering any evidence. */
+    private double[][] compiledTables;
+
+    /** Represents the separator between each clique and its parent, null for the root. */
+    private MultinomialPotential[] separators;
+
+    /** Represents a buffer for the new values of each separator. */
+    private double[][] separatorBuffers;
+
+    /** Represents the parent of each clique in the junction tree, -1 for the root. */
+    private int[] parent;
+
+    /** Represents the cliques sorted such that each clique goes after its parent. */
+    private int[] order;
+
+    /** Represents, for each clique, the map from its configurations to the configurations of its separator. */
+    private int[][] cliqueToSeparator;
+
+    /** Represents, for each clique, the map from the configurations of its parent to the configurations of its separator. */
+    private int[][] parentToSeparator;
+
+    /** Represents, for each variable, the clique where its findings are entered, -1 if there is none. */
+    private int[] homeClique;
+
+    /**
+     * Represents, for each variable, the map from the configurations of its home clique to its states, for
+     * multinomial variables, or to the configurations of its multinomial parents, for normal variables.
+     */
+    private int[][] homeMap;
+
+    /** Represents, for each normal variable, a potential over its multinomial parents. */
+    private MultinomialPotential[] multinomialParents;
+
+    /** Represents the evidence. */
+    private Assignment evidence;
+
+    /** Represents the evidence entered in the last propagation, indexed by variable ID. */
+    private double[] propagatedEvidence;
+
+    /** Represents the log probability of the evidence entered in the last propagation. */
+    private double logProbabilityOfEvidence;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setModel(BayesianNetwork model_) {
+        for (Variable var : model_.getVariables()) {
+            if (!var.isMultinomial() && !var.isNormal())
+                throw new UnsupportedOperationException("JunctionTreeInference only supports multinomial and normal variables: " + var.getName());
+            if (var.isMultinomial() && model_.getDAG().getParentSet(var).getParents().stream().anyMatch(parent -> !parent.isMultinomial()))
+                throw new UnsupportedOperationException("JunctionTreeInference does not support multinomial variables with continuous parents: " + var.getName());
+        }
+
+        this.model = model_;
+        this.evidence = null;
+        this.propagatedEvidence = null;
+        this.compile();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BayesianNetwork getOriginalModel() {
+        return this.model;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEvidence(Assignment assignment) {
+        this.evidence = assignment;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSeed(int seed) {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void runInference() {
+        int nVars = this.model.getNumberOfVars();
+        double[] newEvidence = new double[nVars];
+        for (Variable var : this.model.getVariables()) {
+            newEvidence[var.getVarID()] = this.evidence == null ? Utils.missingValue() : this.evidence.getValue(var);
+        }
+
+        for (Variable var : this.model.getVariables()) {
+            if (var.isNormal() && !Utils.isMissingValue(newEvidence[var.getVarID()]) && this.getContinuousParents(var).stream()
+                    .anyMatch(parent -> Utils.isMissingValue(newEvidence[parent.getVarID()])))
+                throw new UnsupportedOperationException("JunctionTreeInference requires the continuous parents of an observed variable to be observed: " + var.getName());
+        }
+
+        boolean incremental = this.propagatedEvidence != null;
+        for (int i = 0; incremental && i < nVars; i++) {
+            incremental = Utils.isMissingValue(this.propagatedEvidence[i]) || this.propagatedEvidence[i] == newEvidence[i];
+        }
+
+        if (!incremental) {
+            for (int i = 0; i < this.cliques.length; i++) {
+                System.arraycopy(this.compiledTables[i], 0, this.cliques[i].getValues(), 0, this.compiledTables[i].length);
+                if (this.separators[i] != null)
+                    Arrays.fill(this.separators[i].getValues(), 1.0);
+            }
+            this.logProbabilityOfEvidence = 0;
+        }
+
+        boolean newFindings = false;
+        for (Variable var : this.model.getVariables()) {
+            double value = newEvidence[var.getVarID()];
+            if (Utils.isMissingValue(value) || (incremental && !Utils.isMissingValue(this.propagatedEvidence[var.getVarID()])))
+                continue;
+
+            newFindings = true;
+            if (var.isMultinomial())
+                this.enterMultinomialFinding(var, (int) value);
+            else
+                this.enterNormalFinding(var, newEvidence);
+        }
+
+        if (!incremental || newFindings)
+            this.propagate();
+
+        this.propagatedEvidence = newEvidence;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E extends UnivariateDistribution> E getPosterior(Variable var) {
+        if (this.propagatedEvidence == null)
+            this.runInference();
+
+        if (var.isMultinomial()) {
+            Multinomial posterior = new Multinomial(var);
+            posterior.setProbabilities(this.marginal(var, var.getNumberOfStates()));
+            return (E) posterior;
+        }
+
+        Normal posterior = new Normal(var);
+        double value = this.propagatedEvidence[var.getVarID()];
+        if (!Utils.isMissingValue(value)) {
+            posterior.setMean(value);
+            posterior.setVariance(0);
+            return (E) posterior;
+        }
+
+        if (this.getContinuousParents(var).stream().anyMatch(parent -> Utils.isMissingValue(this.propagatedEvidence[parent.getVarID()])))
+            throw new UnsupportedOperationException("JunctionTreeInference requires the continuous parents of a queried variable to be observed: " + var.getName());
+
+        MultinomialPotential configurations = this.multinomialParents[var.getVarID()];
+        double[] weights = this.marginal(var, configurations.size());
+        ConditionalDistribution dist = this.model.getConditionalDistribution(var);
+        double mean = 0;
+        double secondMoment = 0;
+        for (int k = 0; k < weights.length; k++) {
+            if (weights[k] == 0)
+                continue;
+            Normal normal = (Normal) dist.getUnivariateDistribution(this.getParentAssignment(var, configurations, k, this.propagatedEvidence));
+            mean += weights[k] * normal.getMean();
+            secondMoment += weights[k] * (normal.getVariance() + normal.getMean() * normal.getMean());
+        }
+        posterior.setMean(mean);
+        posterior.setVariance(secondMoment - mean * mean);
+        return (E) posterior;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLogProbabilityOfEvidence() {
+        if (this.propagatedEvidence == null)
+            this.runInference();
+        return this.logProbabilityOfEvidence;
+    }
+
+    /**
+     * Compiles the junction tree of the model.
+     */
+    private void compile() {
+        List<Variable> variables = this.model.getVariables().getListOfVariables();
+        List<Variable> discreteVars = variables.stream().filter(Variable::isMultinomial).collect(Collectors.toList());
+        int nVars = variables.size();
+
+        int[] position = new int[nVars];
+        for (int i = 0; i < discreteVars.size(); i++) {
+            position[discreteVars.get(i).getVarID()] = i;
+        }
+
+        //Moral graph over the multinomial variables, including the multinomial parents of normal variables.
+        List<Set<Integer>> graph = new ArrayList<>();
+        discreteVars.forEach(var -> graph.add(new HashSet<>()));
+        for (Variable var : variables) {
+            List<Integer> family = this.getMultinomialFamily(var).stream().map(v -> position[v.getVarID()]).collect(Collectors.toList());
+            for (int a : family) {
+                for (int b : family) {
+                    if (a != b)
+                        graph.get(a).add(b);
+                }
+            }
+        }
+
+        List<List<Variable>> cliqueVars = triangulate(graph, discreteVars);
+        int nCliques = cliqueVars.size();
+
+        this.buildTree(cliqueVars);
+
+        this.cliques = new MultinomialPotential[nCliques];
+        for (int i = 0; i < nCliques; i++) {
+            this.cliques[i] = new MultinomialPotential(cliqueVars.get(i));
+        }
+
+        this.separators = new MultinomialPotential[nCliques];
+        this.separatorBuffers = new double[nCliques][];
+        this.cliqueToSeparator = new int[nCliques][];
+        this.parentToSeparator = new int[nCliques][];
+        for (int i = 0; i < nCliques; i++) {
+            if (this.parent[i] == -1)
+                continue;
+            List<Variable> separatorVars = new ArrayList<>(cliqueVars.get(i));
+            separatorVars.retainAll(cliqueVars.get(this.parent[i]));
+            this.separators[i] = new MultinomialPotential(separatorVars);
+            this.separatorBuffers[i] = new double[this.separators[i].size()];
+            this.cliqueToSeparator[i] = this.cliques[i].indexMap(separatorVars);
+            this.parentToSeparator[i] = this.cliques[this.parent[i]].indexMap(separatorVars);
+        }
+
+        this.homeClique = new int[nVars];
+        this.homeMap = new int[nVars][];
+        this.multinomialParents = new MultinomialPotential[nVars];
+        for (Variable var : variables) {
+            List<Variable> family = this.getMultinomialFamily(var);
+            if (var.isMultinomial()) {
+                MultinomialPotential familyPotential = new MultinomialPotential(family);
+                ConditionalDistribution dist = this.model.getConditionalDistribution(var);
+                double[] values = familyPotential.getValues();
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = dist.getConditionalProbability(familyPotential.getAssignment(k));
+                }
+                this.cliques[this.smallestClique(family)].combine(familyPotential);
+
+                this.homeClique[var.getVarID()] = this.smallestClique(Arrays.asList(var));
+                this.homeMap[var.getVarID()] = this.cliques[this.homeClique[var.getVarID()]].indexMap(Arrays.asList(var));
+            } else {
+                this.multinomialParents[var.getVarID()] = new MultinomialPotential(family);
+                this.homeClique[var.getVarID()] = family.isEmpty() ? -1 : this.smallestClique(family);
+                if (!family.isEmpty())
+                    this.homeMap[var.getVarID()] = this.cliques[this.homeClique[var.getVarID()]].indexMap(family);
+            }
+        }
+
+        this.compiledTables = new double[nCliques][];
+        for (int i = 0; i < nCliques; i++) {
+            this.compiledTables[i] = this.cliques[i].getValues().clone();
+        }
+    }
+
+    /**
+     * Triangulates a graph by eliminating, at each step, the node adding the least number of edges. Ties are broken
+     * by the number of configurations of the resulting clique.
+     * @param graph the adjacency sets of the graph.
+     * @param vars the variable of each node.
+     * @return the maximal cliques of the triangulated graph.
+     */
+    private static List<List<Variable>> triangulate(List<Set<Integer>> graph, List<Variable> vars) {
+        int n = vars.size();
+        List<Set<Integer>> adjacency = graph.stream().map(HashSet::new).collect(Collectors.toList());
+        boolean[] eliminated = new boolean[n];
+        List<Set<Integer>> cliques = new ArrayList<>();
+
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            int bestFill = Integer.MAX_VALUE;
+            double bestWeight = Double.POSITIVE_INFINITY;
+            for (int v = 0; v < n; v++) {
+                if (eliminated[v])
+                    continue;
+                List<Integer> neighbours = new ArrayList<>(adjacency.get(v));
+                int fill = 0;
+                double weight = vars.get(v).getNumberOfStates();
+                for (int a = 0; a < neighbours.size(); a++) {
+                    weight *= vars.get(neighbours.get(a)).getNumberOfStates();
+                    for (int b = a + 1; b < neighbours.size(); b++) {
+                        if (!adjacency.get(neighbours.get(a)).contains(neighbours.get(b)))
+                            fill++;
+                    }
+                }
+                if (fill < bestFill || (fill == bestFill && weight < bestWeight)) {
+                    best = v;
+                    bestFill = fill;
+                    bestWeight = weight;
+                }
+            }
+
+            Set<Integer> clique = new TreeSet<>(adjacency.get(best));
+            clique.add(best);
+            for (int a : adjacency.get(best)) {
+                for (int b : adjacency.get(best)) {
+                    if (a != b)
+                        adjacency.get(a).add(b);
+                }
+                adjacency.get(a).remove(best);
+            }
+            eliminated[best] = true;
+
+            //Later cliques can not contain former ones, as they do not include the eliminated nodes.
+            if (cliques.stream().noneMatch(c -> c.containsAll(clique)))
+                cliques.add(clique);
+        }
+
+        return cliques.stream()
+                .map(clique -> clique.stream().map(vars::get).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the junction tree as a maximum spanning tree of the cliques, where the weight of an edge is the
+     * size of the separator. Cliques with no common variables are connected by empty separators.
+     * @param cliqueVars the variables of each clique.
+     */
+    private void buildTree(List<List<Variable>> cliqueVars) {
+        int nCliques = cliqueVars.size();
+
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < nCliques; i++) {
+            for (int j = i + 1; j < nCliques; j++) {
+                Set<Variable> separator = new HashSet<>(cliqueVars.get(i));
+                separator.retainAll(cliqueVars.get(j));
+                edges.add(new int[]{i, j, separator.size()});
+            }
+        }
+        edges.sort((e1, e2) -> Integer.compare(e2[2], e1[2]));
+
+        int[] component = new int[nCliques];
+        for (int i = 0; i < nCliques; i++) {
+            component[i] = i;
+        }
+        List<List<Integer>> neighbours = new ArrayList<>();
+        cliqueVars.forEach(clique -> neighbours.add(new ArrayList<>()));
+        for (int[] edge : edges) {
+            int a = findComponent(component, edge[0]);
+            int b = findComponent(component, edge[1]);
+            if (a == b)
+                continue;
+            component[a] = b;
+            neighbours.get(edge[0]).add(edge[1]);
+            neighbours.get(edge[1]).add(edge[0]);
+        }
+
+        this.parent = new int[nCliques];
+        this.order = new int[nCliques];
+        if (nCliques == 0)
+            return;
+
+        Arrays.fill(this.parent, -1);
+        boolean[] visited = new boolean[nCliques];
+        visited[0] = true;
+        int size = 1;
+        for (int k = 0; k < size; k++) {
+            int clique = this.order[k];
+            for (int neighbour : neighbours.get(clique)) {
+                if (!visited[neighbour]) {
+                    visited[neighbour] = true;
+                    this.parent[neighbour] = clique;
+                    this.order[size++] = neighbour;
+                }
+            }
+        }
+    }
+
+    private static int findComponent(int[] component, int i) {
+        while (component[i] != i) {
+            component[i] = component[component[i]];
+            i = component[i];
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index of the clique with the least number of configurations containing a list of variables.
+     * @param vars a {@code List} of {@link Variable} objects.
+     * @return an {@code int} that represents the index of the clique.
+     */
+    private int smallestClique(List<Variable> vars) {
+        int best = -1;
+        for (int i = 0; i < this.cliques.length; i++) {
+            if (this.cliques[i].getVariables().containsAll(vars) && (best == -1 || this.cliques[i].size() < this.cliques[best].size()))
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the multinomial family of a variable: the variable and its parents for multinomial variables,
+     * and its multinomial parents for normal variables.
+     * @param var a {@link Variable} object.
+     * @return a {@code List} of multinomial {@link Variable} objects.
+     */
+    private List<Variable> getMultinomialFamily(Variable var) {
+        List<Variable> family = new ArrayList<>();
+        if (var.isMultinomial())
+            family.add(var);
+        this.model.getDAG().getParentSet(var).getParents().stream().filter(Variable::isMultinomial).forEach(family::add);
+        return family;
+    }
+
+    private List<Variable> getContinuousParents(Variable var) {
+        return this.model.getDAG().getParentSet(var).getParents().stream().filter(Variable::isNormal).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns an assignment of the parents of a normal variable, made of a configuration of its multinomial
+     * parents and the values of its continuous parents.
+     * @param var a normal {@link Variable} object.
+     * @param configurations a potential over the multinomial parents of the variable.
+     * @param index an {@code int} that represents the position of a configuration of the multinomial parents.
+     * @param values the values of the variables, indexed by variable ID.
+     * @return an {@link HashMapAssignment} object.
+     */
+    private HashMapAssignment getParentAssignment(Variable var, MultinomialPotential configurations, int index, double[] values) {
+        HashMapAssignment assignment = configurations.getAssignment(index);
+        for (Variable parent : this.getContinuousParents(var)) {
+            assignment.setValue(parent, values[parent.getVarID()]);
+        }
+        return assignment;
+    }
+
+    private void enterMultinomialFinding(Variable var, int state) {
+        double[] values = this.cliques[this.homeClique[var.getVarID()]].getValues();
+        int[] map = this.homeMap[var.getVarID()];
+        for (int i = 0; i < values.length; i++) {
+            if (map[i] != state)
+                values[i] = 0;
+        }
+    }
+
+    private void enterNormalFinding(Variable var, double[] values) {
+        MultinomialPotential configurations = this.multinomialParents[var.getVarID()];
+        ConditionalDistribution dist = this.model.getConditionalDistribution(var);
+
+        double[] logLikelihood = new double[configurations.size()];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < logLikelihood.length; k++) {
+            HashMapAssignment assignment = this.getParentAssignment(var, configurations, k, values);
+            assignment.setValue(var, values[var.getVarID()]);
+            logLikelihood[k] = dist.getLogConditionalProbability(assignment);
+            max = Math.max(max, logLikelihood[k]);
+        }
+
+        this.logProbabilityOfEvidence += max;
+        if (this.homeClique[var.getVarID()] == -1)
+            return;
+
+        double[] cliqueValues = this.cliques[this.homeClique[var.getVarID()]].getValues();
+        int[] map = this.homeMap[var.getVarID()];
+        for (int i = 0; i < cliqueValues.length; i++) {
+            cliqueValues[i] *= Math.exp(logLikelihood[map[i]] - max);
+        }
+    }
+
+    /**
+     * Propagates the findings with a collect and a distribute pass. The clique tables are normalized in the
+     * collect pass, and the normalization constants are added to the log probability of the evidence.
+     */
+    private void propagate() {
+        if (this.cliques.length == 0)
+            return;
+
+        for (int k = this.order.length - 1; k > 0; k--) {
+            int clique = this.order[k];
+            this.logProbabilityOfEvidence += Math.log(this.cliques[clique].normalize());
+            this.absorb(clique, this.cliques[this.parent[clique]], this.cliques[clique], this.parentToSeparator[clique], this.cliqueToSeparator[clique]);
+        }
+
+        this.logProbabilityOfEvidence += Math.log(this.cliques[this.order[0]].normalize());
+
+        for (int k = 1; k < this.order.length; k++) {
+            int clique = this.order[k];
+            this.absorb(clique, this.cliques[clique], this.cliques[this.parent[clique]], this.cliqueToSeparator[clique], this.parentToSeparator[clique]);
+        }
+    }
+
+    /**
+     * Passes a message through the separator between a clique and its parent.
+     * @param separator the index of the clique of the separator.
+     * @param to the receiving clique.
+     * @param from the sending clique.
+     * @param toMap the map from the configurations of the receiving clique to the separator.
+     * @param fromMap the map from the configurations of the sending clique to the separator.
+     */
+    private void absorb(int separator, MultinomialPotential to, MultinomialPotential from, int[] toMap, int[] fromMap) {
+        double[] oldValues = this.separators[separator].getValues();
+        double[] newValues = this.separatorBuffers[separator];
+        Arrays.fill(newValues, 0.0);
+
+        double[] fromValues = from.getValues();
+        for (int i = 0; i < fromValues.length; i++) {
+            newValues[fromMap[i]] += fromValues[i];
+        }
+
+        for (int j = 0; j < oldValues.length; j++) {
+            oldValues[j] = oldValues[j] == 0 ? 0 : newValues[j] / oldValues[j];
+        }
+
+        double[] toValues = to.getValues();
+        for (int i = 0; i < toValues.length; i++) {
+            toValues[i] *= oldValues[toMap[i]];
+        }
+
+        this.separators[separator].setValues(newValues);
+        this.separatorBuffers[separator] = oldValues;
+    }
+
+    /**
+     * Computes the marginal of the home clique of a variable over the states of the variable, for multinomial
+     * variables, or over the configurations of its multinomial parents, for normal variables.
+     */
+    private double[] marginal(Variable var, int size) {
+        double[] marginal = new double[size];
+        int home = this.homeClique[var.getVarID()];
+        if (home == -1) {
+            marginal[0] = 1;
+            return marginal;
+        }
+
+        double[] values = this.cliques[home].getValues();
+        int[] map = this.homeMap[var.getVarID()];
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            marginal[map[i]] += values[i];
+            sum += values[i];
+        }
+        for (int k = 0; k < size; k++) {
+            marginal[k] /= sum;
+        }
+        return marginal;
+    }
+
+    public static void main(String[] args) {
+
+        BayesianNetworkGenerator.setNumberOfGaussianVars(0);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(20, 2);
+        BayesianNetworkGenerator.setNumberOfLinks(30);
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        JunctionTreeInference inference = new JunctionTreeInference();
+        inference.setModel(bn);
+
+        Variable var = bn.getVariables().getVariableById(0);
+        HashMapAssignment assignment = new HashMapAssignment(1);
+        assignment.setValue(bn.getVariables().getVariableById(19), 0);
+        inference.setEvidence(assignment);
+
+        long time = System.nanoTime();
+        inference.runInference();
+        System.out.println("Time: " + (System.nanoTime() - time) / 1000 + " microseconds");
+        System.out.println(inference.getPosterior(var).toString());
+        System.out.println(inference.getLogProbabilityOfEvidence());
+    }
+}
@@ -25,13 +25,17 @@ import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
 import eu.amidst.core.models.ParentSet;
 import eu.amidst.core.utils.BayesianNetworkSampler;
+import eu.amidst.core.utils.SplittableRandomGenerator;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Assignment;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -67,6 +71,21 @@ public class MAPInference implements PointEstimator {
     private Assignment MAPestimate;
     private double MAPestimateLogProbability;
 
+    /** Represents the maximum number of estimates kept in the cache, 0 disables it. */
+    private int cacheSize = 100000;
+
+    /** Represents the estimated probabilities of the MAP configurations visited by the search, keyed by {@link #packMAPConfiguration(Assignment)}. */
+    private Map<Long, Double> estimatesCache = new ConcurrentHashMap<>();
+
+    /** Represents the number of estimates taken from the cache since it was last cleared. */
+    private LongAdder cacheHits = new LongAdder();
+
+    /** Represents the weight of each MAP variable in the packed key of a configuration, null if it can not be packed. */
+    private long[] MAPradix;
+
+    /** Represents the fraction of the best probability so far below which a restart is abandoned halfway. */
+    private double pruningRatio = 0.01;
+
 
     private class WeightedAssignment {
         private Assignment assignment;
@@ -89,7 +108,7 @@ public class MAPInference implements PointEstimator {
 
     public MAPInference() {
 
-        this.evidence = new HashMapAssignment(0);
+        this.evidence = new ArrayAssignment(0);
         this.sampleSize = 10;
         MAPrandom = new Random();
     }
@@ -110,6 +129,7 @@ public class MAPInference implements PointEstimator {
     public void setSeed(int seed) {
         this.seed=seed;
         MAPrandom=new Random(seed);
+        this.clearCache();
     }
 
     /**
@@ -119,6 +139,8 @@ public class MAPInference implements PointEstimator {
     public void setModel(BayesianNetwork model_) {
         this.model = model_;
         this.causalOrder = Utils.getTopologicalOrder(this.model.getDAG());
+        this.numberOfDiscreteVariables = this.model.getVariables().getListOfVariables().stream().filter(Variable::isMultinomial).count();
+        this.setMAPVariables(this.MAPvariables);
     }
 
     /**
@@ -126,7 +148,10 @@ public class MAPInference implements PointEstimator {
      */
     @Override
     public void setEvidence(Assignment evidence_) {
-        this.evidence = evidence_;
+        this.evidence = (evidence_ == null) ? new ArrayAssignment(0) : evidence_;
+        this.numberOfDiscreteVariablesInEvidence = this.evidence.getVariables().stream()
+                .filter(var -> var.isMultinomial() && !Double.isNaN(this.evidence.getValue(var))).count();
+        this.clearCache();
 /*
         // MODIFY THE CAUSAL ORDER, VARIABLES WITH EVIDENCE FIRST
         List<Variable> newCausalOrder = new ArrayList<>();
@@ -163,6 +188,70 @@ public class MAPInference implements PointEstimator {
 
     public void setMAPVariables(List<Variable> varsOfInterest1) {
         this.MAPvariables = varsOfInterest1;
+        this.clearCache();
+
+        this.MAPradix = null;
+        if (this.MAPvariables == null || this.MAPvariables.stream().anyMatch(var -> !var.isMultinomial()))
+            return;
+        long[] radix = new long[this.MAPvariables.size()];
+        long weight = 1;
+        try {
+            for (int i = 0; i < radix.length; i++) {
+                radix[i] = weight;
+                weight = Math.multiplyExact(weight, this.MAPvariables.get(i).getNumberOfStates());
+            }
+            this.MAPradix = radix;
+        } catch (ArithmeticException ex) {
+            //The configurations do not fit in a long, so they are not cached.
+        }
+    }
+
+    /**
+     * Sets the maximum number of probability estimates of MAP configurations kept in the cache during the search.
+     * Once the cache is full, new estimates are not cached. The cache is only used when all the MAP variables are
+     * multinomial, and it is cleared when the model, the evidence, the MAP variables or the seed change.
+     * The cache does not change the result of the search, since the estimate of a configuration only depends on
+     * the configuration and the seed.
+     * @param cacheSize an {@code int} that represents the maximum number of cached estimates, 0 disables the cache.
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.clearCache();
+    }
+
+    /**
+     * Returns the number of probability estimates currently kept in the cache.
+     * @return an {@code int} that represents the number of cached estimates.
+     */
+    public int getNumberOfCachedEstimates() {
+        return this.estimatesCache.size();
+    }
+
+    /**
+     * Returns the number of probability estimates taken from the cache since it was last cleared.
+     * @return a {@code long} that represents the number of cache hits.
+     */
+    public long getNumberOfCacheHits() {
+        return this.cacheHits.sum();
+    }
+
+    /**
+     * Removes all the probability estimates from the cache.
+     */
+    private void clearCache() {
+        this.estimatesCache.clear();
+        this.cacheHits.reset();
+    }
+
+    /**
+     * Sets the pruning ratio of the search. All the restarts are first run halfway, and then the restarts whose
+     * current MAP configuration has a probability below this ratio times the best probability found so far by
+     * any restart are abandoned. Since the restarts are compared at the same point, the pruning does not depend on
+     * the scheduling of the threads.
+     * @param pruningRatio a {@code double} that represents the pruning ratio, 0 disables the pruning.
+     */
+    public void setPruningRatio(double pruningRatio) {
+        this.pruningRatio = pruningRatio;
     }
 
     public void setNumberOfIterations(int numberOfIterations) {
@@ -185,7 +274,7 @@ public class MAPInference implements PointEstimator {
     public Assignment getEstimate() {
 
         /*if(MAPvariables!=null) {
-            Assignment auxMAPEstimate = new HashMapAssignment(MAPestimate);
+            Assignment auxMAPEstimate = new ArrayAssignment(MAPestimate);
 
             for(Variable var : this.causalOrder) {
                 if( !MAPvariables.contains(var) ) {
@@ -240,7 +329,7 @@ public class MAPInference implements PointEstimator {
 
     private String getMAPVariablesFromAssignment(Assignment assignment) {
         if (this.MAPvariables!=null) {
-            Assignment MAPVarsValues = new HashMapAssignment(MAPvariables.size());
+            Assignment MAPVarsValues = new ArrayAssignment(MAPvariables.size());
             for(Variable var : MAPvariables) {
                 MAPVarsValues.setValue(var,assignment.getValue(var));
             }
@@ -252,7 +341,7 @@ public class MAPInference implements PointEstimator {
     }
 
     private Assignment fullAssignmentToMAPassignment(Assignment fullAssignment) {
-        Assignment MAPassignment = new HashMapAssignment(MAPvariables.size());
+        Assignment MAPassignment = new ArrayAssignment(MAPvariables.size());
         MAPvariables.stream().forEach(MAPvar -> MAPassignment.setValue(MAPvar, fullAssignment.getValue(MAPvar)));
         return MAPassignment;
     }
@@ -300,7 +389,29 @@ public class MAPInference implements PointEstimator {
                 break;
 
             default:   // HILL CLIMBING OR SIMULATED ANNEALING METHODS WITH DIFFERENT STARTING POINTS
-                weightedAssignment = samples.map(sample -> this.runOptimizationAlgorithm(sample, searchAlgorithm))
+                List<Assignment> initialGuesses = samples.collect(Collectors.toList());
+                long[] seeds = new long[initialGuesses.size()];
+                for (int i = 0; i < seeds.length; i++) {
+                    seeds[i] = MAPrandom.nextLong();
+                }
+
+                // RUN ALL THE RESTARTS HALFWAY, THEN ABANDON THOSE FAR BEHIND THE BEST ONE AND FINISH THE OTHERS
+                DoubleAccumulator bestSoFar = new DoubleAccumulator(Math::max, 0);
+                IntStream indices = IntStream.range(0, initialGuesses.size());
+                if (parallelMode)
+                    indices = indices.parallel();
+
+                List<OptimizationRestart> restarts = indices
+                        .mapToObj(i -> new OptimizationRestart(initialGuesses.get(i), searchAlgorithm, new Random(seeds[i]), bestSoFar))
+                        .map(restart -> restart.run(this.numberOfIterations/2))
+                        .collect(Collectors.toList());
+
+                double threshold = Math.min(this.pruningRatio, 1) * bestSoFar.get();
+                Stream<OptimizationRestart> survivors = parallelMode ? restarts.parallelStream() : restarts.stream();
+
+                weightedAssignment = survivors
+                        .filter(restart -> restart.currentProbability >= threshold)
+                        .map(restart -> restart.run(Integer.MAX_VALUE).getResult())
                         .filter(partialResult -> Double.isFinite(partialResult.weight))
                         .reduce((wa1, wa2) -> (wa1.weight > wa2.weight ? wa1 : wa2)).get();
                 MAPestimate = fullAssignmentToMAPassignment(weightedAssignment.assignment);
@@ -314,7 +425,7 @@ public class MAPInference implements PointEstimator {
     private Assignment obtainValues(Assignment initialGuess, Assignment evidence, Random random) {
 
         int numberOfVariables = this.model.getNumberOfVars();
-        Assignment result = new HashMapAssignment(initialGuess);
+        Assignment result = new ArrayAssignment(initialGuess);
         List<Variable> contVarEvidence = new ArrayList<>();
 
         Variable selectedVariable;
@@ -334,7 +445,7 @@ public class MAPInference implements PointEstimator {
 
 
                 try {
-                    Assignment parentsConfiguration = new HashMapAssignment(1);
+                    Assignment parentsConfiguration = new ArrayAssignment(1);
                     conDist.getConditioningVariables().forEach(parent -> parentsConfiguration.setValue(parent, result.getValue(parent)));
                     UnivariateDistribution uniDist = conDist.getUnivariateDistribution(parentsConfiguration);
                     selectedVariableNewValue = uniDist.sample(random);
@@ -408,7 +519,7 @@ public class MAPInference implements PointEstimator {
         for(Variable current : contVarEvidence) {
 
             if(Double.isNaN(evidence.getValue(current))) {
-                Assignment parentsConfiguration = new HashMapAssignment(1);
+                Assignment parentsConfiguration = new ArrayAssignment(1);
                 model.getConditionalDistribution(current).getConditioningVariables().forEach(parent -> parentsConfiguration.setValue(parent, result.getValue(parent)));
                 UnivariateDistribution univariateDistribution = model.getConditionalDistribution(current).getUnivariateDistribution(parentsConfiguration);
                 double newValue = univariateDistribution.sample(random);
@@ -429,7 +540,7 @@ public class MAPInference implements PointEstimator {
             selectedVariable = causalOrder.get(i);
 
             if ( selectedVariable.isNormal() && Double.isNaN(result.getValue(selectedVariable))) {
-                Assignment parentsConfiguration = new HashMapAssignment(1);
+                Assignment parentsConfiguration = new ArrayAssignment(1);
                 model.getConditionalDistribution(selectedVariable).getConditioningVariables().forEach(parent -> parentsConfiguration.setValue(parent, result.getValue(parent)));
                 UnivariateDistribution univariateDistribution = model.getConditionalDistribution(selectedVariable).getUnivariateDistribution(parentsConfiguration);
                 double newValue = univariateDistribution.getParameters()[0];
@@ -449,7 +560,7 @@ public class MAPInference implements PointEstimator {
     private Assignment obtainValuesRandomly(Assignment initialGuess, Assignment evidence, Random random) {
 
         int numberOfVariables = this.model.getNumberOfVars();
-        Assignment result = new HashMapAssignment(initialGuess);
+        Assignment result = new ArrayAssignment(initialGuess);
         List<Variable> contVarEvidence = new ArrayList<>();
 
         Variable selectedVariable;
@@ -507,7 +618,7 @@ public class MAPInference implements PointEstimator {
             }
         }
 
-        Collections.reverse(contVarEvidence);
+        contVarEvidence.sort(Comparator.comparingInt(causalOrder::indexOf));
 
         //contVarEvidence.forEach(var -> System.out.println(var.getName() + " = " + evidence.getValue(var)));
 
@@ -560,27 +671,73 @@ public class MAPInference implements PointEstimator {
     }
 
     protected double estimateProbabilityOfPartialAssignment(Assignment MAPassignment) {
-        return estimateProbabilityOfPartialAssignment(MAPassignment,true);
+        return estimateProbabilityOfPartialAssignment(MAPassignment, true, new Random(MAPrandom.nextInt()));
+    }
+
+    /**
+     * Packs the values of the MAP variables in an assignment into a single key, as a mixed radix number.
+     * @param assignment an {@link Assignment} object.
+     * @return a {@code long} that represents the key, or -1 if the configuration can not be packed.
+     */
+    private long packMAPConfiguration(Assignment assignment) {
+        if (this.MAPradix == null)
+            return -1;
+        long key = 0;
+        for (int i = 0; i < this.MAPradix.length; i++) {
+            double value = assignment.getValue(this.MAPvariables.get(i));
+            if (Double.isNaN(value))
+                return -1;
+            key += (long) value * this.MAPradix[i];
+        }
+        return key;
+    }
+
+    /**
+     * Returns the estimated probability of a MAP configuration visited by the search, reusing the estimate of
+     * a previous visit if it is in the cache. When the configuration can be packed, the estimate is computed from
+     * the MAP values and the evidence only, with a random generator given by the seed and the configuration, so
+     * it does not depend on which restart computes it first.
+     * @param MAPassignment the {@link Assignment} visited by the search.
+     * @param random the {@code Random} object of the restart, used when the configuration can not be packed.
+     * @return a {@code double} that represents the estimated probability.
+     */
+    private double estimateProbabilityOfVisitedAssignment(Assignment MAPassignment, Random random) {
+        long key = this.packMAPConfiguration(MAPassignment);
+        if (key == -1)
+            return estimateProbabilityOfPartialAssignment(MAPassignment, false, random);
+
+        Double cached = this.cacheSize > 0 ? this.estimatesCache.get(key) : null;
+        if (cached != null) {
+            this.cacheHits.increment();
+            return cached;
+        }
+
+        Assignment configuration = new ArrayAssignment(this.MAPvariables.size());
+        this.MAPvariables.forEach(var -> configuration.setValue(var, MAPassignment.getValue(var)));
+        double probabilityEstimate = estimateProbabilityOfPartialAssignment(configuration, false, SplittableRandomGenerator.forChunk(this.seed, key));
+        if (this.estimatesCache.size() < this.cacheSize)
+            this.estimatesCache.putIfAbsent(key, probabilityEstimate);
+        return probabilityEstimate;
     }
 
-    private double estimateProbabilityOfPartialAssignment(Assignment MAPassignment, boolean useConditionalDistributions) {
+    private double estimateProbabilityOfPartialAssignment(Assignment MAPassignment, boolean useConditionalDistributions, Random random) {
 
         double probabilityEstimate;
         final int numSamplesAverage = 150;
 
-        Assignment evidenceAugmented=new HashMapAssignment(evidence);
+        Assignment evidenceAugmented=new ArrayAssignment(evidence);
         MAPvariables.forEach(voi -> evidenceAugmented.setValue(voi, MAPassignment.getValue(voi)));
 
-        final Assignment finalAssignment=new HashMapAssignment(MAPassignment);
+        final Assignment finalAssignment=new ArrayAssignment(MAPassignment);
 
         IntStream auxIntStream = IntStream.range(0, numSamplesAverage);
         //probabilityEstimate = auxIntStream.mapToObj(i -> obtainValuesRandomly(finalAssignment,evidenceAugmented,new Random())).mapToDouble(as -> Math.exp(this.model.getLogProbabiltyOf(as))).average().getAsDouble();
         try {
             probabilityEstimate = auxIntStream.mapToObj(i -> {
                 if (useConditionalDistributions)
-                    return obtainValues(finalAssignment, evidenceAugmented, new Random(MAPrandom.nextInt()));
+                    return obtainValues(finalAssignment, evidenceAugmented, random);
                 else
-                    return obtainValuesRandomly(finalAssignment, evidenceAugmented, new Random(MAPrandom.nextInt()));
+                    return obtainValuesRandomly(finalAssignment, evidenceAugmented, random);
                 })
                 .mapToDouble(as -> Math.exp(this.model.getLogProbabiltyOf(as)))
                 .filter(Double::isFinite).average().getAsDouble();
@@ -594,90 +751,129 @@ public class MAPInference implements PointEstimator {
 
 
 
-    private WeightedAssignment runOptimizationAlgorithm(Assignment initialGuess, SearchAlgorithm optAlgorithm) {
+    /**
+     * This class represents a restart of the search from an initial guess. A restart can be run in several steps,
+     * so that all the restarts can be compared at the same iteration.
+     */
+    private class OptimizationRestart {
+
+        private final int movingVariablesLocalSearch = 3;
+        private final int optAlg;
+        private final double alpha, eps;
+        private double R;
+
+        private final Random random;
+        private final DoubleAccumulator bestSoFar;
+        private int iteration = 0;
+
+        private Assignment currentAssignment;
+        private double currentProbability;
+
+        /**
+         * Creates a new restart and estimates the probability of its initial guess.
+         * @param initialGuess the initial {@link Assignment}.
+         * @param optAlgorithm the {@link SearchAlgorithm} to use.
+         * @param random_ the {@code Random} object of this restart.
+         * @param bestSoFar_ the best probability found so far by any restart, shared between restarts.
+         */
+        OptimizationRestart(Assignment initialGuess, SearchAlgorithm optAlgorithm, Random random_, DoubleAccumulator bestSoFar_) {
+            switch(optAlgorithm) {
+                case SA_GLOBAL:
+                    optAlg=-2;
+                    break;
+                case SA_LOCAL:
+                    optAlg=-1;
+                    break;
+                case HC_GLOBAL:
+                    optAlg=2;
+                    break;
+                case HC_LOCAL:
+                default:
+                    optAlg=1;
+            }
 
-        final int movingVariablesLocalSearch = 3;
-        int optAlg;
-        switch(optAlgorithm) {
-            case SA_GLOBAL:
-                optAlg=-2;
-                break;
-            case SA_LOCAL:
-                optAlg=-1;
-                break;
-            case HC_GLOBAL:
-                optAlg=2;
-                break;
-            case HC_LOCAL:
-            default:
-                optAlg=1;
-        }
+            if(optAlg>0) { // Hill climbing
+                R=numberOfIterations;
+                eps=0;
+                alpha=0;
+            }
+            else { // Simulated annealing
+                R=1000; // Temperature
+                alpha=0.90; // Annealing factor
+                eps=R * Math.pow(alpha,numberOfIterations); // Final temperature
+            }
 
+            this.random = random_;
+            this.bestSoFar = bestSoFar_;
 
-        double R, alpha, eps;
-        if(optAlg>0) { // Hill climbing
-            R=this.numberOfIterations;
-            eps=0;
-            alpha=0;
-        }
-        else { // Simulated annealing
-            R=1000; // Temperature
-            alpha=0.90; // Annealing factor
-            eps=R * Math.pow(alpha,this.numberOfIterations); // Final temperature
+            currentAssignment=new ArrayAssignment(initialGuess);
+            currentProbability=estimateProbabilityOfVisitedAssignment(currentAssignment, random);
+            bestSoFar.accumulate(currentProbability);
         }
 
+        /**
+         * Runs the search until the given iteration, or until it ends.
+         * @param lastIteration the number of iterations of the restart after this call.
+         * @return this restart.
+         */
+        OptimizationRestart run(int lastIteration) {
 
-        Assignment currentAssignment=new HashMapAssignment(initialGuess);
-        double currentProbability=estimateProbabilityOfPartialAssignment(currentAssignment, false);
+            Assignment nextAssignment;
+            double nextProbability;
 
-        Assignment nextAssignment;
-        double nextProbability;
+            while (R>eps && iteration<lastIteration) {
 
-        Random random = new Random(MAPrandom.nextInt());
+                if (optAlg%2==0) { // GLOBAL SEARCH
+                    nextAssignment = obtainValues(currentAssignment, evidence, random);
+                }
+                else { // LOCAL SEARCH
+                    nextAssignment = moveDiscreteVariables(currentAssignment, movingVariablesLocalSearch, random);
+                    nextAssignment = assignContinuousVariables(nextAssignment, random);
+                }
 
-        while (R>eps) {
+                nextProbability=estimateProbabilityOfVisitedAssignment(nextAssignment, random);
 
-            if (optAlg%2==0) { // GLOBAL SEARCH
-                nextAssignment = obtainValues(currentAssignment, evidence, random);
-            }
-            else { // LOCAL SEARCH
-                nextAssignment = moveDiscreteVariables(currentAssignment, movingVariablesLocalSearch);
-                nextAssignment = assignContinuousVariables(nextAssignment);
-            }
-
-            nextProbability=estimateProbabilityOfPartialAssignment(nextAssignment, false);
+                if (nextProbability > currentProbability) {
+                    currentAssignment = nextAssignment;
+                    currentProbability = nextProbability;
+                    bestSoFar.accumulate(currentProbability);
+                }
+                else if (optAlg<0) {
+                    double diff = currentProbability - nextProbability;
 
-            if (nextProbability > currentProbability) {
-                currentAssignment = nextAssignment;
-                currentProbability = nextProbability;
-            }
-            else if (optAlg<0) {
-                double diff = currentProbability - nextProbability;
+                    double aux = random.nextDouble();
 
-                double aux = random.nextDouble();
+                    if (aux < Math.exp( -diff/R )) {
+                        currentAssignment = nextAssignment;
+                        currentProbability = nextProbability;
+                    }
+                }
 
-                if (aux < Math.exp( -diff/R )) {
-                    currentAssignment = nextAssignment;
-                    currentProbability = nextProbability;
+                if (optAlg>0) {
+                    R = R - 1;
                 }
+                else {
+                    R = alpha*R;
+                }
+                iteration++;
             }
+            return this;
+        }
 
-            if (optAlg>0) {
-                R = R - 1;
-            }
-            else {
-                R = alpha*R;
-            }
+        /**
+         * Returns the current MAP configuration of this restart with its estimated probability.
+         * @return a {@link WeightedAssignment} object.
+         */
+        WeightedAssignment getResult() {
+            return new WeightedAssignment(currentAssignment,currentProbability);
         }
-        return new WeightedAssignment(currentAssignment,currentProbability);
     }
 
 
 
-    private Assignment moveDiscreteVariables(Assignment initialGuess, int numberOfMovements) {
+    private Assignment moveDiscreteVariables(Assignment initialGuess, int numberOfMovements, Random random) {
 
-        Assignment result = new HashMapAssignment(initialGuess);
-        Random random = new Random(MAPrandom.nextInt());
+        Assignment result = new ArrayAssignment(initialGuess);
         ArrayList<Integer> indicesVariablesMoved = new ArrayList<>();
 
         if(numberOfMovements > numberOfDiscreteVariables - numberOfDiscreteVariablesInEvidence) { // this.model.getNumberOfVars()-this.evidence.getVariables().size()) {
@@ -704,11 +900,10 @@ public class MAPInference implements PointEstimator {
         return result;
     }
 
-    private Assignment assignContinuousVariables(Assignment initialGuess) {
+    private Assignment assignContinuousVariables(Assignment initialGuess, Random random) {
 
-        Assignment result = new HashMapAssignment(initialGuess);
+        Assignment result = new ArrayAssignment(initialGuess);
         int numberOfVariables = this.model.getNumberOfVars();
-        Random random = new Random(MAPrandom.nextInt());
         Variable selectedVariable;
         List<Variable> contVarEvidence = new ArrayList<>();
 
@@ -817,7 +1012,7 @@ public class MAPInference implements PointEstimator {
         System.out.println("Evidence: Variable " + variable1.getName() + " = " + var1value + ", Variable " + variable2.getName() + " = " + var2value + ", " + " and Variable " + variable3.getName() + " = " + var3value);
         System.out.println();
 
-        HashMapAssignment evidenceAssignment = new HashMapAssignment(3);
+        ArrayAssignment evidenceAssignment = new ArrayAssignment(3);
 
         evidenceAssignment.setValue(variable1, var1value);
         evidenceAssignment.setValue(variable2, var2value);
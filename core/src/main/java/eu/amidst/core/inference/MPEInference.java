@@ -25,7 +25,7 @@ import eu.amidst.core.models.DAG;
 import eu.amidst.core.models.ParentSet;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Assignment;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 
 import java.io.IOException;
@@ -85,7 +85,7 @@ public class MPEInference implements PointEstimator {
 
     public MPEInference() {
 
-        this.evidence = new HashMapAssignment(0);
+        this.evidence = new ArrayAssignment(0);
         this.sampleSize = 10;
     }
 
@@ -235,7 +235,7 @@ public class MPEInference implements PointEstimator {
     private Assignment obtainValues(Assignment evidence, Random random) {
 
         int numberOfVariables = this.model.getNumberOfVars();
-        Assignment result = new HashMapAssignment(evidence);
+        Assignment result = new ArrayAssignment(evidence);
         List<Variable> contVarEvidence = new ArrayList<>();
 
         Variable selectedVariable;
@@ -352,7 +352,7 @@ public class MPEInference implements PointEstimator {
 
     private Assignment moveDiscreteVariables(Assignment initialGuess, int numberOfMovements) {
 
-        Assignment result = new HashMapAssignment(initialGuess);
+        Assignment result = new ArrayAssignment(initialGuess);
         Random random = new Random();
         ArrayList<Integer> indicesVariablesMoved = new ArrayList<>();
 
@@ -382,7 +382,7 @@ public class MPEInference implements PointEstimator {
 
     private Assignment assignContinuousVariables(Assignment initialGuess) {
 
-        Assignment result = new HashMapAssignment(initialGuess);
+        Assignment result = new ArrayAssignment(initialGuess);
         int numberOfVariables = this.model.getNumberOfVars();
         Random random = new Random();
         Variable selectedVariable;
@@ -460,7 +460,7 @@ public class MPEInference implements PointEstimator {
 
     private Assignment simulatedAnnealingAllVars(Assignment initialGuess) {
         //System.out.println("SA ALL VARS");
-        Assignment newGuess; // = new HashMapAssignment(this.evidence);
+        Assignment newGuess; // = new ArrayAssignment(this.evidence);
         Assignment bestGuess = initialGuess;
 
         double R=1000; // Temperature
@@ -520,7 +520,7 @@ public class MPEInference implements PointEstimator {
         double eps=R * Math.pow(alpha,this.numberOfIterations);
 
 
-        Assignment currentAssignment=new HashMapAssignment(initialGuess);
+        Assignment currentAssignment=new ArrayAssignment(initialGuess);
         double currentProbability=this.model.getLogProbabiltyOf(currentAssignment);
 
         Assignment nextAssignment;
@@ -590,7 +590,7 @@ public class MPEInference implements PointEstimator {
         double R=this.numberOfIterations;
         double eps=0;
 
-        Assignment currentAssignment=new HashMapAssignment(initialGuess);
+        Assignment currentAssignment=new ArrayAssignment(initialGuess);
         double currentProbability=this.model.getLogProbabiltyOf(currentAssignment);
 
         Assignment nextAssignment;
@@ -627,7 +627,7 @@ public class MPEInference implements PointEstimator {
         double eps=0;
 
 
-        Assignment currentAssignment=new HashMapAssignment(initialGuess);
+        Assignment currentAssignment=new ArrayAssignment(initialGuess);
         double currentProbability=this.model.getLogProbabiltyOf(currentAssignment);
 
         Assignment nextAssignment;
@@ -712,7 +712,7 @@ public class MPEInference implements PointEstimator {
 
 
                 for(int i=0; i<numberOfStates; i++) {
-                    configs.add(new HashMapAssignment(current));
+                    configs.add(new ArrayAssignment(current));
                     configs.get(i).setValue(currentVariable,i);
                 }
                 //config0.setValue(currentVariable, 0);
@@ -730,7 +730,7 @@ public class MPEInference implements PointEstimator {
                 //return (model.getLogProbabiltyOf(config0) > model.getLogProbabiltyOf(config1) ? config0 : config1);
             }
             else {
-                Assignment config0 = new HashMapAssignment(current);
+                Assignment config0 = new ArrayAssignment(current);
                 double newValue;
 
                 newValue = model.getConditionalDistributions().get(varIndex).getUnivariateDistribution(config0).getParameters()[0];
@@ -796,7 +796,7 @@ public class MPEInference implements PointEstimator {
     private Assignment sequentialSearch() {
 
         int numberOfVariables = this.model.getNumberOfVars();
-        Assignment currentEstimator = new HashMapAssignment(numberOfVariables);
+        Assignment currentEstimator = new ArrayAssignment(numberOfVariables);
 
         Variable selectedVariable;
         double selectedVariableNewValue;
@@ -864,7 +864,7 @@ public class MPEInference implements PointEstimator {
         System.out.println("Evidence: Variable " + variable1.getName() + " = " + var1value + ", Variable " + variable2.getName() + " = " + var2value + ", " + " and Variable " + variable3.getName() + " = " + var3value);
         System.out.println();
 
-        HashMapAssignment evidenceAssignment = new HashMapAssignment(3);
+        ArrayAssignment evidenceAssignment = new ArrayAssignment(3);
 
         evidenceAssignment.setValue(variable1, var1value);
         evidenceAssignment.setValue(variable2, var2value);
@@ -0,0 +1,142 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.inference;
+
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.inference.messagepassing.VMP;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BoundedPool;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.Variable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * This class defines a thread-safe Inference Engine for a fixed {@link BayesianNetwork} model.
+ *
+ * <p> Unlike the static {@link InferenceEngine}, each query leases an {@link InferenceAlgorithm} from a bounded pool,
+ * so concurrent callers never share an algorithm. Each pooled algorithm is set to the model only once, when created,
+ * and later queries only change its evidence. </p>
+ *
+ * <p> An example of use: </p>
+ * <pre>
+ *     PooledInferenceEngine engine = new PooledInferenceEngine(bn, VMP::new, 4);
+ *     List&lt;UnivariateDistribution&gt; posteriors = engine.posterior(evidence, queries);
+ * </pre>
+ */
+public class PooledInferenceEngine {
+
+    /** Represents the model on which inference is performed. */
+    private final BayesianNetwork model;
+
+    /** Represents the pool of {@link InferenceAlgorithm} objects already set to the model. */
+    private final BoundedPool<InferenceAlgorithm> pool;
+
+    /** Represents the {@code Executor} used by the batch queries. */
+    private Executor executor = ForkJoinPool.commonPool();
+
+    /**
+     * Creates a new PooledInferenceEngine using {@link VMP} and as many algorithms as available processors.
+     * @param model a {@link BayesianNetwork} model.
+     */
+    public PooledInferenceEngine(BayesianNetwork model) {
+        this(model, VMP::new, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new PooledInferenceEngine.
+     * @param model a {@link BayesianNetwork} model.
+     * @param algorithmFactory a {@code Supplier} returning a new {@link InferenceAlgorithm} object on each call.
+     * @param poolSize the maximum number of {@link InferenceAlgorithm} objects, i.e. of concurrent queries.
+     */
+    public PooledInferenceEngine(BayesianNetwork model, Supplier<InferenceAlgorithm> algorithmFactory, int poolSize) {
+        this.model = model;
+        this.pool = new BoundedPool<>(poolSize, () -> {
+            InferenceAlgorithm algorithm = algorithmFactory.get();
+            algorithm.setModel(model);
+            return algorithm;
+        });
+    }
+
+    /**
+     * Sets the {@code Executor} used by {@link #posteriors(List, List)}.
+     * @param executor an {@code Executor} object.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the model of this PooledInferenceEngine.
+     * @return a {@link BayesianNetwork} object.
+     */
+    public BayesianNetwork getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the posterior distributions of the given variables given some evidence.
+     * @param evidence an {@link Assignment} object, or {@code null} if there is no evidence.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @return a {@code List} of {@link UnivariateDistribution} objects, in the same order as {@code queries}.
+     */
+    public List<UnivariateDistribution> posterior(Assignment evidence, List<Variable> queries) {
+        return this.pool.apply(algorithm -> this.posterior(algorithm, evidence, queries));
+    }
+
+    /**
+     * Runs a query on a leased algorithm.
+     * @param algorithm a leased {@link InferenceAlgorithm} object.
+     * @param evidence an {@link Assignment} object, or {@code null} if there is no evidence.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @return a {@code List} of {@link UnivariateDistribution} objects, in the same order as {@code queries}.
+     */
+    private List<UnivariateDistribution> posterior(InferenceAlgorithm algorithm, Assignment evidence, List<Variable> queries) {
+        algorithm.setEvidence(evidence);
+        algorithm.runInference();
+        List<UnivariateDistribution> posteriors = new ArrayList<>(queries.size());
+        for (Variable var : queries) {
+            posteriors.add(algorithm.getPosterior(var));
+        }
+        return posteriors;
+    }
+
+    /**
+     * Returns the posterior distributions of the given variables for each of the given pieces of evidence.
+     * The queries are run concurrently on the {@code Executor} of this PooledInferenceEngine.
+     * @param evidences a {@code List} of {@link Assignment} objects.
+     * @param queries a {@code List} of {@link Variable} objects.
+     * @return a {@code List} with the result of {@link #posterior(Assignment, List)} for each evidence, in the same order.
+     */
+    public List<List<UnivariateDistribution>> posteriors(List<Assignment> evidences, List<Variable> queries) {
+        return this.pool.applyAll(evidences, (algorithm, evidence) -> this.posterior(algorithm, evidence, queries), this.executor);
+    }
+
+    /**
+     * Returns the posterior distributions of all the variables of the model for each of the given pieces of evidence.
+     * @param evidences a {@code List} of {@link Assignment} objects.
+     * @return a {@code List} with the posteriors of all the variables for each evidence, in the same order.
+     */
+    public List<List<UnivariateDistribution>> posteriors(List<Assignment> evidences) {
+        return this.posteriors(evidences, this.model.getVariables().getListOfVariables());
+    }
+}
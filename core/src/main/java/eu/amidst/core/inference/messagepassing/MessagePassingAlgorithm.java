@@ -92,6 +92,9 @@ public abstract class MessagePassingAlgorithm<E extends Vector> implements Infer
     /** Store weather parallel message passing will be employed or not.**/
     private boolean parallelMode = false;
 
+    /** Store weather the compiled mode, which reuses messages and parent moments, will be employed or not.**/
+    private boolean compiledMode = false;
+
     /**
      * Sets the output for this MessagePassingAlgorithm.
      * @param output a {@code boolean} that represents the output value to be set.
@@ -164,6 +167,27 @@ public abstract class MessagePassingAlgorithm<E extends Vector> implements Infer
         this.parallelMode = parallelMode;
     }
 
+    /**
+     * Sets the compiled mode. In this mode, each {@link Node} resolves the nodes of its parents only once and reuses
+     * its messages and the {@code Map} of parent moments across iterations, and the messages from the children are
+     * combined in a plain loop. It gives the same results as the default mode while allocating much less, which pays
+     * off for small models on which inference is run many times. The compiled mode ignores the parallel mode.
+     * @param compiledMode {@code true} if the compiled mode is used, {@code false} otherwise.
+     */
+    public void setCompiledMode(boolean compiledMode){
+        this.compiledMode = compiledMode;
+        if (this.nodes != null)
+            this.nodes.forEach(node -> node.setCompiled(compiledMode));
+    }
+
+    /**
+     * Tests whether the compiled mode is used or not.
+     * @return {@code true} if the compiled mode is used, {@code false} otherwise.
+     */
+    public boolean isCompiledMode(){
+        return compiledMode;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -184,6 +208,11 @@ public abstract class MessagePassingAlgorithm<E extends Vector> implements Infer
                 if (!node.isActive() || node.isObserved())
                     continue;
 
+                if (this.compiledMode){
+                    done &= this.updateNodeCompiled(node);
+                    continue;
+                }
+
                 Message<E> selfMessage = newSelfMessage(node);
 
                 Stream<Node> streamChildren = (this.parallelMode)? node.getChildren().parallelStream() : node.getChildren().stream();
@@ -222,6 +251,35 @@ public abstract class MessagePassingAlgorithm<E extends Vector> implements Infer
         nIter=local_iter;
     }
 
+    /**
+     * Updates a given {@link Node} in compiled mode. The messages from the children are summed in the same order as
+     * the stream reduction of the default mode, so both modes give the same results.
+     * @param node a {@link Node} object.
+     * @return {@code true} if the node is done, {@code false} otherwise.
+     */
+    private boolean updateNodeCompiled(Node node){
+        Message<E> selfMessage = newSelfMessage(node);
+
+        Message<E> childrenMessage = null;
+        List<Node> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            if (!child.isActive())
+                continue;
+            Message<E> message = newMessageToParent(child, node);
+            if (childrenMessage == null)
+                childrenMessage = message;
+            else
+                Message.combineNonStateless(childrenMessage, message);
+        }
+
+        if (childrenMessage != null)
+            selfMessage.combine(childrenMessage);
+
+        updateCombinedMessage(node, selfMessage);
+        return node.isDone();
+    }
+
     /**
      * Returns the number of iterations of this MessagePassingAlgorithm.
      * @return the number of iterations of this MessagePassingAlgorithm.
@@ -257,6 +315,7 @@ public abstract class MessagePassingAlgorithm<E extends Vector> implements Infer
                 .collect(Collectors.toList());
 
         for (Node node : nodes){
+            node.setCompiled(this.compiledMode);
             node.setParents(node.getPDist().getConditioningVariables().stream().map(this::getNodeOfVar).collect(Collectors.toList()));
             node.getPDist().getConditioningVariables().stream().forEach(var -> this.getNodeOfVar(var).getChildren().add(node));
         }
@@ -295,6 +354,8 @@ public abstract class MessagePassingAlgorithm<E extends Vector> implements Infer
         this.nodes = nodes;
         variablesToNode = new ConcurrentHashMap();
         nodes.stream().forEach( node -> variablesToNode.put(node.getMainVariable(),node));
+        if (this.compiledMode)
+            nodes.stream().forEach(node -> node.setCompiled(true));
     }
 
     /**
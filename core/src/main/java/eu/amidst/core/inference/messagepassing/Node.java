@@ -22,6 +22,7 @@ import eu.amidst.core.exponentialfamily.EF_UnivariateDistribution;
 import eu.amidst.core.exponentialfamily.MomentParameters;
 import eu.amidst.core.exponentialfamily.SufficientStatistics;
 import eu.amidst.core.utils.Utils;
+import eu.amidst.core.utils.Vector;
 import eu.amidst.core.variables.Assignment;
 import eu.amidst.core.variables.Variable;
 
@@ -82,6 +83,24 @@ public class Node implements Serializable{
     /** Represents the name of this Node. */
     String name;
 
+    /** Indicates if the compiled mode is activated, initialized to {@code false}. */
+    boolean compiled = false;
+
+    /** Represents the variables of the moment parameters of the parents in compiled mode, the main variable being the last one. */
+    transient Variable[] momentVariables;
+
+    /** Represents the nodes of the variables in {@code momentVariables}, resolved once in compiled mode. */
+    transient Node[] momentNodes;
+
+    /** Represents the {@code Map} of moment parameters reused across calls in compiled mode. */
+    transient Map<Variable, MomentParameters> momentParents;
+
+    /** Represents the self message reused across calls in compiled mode. */
+    transient Message selfMessage;
+
+    /** Represents the message to a parent reused across calls in compiled mode. */
+    transient Message messageToParent;
+
     /**
      * Creates a new Node given an input {@link EF_ConditionalDistribution}.
      * @param PDist an input {@link EF_ConditionalDistribution}.
@@ -138,6 +157,48 @@ public class Node implements Serializable{
         this.parallelActivated = parallelActivated;
     }
 
+    /**
+     * Tests whether the compiled mode is activated for this Node or not.
+     * @return {@code true} if the compiled mode is activated, {@code false} otherwise.
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Sets the compiled mode for this Node. In this mode, the parents of the moment parameters are resolved only once,
+     * and the returned {@code Map} of moment parameters and the messages are reused across calls.
+     * @param compiled the compiled mode value to be set.
+     */
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+        this.momentNodes = null;
+    }
+
+    /**
+     * Returns the self message of this Node, which is reused across calls in compiled mode.
+     * @param <E> a class extending {@link Vector}.
+     * @return a {@link Message} object.
+     */
+    <E extends Vector> Message<E> getSelfMessage() {
+        if (this.selfMessage == null)
+            this.selfMessage = new Message<>(this);
+        return this.selfMessage;
+    }
+
+    /**
+     * Returns the message from this Node to a given parent, which is reused across calls in compiled mode.
+     * @param parent a parent {@link Node}.
+     * @param <E> a class extending {@link Vector}.
+     * @return a {@link Message} object.
+     */
+    <E extends Vector> Message<E> getMessageToParent(Node parent) {
+        if (this.messageToParent == null)
+            this.messageToParent = new Message<>(parent);
+        this.messageToParent.node = parent;
+        return this.messageToParent;
+    }
+
     /**
      * Resets the exponential family univariate distribution of this Node.
      * @param random a {@link Random} object.
@@ -192,6 +253,7 @@ public class Node implements Serializable{
      */
     public void setParents(List<Node> parents) {
         this.parents = parents;
+        this.momentNodes = null;
         variableToParentsNodeMap = new ConcurrentHashMap();
         nodeParentsToVariableMap = new ConcurrentHashMap();
 
@@ -255,6 +317,7 @@ public class Node implements Serializable{
      */
     public void setPDist(EF_ConditionalDistribution PDist) {
         this.PDist = PDist;
+        this.momentNodes = null;
     }
 
     /**
@@ -286,6 +349,9 @@ public class Node implements Serializable{
      * @return a {@code Map} object that maps parent variables to their corresponding {@link MomentParameters}.
      */
     public Map<Variable, MomentParameters> getMomentParents(){
+        if (this.compiled)
+            return this.getCompiledMomentParents();
+
         Map<Variable, MomentParameters> momentParents = new ConcurrentHashMap<>();
 
         this.getPDist().getConditioningVariables().stream().forEach(var -> momentParents.put(var,this.variableToNodeParent(var).getQMomentParameters()));
@@ -295,6 +361,34 @@ public class Node implements Serializable{
         return momentParents;
     }
 
+    /**
+     * Returns the {@link MomentParameters} of the parents of this Node in compiled mode. The parent nodes are resolved
+     * the first time, and the same {@code Map} is refilled on each call, as the moment parameters of a node may be
+     * replaced between calls.
+     * @return a {@code Map} object that maps parent variables to their corresponding {@link MomentParameters}.
+     */
+    private Map<Variable, MomentParameters> getCompiledMomentParents(){
+        if (this.momentNodes == null) {
+            List<Variable> conditioningVariables = this.getPDist().getConditioningVariables();
+            int nParents = conditioningVariables.size();
+            this.momentVariables = new Variable[nParents + 1];
+            this.momentNodes = new Node[nParents + 1];
+            for (int i = 0; i < nParents; i++) {
+                this.momentVariables[i] = conditioningVariables.get(i);
+                this.momentNodes[i] = this.variableToNodeParent(conditioningVariables.get(i));
+            }
+            this.momentVariables[nParents] = this.getMainVariable();
+            this.momentNodes[nParents] = this;
+            this.momentParents = new ConcurrentHashMap<>();
+        }
+
+        for (int i = 0; i < this.momentNodes.length; i++) {
+            this.momentParents.put(this.momentVariables[i], this.momentNodes[i].getQMomentParameters());
+        }
+
+        return this.momentParents;
+    }
+
     /**
      * Converts a given node parent of this Node to a {@link Variable}.
      * @param parent a given node parent.
@@ -319,6 +413,7 @@ public class Node implements Serializable{
      * @param parent a given parent {@link Node}.
      */
     public void setVariableToNodeParent(Variable var, Node parent){
+        this.momentNodes = null;
         this.variableToParentsNodeMap.put(var, parent);
         this.nodeParentsToVariableMap.put(parent, var);
     }
@@ -76,7 +76,7 @@ public class VMP extends MessagePassingAlgorithm<NaturalParameters> implements I
     @Override
     public Message<NaturalParameters> newSelfMessage(Node node) {
         Map<Variable, MomentParameters> momentParents = node.getMomentParents();
-        Message<NaturalParameters> message = new Message(node);
+        Message<NaturalParameters> message = (node.isCompiled())? node.getSelfMessage() : new Message(node);
         message.setVector(node.getPDist().getExpectedNaturalFromParents(momentParents));
         message.setDone(node.messageDoneFromParents());
 
@@ -90,7 +90,7 @@ public class VMP extends MessagePassingAlgorithm<NaturalParameters> implements I
     public Message<NaturalParameters> newMessageToParent(Node child, Node parent) {
         Map<Variable, MomentParameters> momentChildCoParents = child.getMomentParents();
 
-        Message<NaturalParameters> message = new Message<>(parent);
+        Message<NaturalParameters> message = (child.isCompiled())? child.getMessageToParent(parent) : new Message<>(parent);
         message.setVector(child.getPDist().getExpectedNaturalToParent(child.nodeParentToVariable(parent), momentChildCoParents));
         message.setDone(child.messageDoneToParent(parent.getMainVariable()));
 
@@ -0,0 +1,522 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.io;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.distribution.*;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.models.DAG;
+import eu.amidst.core.variables.*;
+import eu.amidst.core.variables.distributionTypes.IndicatorType;
+import eu.amidst.core.variables.stateSpaceTypes.FiniteStateSpace;
+import eu.amidst.core.variables.stateSpaceTypes.RealStateSpace;
+import eu.amidst.core.variables.stateSpaceTypes.SparseFiniteStateSpace;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class implements a compact and versioned binary format for {@link BayesianNetwork} models.
+ *
+ * <p> Unlike Java serialization, only the variables, the graph and the parameters are written. When reading,
+ * the variables and the {@link DAG} are rebuilt through their public API, each distribution is created by
+ * the distribution type of its variable, and its parameters are then filled in, so no reflection is involved.
+ * The supported distributions are {@link Multinomial}, {@link Normal}, {@link ConditionalLinearGaussian},
+ * {@link Multinomial_LogisticParents}, {@link Multinomial_MultinomialParents}, {@link Normal_MultinomialParents},
+ * {@link Normal_MultinomialNormalParents}, {@link BaseDistribution_MultinomialParents} and {@link IndicatorDistribution}. </p>
+ *
+ * <p> The helper methods are public so that other models, like dynamic Bayesian networks, can share the same encoding. </p>
+ */
+public final class BayesianNetworkCodec {
+
+    /** Represents the magic number at the beginning of a binary Bayesian network, "AMBN" in ASCII. */
+    public static final int MAGIC = 0x414D424E;
+
+    /** Represents the current version of the binary format. */
+    public static final int VERSION = 1;
+
+    private static final byte STATE_SPACE_REAL = 0;
+    private static final byte STATE_SPACE_FINITE_SET = 1;
+    private static final byte STATE_SPACE_SPARSE_FINITE_SET = 2;
+
+    private static final byte DIST_MULTINOMIAL = 0;
+    private static final byte DIST_NORMAL = 1;
+    private static final byte DIST_CLG = 2;
+    private static final byte DIST_MULTINOMIAL_LOGISTIC_PARENTS = 3;
+    private static final byte DIST_MULTINOMIAL_MULTINOMIAL_PARENTS = 4;
+    private static final byte DIST_NORMAL_MULTINOMIAL_PARENTS = 5;
+    private static final byte DIST_NORMAL_MULTINOMIAL_NORMAL_PARENTS = 6;
+    private static final byte DIST_BASE_MULTINOMIAL_PARENTS = 7;
+    private static final byte DIST_INDICATOR = 8;
+
+    private BayesianNetworkCodec() {
+    }
+
+    /**
+     * Writes a {@link BayesianNetwork} to an output stream. The stream is not closed.
+     * @param bn a {@link BayesianNetwork} model.
+     * @param outputStream an {@code OutputStream} object.
+     * @throws IOException in case of an error while writing to the stream.
+     */
+    public static void write(BayesianNetwork bn, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        writeHeader(out, MAGIC);
+        writeString(out, bn.getName());
+
+        Variables variables = bn.getVariables();
+        out.writeInt(variables.getNumberOfVars());
+        for (Variable var : variables) {
+            writeVariable(out, var);
+        }
+
+        DAG dag = bn.getDAG();
+        ToIntFunction<Variable> parentID = Variable::getVarID;
+        for (Variable var : variables) {
+            writeParents(out, dag.getParentSet(var).getParents(), parentID);
+        }
+        for (Variable var : variables) {
+            writeDistribution(out, bn.getConditionalDistribution(var), parentID);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a {@link BayesianNetwork} from an input stream written with {@link #write(BayesianNetwork, OutputStream)}.
+     * The stream is neither buffered nor closed.
+     * @param inputStream an {@code InputStream} object.
+     * @return a {@link BayesianNetwork} model.
+     * @throws IOException in case of an error while reading the stream or if it is not a binary Bayesian network.
+     */
+    public static BayesianNetwork read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        readHeader(in, MAGIC);
+        String name = readString(in);
+
+        Variables variables = new Variables();
+        int nVars = in.readInt();
+        for (int i = 0; i < nVars; i++) {
+            readVariable(in, variables::newVariable);
+        }
+
+        DAG dag = new DAG(variables);
+        IntFunction<Variable> parentByID = variables::getVariableById;
+        for (Variable var : variables) {
+            for (Variable parent : readParents(in, parentByID)) {
+                dag.getParentSet(var).addParent(parent);
+            }
+        }
+        dag.setName(name);
+
+        List<ConditionalDistribution> distributions = new ArrayList<>(nVars);
+        for (Variable var : variables) {
+            distributions.add(readDistribution(in, var, parentByID));
+        }
+        return new BayesianNetwork(dag, distributions);
+    }
+
+    /**
+     * Tests whether an input stream starts with the given magic number. The stream must support marks, and
+     * is reset to its initial position.
+     * @param inputStream an {@code InputStream} supporting {@code mark} and {@code reset}.
+     * @param magic the expected magic number.
+     * @return {@code true} if the stream starts with the magic number, {@code false} otherwise.
+     * @throws IOException in case of an error while reading the stream.
+     */
+    public static boolean startsWith(InputStream inputStream, int magic) throws IOException {
+        inputStream.mark(4);
+        try {
+            return new DataInputStream(inputStream).readInt() == magic;
+        } catch (EOFException ex) {
+            return false;
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    /**
+     * Writes the magic number and the version of the binary format.
+     * @param out a {@code DataOutput} object.
+     * @param magic the magic number identifying the kind of model.
+     * @throws IOException in case of an error while writing.
+     */
+    public static void writeHeader(DataOutput out, int magic) throws IOException {
+        out.writeInt(magic);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Reads and checks the magic number and the version of the binary format.
+     * @param in a {@code DataInput} object.
+     * @param magic the expected magic number.
+     * @throws IOException in case of an error while reading, or if the magic number or the version do not match.
+     */
+    public static void readHeader(DataInput in, int magic) throws IOException {
+        if (in.readInt() != magic)
+            throw new IOException("Not a binary AMIDST model of the expected kind");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported version of the binary model format: " + version);
+    }
+
+    /**
+     * Writes a {@code String}, which may be {@code null}.
+     * @param out a {@code DataOutput} object.
+     * @param value a {@code String} or {@code null}.
+     * @throws IOException in case of an error while writing.
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    /**
+     * Reads a {@code String} written with {@link #writeString(DataOutput, String)}.
+     * @param in a {@code DataInput} object.
+     * @return a {@code String} or {@code null}.
+     * @throws IOException in case of an error while reading.
+     */
+    public static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Writes the definition of a {@link Variable}: its name, observability, distribution type, state space,
+     * attribute, and the delta value of indicator variables.
+     * @param out a {@code DataOutput} object.
+     * @param var a {@link Variable} object.
+     * @throws IOException in case of an error while writing.
+     */
+    public static void writeVariable(DataOutput out, Variable var) throws IOException {
+        out.writeUTF(var.getName());
+        out.writeBoolean(var.isObservable());
+        out.writeUTF(var.getDistributionTypeEnum().name());
+        writeStateSpaceType(out, var.getStateSpaceType());
+
+        Attribute att = var.getAttribute();
+        out.writeBoolean(att != null);
+        if (att != null) {
+            out.writeInt(att.getIndex());
+            out.writeUTF(att.getName());
+            writeStateSpaceType(out, att.getStateSpaceType());
+            out.writeBoolean(att.isSpecialAttribute());
+            out.writeBoolean(att.isSeqId());
+            out.writeBoolean(att.isTimeId());
+        }
+
+        if (var.getDistributionTypeEnum() == DistributionTypeEnum.INDICATOR)
+            out.writeDouble(((IndicatorType) var.getDistributionType()).getDeltaValue());
+    }
+
+    /**
+     * Reads the definition of a {@link Variable} written with {@link #writeVariable(DataOutput, Variable)}.
+     * @param in a {@code DataInput} object.
+     * @param factory a {@code Function} creating the variable from a {@link VariableBuilder}, e.g. {@link Variables#newVariable(VariableBuilder)}.
+     * @return the created {@link Variable}.
+     * @throws IOException in case of an error while reading.
+     */
+    public static Variable readVariable(DataInput in, Function<VariableBuilder, Variable> factory) throws IOException {
+        VariableBuilder builder = new VariableBuilder();
+        builder.setName(in.readUTF());
+        builder.setObservable(in.readBoolean());
+        DistributionTypeEnum distributionTypeEnum;
+        try {
+            distributionTypeEnum = DistributionTypeEnum.valueOf(in.readUTF());
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Unknown distribution type", ex);
+        }
+        builder.setDistributionType(distributionTypeEnum);
+        builder.setStateSpaceType(readStateSpaceType(in));
+
+        if (in.readBoolean()) {
+            Attribute att = new Attribute(in.readInt(), in.readUTF(), readStateSpaceType(in));
+            att.setSpecialAttribute(in.readBoolean());
+            att.setSeqId(in.readBoolean());
+            att.setTimeId(in.readBoolean());
+            builder.setAttribute(att);
+        }
+
+        Variable var = factory.apply(builder);
+        if (distributionTypeEnum == DistributionTypeEnum.INDICATOR) {
+            IndicatorType indicatorType = var.getDistributionType();
+            indicatorType.setDeltaValue(in.readDouble());
+        }
+        return var;
+    }
+
+    /**
+     * Writes a list of parent variables as references.
+     * @param out a {@code DataOutput} object.
+     * @param parents a list of {@link Variable} objects.
+     * @param reference a {@code ToIntFunction} mapping each parent to the reference written in the stream.
+     * @throws IOException in case of an error while writing.
+     */
+    public static void writeParents(DataOutput out, List<Variable> parents, ToIntFunction<Variable> reference) throws IOException {
+        out.writeInt(parents.size());
+        for (Variable parent : parents) {
+            out.writeInt(reference.applyAsInt(parent));
+        }
+    }
+
+    /**
+     * Reads a list of parent variables written with {@link #writeParents(DataOutput, List, ToIntFunction)}.
+     * @param in a {@code DataInput} object.
+     * @param resolver an {@code IntFunction} mapping each reference to its {@link Variable}.
+     * @return a list of {@link Variable} objects.
+     * @throws IOException in case of an error while reading.
+     */
+    public static List<Variable> readParents(DataInput in, IntFunction<Variable> resolver) throws IOException {
+        int nParents = in.readInt();
+        List<Variable> parents = new ArrayList<>(nParents);
+        for (int i = 0; i < nParents; i++) {
+            parents.add(resolver.apply(in.readInt()));
+        }
+        return parents;
+    }
+
+    /**
+     * Writes a {@link ConditionalDistribution}: its conditioning variables, its kind and its parameters.
+     * @param out a {@code DataOutput} object.
+     * @param dist a {@link ConditionalDistribution} object.
+     * @param reference a {@code ToIntFunction} mapping each conditioning variable to the reference written in the stream.
+     * @throws IOException in case of an error while writing.
+     * @throws UnsupportedOperationException if the distribution is not supported by the binary format.
+     */
+    public static void writeDistribution(DataOutput out, ConditionalDistribution dist, ToIntFunction<Variable> reference) throws IOException {
+        writeParents(out, dist.getConditioningVariables(), reference);
+        out.writeByte(kindOf(dist));
+        writeParameters(out, dist);
+    }
+
+    /**
+     * Reads a {@link ConditionalDistribution} written with {@link #writeDistribution(DataOutput, ConditionalDistribution, ToIntFunction)}.
+     * The distribution is created by the distribution type of the main variable.
+     * @param in a {@code DataInput} object.
+     * @param var the main {@link Variable} of the distribution.
+     * @param resolver an {@code IntFunction} mapping each reference to its {@link Variable}.
+     * @return a {@link ConditionalDistribution} object.
+     * @throws IOException in case of an error while reading, or if the stream does not match the created distribution.
+     */
+    public static ConditionalDistribution readDistribution(DataInput in, Variable var, IntFunction<Variable> resolver) throws IOException {
+        List<Variable> parents = readParents(in, resolver);
+        ConditionalDistribution dist = var.newConditionalDistribution(parents);
+        if (in.readByte() != kindOf(dist))
+            throw new IOException("The stored distribution of " + var.getName() + " does not match its distribution type");
+        readParameters(in, dist);
+        return dist;
+    }
+
+    private static void writeStateSpaceType(DataOutput out, StateSpaceType stateSpaceType) throws IOException {
+        switch (stateSpaceType.getStateSpaceTypeEnum()) {
+            case REAL:
+                out.writeByte(STATE_SPACE_REAL);
+                out.writeDouble(((RealStateSpace) stateSpaceType).getMinInterval());
+                out.writeDouble(((RealStateSpace) stateSpaceType).getMaxInterval());
+                break;
+            case FINITE_SET:
+                out.writeByte(STATE_SPACE_FINITE_SET);
+                List<String> states = ((FiniteStateSpace) stateSpaceType).getStatesNames();
+                out.writeInt(states.size());
+                for (String state : states) {
+                    out.writeUTF(state);
+                }
+                break;
+            case SPARSE_FINITE_SET:
+                out.writeByte(STATE_SPACE_SPARSE_FINITE_SET);
+                out.writeInt(((SparseFiniteStateSpace) stateSpaceType).getNumberOfStates());
+                break;
+            default:
+                throw new UnsupportedOperationException("State space type not supported: " + stateSpaceType.getStateSpaceTypeEnum());
+        }
+        writeString(out, stateSpaceType.getUnit());
+    }
+
+    private static StateSpaceType readStateSpaceType(DataInput in) throws IOException {
+        StateSpaceType stateSpaceType;
+        byte kind = in.readByte();
+        switch (kind) {
+            case STATE_SPACE_REAL:
+                stateSpaceType = new RealStateSpace(in.readDouble(), in.readDouble());
+                break;
+            case STATE_SPACE_FINITE_SET:
+                int nStates = in.readInt();
+                List<String> states = new ArrayList<>(nStates);
+                for (int i = 0; i < nStates; i++) {
+                    states.add(in.readUTF());
+                }
+                stateSpaceType = new FiniteStateSpace(states);
+                break;
+            case STATE_SPACE_SPARSE_FINITE_SET:
+                stateSpaceType = new SparseFiniteStateSpace(in.readInt());
+                break;
+            default:
+                throw new IOException("Unknown state space type: " + kind);
+        }
+        stateSpaceType.setUnit(readString(in));
+        return stateSpaceType;
+    }
+
+    private static byte kindOf(ConditionalDistribution dist) {
+        if (dist instanceof Multinomial)
+            return DIST_MULTINOMIAL;
+        if (dist instanceof Normal)
+            return DIST_NORMAL;
+        if (dist instanceof ConditionalLinearGaussian)
+            return DIST_CLG;
+        if (dist instanceof Multinomial_LogisticParents)
+            return DIST_MULTINOMIAL_LOGISTIC_PARENTS;
+        if (dist instanceof Multinomial_MultinomialParents)
+            return DIST_MULTINOMIAL_MULTINOMIAL_PARENTS;
+        if (dist instanceof Normal_MultinomialParents)
+            return DIST_NORMAL_MULTINOMIAL_PARENTS;
+        if (dist instanceof Normal_MultinomialNormalParents)
+            return DIST_NORMAL_MULTINOMIAL_NORMAL_PARENTS;
+        if (dist instanceof BaseDistribution_MultinomialParents)
+            return DIST_BASE_MULTINOMIAL_PARENTS;
+        if (dist instanceof IndicatorDistribution)
+            return DIST_INDICATOR;
+        throw new UnsupportedOperationException("Distribution not supported by the binary format: " + dist.getClass().getName());
+    }
+
+    private static void writeParameters(DataOutput out, ConditionalDistribution dist) throws IOException {
+        switch (kindOf(dist)) {
+            case DIST_MULTINOMIAL:
+                writeDoubles(out, ((Multinomial) dist).getProbabilities());
+                break;
+            case DIST_NORMAL:
+                out.writeDouble(((Normal) dist).getMean());
+                out.writeDouble(((Normal) dist).getVariance());
+                break;
+            case DIST_CLG:
+                ConditionalLinearGaussian clg = (ConditionalLinearGaussian) dist;
+                out.writeDouble(clg.getIntercept());
+                writeDoubles(out, clg.getCoeffParents());
+                out.writeDouble(clg.getVariance());
+                break;
+            case DIST_MULTINOMIAL_LOGISTIC_PARENTS:
+                Multinomial_LogisticParents logistic = (Multinomial_LogisticParents) dist;
+                for (int k = 0; k < dist.getVariable().getNumberOfStates() - 1; k++) {
+                    out.writeDouble(logistic.getIntercept(k));
+                    writeDoubles(out, logistic.getCoeffParents(k));
+                }
+                break;
+            case DIST_MULTINOMIAL_MULTINOMIAL_PARENTS:
+                writeBaseParameters(out, ((Multinomial_MultinomialParents) dist).getMultinomialDistributions());
+                break;
+            case DIST_NORMAL_MULTINOMIAL_PARENTS:
+                writeBaseParameters(out, ((Normal_MultinomialParents) dist).getNormalDistributions());
+                break;
+            case DIST_NORMAL_MULTINOMIAL_NORMAL_PARENTS:
+                writeBaseParameters(out, ((Normal_MultinomialNormalParents) dist).getDistribution());
+                break;
+            case DIST_BASE_MULTINOMIAL_PARENTS:
+                writeBaseParameters(out, ((BaseDistribution_MultinomialParents<?>) dist).getBaseDistributions());
+                break;
+            case DIST_INDICATOR:
+                ConditionalDistribution inner = ((IndicatorDistribution) dist).getConditionalDistribution();
+                out.writeByte(kindOf(inner));
+                writeParameters(out, inner);
+                break;
+        }
+    }
+
+    private static void readParameters(DataInput in, ConditionalDistribution dist) throws IOException {
+        switch (kindOf(dist)) {
+            case DIST_MULTINOMIAL:
+                ((Multinomial) dist).setProbabilities(readDoubles(in, dist.getVariable().getNumberOfStates()));
+                break;
+            case DIST_NORMAL:
+                ((Normal) dist).setMean(in.readDouble());
+                ((Normal) dist).setVariance(in.readDouble());
+                break;
+            case DIST_CLG:
+                ConditionalLinearGaussian clg = (ConditionalLinearGaussian) dist;
+                clg.setIntercept(in.readDouble());
+                clg.setCoeffParents(readDoubles(in, clg.getCoeffParents().length));
+                clg.setVariance(in.readDouble());
+                break;
+            case DIST_MULTINOMIAL_LOGISTIC_PARENTS:
+                Multinomial_LogisticParents logistic = (Multinomial_LogisticParents) dist;
+                for (int k = 0; k < dist.getVariable().getNumberOfStates() - 1; k++) {
+                    logistic.setIntercept(k, in.readDouble());
+                    logistic.setCoeffParents(k, readDoubles(in, logistic.getCoeffParents(k).length));
+                }
+                break;
+            case DIST_MULTINOMIAL_MULTINOMIAL_PARENTS:
+                readBaseParameters(in, ((Multinomial_MultinomialParents) dist).getMultinomialDistributions());
+                break;
+            case DIST_NORMAL_MULTINOMIAL_PARENTS:
+                readBaseParameters(in, ((Normal_MultinomialParents) dist).getNormalDistributions());
+                break;
+            case DIST_NORMAL_MULTINOMIAL_NORMAL_PARENTS:
+                readBaseParameters(in, ((Normal_MultinomialNormalParents) dist).getDistribution());
+                break;
+            case DIST_BASE_MULTINOMIAL_PARENTS:
+                readBaseParameters(in, ((BaseDistribution_MultinomialParents<?>) dist).getBaseDistributions());
+                break;
+            case DIST_INDICATOR:
+                ConditionalDistribution inner = ((IndicatorDistribution) dist).getConditionalDistribution();
+                if (in.readByte() != kindOf(inner))
+                    throw new IOException("The stored distribution of " + dist.getVariable().getName() + " does not match its distribution type");
+                readParameters(in, inner);
+                break;
+        }
+    }
+
+    private static void writeBaseParameters(DataOutput out, List<? extends Distribution> baseDistributions) throws IOException {
+        out.writeInt(baseDistributions.size());
+        for (Distribution base : baseDistributions) {
+            ConditionalDistribution dist = (ConditionalDistribution) base;
+            out.writeByte(kindOf(dist));
+            writeParameters(out, dist);
+        }
+    }
+
+    private static void readBaseParameters(DataInput in, List<? extends Distribution> baseDistributions) throws IOException {
+        if (in.readInt() != baseDistributions.size())
+            throw new IOException("The stored number of parent configurations does not match the model");
+        for (Distribution base : baseDistributions) {
+            ConditionalDistribution dist = (ConditionalDistribution) base;
+            if (in.readByte() != kindOf(dist))
+                throw new IOException("The stored distribution of " + dist.getVariable().getName() + " does not match its distribution type");
+            readParameters(in, dist);
+        }
+    }
+
+    private static void writeDoubles(DataOutput out, double[] values) throws IOException {
+        out.writeInt(values.length);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInput in, int expectedLength) throws IOException {
+        int length = in.readInt();
+        if (length != expectedLength)
+            throw new IOException("The stored number of parameters does not match the model: " + length + " != " + expectedLength);
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+}
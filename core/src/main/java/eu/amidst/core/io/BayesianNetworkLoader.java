@@ -19,8 +19,10 @@ package eu.amidst.core.io;
 
 import eu.amidst.core.models.BayesianNetwork;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 
 /**
@@ -33,7 +35,8 @@ import java.io.ObjectInputStream;
 public final class BayesianNetworkLoader {
 
     /**
-     * Loads a {@link BayesianNetwork} from a file.
+     * Loads a {@link BayesianNetwork} from a file. Both the binary format of {@link BayesianNetworkCodec}
+     * and Java serialization are supported, the former being detected by its magic number.
      * @param fileName a name of the file from which the Bayesian network will be loaded.
      * @return a {@link BayesianNetwork} model.
      * @throws IOException in case of an error while reading the file.
@@ -41,10 +44,13 @@ public final class BayesianNetworkLoader {
      */
     public static BayesianNetwork loadFromFile(String fileName) throws IOException, ClassNotFoundException {
 
-        ObjectInputStream ois = new ObjectInputStream(new FileInputStream(fileName));
-        Object obj = ois.readObject();
-        ois.close();
-        return (BayesianNetwork)obj;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(fileName))) {
+            if (BayesianNetworkCodec.startsWith(in, BayesianNetworkCodec.MAGIC))
+                return BayesianNetworkCodec.read(in);
+
+            ObjectInputStream ois = new ObjectInputStream(in);
+            return (BayesianNetwork) ois.readObject();
+        }
     }
 }
 
@@ -20,6 +20,7 @@ package eu.amidst.core.io;
 import eu.amidst.core.models.BayesianNetwork;
 
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 
@@ -40,4 +41,18 @@ public final class BayesianNetworkWriter {
         out.writeObject(bn);
         out.close();
     }
+
+    /**
+     * Saves a {@link BayesianNetwork} model in a file using the binary format of {@link BayesianNetworkCodec},
+     * which is smaller and faster to load than Java serialization. The file can be read with
+     * {@link BayesianNetworkLoader#loadFromFile(String)}.
+     * @param bn a {@link BayesianNetwork} model.
+     * @param fileName a name of a file where the Bayesian network will be saved.
+     * @throws IOException in case of an error while writing to file.
+     */
+    public static void saveBinary(BayesianNetwork bn, String fileName) throws IOException {
+        try (OutputStream out = new FileOutputStream(fileName)) {
+            BayesianNetworkCodec.write(bn, out);
+        }
+    }
 }
@@ -21,6 +21,7 @@ import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.datastream.filereaders.DataFileWriter;
 import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFDataWriter;
+import eu.amidst.core.datastream.filereaders.binaryFileReader.BinaryDataWriter;
 
 import java.io.IOException;
 
@@ -36,6 +37,9 @@ public final class DataStreamWriter {
     /** Represents the data file writer. */
     private static DataFileWriter dataFileWriter = new ARFFDataWriter();
 
+    /** Represents the data file writers which are selected by the extension of the file. */
+    private static final DataFileWriter[] writersByExtension = {new BinaryDataWriter()};
+
     /**
      * Sets the data file writer.
      * @param dataFileWriter_ an {@link DataFileWriter} object.
@@ -51,7 +55,22 @@ public final class DataStreamWriter {
      * @throws IOException in case of an error while writing to file.
      */
     public static void writeDataToFile(DataStream<? extends DataInstance> data, String path) throws IOException {
-        dataFileWriter.writeToFile(data, path);
+        getDataFileWriter(path).writeToFile(data, path);
+    }
+
+    /**
+     * Returns the data file writer for a given file, i.e., the writer whose extension is the one of the file,
+     * e.g., the {@link BinaryDataWriter} for "bin" files, or the data file writer set with
+     * {@link #setDataFileWriter(DataFileWriter)} otherwise.
+     * @param path the path of the file.
+     * @return a {@link DataFileWriter} object.
+     */
+    public static DataFileWriter getDataFileWriter(String path) {
+        for (DataFileWriter writer : writersByExtension) {
+            if (path.endsWith("." + writer.getFileExtension()))
+                return writer;
+        }
+        return dataFileWriter;
     }
 
 }
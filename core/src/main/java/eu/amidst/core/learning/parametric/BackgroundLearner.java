@@ -0,0 +1,193 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.learning.parametric;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.models.BayesianNetwork;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * This class runs a {@link ParameterLearningAlgorithm} on a background thread, so that the thread feeding the data
+ * stream is not blocked while a batch is learnt.
+ *
+ * <p> Batches are learnt one after the other, in the order they are submitted. After each batch, the learnt
+ * {@link BayesianNetwork} is turned into a scorer, e.g. an inference algorithm already set to the model, on the
+ * background thread, and the scorer is then swapped atomically. Predictions keep using the previous scorer until
+ * the new one is ready. At most {@code maxPendingBatches} batches wait to be learnt; further submissions block until
+ * one of them is done, which bounds the memory used when the learner is slower than the stream. </p>
+ *
+ * <p> An example of use: </p>
+ * <pre>
+ *     svb.setDAG(dag);
+ *     svb.initLearning();
+ *     BackgroundLearner&lt;InferenceAlgorithm&gt; learner = new BackgroundLearner&lt;&gt;(svb, bn -&gt; {
+ *         VMP vmp = new VMP();
+ *         vmp.setModel(bn);
+ *         return vmp;
+ *     });
+ *     learner.submit(batch);
+ *     InferenceAlgorithm scorer = learner.getScorer();
+ * </pre>
+ *
+ * @param <T> the type of the scorer built from each learnt model.
+ */
+public class BackgroundLearner<T> implements AutoCloseable {
+
+    /** Represents the learning algorithm, which is only accessed from the background thread. */
+    private final ParameterLearningAlgorithm learningAlgorithm;
+
+    /** Represents the function building a scorer from a learnt model. */
+    private final Function<BayesianNetwork, T> scorerFactory;
+
+    /** Represents the scorer of the last learnt model, or {@code null} if no batch has been learnt yet. */
+    private final AtomicReference<T> scorer = new AtomicReference<>();
+
+    /** Represents the first error thrown by the background thread, if any. */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /** Represents the number of learnt batches. */
+    private final AtomicInteger nLearntBatches = new AtomicInteger(0);
+
+    /** Represents the maximum number of batches waiting to be learnt. */
+    private final int maxPendingBatches;
+
+    /** Represents the permits of the batches waiting to be learnt. */
+    private final Semaphore pendingBatches;
+
+    /** Represents the single thread executor learning the batches. */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new BackgroundLearner with at most two batches waiting to be learnt.
+     * @param learningAlgorithm a {@link ParameterLearningAlgorithm} object, already initialized.
+     * @param scorerFactory a {@code Function} building a scorer from a learnt {@link BayesianNetwork}.
+     */
+    public BackgroundLearner(ParameterLearningAlgorithm learningAlgorithm, Function<BayesianNetwork, T> scorerFactory) {
+        this(learningAlgorithm, scorerFactory, 2);
+    }
+
+    /**
+     * Creates a new BackgroundLearner.
+     * @param learningAlgorithm a {@link ParameterLearningAlgorithm} object, already initialized.
+     * @param scorerFactory a {@code Function} building a scorer from a learnt {@link BayesianNetwork}.
+     * @param maxPendingBatches the maximum number of batches waiting to be learnt.
+     */
+    public BackgroundLearner(ParameterLearningAlgorithm learningAlgorithm, Function<BayesianNetwork, T> scorerFactory, int maxPendingBatches) {
+        if (maxPendingBatches < 1)
+            throw new IllegalArgumentException("The maximum number of pending batches must be positive.");
+
+        this.learningAlgorithm = learningAlgorithm;
+        this.scorerFactory = scorerFactory;
+        this.maxPendingBatches = maxPendingBatches;
+        this.pendingBatches = new Semaphore(maxPendingBatches);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "amidst-background-learner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a batch to be learnt. The call returns once the batch is queued, and it only blocks when there are
+     * already {@code maxPendingBatches} batches waiting. The batch must not be modified afterwards.
+     * @param batch a {@link DataOnMemory} object.
+     * @throws IllegalStateException if a previous batch could not be learnt.
+     */
+    public void submit(DataOnMemory<DataInstance> batch) {
+        this.checkFailure();
+
+        this.pendingBatches.acquireUninterruptibly();
+        try {
+            this.executor.execute(() -> this.learn(batch));
+        } catch (RejectedExecutionException ex) {
+            this.pendingBatches.release();
+            throw new IllegalStateException("The background learner is closed.", ex);
+        }
+    }
+
+    /**
+     * Learns a batch and swaps the scorer. This method is run on the background thread.
+     * @param batch a {@link DataOnMemory} object.
+     */
+    private void learn(DataOnMemory<DataInstance> batch) {
+        try {
+            if (this.failure.get() == null) {
+                this.learningAlgorithm.updateModel(batch);
+                this.scorer.set(this.scorerFactory.apply(this.learningAlgorithm.getLearntBayesianNetwork()));
+                this.nLearntBatches.incrementAndGet();
+            }
+        } catch (Throwable ex) {
+            this.failure.compareAndSet(null, ex);
+        } finally {
+            this.pendingBatches.release();
+        }
+    }
+
+    /**
+     * Returns the scorer of the last learnt model. It never blocks.
+     * @return the scorer, or {@code null} if no batch has been learnt yet.
+     * @throws IllegalStateException if a previous batch could not be learnt.
+     */
+    public T getScorer() {
+        this.checkFailure();
+        return this.scorer.get();
+    }
+
+    /**
+     * Returns the number of batches learnt so far.
+     * @return a positive {@code int} value.
+     */
+    public int getNumberOfLearntBatches() {
+        return this.nLearntBatches.get();
+    }
+
+    /**
+     * Waits until all the submitted batches have been learnt.
+     * @throws IllegalStateException if a batch could not be learnt.
+     */
+    public void awaitPendingBatches() {
+        this.pendingBatches.acquireUninterruptibly(this.maxPendingBatches);
+        this.pendingBatches.release(this.maxPendingBatches);
+        this.checkFailure();
+    }
+
+    /**
+     * Stops the background thread once the submitted batches have been learnt. Later submissions are rejected.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Throws an exception if the background thread failed.
+     */
+    private void checkFailure() {
+        Throwable ex = this.failure.get();
+        if (ex != null)
+            throw new IllegalStateException("Background learning failed.", ex);
+    }
+}
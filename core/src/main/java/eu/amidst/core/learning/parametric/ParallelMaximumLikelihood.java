@@ -119,8 +119,9 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm{
     public double updateModel(DataOnMemory<DataInstance> batch) {
 
         this.sumSS.sum(batch.stream()
-                    .map(efBayesianNetwork::getSufficientStatistics)
-                    .reduce(SufficientStatistics::sumVectorNonStateless).get());
+                    .collect(efBayesianNetwork::createZeroSufficientStatistics,
+                            (ss, instance) -> efBayesianNetwork.addSufficientStatisticsTo(instance, ss, 1.0),
+                            SufficientStatistics::sum));
 
         dataInstanceCount.addAndGet(batch.getNumberOfDataInstances());
 
@@ -162,15 +163,26 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm{
                     dataInstanceCount.getAndAdd(batch.getNumberOfDataInstances());
                     if (debug) System.out.println("Parallel ML procesando "+(int)dataInstanceCount.get() +" instances");
                 })
-                .map(batch ->  batch.stream()
-                        .map(efBayesianNetwork::getSufficientStatistics)
-                        .reduce(SufficientStatistics::sumVectorNonStateless)
-                        .get())
-                .reduce(SufficientStatistics::sumVectorNonStateless).get());
+                .collect(efBayesianNetwork::createZeroSufficientStatistics,
+                        (ss, batch) -> this.addSufficientStatisticsTo(batch, ss),
+                        SufficientStatistics::sum));
 
         return Double.NaN;
     }
 
+    /**
+     * Accumulates the sufficient statistics of a batch of data into a given vector.
+     * Each fork-join task of the parallel stream owns its accumulator, which are merged once at the end,
+     * so no intermediate sufficient statistics vector is created per data instance.
+     * @param batch a {@link DataOnMemory} object.
+     * @param ss a {@link SufficientStatistics} object created by the {@link EF_BayesianNetwork}.
+     */
+    protected void addSufficientStatisticsTo(DataOnMemory<DataInstance> batch, SufficientStatistics ss) {
+        for (DataInstance instance : batch) {
+            efBayesianNetwork.addSufficientStatisticsTo(instance, ss, 1.0);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -190,11 +202,9 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm{
                     dataInstanceCount.getAndAdd(batch.getNumberOfDataInstances());
                     if (debug) System.out.println("Parallel ML procesando "+(int)dataInstanceCount.get() +" instances");
                 })
-                .map(batch ->  batch.stream()
-                                    .map(efBayesianNetwork::getSufficientStatistics)
-                                    .reduce(SufficientStatistics::sumVectorNonStateless)
-                                    .get())
-                .reduce(SufficientStatistics::sumVectorNonStateless).get());
+                .collect(efBayesianNetwork::createZeroSufficientStatistics,
+                        (ss, batch) -> this.addSufficientStatisticsTo(batch, ss),
+                        SufficientStatistics::sum));
     }
 
     /**
@@ -32,6 +32,14 @@ import eu.amidst.core.variables.Variable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
 
 /**
@@ -67,6 +75,18 @@ public class ParallelSVB implements BayesianParameterLearningAlgorithm{
     /** Indicates if the Output is activated or not, initialized to {@code false}. */
     boolean activateOutput=false;
 
+    /** Indicates if the batches are processed in a pipelined way, initialized to {@code false}. */
+    boolean pipelinedMode=false;
+
+    /** Represents the maximum number of batches read ahead in pipelined mode, by default twice the number of cores. */
+    int prefetchSize = -1;
+
+    /** Represents the maximum number of merged batches an engine's prior may lag behind in pipelined mode. */
+    int staleness = 0;
+
+    /** Represents the number of batches merged into the posterior in pipelined mode. */
+    private int nMergedBatches;
+
     /**
      * Sets the seed using a single {@code int} seed.
      * @param seed_ the initial seed.
@@ -83,6 +103,34 @@ public class ParallelSVB implements BayesianParameterLearningAlgorithm{
         this.nCores = nCores;
     }
 
+    /**
+     * Sets the pipelined mode. In this mode, a reader thread fills a bounded queue with batches while
+     * each SVB engine keeps taking batches from it and merges its update into the posterior as soon as it finishes,
+     * instead of waiting for a group of {@code nCores} batches to be processed.
+     * @param pipelinedMode {@code true} to process the batches in a pipelined way.
+     */
+    public void setPipelinedMode(boolean pipelinedMode) {
+        this.pipelinedMode = pipelinedMode;
+    }
+
+    /**
+     * Sets the maximum number of batches read ahead of the SVB engines in pipelined mode.
+     * @param prefetchSize a positive number of batches.
+     */
+    public void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * Sets the staleness for the pipelined mode, i.e., the number of batches which may have been merged into the
+     * posterior since an engine last updated its prior before it has to update it again. A value of zero makes
+     * each engine update its prior before each batch, as long as other batches were merged since the last time.
+     * @param staleness a non-negative number of batches.
+     */
+    public void setStaleness(int staleness) {
+        this.staleness = staleness;
+    }
+
     /**
      * Returns the SVB engine.
      * @return the SVB engine.
@@ -167,6 +215,10 @@ public class ParallelSVB implements BayesianParameterLearningAlgorithm{
     public void runLearning() {
         this.initLearning();
 
+        if (this.pipelinedMode){
+            this.runLearningPipelined();
+            return;
+        }
 
         Iterator<DataOnMemory<DataInstance>> iterator = this.data.iterableOverBatches(this.SVBEngine.getWindowsSize()).iterator();
 
@@ -202,6 +254,83 @@ public class ParallelSVB implements BayesianParameterLearningAlgorithm{
 
     }
 
+    /**
+     * Learns the model in pipelined mode. A reader thread loads the batches into a bounded queue, and one worker
+     * thread per SVB engine takes batches from it, runs inference and merges the result into the shared posterior.
+     */
+    private void runLearningPipelined() {
+
+        int nBatchesAhead = (this.prefetchSize==-1)? 2*this.nCores : this.prefetchSize;
+        BlockingQueue<Optional<DataOnMemory<DataInstance>>> queue = new ArrayBlockingQueue<>(nBatchesAhead);
+
+        CompoundVector posterior = this.svbEngines[0].getNaturalParameterPrior();
+        this.logLikelihood = 0;
+        this.nMergedBatches = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.nCores + 1);
+        try {
+            CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+
+            //Reader
+            completionService.submit(() -> {
+                for (DataOnMemory<DataInstance> batch : this.data.iterableOverBatches(this.SVBEngine.getWindowsSize())) {
+                    queue.put(Optional.of(batch));
+                }
+                for (int i = 0; i < this.nCores; i++) {
+                    queue.put(Optional.empty());
+                }
+                return null;
+            });
+
+            //Workers
+            for (int i = 0; i < this.nCores; i++) {
+                SVB svb = this.svbEngines[i];
+                completionService.submit(() -> {
+                    int nMergedBatchesInPrior = 0;
+                    Optional<DataOnMemory<DataInstance>> batch;
+                    while ((batch = queue.take()).isPresent()) {
+                        synchronized (posterior) {
+                            if (this.nMergedBatches - nMergedBatchesInPrior > this.staleness) {
+                                svb.updateNaturalParameterPrior(posterior);
+                                nMergedBatchesInPrior = this.nMergedBatches;
+                            }
+                        }
+
+                        SVB.BatchOutput out = svb.updateModelOnBatchParallel(batch.get());
+
+                        synchronized (posterior) {
+                            posterior.sum(out.getVector());
+                            this.logLikelihood += out.getElbo();
+                            this.nMergedBatches++;
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            //Failures are reported as soon as they happen, as the remaining threads could be blocked on the queue.
+            for (int i = 0; i < this.nCores + 1; i++) {
+                completionService.take().get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while learning the model", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < nCores; i++) {
+            this.svbEngines[i].updateNaturalParameterPrior(posterior);
+        }
+
+        if (this.activateOutput)
+            System.out.println("Pipelined ParallelSVB: " + this.nMergedBatches + " batches, ELBO: " + this.logLikelihood);
+    }
+
     /**
      * Update the model in parallel using the provide data stream.
      * @param data, A {@link DataStream} object.
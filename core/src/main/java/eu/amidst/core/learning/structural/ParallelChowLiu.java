@@ -0,0 +1,535 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.learning.structural;
+
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.models.DAG;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.core.variables.Variables;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class implements the {@link StructuralLearningAlgorithm} interface, and learns a tree structure with the
+ * Chow-Liu algorithm. When a class variable is given, it learns a Tree Augmented Naive Bayes (TAN) structure, where
+ * the tree is learnt from the mutual information between the attributes conditioned on the class, see e.g.:
+ *
+ * <p> N. Friedman, D. Geiger, and M. Goldszmidt. Bayesian network classifiers. Machine Learning, 29(2-3):131–163, 1997. </p>
+ *
+ * <p> The statistics of all the pairs of attributes are collected in a single pass over the data, which can be
+ * given as a {@link DataStream} or as a sequence of {@link DataOnMemory} batches, so the data does not need to fit
+ * into memory. In parallel mode, each partition of the data accumulates its own tables, which are merged at the end
+ * of the pass. Multinomial pairs use counts, Normal pairs use the correlations, and mixed pairs use the variance of
+ * the Normal attribute given the multinomial one. Instances with a missing value only contribute to the pairs they
+ * have values for. </p>
+ *
+ * <p> As Normal variables can not be parents of multinomial variables, the tree is first grown over the multinomial
+ * attributes from the root, which must be multinomial if there is any multinomial attribute, and then extended with
+ * the Normal ones. </p>
+ */
+public class ParallelChowLiu implements StructuralLearningAlgorithm {
+
+    /** Represents the {@link DataStream} used for learning. */
+    private DataStream<DataInstance> dataStream;
+
+    /** Represents the window size. */
+    private int windowsSize = 1000;
+
+    /** Indicates if the learning is performed in parallel or not. */
+    private boolean parallelMode = true;
+
+    /** Represents the name of the class variable, or {@code null} to learn a Chow-Liu tree. */
+    private String nameTarget;
+
+    /** Represents the name of the root of the tree, or {@code null} to use the first suitable attribute. */
+    private String nameRoot;
+
+    /** Represents the layout of the statistics. */
+    private Layout layout;
+
+    /** Represents the statistics accumulated so far. */
+    private PairwiseStatistics statistics;
+
+    /**
+     * Sets the name of the class variable. If it is not set, a Chow-Liu tree over all the variables is learnt.
+     * @param nameTarget the name of the class variable.
+     */
+    public void setNameTarget(String nameTarget) {
+        this.nameTarget = nameTarget;
+        this.layout = null;
+    }
+
+    /**
+     * Returns the name of the class variable.
+     * @return the name of the class variable, or {@code null} if there is none.
+     */
+    public String getNameTarget() {
+        return nameTarget;
+    }
+
+    /**
+     * Sets the name of the variable acting as the root of the tree.
+     * @param nameRoot the name of the root variable.
+     */
+    public void setNameRoot(String nameRoot) {
+        this.nameRoot = nameRoot;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setParallelMode(boolean parallelMode) {
+        this.parallelMode = parallelMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWindowsSize() {
+        return windowsSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setWindowsSize(int windowsSize) {
+        this.windowsSize = windowsSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setDataStream(DataStream<DataInstance> data) {
+        this.dataStream = data;
+        this.layout = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initLearning() {
+        this.layout = null;
+        this.statistics = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void updateModel(DataOnMemory<DataInstance> batch) {
+        this.initStatistics(batch.getAttributes());
+        this.accumulate(this.parallelMode ? batch.stream().parallel() : batch.stream());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void runLearning() {
+        this.initLearning();
+        this.initStatistics(this.dataStream.getAttributes());
+        this.accumulate(this.parallelMode ? this.dataStream.parallelStream(this.windowsSize) : this.dataStream.stream());
+    }
+
+    /**
+     * Returns the (conditional) mutual information between two variables, estimated from the data processed so far.
+     * @param var1 a {@link Variable} object.
+     * @param var2 a {@link Variable} object.
+     * @return a positive {@code double} value.
+     */
+    public double getMutualInformation(Variable var1, Variable var2) {
+        int i = this.layout.indexOf(var1);
+        int j = this.layout.indexOf(var2);
+        if (i == j)
+            throw new IllegalArgumentException("The variables must be different.");
+        return this.statistics.getMutualInformation(Math.min(i, j), Math.max(i, j));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DAG getLearntDAG() {
+        if (this.statistics == null)
+            throw new IllegalStateException("No data has been processed.");
+
+        Layout layout = this.layout;
+        int nVars = layout.vars.size();
+        DAG dag = new DAG(layout.variables);
+
+        if (layout.classVar != null) {
+            for (Variable var : layout.vars) {
+                dag.getParentSet(var).addParent(layout.classVar);
+            }
+        }
+        if (nVars == 0)
+            return dag;
+
+        //Root of the tree
+        int root;
+        if (this.nameRoot != null) {
+            root = layout.indexOf(layout.variables.getVariableByName(this.nameRoot));
+        } else {
+            root = 0;
+            for (int i = 0; i < nVars; i++) {
+                if (layout.multinomial[i]) {
+                    root = i;
+                    break;
+                }
+            }
+        }
+        boolean hasMultinomial = false;
+        for (int i = 0; i < nVars; i++) {
+            hasMultinomial |= layout.multinomial[i];
+        }
+        if (hasMultinomial && !layout.multinomial[root])
+            throw new IllegalArgumentException("The root variable must be multinomial, since Normal variables can not be parents of multinomial ones.");
+
+        //Prim's algorithm, first over the multinomial variables and then over the Normal ones.
+        boolean[] inTree = new boolean[nVars];
+        double[] best = new double[nVars];
+        int[] parent = new int[nVars];
+        java.util.Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        int last = root;
+        inTree[root] = true;
+        for (int added = 1; added < nVars; added++) {
+            for (int i = 0; i < nVars; i++) {
+                if (inTree[i])
+                    continue;
+                double weight = this.statistics.getMutualInformation(Math.min(i, last), Math.max(i, last));
+                if (weight > best[i] && (layout.multinomial[last] || !layout.multinomial[i])) {
+                    best[i] = weight;
+                    parent[i] = last;
+                }
+            }
+
+            int next = -1;
+            for (int i = 0; i < nVars; i++) {
+                if (inTree[i])
+                    continue;
+                boolean preferred = next == -1
+                        || (layout.multinomial[i] && !layout.multinomial[next])
+                        || (layout.multinomial[i] == layout.multinomial[next] && best[i] > best[next]);
+                if (preferred)
+                    next = i;
+            }
+
+            inTree[next] = true;
+            dag.getParentSet(layout.vars.get(next)).addParent(layout.vars.get(parent[next]));
+            last = next;
+        }
+
+        return dag;
+    }
+
+    /**
+     * Creates the statistics for the given attributes, unless they already exist.
+     * @param attributes an {@link Attributes} object.
+     */
+    private void initStatistics(Attributes attributes) {
+        if (this.layout == null || this.statistics == null) {
+            this.layout = new Layout(new Variables(attributes), this.nameTarget);
+            this.statistics = new PairwiseStatistics(this.layout);
+        }
+    }
+
+    /**
+     * Accumulates the statistics of a stream of instances, with one table per partition of the stream.
+     * @param stream a {@code Stream} of {@link DataInstance} objects.
+     */
+    private void accumulate(Stream<DataInstance> stream) {
+        Layout layout = this.layout;
+        this.statistics.merge(stream.collect(() -> new PairwiseStatistics(layout), PairwiseStatistics::add, PairwiseStatistics::merge));
+    }
+
+    /**
+     * This class describes the variables and the position of the statistics of each pair of variables.
+     */
+    private static final class Layout {
+
+        /** Represents all the variables. */
+        final Variables variables;
+
+        /** Represents the class variable, or {@code null}. */
+        final Variable classVar;
+
+        /** Represents the number of states of the class variable, or 1 if there is none. */
+        final int nClassStates;
+
+        /** Represents the variables of the tree. */
+        final List<Variable> vars;
+
+        /** Represents whether each variable of the tree is multinomial. */
+        final boolean[] multinomial;
+
+        /** Represents the number of states of each multinomial variable of the tree. */
+        final int[] nStates;
+
+        /** Represents the offset of the statistics of each pair (i, j), i &lt; j, in row order. */
+        final int[] offsets;
+
+        /** Represents the number of statistics. */
+        final int size;
+
+        Layout(Variables variables, String nameTarget) {
+            this.variables = variables;
+            this.classVar = (nameTarget == null) ? null : variables.getVariableByName(nameTarget);
+            if (this.classVar != null && !this.classVar.isMultinomial())
+                throw new IllegalArgumentException("The class variable must be multinomial.");
+            this.nClassStates = (this.classVar == null) ? 1 : this.classVar.getNumberOfStates();
+
+            this.vars = variables.getListOfVariables().stream()
+                    .filter(var -> !var.equals(this.classVar))
+                    .peek(var -> {
+                        if (!var.isMultinomial() && !var.isNormal())
+                            throw new UnsupportedOperationException("The variable " + var.getName() + " is neither multinomial nor Normal.");
+                    })
+                    .collect(Collectors.toList());
+
+            int nVars = this.vars.size();
+            this.multinomial = new boolean[nVars];
+            this.nStates = new int[nVars];
+            for (int i = 0; i < nVars; i++) {
+                this.multinomial[i] = this.vars.get(i).isMultinomial();
+                this.nStates[i] = this.multinomial[i] ? this.vars.get(i).getNumberOfStates() : 0;
+            }
+
+            this.offsets = new int[nVars * (nVars - 1) / 2 + 1];
+            int pair = 0;
+            int offset = 0;
+            for (int i = 0; i < nVars; i++) {
+                for (int j = i + 1; j < nVars; j++) {
+                    this.offsets[pair++] = offset;
+                    offset += this.nClassStates * this.pairSize(i, j);
+                }
+            }
+            this.offsets[pair] = offset;
+            this.size = offset;
+        }
+
+        /**
+         * Returns the number of statistics of a pair for each state of the class variable: the joint counts for two
+         * multinomial variables, the counts, sums and sums of squares of the Normal variable for each state of the
+         * multinomial one for a mixed pair, and the counts, sums, sums of squares and sum of products for two Normal
+         * variables.
+         */
+        int pairSize(int i, int j) {
+            if (this.multinomial[i] && this.multinomial[j])
+                return this.nStates[i] * this.nStates[j];
+            if (this.multinomial[i])
+                return 3 * this.nStates[i];
+            if (this.multinomial[j])
+                return 3 * this.nStates[j];
+            return 6;
+        }
+
+        int pairIndex(int i, int j) {
+            int nVars = this.vars.size();
+            return i * nVars - i * (i + 1) / 2 + (j - i - 1);
+        }
+
+        int indexOf(Variable var) {
+            int index = this.vars.indexOf(var);
+            if (index == -1)
+                throw new IllegalArgumentException("The variable " + var.getName() + " is not part of the tree.");
+            return index;
+        }
+    }
+
+    /**
+     * This class accumulates the statistics of all the pairs of variables in a flat array.
+     */
+    private static final class PairwiseStatistics {
+
+        final Layout layout;
+        final double[] stats;
+        final double[] values;
+
+        PairwiseStatistics(Layout layout) {
+            this.layout = layout;
+            this.stats = new double[layout.size];
+            this.values = new double[layout.vars.size()];
+        }
+
+        void add(DataInstance instance) {
+            Layout layout = this.layout;
+            int c = 0;
+            if (layout.classVar != null) {
+                double classValue = instance.getValue(layout.classVar);
+                if (Utils.isMissingValue(classValue))
+                    return;
+                c = (int) classValue;
+            }
+
+            int nVars = layout.vars.size();
+            for (int i = 0; i < nVars; i++) {
+                this.values[i] = instance.getValue(layout.vars.get(i));
+            }
+
+            int pair = 0;
+            for (int i = 0; i < nVars; i++) {
+                double x = this.values[i];
+                if (Utils.isMissingValue(x)) {
+                    pair += nVars - i - 1;
+                    continue;
+                }
+                for (int j = i + 1; j < nVars; j++, pair++) {
+                    double y = this.values[j];
+                    if (Utils.isMissingValue(y))
+                        continue;
+
+                    int size = layout.pairSize(i, j);
+                    int offset = layout.offsets[pair] + c * size;
+                    if (layout.multinomial[i] && layout.multinomial[j]) {
+                        this.stats[offset + (int) x * layout.nStates[j] + (int) y]++;
+                    } else if (layout.multinomial[i] || layout.multinomial[j]) {
+                        int state = (int) (layout.multinomial[i] ? x : y);
+                        double value = layout.multinomial[i] ? y : x;
+                        offset += 3 * state;
+                        this.stats[offset]++;
+                        this.stats[offset + 1] += value;
+                        this.stats[offset + 2] += value * value;
+                    } else {
+                        this.stats[offset]++;
+                        this.stats[offset + 1] += x;
+                        this.stats[offset + 2] += y;
+                        this.stats[offset + 3] += x * x;
+                        this.stats[offset + 4] += y * y;
+                        this.stats[offset + 5] += x * y;
+                    }
+                }
+            }
+        }
+
+        void merge(PairwiseStatistics other) {
+            for (int i = 0; i < this.stats.length; i++) {
+                this.stats[i] += other.stats[i];
+            }
+        }
+
+        /**
+         * Returns the mutual information of a pair (i, j), i &lt; j, conditioned on the class variable.
+         */
+        double getMutualInformation(int i, int j) {
+            Layout layout = this.layout;
+            int size = layout.pairSize(i, j);
+            int offset = layout.offsets[layout.pairIndex(i, j)];
+
+            //The counts are every entry for two multinomial variables, every third entry for a mixed pair and the
+            //first of the six entries for two Normal variables.
+            int step = (layout.multinomial[i] && layout.multinomial[j]) ? 1 : (layout.multinomial[i] || layout.multinomial[j]) ? 3 : 6;
+            double total = 0;
+            for (int k = 0; k < layout.nClassStates * size; k += step) {
+                total += this.stats[offset + k];
+            }
+            if (total == 0)
+                return 0;
+
+            double information = 0;
+            for (int c = 0; c < layout.nClassStates; c++) {
+                int base = offset + c * size;
+                if (layout.multinomial[i] && layout.multinomial[j]) {
+                    information += this.multinomialInformation(base, layout.nStates[i], layout.nStates[j], total);
+                } else if (layout.multinomial[i] || layout.multinomial[j]) {
+                    information += this.mixedInformation(base, layout.multinomial[i] ? layout.nStates[i] : layout.nStates[j], total);
+                } else {
+                    information += this.normalInformation(base, total);
+                }
+            }
+            return Math.max(information, 0);
+        }
+
+        private double multinomialInformation(int base, int nStatesX, int nStatesY, double total) {
+            double count = 0;
+            double[] countsX = new double[nStatesX];
+            double[] countsY = new double[nStatesY];
+            for (int x = 0; x < nStatesX; x++) {
+                for (int y = 0; y < nStatesY; y++) {
+                    double n = this.stats[base + x * nStatesY + y];
+                    countsX[x] += n;
+                    countsY[y] += n;
+                    count += n;
+                }
+            }
+            double information = 0;
+            for (int x = 0; x < nStatesX; x++) {
+                for (int y = 0; y < nStatesY; y++) {
+                    double n = this.stats[base + x * nStatesY + y];
+                    if (n > 0)
+                        information += n / total * Math.log(n * count / (countsX[x] * countsY[y]));
+                }
+            }
+            return information;
+        }
+
+        private double mixedInformation(int base, int nStatesX, double total) {
+            double count = 0;
+            double sum = 0;
+            double sumSquares = 0;
+            for (int x = 0; x < nStatesX; x++) {
+                count += this.stats[base + 3 * x];
+                sum += this.stats[base + 3 * x + 1];
+                sumSquares += this.stats[base + 3 * x + 2];
+            }
+            double variance = variance(count, sum, sumSquares);
+            if (count < 2 || variance <= 0)
+                return 0;
+
+            //I(X;Y|c) = H(Y|c) - H(Y|X,c) for a Gaussian Y in each cell.
+            double information = 0;
+            for (int x = 0; x < nStatesX; x++) {
+                double n = this.stats[base + 3 * x];
+                double cellVariance = variance(n, this.stats[base + 3 * x + 1], this.stats[base + 3 * x + 2]);
+                if (n >= 2 && cellVariance > 0)
+                    information += 0.5 * n / total * Math.log(variance / cellVariance);
+            }
+            return information;
+        }
+
+        private double normalInformation(int base, double total) {
+            double n = this.stats[base];
+            if (n < 2)
+                return 0;
+            double varianceX = variance(n, this.stats[base + 1], this.stats[base + 3]);
+            double varianceY = variance(n, this.stats[base + 2], this.stats[base + 4]);
+            if (varianceX <= 0 || varianceY <= 0)
+                return 0;
+            double covariance = this.stats[base + 5] / n - this.stats[base + 1] / n * this.stats[base + 2] / n;
+            double correlation = Math.min(covariance * covariance / (varianceX * varianceY), 1 - 1e-12);
+            return -0.5 * n / total * Math.log(1 - correlation);
+        }
+
+        private static double variance(double n, double sum, double sumSquares) {
+            if (n == 0)
+                return 0;
+            double mean = sum / n;
+            return sumSquares / n - mean * mean;
+        }
+    }
+}
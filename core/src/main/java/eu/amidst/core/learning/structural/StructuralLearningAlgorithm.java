@@ -18,10 +18,59 @@
 package eu.amidst.core.learning.structural;
 
 
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.models.DAG;
+
 /**
  * This interface defines the Algorithm for learning the {@link eu.amidst.core.models.BayesianNetwork} graphical structure.
  */
 public interface StructuralLearningAlgorithm {
 
+    /**
+     * Initializes the structural learning process.
+     */
+    void initLearning();
+
+    /**
+     * Updates the statistics used to learn the structure with a given {@link DataOnMemory} object.
+     * @param batch a {@link DataOnMemory} object.
+     */
+    void updateModel(DataOnMemory<DataInstance> batch);
+
+    /**
+     * Returns the window size.
+     * @return the window size.
+     */
+    int getWindowsSize();
+
+    /**
+     * Sets the window size.
+     * @param windowsSize the window size.
+     */
+    void setWindowsSize(int windowsSize);
+
+    /**
+     * Sets the {@link DataStream} to be used by this StructuralLearningAlgorithm.
+     * @param data a {@link DataStream} object.
+     */
+    void setDataStream(DataStream<DataInstance> data);
+
+    /**
+     * Runs the structural learning process over the whole {@link DataStream}.
+     */
+    void runLearning();
+
+    /**
+     * Sets the parallel processing mode.
+     * @param parallelMode {@code true} if the learning is performed in parallel, {@code false} otherwise.
+     */
+    void setParallelMode(boolean parallelMode);
 
+    /**
+     * Returns the learnt {@link DAG} structure.
+     * @return the learnt {@link DAG} structure.
+     */
+    DAG getLearntDAG();
 }
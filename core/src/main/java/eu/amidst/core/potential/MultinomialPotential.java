@@ -0,0 +1,229 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.potential;
+
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class implements a {@link Potential} over a set of multinomial variables. The values are stored in a flat
+ * {@code double} array, where the first variable of the potential varies fastest, i.e., the state of the i-th variable
+ * is multiplied by the stride of the i-th variable to get the position of a configuration.
+ */
+public class MultinomialPotential implements Potential, Serializable {
+
+    private static final long serialVersionUID = 5617219406224347108L;
+
+    /** Represents the list of variables of this potential. */
+    private List<Variable> variables;
+
+    /** Represents the stride of each variable. */
+    private int[] strides;
+
+    /** Represents the values of this potential, one for each configuration of the variables. */
+    private double[] values;
+
+    /**
+     * Creates a new MultinomialPotential over a list of multinomial variables, where all the values are set to 1.
+     * @param variables a {@code List} of multinomial {@link Variable} objects.
+     */
+    public MultinomialPotential(List<Variable> variables) {
+        this.setVariables(variables);
+    }
+
+    /**
+     * {@inheritDoc}
+     * All the values are set to 1.
+     */
+    @Override
+    public void setVariables(List variables) {
+        List<Variable> vars = new ArrayList<>(variables);
+        for (Variable var : vars) {
+            if (!var.isMultinomial())
+                throw new IllegalArgumentException("Variable " + var.getName() + " is not multinomial.");
+        }
+        this.variables = vars;
+        this.strides = new int[vars.size()];
+        int size = 1;
+        for (int i = 0; i < vars.size(); i++) {
+            this.strides[i] = size;
+            size *= vars.get(i).getNumberOfStates();
+        }
+        this.values = new double[size];
+        Arrays.fill(this.values, 1.0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Variable> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Returns the values of this MultinomialPotential. The returned array is not a copy.
+     * @return an array of {@code double} with one value for each configuration of the variables.
+     */
+    public double[] getValues() {
+        return this.values;
+    }
+
+    /**
+     * Sets the values of this MultinomialPotential.
+     * @param values an array of {@code double} with one value for each configuration of the variables.
+     */
+    public void setValues(double[] values) {
+        if (values.length != this.values.length)
+            throw new IllegalArgumentException("Expected " + this.values.length + " values but got " + values.length);
+        this.values = values;
+    }
+
+    /**
+     * Returns the stride of a given variable of this MultinomialPotential.
+     * @param var a {@link Variable} object.
+     * @return an {@code int} that represents the stride, or 0 if the variable is not in this potential.
+     */
+    public int getStride(Variable var) {
+        int pos = this.variables.indexOf(var);
+        return pos == -1 ? 0 : this.strides[pos];
+    }
+
+    /**
+     * Returns the number of configurations of the variables of this MultinomialPotential.
+     * @return an {@code int} that represents the number of configurations.
+     */
+    public int size() {
+        return this.values.length;
+    }
+
+    /**
+     * Returns an {@link HashMapAssignment} with the states of the variables in a given configuration.
+     * @param index an {@code int} that represents the position of the configuration.
+     * @return an {@link HashMapAssignment} object.
+     */
+    public HashMapAssignment getAssignment(int index) {
+        HashMapAssignment assignment = new HashMapAssignment(this.variables.size());
+        for (int i = 0; i < this.variables.size(); i++) {
+            assignment.setValue(this.variables.get(i), (index / this.strides[i]) % this.variables.get(i).getNumberOfStates());
+        }
+        return assignment;
+    }
+
+    /**
+     * Computes, for each configuration of this MultinomialPotential, the position of the configuration of
+     * a subset of its variables in a potential over that subset. The map allows projecting and extending
+     * potentials without decoding the configurations.
+     * @param subset a {@code List} of {@link Variable} objects contained in this potential.
+     * @return an array of {@code int} with one position for each configuration of this potential.
+     */
+    public int[] indexMap(List<Variable> subset) {
+        int nVars = this.variables.size();
+        int[] states = new int[nVars];
+        int[] subStrides = new int[nVars];
+
+        int subStride = 1;
+        for (Variable var : subset) {
+            int pos = this.variables.indexOf(var);
+            if (pos == -1)
+                throw new IllegalArgumentException("Variable " + var.getName() + " is not included in the potential.");
+            subStrides[pos] = subStride;
+            subStride *= var.getNumberOfStates();
+        }
+        for (int i = 0; i < nVars; i++) {
+            states[i] = this.variables.get(i).getNumberOfStates();
+        }
+
+        int[] map = new int[this.values.length];
+        int[] counters = new int[nVars];
+        int subIndex = 0;
+        for (int index = 0; index < map.length; index++) {
+            map[index] = subIndex;
+            for (int i = 0; i < nVars; i++) {
+                counters[i]++;
+                subIndex += subStrides[i];
+                if (counters[i] < states[i])
+                    break;
+                counters[i] = 0;
+                subIndex -= subStrides[i] * states[i];
+            }
+        }
+        return map;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The variables of the given potential must be contained in this potential.
+     */
+    @Override
+    public void combine(Potential pot) {
+        MultinomialPotential potential = (MultinomialPotential) pot;
+        int[] map = this.indexMap(potential.getVariables());
+        double[] other = potential.getValues();
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] *= other[map[i]];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The remaining variables are summed out, so this potential becomes a potential over the given variables.
+     */
+    @Override
+    public void marginalize(List variables) {
+        List<Variable> vars = new ArrayList<>(variables);
+        int[] map = this.indexMap(vars);
+        double[] oldValues = this.values;
+        this.setVariables(vars);
+        Arrays.fill(this.values, 0.0);
+        for (int i = 0; i < oldValues.length; i++) {
+            this.values[map[i]] += oldValues[i];
+        }
+    }
+
+    /**
+     * Returns the sum of the values of this MultinomialPotential.
+     * @return a {@code double} that represents the sum.
+     */
+    public double sum() {
+        double sum = 0;
+        for (double value : this.values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Divides the values of this MultinomialPotential by their sum, unless the sum is 0.
+     * @return a {@code double} that represents the sum before normalizing.
+     */
+    public double normalize() {
+        double sum = this.sum();
+        if (sum > 0) {
+            for (int i = 0; i < this.values.length; i++) {
+                this.values[i] /= sum;
+            }
+        }
+        return sum;
+    }
+}
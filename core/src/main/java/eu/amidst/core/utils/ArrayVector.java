@@ -130,6 +130,26 @@ public class ArrayVector implements MomentParameters, NaturalParameters, Suffici
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sumTo(double[] target, int offset) {
+        for (int i = 0; i < this.array.length; i++) {
+            target[offset + i] += this.array[i];
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sumFrom(double[] source, int offset) {
+        for (int i = 0; i < this.array.length; i++) {
+            this.array[i] += source[offset + i];
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -15,19 +15,22 @@ package eu.amidst.core.utils;
 import com.google.common.base.Stopwatch;
 import eu.amidst.core.datastream.Attribute;
 import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
 import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.io.BayesianNetworkLoader;
 import eu.amidst.core.io.DataStreamWriter;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.variables.Assignment;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 
@@ -61,6 +64,9 @@ public class BayesianNetworkSampler implements AmidstOptionsHandler, Serializabl
     /** Represents a {@code Map} containing the latent variables. */
     private Map<Variable, Boolean> latentVars = new HashMap();
 
+    /** Represents the number of samples of each chunk in the parallel sampling methods. */
+    private int chunkSize = 1000;
+
     /**
      * Creates a new BayesianNetworkSampler given an input {@link BayesianNetwork} object.
      * @param network1 an input {@link BayesianNetwork} object.
@@ -200,10 +206,10 @@ public class BayesianNetworkSampler implements AmidstOptionsHandler, Serializabl
                     Attributes attributes;
                     List<Variable> variables;
 
-                    TemporalDataInstance(Assignment assignment1, Attributes atts){
+                    TemporalDataInstance(Assignment assignment1, Attributes atts, List<Variable> variables1){
                         this.assignment=assignment1;
                         this.attributes = atts;
-                        this.variables = atts.getListOfNonSpecialAttributes().stream().map(att -> sampler.network.getVariables().getVariableByName(att.getName())).collect(Collectors.toList());
+                        this.variables = variables1;
                     }
                     @Override
                     public double getValue(Variable var) {
@@ -253,7 +259,8 @@ public class BayesianNetworkSampler implements AmidstOptionsHandler, Serializabl
                     }
                 }
 
-                return this.sampler.getSampleStream(this.nSamples).map(a -> new TemporalDataInstance(a,this.atts));
+                List<Variable> variables = atts.getListOfNonSpecialAttributes().stream().map(att -> sampler.network.getVariables().getVariableByName(att.getName())).collect(Collectors.toList());
+                return this.sampler.getSampleStream(this.nSamples).map(a -> new TemporalDataInstance(a,this.atts,variables));
             }
 
             @Override
@@ -277,6 +284,157 @@ public class BayesianNetworkSampler implements AmidstOptionsHandler, Serializabl
         return new TemporalDataStream(this,nSamples);
     }
 
+    /**
+     * Sets the number of samples of each chunk in the parallel sampling methods, i.e.,
+     * {@link #sampleToDataOnMemory(int)}, {@link #sampleToParallelDataStream(long)} and
+     * {@link #sampleToFile(long, String)}. Each chunk is sampled by a single thread with its own random generator,
+     * so the sampled values depend on the seed and on the chunk size, but not on the number of threads.
+     * @param chunkSize a positive {@code int} value.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size must be positive.");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the number of samples of each chunk in the parallel sampling methods.
+     * @return a positive {@code int} value.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the non latent variables, which define the attributes of the sampled data.
+     * @return a list of {@link Variable} objects.
+     */
+    private List<Variable> getSampledVariables() {
+        return this.network.getVariables().getListOfVariables().stream()
+                .filter(var -> !this.latentVars.containsKey(var))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the attributes of the sampled data.
+     * @param vars the non latent variables.
+     * @return an {@link Attributes} object.
+     */
+    private static Attributes getAttributes(List<Variable> vars) {
+        List<Attribute> list = new ArrayList<>();
+        for (int i = 0; i < vars.size(); i++) {
+            Variable var = vars.get(i);
+            list.add(new Attribute(i, var.getName(), var.getStateSpaceType()));
+        }
+        return new Attributes(list);
+    }
+
+    /**
+     * Samples in parallel a data set of size nSamples, which is stored by columns. The samples are divided into chunks,
+     * see {@link #setChunkSize(int)}, and the random generator of each chunk is derived from the seed with
+     * {@link SplittableRandomGenerator#forChunk(long, long)}, so the data set does not depend on the number of threads.
+     * @param nSamples an {@code int} that represents the number of samples.
+     * @return a {@link ColumnarDataOnMemory} object.
+     */
+    public ColumnarDataOnMemory sampleToDataOnMemory(int nSamples) {
+        List<Variable> vars = this.getSampledVariables();
+        ColumnarDataOnMemory data = new ColumnarDataOnMemory(getAttributes(vars), vars, nSamples);
+        this.sampleChunks(data, 0);
+        return data;
+    }
+
+    /**
+     * Samples a data stream of size nSamples, with the same values as {@link #sampleToDataOnMemory(int)}. The samples
+     * are generated lazily in blocks of several chunks, and the chunks of each block are sampled in parallel, so
+     * the memory used does not depend on the number of samples.
+     * @param nSamples a {@code long} that represents the number of samples.
+     * @return a {@link DataStream} of {@link DataInstance}s.
+     */
+    public DataStream<DataInstance> sampleToParallelDataStream(long nSamples) {
+        final List<Variable> vars = this.getSampledVariables();
+        final Attributes atts = getAttributes(vars);
+        final long blockSize = (long) this.chunkSize * 4 * Runtime.getRuntime().availableProcessors();
+        final long nBlocks = (nSamples + blockSize - 1) / blockSize;
+
+        return new DataStream<DataInstance>() {
+            @Override
+            public Attributes getAttributes() {
+                return atts;
+            }
+
+            @Override
+            public Stream<DataInstance> stream() {
+                return LongStream.range(0, nBlocks)
+                        .mapToObj(block -> {
+                            long first = block * blockSize;
+                            ColumnarDataOnMemory data = new ColumnarDataOnMemory(atts, vars, (int) Math.min(blockSize, nSamples - first));
+                            sampleChunks(data, first);
+                            return data;
+                        })
+                        .flatMap(ColumnarDataOnMemory::stream);
+            }
+
+            @Override
+            public void close() {
+
+            }
+
+            @Override
+            public boolean isRestartable() {
+                return true;
+            }
+
+            @Override
+            public void restart() {
+
+            }
+        };
+    }
+
+    /**
+     * Samples nSamples data instances and writes them to a file, without keeping them on memory. The format of
+     * the file is given by its extension, see {@link DataStreamWriter#getDataFileWriter(String)}.
+     * @param nSamples a {@code long} that represents the number of samples.
+     * @param path the path of the file.
+     * @throws IOException in case of an error when writing to file.
+     */
+    public void sampleToFile(long nSamples, String path) throws IOException {
+        DataStreamWriter.writeDataToFile(this.sampleToParallelDataStream(nSamples), path);
+    }
+
+    /**
+     * Samples in parallel the chunks of a {@link ColumnarDataOnMemory} object.
+     * @param data a {@link ColumnarDataOnMemory} object whose columns are given by the non latent variables.
+     * @param firstSample the index of the first sample of the data, which must be a multiple of the chunk size.
+     */
+    private void sampleChunks(ColumnarDataOnMemory data, long firstSample) {
+        final int size = this.chunkSize;
+        final int nSamples = data.getNumberOfDataInstances();
+        final int nChunks = (nSamples + size - 1) / size;
+        final Variable[] vars = this.getSampledVariables().toArray(new Variable[0]);
+        final double[] marProbs = new double[vars.length];
+        final boolean[] hidden = new boolean[vars.length];
+        for (int i = 0; i < vars.length; i++) {
+            hidden[i] = this.hiddenVars.containsKey(vars[i]);
+            marProbs[i] = this.marNoise.getOrDefault(vars[i], 0.0);
+        }
+
+        IntStream.range(0, nChunks).parallel().forEach(chunk -> {
+            Random random = SplittableRandomGenerator.forChunk(this.seed, firstSample / size + chunk);
+            ArrayAssignment assignment = this.network.getVariables().newAssignment();
+            int end = Math.min(nSamples, (chunk + 1) * size);
+            for (int row = chunk * size; row < end; row++) {
+                for (Variable var : this.causalOrder) {
+                    assignment.setValue(var, this.network.getConditionalDistribution(var).getUnivariateDistribution(assignment).sample(random));
+                }
+                for (int i = 0; i < vars.length; i++) {
+                    boolean missing = hidden[i] || (marProbs[i] > 0 && random.nextDouble() < marProbs[i]);
+                    data.setValue(row, i, missing ? Utils.missingValue() : assignment.getValue(vars[i]));
+                }
+            }
+        });
+    }
+
     /**
      * Samples an {@link Assignment} randomly from a {@link BayesianNetwork}.
      * @param network a {@link BayesianNetwork} object.
@@ -286,13 +444,16 @@ public class BayesianNetworkSampler implements AmidstOptionsHandler, Serializabl
      */
     private Assignment sample(BayesianNetwork network, List<Variable> causalOrder, Random random) {
 
-        HashMapAssignment assignment = new HashMapAssignment(network.getNumberOfVars());
+        ArrayAssignment assignment = network.getVariables().newAssignment();
         for (Variable var : causalOrder) {
                 double sampledValue = network.getConditionalDistribution(var).getUnivariateDistribution(assignment).sample(random);
                 assignment.setValue(var, sampledValue);
         }
 
-        HashMapAssignment finalAssignment = new HashMapAssignment(network.getNumberOfVars() - this.latentVars.size());
+        if (this.latentVars.isEmpty())
+            return assignment;
+
+        ArrayAssignment finalAssignment = network.getVariables().newAssignment();
         for (Variable var : causalOrder) {
             if(!this.latentVars.containsKey(var)) {
                 finalAssignment.setValue(var, assignment.getValue(var));
@@ -0,0 +1,177 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * This class implements a thread-safe pool holding at most a fixed number of objects.
+ * Objects are created lazily, the first time no idle object is available, and callers block
+ * when all of them are leased. The wait is done through {@link ForkJoinPool#managedBlock}, so a
+ * {@link ForkJoinPool} running the callers can add compensating threads instead of starving.
+ *
+ * @param <T> the type of the pooled objects.
+ */
+public class BoundedPool<T> {
+
+    /** Represents the idle objects of this BoundedPool. */
+    private final BlockingQueue<T> idle;
+
+    /** Represents the factory used to create new objects. */
+    private final Supplier<T> factory;
+
+    /** Represents the maximum number of objects of this BoundedPool. */
+    private final int capacity;
+
+    /** Represents the number of objects created so far. */
+    private int created = 0;
+
+    /**
+     * Creates a new BoundedPool.
+     * @param capacity the maximum number of objects, which must be positive.
+     * @param factory a {@code Supplier} creating new objects. It is never invoked concurrently.
+     */
+    public BoundedPool(int capacity, Supplier<T> factory) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity of the pool must be positive: " + capacity);
+        this.capacity = capacity;
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Returns the maximum number of objects of this BoundedPool.
+     * @return the capacity of this BoundedPool.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Leases an object, creating it if none is idle and the capacity is not reached, or waiting otherwise.
+     * The object must be given back with {@link #release(Object)}.
+     * @return a leased object.
+     */
+    public T lease() {
+        T object = this.idle.poll();
+        if (object != null)
+            return object;
+
+        synchronized (this) {
+            if (this.created < this.capacity) {
+                object = this.factory.get();
+                this.created++;
+                return object;
+            }
+        }
+
+        IdleObjectBlocker blocker = new IdleObjectBlocker();
+        try {
+            ForkJoinPool.managedBlock(blocker);
+            return blocker.object;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled object", ex);
+        }
+    }
+
+    /**
+     * Gives back a previously leased object.
+     * @param object a leased object.
+     */
+    public void release(T object) {
+        this.idle.offer(object);
+    }
+
+    /**
+     * Leases an object, applies the given function to it, and gives it back.
+     * @param function a {@code Function} applied to the leased object.
+     * @param <R> the type of the result.
+     * @return the result of the function.
+     */
+    public <R> R apply(Function<T, R> function) {
+        T object = this.lease();
+        try {
+            return function.apply(object);
+        } finally {
+            this.release(object);
+        }
+    }
+
+    /**
+     * Applies the given function to each input concurrently, each call on its own leased object.
+     * @param inputs a {@code List} of inputs.
+     * @param function a {@code BiFunction} applied to a leased object and an input.
+     * @param executor the {@code Executor} running the calls.
+     * @param <A> the type of the inputs.
+     * @param <R> the type of the results.
+     * @return a {@code List} with the result for each input, in the same order.
+     */
+    public <A, R> List<R> applyAll(List<? extends A> inputs, BiFunction<T, ? super A, R> function, Executor executor) {
+        List<CompletableFuture<R>> futures = inputs.stream()
+                .map(input -> CompletableFuture.supplyAsync(() -> this.apply(object -> function.apply(object, input)), executor))
+                .collect(Collectors.toList());
+
+        try {
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * This class waits for an idle object of this BoundedPool.
+     */
+    private class IdleObjectBlocker implements ForkJoinPool.ManagedBlocker {
+
+        /** Represents the idle object taken from the pool, or null if none has been taken yet. */
+        private T object;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean block() throws InterruptedException {
+            if (this.object == null)
+                this.object = idle.take();
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isReleasable() {
+            if (this.object == null)
+                this.object = idle.poll();
+            return this.object != null;
+        }
+    }
+}
@@ -221,6 +221,29 @@ public class CompoundVector implements MomentParameters, NaturalParameters, Suff
         this.baseVectors.stream().forEach(w -> w.getVector().sum(vector.getVectorByPosition(w.getIndex())));
     }
 
+    /**
+     * {@inheritDoc}
+     * The base vectors are written one after the other, in the order of their positions.
+     */
+    @Override
+    public void sumTo(double[] target, int offset) {
+        for (IndexedVector w : this.baseVectors) {
+            w.getVector().sumTo(target, offset);
+            offset += w.getVector().size();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void sumFrom(double[] source, int offset) {
+        for (IndexedVector w : this.baseVectors) {
+            w.getVector().sumFrom(source, offset);
+            offset += w.getVector().size();
+        }
+    }
+
     /**
      * Updates the values of this CompoundVector as a substractNonStateless of its initial values and the input CompoundVector values.
      * @param vector an input CompoundVector.
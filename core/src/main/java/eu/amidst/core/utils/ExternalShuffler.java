@@ -0,0 +1,410 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.io.DataStreamLoader;
+import eu.amidst.core.io.DataStreamWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * This class shuffles data sets which do not fit in main memory. The data instances are first scattered into
+ * bucket files with a random key, and then the buckets are loaded, shuffled in parallel and written one after the
+ * other to the output file.
+ *
+ * <p> The buckets are stored in binary format, with 8 bytes per value, in a temporary directory which is deleted at
+ * the end. At most {@link #setMaxOpenFiles(int)} buckets are written at the same time, so the scatter is
+ * hierarchical: a bucket which is larger than {@link #setBucketSize(long)} once written is scattered again into
+ * smaller buckets. Since a loaded bucket takes the same memory as its file, the memory used is bounded by the bucket
+ * size times the number of threads, plus the write buffers of the open buckets. </p>
+ *
+ * <p> The shuffle only depends on the seed, and not on the number of threads, since the keys are drawn in a fixed
+ * order and each bucket is shuffled with a random generator given by
+ * {@link SplittableRandomGenerator#forChunk(long, long)}. </p>
+ */
+public class ExternalShuffler {
+
+    /** Represents the seed of the shuffle. */
+    private long seed = 0;
+
+    /** Represents the maximum size in bytes of a bucket in binary format, which is also its size once loaded. */
+    private long bucketSize = 64L * 1024 * 1024;
+
+    /** Represents the minimum number of buckets, or -1 if it is computed from the size of the input file. */
+    private int numberOfBuckets = -1;
+
+    /** Represents the maximum number of buckets written at the same time. */
+    private int maxOpenFiles = 256;
+
+    /** Represents the size in bytes of the write buffer of each bucket. */
+    private int writeBufferSize = 64 * 1024;
+
+    /** Represents the directory of the buckets, or {@code null} to use the directory of the output file. */
+    private String temporaryDirectory = null;
+
+    /**
+     * Sets the seed of the shuffle.
+     * @param seed a {@code long} value.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a bucket, in binary format with 8 bytes per value. A bucket is loaded in
+     * memory as a {@link ColumnarDataOnMemory} of the same size, and larger buckets are scattered again. By default,
+     * 64 MB.
+     * @param bucketSize a positive {@code long} value.
+     */
+    public void setBucketSize(long bucketSize) {
+        if (bucketSize < 1)
+            throw new IllegalArgumentException("The bucket size must be positive.");
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * Sets the minimum number of buckets. By default, it is computed from the size of the input file. In any case,
+     * buckets larger than the bucket size are scattered again.
+     * @param numberOfBuckets a positive {@code int} value.
+     */
+    public void setNumberOfBuckets(int numberOfBuckets) {
+        if (numberOfBuckets < 1)
+            throw new IllegalArgumentException("The number of buckets must be positive.");
+        this.numberOfBuckets = numberOfBuckets;
+    }
+
+    /**
+     * Sets the maximum number of buckets written at the same time, which should be well below the limit of open
+     * files of the process. More buckets are obtained by scattering the buckets again. By default, 256.
+     * @param maxOpenFiles an {@code int} value greater than 1.
+     */
+    public void setMaxOpenFiles(int maxOpenFiles) {
+        if (maxOpenFiles < 2)
+            throw new IllegalArgumentException("The maximum number of open files must be greater than 1.");
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * Sets the size in bytes of the write buffer of each open bucket. By default, 64 KB.
+     * @param writeBufferSize a positive {@code int} value.
+     */
+    public void setWriteBufferSize(int writeBufferSize) {
+        if (writeBufferSize < 1)
+            throw new IllegalArgumentException("The buffer size must be positive.");
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    /**
+     * Sets the directory where the buckets are stored. By default, the directory of the output file, which is
+     * expected to have enough space for a copy of the data.
+     * @param temporaryDirectory the path of a directory.
+     */
+    public void setTemporaryDirectory(String temporaryDirectory) {
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * Shuffles a data file and writes it to another file. The format of the output file is given by its extension,
+     * see {@link DataStreamWriter#getDataFileWriter(String)}.
+     * @param inputPath the path of the data file.
+     * @param outputPath the path of the shuffled data file.
+     * @throws IOException in case of an error when reading or writing the files.
+     */
+    public void shuffle(String inputPath, String outputPath) throws IOException {
+        int nBuckets = this.numberOfBuckets;
+        if (nBuckets == -1)
+            nBuckets = (int) Math.min(Integer.MAX_VALUE, Math.max(1, Files.size(Paths.get(inputPath)) / this.bucketSize + 1));
+
+        DataStream<DataInstance> data = DataStreamLoader.open(inputPath);
+        try {
+            this.shuffle(data, outputPath, nBuckets);
+        } finally {
+            data.close();
+        }
+    }
+
+    /**
+     * Shuffles a data stream and writes it to a file. The format of the output file is given by its extension,
+     * see {@link DataStreamWriter#getDataFileWriter(String)}.
+     * @param data a {@link DataStream} object.
+     * @param outputPath the path of the shuffled data file.
+     * @param nBuckets the minimum number of buckets.
+     * @throws IOException in case of an error when reading or writing the files.
+     */
+    public void shuffle(DataStream<? extends DataInstance> data, String outputPath, int nBuckets) throws IOException {
+        Path output = Paths.get(outputPath).toAbsolutePath();
+        Path directory = (this.temporaryDirectory != null) ? Paths.get(this.temporaryDirectory) : output.getParent();
+        Path bucketsDirectory = Files.createTempDirectory(directory, "shuffle");
+
+        try {
+            Path[] buckets = this.scatter(data, bucketsDirectory, nBuckets);
+            DataStreamWriter.writeDataToFile(new BucketsDataStream(data.getAttributes(), buckets, this.seed), outputPath);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            try (Stream<Path> files = Files.list(bucketsDirectory)) {
+                for (Path file : files.collect(Collectors.toList()))
+                    Files.delete(file);
+            }
+            Files.delete(bucketsDirectory);
+        }
+    }
+
+    /**
+     * Writes each data instance to a random bucket, scattering again the buckets which are too large.
+     * @param data a {@link DataStream} object.
+     * @param directory the directory of the buckets.
+     * @param nBuckets the minimum number of buckets.
+     * @return the paths of the buckets, in the order they are written to the output file.
+     * @throws IOException in case of an error when writing the buckets.
+     */
+    Path[] scatter(DataStream<? extends DataInstance> data, Path directory, int nBuckets) throws IOException {
+        List<Attribute> atts = data.getAttributes().getFullListOfAttributes();
+        SplittableRandom random = new SplittableRandom(this.seed);
+
+        int fanOut = Math.min(nBuckets, this.maxOpenFiles);
+        Path[] children = new Path[fanOut];
+        DataOutputStream[] outputs = this.createBuckets(directory, children);
+        try {
+            for (DataInstance instance : data) {
+                DataOutputStream output = outputs[random.nextInt(fanOut)];
+                for (Attribute att : atts) {
+                    output.writeDouble(instance.getValue(att));
+                }
+            }
+        } finally {
+            closeAll(outputs);
+        }
+
+        List<Path> buckets = new ArrayList<>();
+        int nBucketsPerChild = (nBuckets + fanOut - 1) / fanOut;
+        for (Path child : children) {
+            this.split(child, nBucketsPerChild, 8 * atts.size(), random, buckets);
+        }
+        return buckets.toArray(new Path[buckets.size()]);
+    }
+
+    /**
+     * Scatters again a bucket into smaller buckets, as long as it has to be split into several buckets or it is
+     * larger than the bucket size. The bucket is deleted once it has been scattered.
+     * @param bucket the path of the bucket.
+     * @param nBuckets the minimum number of buckets in which this bucket is split.
+     * @param rowSize the number of bytes of a data instance.
+     * @param random the random number generator of the keys.
+     * @param buckets the list where the final buckets are added.
+     * @throws IOException in case of an error when reading or writing the buckets.
+     */
+    private void split(Path bucket, int nBuckets, int rowSize, SplittableRandom random, List<Path> buckets) throws IOException {
+        long size = Files.size(bucket);
+        nBuckets = (rowSize == 0) ? 1 : (int) Math.min(Math.max(nBuckets, (size + this.bucketSize - 1) / this.bucketSize), Math.max(1, size / rowSize));
+        if (nBuckets <= 1) {
+            buckets.add(bucket);
+            return;
+        }
+
+        int fanOut = Math.min(nBuckets, this.maxOpenFiles);
+        Path[] children = new Path[fanOut];
+        DataOutputStream[] outputs = this.createBuckets(bucket.getParent(), children);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(bucket), this.writeBufferSize))) {
+            byte[] row = new byte[rowSize];
+            for (long i = size / rowSize; i > 0; i--) {
+                input.readFully(row);
+                outputs[random.nextInt(fanOut)].write(row);
+            }
+        } finally {
+            closeAll(outputs);
+        }
+        Files.delete(bucket);
+
+        int nBucketsPerChild = (nBuckets + fanOut - 1) / fanOut;
+        for (Path child : children) {
+            this.split(child, nBucketsPerChild, rowSize, random, buckets);
+        }
+    }
+
+    /**
+     * Creates new bucket files and opens them for writing.
+     * @param directory the directory of the buckets.
+     * @param buckets the array where the paths of the buckets are stored.
+     * @return the output streams of the buckets.
+     * @throws IOException in case of an error when creating the buckets.
+     */
+    private DataOutputStream[] createBuckets(Path directory, Path[] buckets) throws IOException {
+        DataOutputStream[] outputs = new DataOutputStream[buckets.length];
+        try {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = Files.createTempFile(directory, "bucket", ".bin");
+                outputs[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(buckets[i]), this.writeBufferSize));
+            }
+        } catch (IOException ex) {
+            closeAll(outputs);
+            throw ex;
+        }
+        return outputs;
+    }
+
+    /**
+     * Closes the output streams of the buckets.
+     * @param outputs the output streams, some of which may be {@code null}.
+     * @throws IOException in case of an error when closing a stream.
+     */
+    private static void closeAll(DataOutputStream[] outputs) throws IOException {
+        IOException exception = null;
+        for (DataOutputStream output : outputs) {
+            try {
+                if (output != null)
+                    output.close();
+            } catch (IOException ex) {
+                exception = ex;
+            }
+        }
+        if (exception != null)
+            throw exception;
+    }
+
+    /**
+     * This class defines the data stream given by the shuffled buckets. The buckets are loaded in groups of as many
+     * buckets as available processors, and the buckets of each group are loaded and shuffled in parallel.
+     */
+    static class BucketsDataStream implements DataStream<DataInstance> {
+
+        /** Represents the attributes of the data. */
+        private final Attributes attributes;
+
+        /** Represents the paths of the buckets. */
+        private final Path[] buckets;
+
+        /** Represents the seed of the shuffle. */
+        private final long seed;
+
+        /**
+         * Creates a new BucketsDataStream.
+         * @param attributes_ the attributes of the data.
+         * @param buckets_ the paths of the buckets.
+         * @param seed_ the seed of the shuffle.
+         */
+        BucketsDataStream(Attributes attributes_, Path[] buckets_, long seed_) {
+            this.attributes = attributes_;
+            this.buckets = buckets_;
+            this.seed = seed_;
+        }
+
+        /**
+         * Loads a bucket and shuffles its data instances.
+         * @param bucket the index of the bucket.
+         * @return a {@link ColumnarDataOnMemory} object.
+         */
+        private ColumnarDataOnMemory loadBucket(int bucket) {
+            int nAtts = this.attributes.getFullListOfAttributes().size();
+            try {
+                long nRows = (nAtts == 0) ? 0 : Files.size(this.buckets[bucket]) / (8L * nAtts);
+                if (nRows > Integer.MAX_VALUE)
+                    throw new IllegalStateException("The bucket " + bucket + " is too large, increase the number of buckets.");
+
+                //Random permutation of the rows, given by the Fisher-Yates shuffle.
+                Random random = SplittableRandomGenerator.forChunk(this.seed, bucket);
+                int[] positions = new int[(int) nRows];
+                for (int i = 0; i < positions.length; i++) {
+                    int j = random.nextInt(i + 1);
+                    positions[i] = positions[j];
+                    positions[j] = i;
+                }
+
+                ColumnarDataOnMemory data = new ColumnarDataOnMemory(this.attributes, positions.length);
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.buckets[bucket])))) {
+                    for (int row : positions) {
+                        for (int column = 0; column < nAtts; column++) {
+                            data.setValue(row, column, input.readDouble());
+                        }
+                    }
+                }
+                return data;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Attributes getAttributes() {
+            return this.attributes;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Stream<DataInstance> stream() {
+            int groupSize = Runtime.getRuntime().availableProcessors();
+            int nGroups = (this.buckets.length + groupSize - 1) / groupSize;
+            return IntStream.range(0, nGroups)
+                    .mapToObj(group -> IntStream.range(group * groupSize, Math.min(this.buckets.length, (group + 1) * groupSize))
+                            .parallel()
+                            .mapToObj(this::loadBucket)
+                            .collect(Collectors.toList()))
+                    .flatMap(List::stream)
+                    .flatMap(ColumnarDataOnMemory::stream);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() {
+
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isRestartable() {
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void restart() {
+
+        }
+    }
+}
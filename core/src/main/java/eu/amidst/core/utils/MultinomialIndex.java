@@ -18,7 +18,7 @@
 package eu.amidst.core.utils;
 import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.variables.Assignment;
-import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.ArrayAssignment;
 import eu.amidst.core.variables.Variable;
 
 import java.util.List;
@@ -148,7 +148,7 @@ public final class MultinomialIndex {
      */
     public static Assignment getVariableAssignmentFromIndex(List<Variable> vars, int index) {
 
-        HashMapAssignment assignment = new HashMapAssignment(vars.size());
+        ArrayAssignment assignment = new ArrayAssignment(vars.size());
         int n = vars.size();
         int lastPhiStride = 1;
 
@@ -17,20 +17,42 @@
 
 package eu.amidst.core.utils;
 
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
 import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataOnMemoryListContainer;
 import eu.amidst.core.datastream.DataStream;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
-
-//TODO Be careful with use of "add(int pos, element)" of List!!!!!!
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
 
 /**
  * This class defines the Reservoir Sampling.
+ *
+ * <p> The reservoirs are filled with the Algorithm L of Li (1994), which draws the number of data instances to be
+ * skipped until the next one enters the reservoir from a geometric distribution. Hence, random numbers are only drawn
+ * for the data instances entering the reservoir, and the skipped data instances of a {@link DataOnMemory} object are
+ * never accessed. </p>
+ *
+ * <p> The parallel methods build one reservoir per batch of the data stream, with a random generator given by
+ * {@link SplittableRandomGenerator#forChunk(long, long)}, and merge the reservoirs weighting each one by the number
+ * of data instances it has seen. The reservoirs are merged in the order of the batches, whatever the order in which
+ * they are built, so the sample only depends on the seed and the batch size, and not on the number of threads.
+ * The stratified methods keep one reservoir per value of a class attribute. </p>
+ *
+ * <p> Li, K. H. (1994). Reservoir-sampling algorithms of time complexity O(n(1 + log(N/n))).
+ * ACM Transactions on Mathematical Software, 20(4), 481-493. </p>
  */
 public class ReservoirSampling {
 
+    /** Represents the default size of the batches of the parallel methods. */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+
     /**
      * Samples {@link DataOnMemory} from a {@link DataStream} and a given number of samples.
      * @param numberOfSamples a given number of samples
@@ -38,37 +60,387 @@ public class ReservoirSampling {
      * @return a {@link DataOnMemory} object.
      */
     public static DataOnMemory samplingNumberOfSamples(int numberOfSamples, DataStream<? extends DataInstance> dataStream){
+        return samplingNumberOfSamples(numberOfSamples, (DataStream<DataInstance>) dataStream, 0);
+    }
 
-        Random random = new Random(0);
-        DataOnMemoryListContainer<DataInstance> dataOnMemoryList = new DataOnMemoryListContainer(dataStream.getAttributes());
-        int count = 0;
-
-        for (DataInstance instance : dataStream){
-            if (count<numberOfSamples) {
-                dataOnMemoryList.add(instance);
-            }else{
-                int r = random.nextInt(count+1);
-                if (r < numberOfSamples)
-                    dataOnMemoryList.set(r,instance);
+    /**
+     * Samples {@link DataOnMemory} from a {@link DataStream}, given a number of samples and a seed.
+     * @param numberOfSamples a given number of samples.
+     * @param dataStream a {@link DataStream} object.
+     * @param seed the seed of the sampling.
+     * @param <E> the type of the data instances.
+     * @return a {@link DataOnMemory} object.
+     */
+    public static <E extends DataInstance> DataOnMemory<E> samplingNumberOfSamples(int numberOfSamples, DataStream<E> dataStream, long seed){
+        Reservoir<E> reservoir = new Reservoir<>(numberOfSamples, SplittableRandomGenerator.forChunk(seed, 0), true);
+        if (dataStream instanceof DataOnMemory) {
+            reservoir.fill((DataOnMemory<E>) dataStream);
+        } else {
+            try (Stream<E> stream = dataStream.stream()) {
+                stream.forEachOrdered(reservoir::add);
             }
-            count++;
         }
-        return dataOnMemoryList;
+        return reservoir.toDataOnMemory(dataStream);
+    }
+
+    /**
+     * Samples in parallel {@link DataOnMemory} from a {@link DataStream}, given a number of samples and a seed.
+     * A reservoir is built for each batch of data instances, and the reservoirs are merged.
+     * @param numberOfSamples a given number of samples.
+     * @param dataStream a {@link DataStream} object.
+     * @param seed the seed of the sampling.
+     * @param batchSize the size of the batches, which should be large compared with the number of samples, since
+     *                  merging two reservoirs takes time proportional to the number of samples.
+     * @param <E> the type of the data instances.
+     * @return a {@link DataOnMemory} object.
+     */
+    public static <E extends DataInstance> DataOnMemory<E> parallelSamplingNumberOfSamples(int numberOfSamples, DataStream<E> dataStream, long seed, int batchSize){
+        return parallelSampling(numberOfSamples, dataStream, instance -> 0.0, seed, batchSize)
+                .getOrDefault(0.0, new Reservoir<>(numberOfSamples, null, true))
+                .toDataOnMemory(dataStream);
+    }
+
+    /**
+     * Samples in parallel {@link DataOnMemory} from a {@link DataStream}, with the same number of samples for
+     * each value of a class attribute, or all the data instances of the values with fewer data instances.
+     * The data instances with a missing class value are considered as a further class value.
+     * @param numberOfSamplesPerClass a given number of samples for each class value.
+     * @param dataStream a {@link DataStream} object.
+     * @param classAttribute the class {@link Attribute}.
+     * @param seed the seed of the sampling.
+     * @param <E> the type of the data instances.
+     * @return a {@link DataOnMemory} object, where the data instances are grouped by class value.
+     */
+    public static <E extends DataInstance> DataOnMemory<E> stratifiedSamplingNumberOfSamples(int numberOfSamplesPerClass, DataStream<E> dataStream, Attribute classAttribute, long seed){
+        Map<Double, Reservoir<E>> reservoirs = parallelSampling(numberOfSamplesPerClass, dataStream,
+                instance -> instance.getValue(classAttribute), seed, DEFAULT_BATCH_SIZE);
+
+        DataOnMemoryListContainer<E> data = new DataOnMemoryListContainer<>(dataStream.getAttributes());
+        reservoirs.keySet().stream().sorted().forEach(key -> reservoirs.get(key).addTo(data));
+        return data;
     }
 
     /**
-     * Samples {@link DataOnMemory} from a {@link DataStream} and a given number of GB.
+     * Samples {@link DataOnMemory} from a {@link DataStream} and a given number of GB. The sampled values are
+     * stored by columns in a {@link ColumnarDataOnMemory} object, so that the memory used per data instance is
+     * known, i.e., 8 bytes per attribute, and the data instances of the data stream are not retained.
      * @param numberOfGB a given number of GB
      * @param dataStream a {@link DataStream} object.
      * @return a {@link DataOnMemory} object.
      */
     public static DataOnMemory samplingNumberOfGBs(double numberOfGB, DataStream<? extends DataInstance> dataStream) {
-        double numberOfBytesPerSample = dataStream.getAttributes().getFullListOfAttributes().size()*8.0;
+        List<Attribute> atts = dataStream.getAttributes().getFullListOfAttributes();
+        double numberOfBytesPerSample = Math.max(1, atts.size())*8.0;
 
         //We assume an overhead of 10%.
-        int numberOfSamples = (int) ((1-0.1)*numberOfGB*1073741824.0/numberOfBytesPerSample);
+        int numberOfSamples = (int) Math.min(Integer.MAX_VALUE, (1-0.1)*numberOfGB*1073741824.0/numberOfBytesPerSample);
+
+        //The columns are allocated for the number of data instances seen, up to the number of samples.
+        ColumnarDataOnMemory[] data = {new ColumnarDataOnMemory(dataStream.getAttributes(), Math.min(numberOfSamples, 1024))};
+        int[] size = {0};
+        Reservoir<DataInstance> reservoir = new Reservoir<DataInstance>(numberOfSamples, SplittableRandomGenerator.forChunk(0, 0), false) {
+            @Override
+            void store(int slot, DataInstance instance) {
+                if (slot >= data[0].getNumberOfDataInstances()) {
+                    ColumnarDataOnMemory larger = new ColumnarDataOnMemory(dataStream.getAttributes(),
+                            (int) Math.min(numberOfSamples, 2L * data[0].getNumberOfDataInstances()));
+                    for (int column = 0; column < atts.size(); column++)
+                        System.arraycopy(data[0].getColumn(column), 0, larger.getColumn(column), 0, size[0]);
+                    data[0] = larger;
+                }
+                for (int column = 0; column < atts.size(); column++)
+                    data[0].setValue(slot, column, instance.getValue(atts.get(column)));
+                size[0] = Math.max(size[0], slot + 1);
+            }
+        };
 
-        return samplingNumberOfSamples(numberOfSamples,dataStream);
+        try (Stream<? extends DataInstance> stream = dataStream.stream()) {
+            stream.forEachOrdered(reservoir::add);
+        }
+
+        if (size[0] == data[0].getNumberOfDataInstances())
+            return data[0];
+
+        ColumnarDataOnMemory result = new ColumnarDataOnMemory(dataStream.getAttributes(), size[0]);
+        for (int column = 0; column < atts.size(); column++)
+            System.arraycopy(data[0].getColumn(column), 0, result.getColumn(column), 0, size[0]);
+        return result;
+    }
+
+    /**
+     * Builds in parallel a reservoir for each stratum of a data stream.
+     * @param numberOfSamples the number of samples of each stratum.
+     * @param dataStream a {@link DataStream} object.
+     * @param stratum a function returning the stratum of a data instance.
+     * @param seed the seed of the sampling.
+     * @param batchSize the size of the batches.
+     * @param <E> the type of the data instances.
+     * @return a {@code Map} from the strata to their reservoirs.
+     */
+    private static <E extends DataInstance> Map<Double, Reservoir<E>> parallelSampling(int numberOfSamples, DataStream<E> dataStream,
+                                                                                     ToDoubleFunction<E> stratum, long seed, int batchSize) {
+        //The index of each batch is assigned while the batches are read, which is sequential.
+        long[] counter = {0};
+        Stream<Object[]> batches = dataStream.streamOfBatches(batchSize).map(batch -> new Object[]{counter[0]++, batch});
+
+        OrderedMerge<E> merge = new OrderedMerge<>(seed);
+        try (Stream<Object[]> stream = FixedBatchParallelSpliteratorWrapper.toFixedBatchStream(batches, 1)) {
+            stream.map(indexedBatch -> {
+                        long index = (long) indexedBatch[0];
+                        DataOnMemory<E> batch = (DataOnMemory<E>) indexedBatch[1];
+                        Random random = SplittableRandomGenerator.forChunk(seed, index);
+                        Map<Double, Reservoir<E>> reservoirs = new HashMap<>();
+                        for (E instance : batch.getList()) {
+                            reservoirs.computeIfAbsent(stratum.applyAsDouble(instance), key -> new Reservoir<>(numberOfSamples, random, true)).add(instance);
+                        }
+                        return new IndexedReservoirs<>(index, reservoirs);
+                    })
+                    .forEach(merge::add);
+        }
+        return merge.getReservoirs();
+    }
+
+    /**
+     * This class merges the reservoirs of the batches in a fixed left fold, in the order of the batches. The
+     * reservoirs of a batch which arrive before the ones of the previous batches wait until these are merged.
+     * @param <E> the type of the data instances.
+     */
+    private static final class OrderedMerge<E extends DataInstance> {
+
+        /** Represents the seed of the sampling. */
+        private final long seed;
+
+        /** Represents the reservoirs of the batches which are waiting for the previous ones, by index. */
+        private final Map<Long, IndexedReservoirs<E>> pending = new HashMap<>();
+
+        /** Represents the index of the next batch to be merged. */
+        private long nextBatch = 0;
+
+        /** Represents the merged reservoirs of the batches before the next one, or null if there are none. */
+        private IndexedReservoirs<E> merged = null;
+
+        OrderedMerge(long seed_) {
+            this.seed = seed_;
+        }
+
+        /**
+         * Adds the reservoirs of a batch, and merges all the batches which are no longer waiting.
+         * @param reservoirs the reservoirs of a batch.
+         */
+        synchronized void add(IndexedReservoirs<E> reservoirs) {
+            this.pending.put(reservoirs.firstBatch, reservoirs);
+            IndexedReservoirs<E> next;
+            while ((next = this.pending.remove(this.nextBatch)) != null) {
+                this.merged = (this.merged == null) ? next : this.merged.merge(next, this.seed);
+                this.nextBatch++;
+            }
+        }
+
+        /**
+         * Returns the merged reservoirs of all the batches.
+         * @return a {@code Map} from the strata to their reservoirs.
+         */
+        synchronized Map<Double, Reservoir<E>> getReservoirs() {
+            if (!this.pending.isEmpty())
+                throw new IllegalStateException("The reservoirs of some batches have not been merged.");
+            return (this.merged == null) ? new HashMap<>() : this.merged.reservoirs;
+        }
+    }
+
+    /**
+     * This class defines the reservoirs of a group of consecutive batches.
+     * @param <E> the type of the data instances.
+     */
+    private static final class IndexedReservoirs<E extends DataInstance> {
+
+        /** Represents the index of the first batch. */
+        private final long firstBatch;
+
+        /** Represents the reservoir of each stratum. */
+        private final Map<Double, Reservoir<E>> reservoirs;
+
+        IndexedReservoirs(long firstBatch_, Map<Double, Reservoir<E>> reservoirs_) {
+            this.firstBatch = firstBatch_;
+            this.reservoirs = reservoirs_;
+        }
+
+        /**
+         * Merges these reservoirs with the ones of the following batches. The random generator of the merge is
+         * given by the first batch of the right reservoirs, which identifies the merge in a fixed left fold.
+         * @param right the reservoirs of the following batches.
+         * @param seed the seed of the sampling.
+         * @return the merged reservoirs.
+         */
+        IndexedReservoirs<E> merge(IndexedReservoirs<E> right, long seed) {
+            Random random = SplittableRandomGenerator.forChunk(seed, -1 - right.firstBatch);
+            right.reservoirs.forEach((key, reservoir) -> this.reservoirs.merge(key, reservoir, (a, b) -> Reservoir.merge(a, b, random)));
+            return this;
+        }
+    }
+
+    /**
+     * This class defines a reservoir filled with the Algorithm L.
+     * @param <E> the type of the data instances.
+     */
+    private static class Reservoir<E extends DataInstance> {
+
+        /** Represents the capacity of the reservoir. */
+        private final int capacity;
+
+        /** Represents the data instances of the reservoir. */
+        private final Object[] items;
+
+        /** Represents the random number generator. */
+        private final Random random;
+
+        /** Represents the number of data instances seen. */
+        private long count = 0;
+
+        /** Represents the index of the next data instance entering the reservoir. */
+        private long next;
+
+        /** Represents the variable W of the Algorithm L. */
+        private double w;
+
+        /**
+         * Creates a new reservoir.
+         * @param capacity_ the capacity of the reservoir.
+         * @param random_ the random number generator.
+         * @param keepItems whether the data instances are kept in the reservoir, or {@link #store(int, DataInstance)}
+         *                  is overridden to store them elsewhere.
+         */
+        Reservoir(int capacity_, Random random_, boolean keepItems) {
+            if (capacity_ < 0)
+                throw new IllegalArgumentException("The number of samples can not be negative.");
+            this.capacity = capacity_;
+            this.items = keepItems ? new Object[capacity_] : null;
+            this.random = random_;
+            this.next = (capacity_ == 0) ? Long.MAX_VALUE : capacity_ - 1;
+        }
+
+        /**
+         * Returns a random number in the interval (0, 1].
+         * @return a {@code double} value.
+         */
+        private double nextUniform() {
+            return 1.0 - this.random.nextDouble();
+        }
+
+        /**
+         * Computes the index of the next data instance entering the reservoir, once it is full.
+         */
+        private void skip() {
+            this.w *= Math.exp(Math.log(this.nextUniform()) / this.capacity);
+            double gap = Math.floor(Math.log(this.nextUniform()) / Math.log1p(-this.w));
+            this.next += (gap < Long.MAX_VALUE - this.next) ? (long) gap + 1 : Long.MAX_VALUE - this.next;
+        }
+
+        /**
+         * Stores a data instance in a slot of the reservoir.
+         * @param slot the position of the slot.
+         * @param instance the data instance.
+         */
+        void store(int slot, E instance) {
+            this.items[slot] = instance;
+        }
+
+        /**
+         * Adds the next data instance of the stream.
+         * @param instance the data instance.
+         */
+        void add(E instance) {
+            if (this.count < this.capacity) {
+                this.store((int) this.count, instance);
+                if (this.count == this.capacity - 1) {
+                    this.w = 1.0;
+                    this.skip();
+                }
+            } else if (this.count == this.next) {
+                this.store(this.random.nextInt(this.capacity), instance);
+                this.skip();
+            }
+            this.count++;
+        }
+
+        /**
+         * Adds all the data instances of a data set, without accessing the skipped ones.
+         * @param data a {@link DataOnMemory} object.
+         */
+        void fill(DataOnMemory<E> data) {
+            long size = data.getNumberOfDataInstances();
+            while (this.count < size && this.count < this.capacity)
+                this.add(data.getDataInstance((int) this.count));
+            while (this.next < size) {
+                this.count = this.next;
+                this.add(data.getDataInstance((int) this.next));
+            }
+            this.count = size;
+        }
+
+        /**
+         * Returns the number of data instances in the reservoir.
+         * @return an {@code int} value.
+         */
+        int size() {
+            return (int) Math.min(this.count, this.capacity);
+        }
+
+        /**
+         * Adds the data instances of the reservoir to a data set.
+         * @param data a {@link DataOnMemoryListContainer} object.
+         */
+        void addTo(DataOnMemoryListContainer<E> data) {
+            for (int i = 0; i < this.size(); i++)
+                data.add((E) this.items[i]);
+        }
+
+        /**
+         * Returns the data instances of the reservoir.
+         * @param dataStream the sampled data stream.
+         * @return a {@link DataOnMemory} object.
+         */
+        DataOnMemory<E> toDataOnMemory(DataStream<E> dataStream) {
+            DataOnMemoryListContainer<E> data = new DataOnMemoryListContainer<>(dataStream.getAttributes());
+            this.addTo(data);
+            return data;
+        }
+
+        /**
+         * Merges two reservoirs of disjoint parts of a stream. The number of data instances taken from each reservoir
+         * follows the hypergeometric distribution given by the number of data instances seen by each one, and the
+         * data instances are chosen at random, so the result is a uniform sample of both parts. The merged reservoir
+         * can be merged again, but no further data instances can be added to it.
+         * @param left a reservoir.
+         * @param right a reservoir with the same capacity.
+         * @param random the random number generator of the merge.
+         * @param <E> the type of the data instances.
+         * @return the merged reservoir.
+         */
+        static <E extends DataInstance> Reservoir<E> merge(Reservoir<E> left, Reservoir<E> right, Random random) {
+            Reservoir<E> merged = new Reservoir<>(left.capacity, null, true);
+            merged.count = left.count + right.count;
+
+            int size = merged.size();
+            int leftSize = left.size();
+            int rightSize = right.size();
+            long leftRemaining = left.count;
+            long remaining = merged.count;
+            for (int i = 0; i < size; i++) {
+                //Partial Fisher-Yates shuffle of the chosen reservoir.
+                if (random.nextDouble() * remaining < leftRemaining) {
+                    int j = random.nextInt(leftSize--);
+                    merged.items[i] = left.items[j];
+                    left.items[j] = left.items[leftSize];
+                    leftRemaining--;
+                } else {
+                    int j = random.nextInt(rightSize--);
+                    merged.items[i] = right.items[j];
+                    right.items[j] = right.items[rightSize];
+                }
+                remaining--;
+            }
+            return merged;
+        }
     }
 
     public static void main(String[] args) throws Exception {
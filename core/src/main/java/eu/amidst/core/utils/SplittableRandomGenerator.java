@@ -0,0 +1,138 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * This class defines a {@link Random} object backed by a {@link SplittableRandom}, so that it can be passed to the
+ * {@code sample(Random)} methods of the distributions. It is not thread-safe, and each thread is expected to use
+ * its own instance.
+ *
+ * <p> The generators of the chunks of a parallel computation are derived with {@link #forChunk(long, long)}, which
+ * only depends on the seed and the index of the chunk. Hence, the results do not depend on the number of threads
+ * or on the order in which the chunks are processed. </p>
+ */
+public class SplittableRandomGenerator extends Random {
+
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = 4107783324901370839L;
+
+    /** Represents the increment of the seeds of {@link SplittableRandom}, i.e., the golden ratio gamma. */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /** Represents the underlying {@link SplittableRandom} object. */
+    private SplittableRandom random;
+
+    /**
+     * Creates a new SplittableRandomGenerator.
+     * @param random a {@link SplittableRandom} object.
+     */
+    public SplittableRandomGenerator(SplittableRandom random) {
+        super(0);
+        this.random = random;
+    }
+
+    /**
+     * Creates a new SplittableRandomGenerator given a seed.
+     * @param seed the initial seed.
+     */
+    public SplittableRandomGenerator(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Returns the random number generator of a given chunk. Its seed is the chunk-th value of the sequence given by
+     * {@code new SplittableRandom(seed).nextLong()}, which is computed in constant time.
+     * @param seed the initial seed.
+     * @param chunk the index of the chunk.
+     * @return a new SplittableRandomGenerator object.
+     */
+    public static SplittableRandomGenerator forChunk(long seed, long chunk) {
+        return new SplittableRandomGenerator(new SplittableRandom(new SplittableRandom(seed + chunk * GOLDEN_GAMMA).nextLong()));
+    }
+
+    /**
+     * Returns the underlying {@link SplittableRandom} object.
+     * @return a {@link SplittableRandom} object.
+     */
+    public SplittableRandom getSplittableRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the seed of this generator by replacing the underlying {@link SplittableRandom} object with
+     * {@code new SplittableRandom(seed)}.
+     * @param seed the initial seed.
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        //This method is also invoked by the constructor of Random, before the fields of this class are assigned.
+        super.setSeed(seed);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int next(int bits) {
+        return random.nextInt() >>> (32 - bits);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+}
@@ -17,18 +17,14 @@
 
 package eu.amidst.core.utils;
 
-import eu.amidst.core.datastream.DataInstance;
-import eu.amidst.core.datastream.DataOnMemory;
-import eu.amidst.core.io.DataStreamLoader;
-import eu.amidst.core.io.DataStreamWriter;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.core.variables.Variables;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -308,13 +304,19 @@ public final class Utils {
         return Y;
     }
 
+    /**
+     * Shuffles a data file and writes it to another file, without loading it into main memory.
+     * See {@link ExternalShuffler} for further details.
+     * @param inputPath the path of the data file.
+     * @param outputPath the path of the shuffled data file.
+     * @throws UncheckedIOException in case of an error when reading or writing the files.
+     */
     public static void shuffleData(String inputPath, String outputPath){
-
-        DataOnMemory<DataInstance> dataOnMemory = DataStreamLoader.loadDataOnMemoryFromFile(inputPath);
-        Collections.shuffle(dataOnMemory.getList());
         try {
-            DataStreamWriter.writeDataToFile(dataOnMemory, outputPath);
-        }catch(IOException e){}
+            new ExternalShuffler().shuffle(inputPath, outputPath);
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
     }
 
 }
@@ -67,6 +67,31 @@ public interface Vector {
         }
     }
 
+    /**
+     * Adds the values of this Vector to a segment of an array of {@code double}, starting at a given offset.
+     * Together with {@link #sumFrom(double[], int)}, it allows shipping a vector as a flat array.
+     * @param target an array of {@code double} of length at least {@code offset + size()}.
+     * @param offset an {@code int} that represents the position of the first value in the array.
+     */
+    default void sumTo(double[] target, int offset){
+        for (int i = 0; i < this.size(); i++) {
+            target[offset + i] += this.get(i);
+        }
+    }
+
+    /**
+     * Updates the values of this Vector as a sumNonStateless of its initial values and a segment of an array
+     * of {@code double}, starting at a given offset. Zero values are skipped, so sparse vectors stay sparse.
+     * @param source an array of {@code double} of length at least {@code offset + size()}.
+     * @param offset an {@code int} that represents the position of the first value in the array.
+     */
+    default void sumFrom(double[] source, int offset){
+        for (int i = 0; i < this.size(); i++) {
+            if (source[offset + i] != 0)
+                this.set(i, this.get(i) + source[offset + i]);
+        }
+    }
+
     /**
      * Updates the values of this Vector as a subtraction of the input vector values from its initial values.
      * @param vector an input Vector.
@@ -0,0 +1,149 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.variables;
+
+import eu.amidst.core.utils.Utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class implements the interface {@link Assignment} and handles the assignments using a dense array of doubles
+ * indexed by {@link Variable#getVarID()}. A {@code Double.NaN} value means that the variable is missing.
+ *
+ * <p> Unlike {@link HashMapAssignment}, reading or writing a value neither hashes the variable nor boxes the value.
+ * Variables which share an ID but are not equal, e.g., parameter variables next to the variables of a model, are
+ * not confused: the first one takes the array slot of the ID, and the others are kept in a map, so this class
+ * behaves as {@link HashMapAssignment}, only losing its speed for the colliding variables.
+ * This class is not thread-safe. </p>
+ */
+public class ArrayAssignment implements Assignment, Serializable {
+
+    /** Represents the serial version ID for serializing the object. */
+    private static final long serialVersionUID = -3436599636425587512L;
+
+    /** Represents the variables assigned in this ArrayAssignment, indexed by their IDs. */
+    private Variable[] variables;
+
+    /** Represents the values assigned in this ArrayAssignment, indexed by the IDs of the variables. */
+    private double[] values;
+
+    /** Represents the values of the variables whose ID slot is taken by a different variable, or null if none. */
+    private Map<Variable, Double> collisions;
+
+    /**
+     * Creates a new ArrayAssignment given the number of variables.
+     * @param nOfVars the number of variables, i.e. the expected maximum variable ID plus one.
+     */
+    public ArrayAssignment(int nOfVars){
+        this.variables = new Variable[nOfVars];
+        this.values = new double[nOfVars];
+        Arrays.fill(this.values, Utils.missingValue());
+    }
+
+    /**
+     * Creates a new ArrayAssignment given an {@link Assignment} object.
+     * @param assignment1 an assignment.
+     */
+    public ArrayAssignment(Assignment assignment1){
+        if (assignment1 instanceof ArrayAssignment) {
+            ArrayAssignment arrayAssignment = (ArrayAssignment) assignment1;
+            this.variables = Arrays.copyOf(arrayAssignment.variables, arrayAssignment.variables.length);
+            this.values = Arrays.copyOf(arrayAssignment.values, arrayAssignment.values.length);
+            if (arrayAssignment.collisions != null)
+                this.collisions = new LinkedHashMap<>(arrayAssignment.collisions);
+        } else {
+            Set<Variable> variableList = assignment1.getVariables();
+            this.variables = new Variable[0];
+            this.values = new double[0];
+            for (Variable var : variableList) {
+                this.setValue(var, assignment1.getValue(var));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getValue(Variable var) {
+        int id = var.getVarID();
+        if (id < this.variables.length && this.variables[id] != null && this.variables[id].equals(var))
+            return this.values[id];
+
+        if (this.collisions != null) {
+            Double value = this.collisions.get(var);
+            if (value != null)
+                return value;
+        }
+        return Utils.missingValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setValue(Variable var, double value) {
+        int id = var.getVarID();
+        if (id >= this.variables.length) {
+            int newLength = Math.max(id + 1, 2 * this.variables.length);
+            int oldLength = this.values.length;
+            this.variables = Arrays.copyOf(this.variables, newLength);
+            this.values = Arrays.copyOf(this.values, newLength);
+            Arrays.fill(this.values, oldLength, newLength, Utils.missingValue());
+        }
+
+        if (this.variables[id] == null) {
+            this.variables[id] = var;
+        } else if (this.variables[id] != var && !this.variables[id].equals(var)) {
+            if (this.collisions == null)
+                this.collisions = new LinkedHashMap<>();
+            this.collisions.put(var, value);
+            return;
+        }
+
+        this.values[id] = value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Variable> getVariables() {
+        Set<Variable> set = new LinkedHashSet<>();
+        for (Variable var : this.variables) {
+            if (var != null)
+                set.add(var);
+        }
+        if (this.collisions != null)
+            set.addAll(this.collisions.keySet());
+        return set;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString(){
+        return this.outputString();
+    }
+}
@@ -19,6 +19,7 @@ package eu.amidst.core.variables;
 
 import eu.amidst.core.datastream.Attribute;
 import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.variables.distributionTypes.IndicatorType;
 import eu.amidst.core.variables.stateSpaceTypes.FiniteStateSpace;
 import eu.amidst.core.variables.stateSpaceTypes.SparseFiniteStateSpace;
@@ -406,6 +407,15 @@ public class Variables implements Iterable<Variable>, Serializable {
         return this.allVariables.size();
     }
 
+    /**
+     * Creates a new empty {@link Assignment} for these Variables, where all the values are missing.
+     * The returned assignment stores the values in an array indexed by the variable IDs.
+     * @return an {@link ArrayAssignment} object.
+     */
+    public ArrayAssignment newAssignment() {
+        return new ArrayAssignment(this.getNumberOfVars());
+    }
+
     /**
      * Returns an iterator over elements of type {@code Variable}, i.e. over all the Variables.
      * @return an Iterator over elements of type {@code Variable}.
@@ -431,6 +441,30 @@ public class Variables implements Iterable<Variable>, Serializable {
     }
 
 
+    /**
+     * Returns a copy of this Variables object. Each {@link Variable} is rebuilt from its {@link VariableBuilder}
+     * with the same ID, so the copies are equal to, but independent of, the original variables.
+     * @return a new {@link Variables} object.
+     */
+    public Variables copy() {
+        Variables copy = new Variables();
+        for (Variable var : this.allVariables) {
+            Variable newVar;
+            if (var instanceof VariableImplementation) {
+                newVar = new VariableImplementation(var.getVariableBuilder(), var.getVarID());
+                if (var.getDistributionTypeEnum() == DistributionTypeEnum.INDICATOR) {
+                    IndicatorType indicatorType = newVar.getDistributionType();
+                    indicatorType.setDeltaValue(((IndicatorType) var.getDistributionType()).getDeltaValue());
+                }
+            } else {
+                newVar = Serialization.deepCopy(var);
+            }
+            copy.allVariables.add(newVar);
+            copy.mapping.put(newVar.getName(), newVar.getVarID());
+        }
+        return copy;
+    }
+
     /**
      * Auxiliar builder. It shoud not be used
      * @param variables list of variables
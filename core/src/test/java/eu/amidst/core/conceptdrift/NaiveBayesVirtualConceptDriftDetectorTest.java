@@ -24,9 +24,11 @@ import eu.amidst.core.datastream.DataOnMemoryListContainer;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.io.DataStreamLoader;
 import eu.amidst.core.variables.Variable;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 
 /**
@@ -105,4 +107,51 @@ public class NaiveBayesVirtualConceptDriftDetectorTest {
             if (Main.VERBOSE) System.out.println();
         }
     }
+
+    /**
+     * The incremental mode should also find the changes of concept of sea level every 15000 samples.
+     */
+    @Test
+    public void testSeaIncremental() {
+        int windowSize = 1000;
+        DataStream<DataInstance> data = DataStreamLoader.open("../datasets/DriftSets/sea.arff");
+        NaiveBayesVirtualConceptDriftDetector virtualDriftDetector = new NaiveBayesVirtualConceptDriftDetector();
+        virtualDriftDetector.setConceptDriftDetector(NaiveBayesVirtualConceptDriftDetector.DriftDetector.GLOBAL_INCREMENTAL);
+        virtualDriftDetector.setClassIndex(-1);
+        virtualDriftDetector.setData(data);
+        virtualDriftDetector.setWindowsSize(windowSize);
+        virtualDriftDetector.setTransitionVariance(0.1);
+        virtualDriftDetector.setNumberOfGlobalVars(1);
+        virtualDriftDetector.initLearning();
+
+        double[] means = new double[60];
+        double[] scores = new double[60];
+        int count = 0;
+        for (DataInstance instance : data) {
+            virtualDriftDetector.updateModel(instance);
+            Assert.assertTrue(virtualDriftDetector.getDriftScore() >= 0);
+            scores[count / windowSize] = Math.max(scores[count / windowSize], virtualDriftDetector.getDriftScore());
+            if (++count % windowSize == 0)
+                means[count / windowSize - 1] = virtualDriftDetector.getHiddenMean(0);
+        }
+        if (Main.VERBOSE) System.out.println(Arrays.toString(means));
+        if (Main.VERBOSE) System.out.println(Arrays.toString(scores));
+
+        //The drift score stays low along the first concept.
+        Assert.assertTrue(Arrays.stream(scores, 0, 15).max().getAsDouble() < 0.2);
+
+        //The highest scores of the ten windows after each change clearly exceed those of the last five windows before it.
+        for (int concept = 1; concept < 4; concept++) {
+            double before = Arrays.stream(scores, concept * 15 - 5, concept * 15).max().getAsDouble();
+            double after = Arrays.stream(scores, concept * 15, concept * 15 + 10).max().getAsDouble();
+            Assert.assertTrue(after > 1.5 * before);
+        }
+
+        //The last five windows of each concept.
+        for (int concept = 1; concept < 4; concept++) {
+            double previous = Arrays.stream(means, concept * 15 - 5, concept * 15).average().getAsDouble();
+            double current = Arrays.stream(means, concept * 15 + 10, concept * 15 + 15).average().getAsDouble();
+            Assert.assertTrue(Math.abs(current - previous) > 1);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.datastream.filereaders;
+
+import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFDataReader;
+import eu.amidst.core.datastream.filereaders.arffFileReader.ARFFMappedDataReader;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that {@link ARFFMappedDataReader} decodes exactly the same values as {@link ARFFDataReader}.
+ */
+public class ARFFMappedDataReaderTest extends TestCase {
+
+    private static void compare(String path) {
+        ARFFDataReader reader = new ARFFDataReader();
+        reader.loadFromFile(path);
+
+        ARFFMappedDataReader mappedReader = new ARFFMappedDataReader();
+        mappedReader.loadFromFile(path);
+
+        assertEquals(reader.getAttributes().getNumberOfAttributes(), mappedReader.getAttributes().getNumberOfAttributes());
+
+        List<double[]> expected = reader.stream().map(DataRow::toArray).collect(Collectors.toList());
+        List<double[]> actual = mappedReader.stream().map(DataRow::toArray).collect(Collectors.toList());
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            for (int j = 0; j < expected.get(i).length; j++) {
+                assertEquals(Double.doubleToLongBits(expected.get(i)[j]), Double.doubleToLongBits(actual.get(i)[j]));
+            }
+        }
+
+        //The stream can be traversed again.
+        assertEquals(expected.size(), mappedReader.stream().count());
+    }
+
+    public void testMixedAttributes() {
+        compare("../datasets/dataWeka/labor.arff");
+        compare("../datasets/dataWeka/breast-cancer.arff");
+        compare("../datasets/dataWeka/credit-g.arff");
+    }
+
+    public void testNumericAttributes() {
+        compare("../datasets/dataWeka/diabetes.arff");
+        compare("../datasets/dataWeka/segment-challenge.arff");
+        compare("../datasets/DriftSets/electricity.arff");
+    }
+
+}
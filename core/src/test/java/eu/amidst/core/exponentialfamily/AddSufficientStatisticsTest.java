@@ -0,0 +1,92 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.exponentialfamily;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.utils.BayesianNetworkSampler;
+import junit.framework.TestCase;
+
+/**
+ * Checks that accumulating sufficient statistics in place gives the same result as summing the vectors
+ * returned by {@link EF_Distribution#getSufficientStatistics(eu.amidst.core.variables.Assignment)}.
+ */
+public class AddSufficientStatisticsTest extends TestCase {
+
+    public void testMultinomialAndCLGDistributions() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(5);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(5, 3);
+        BayesianNetworkGenerator.setNumberOfLinks(12);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(0);
+        DataStream<DataInstance> data = sampler.sampleToDataStream(1000);
+
+        EF_BayesianNetwork efBayesianNetwork = new EF_BayesianNetwork(bn);
+
+        SufficientStatistics expected = efBayesianNetwork.createZeroSufficientStatistics();
+        SufficientStatistics actual = efBayesianNetwork.createZeroSufficientStatistics();
+        for (DataInstance instance : data) {
+            SufficientStatistics ss = efBayesianNetwork.getSufficientStatistics(instance);
+            ss.multiplyBy(0.5);
+            expected.sum(ss);
+            efBayesianNetwork.addSufficientStatisticsTo(instance, actual, 0.5);
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), 1e-8);
+        }
+    }
+
+    public void testFlatArrayRoundTrip() {
+        BayesianNetworkGenerator.setSeed(1);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(5);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(5, 3);
+        BayesianNetworkGenerator.setNumberOfLinks(12);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(0);
+        DataStream<DataInstance> data = sampler.sampleToDataStream(100);
+
+        EF_BayesianNetwork efBayesianNetwork = new EF_BayesianNetwork(bn);
+        SufficientStatistics expected = efBayesianNetwork.createZeroSufficientStatistics();
+        for (DataInstance instance : data) {
+            efBayesianNetwork.addSufficientStatisticsTo(instance, expected, 1.0);
+        }
+
+        //The statistics are shipped as a flat array with an extra trailing position, and added to the prior.
+        double[] flat = new double[expected.size() + 1];
+        expected.sumTo(flat, 0);
+        SufficientStatistics actual = efBayesianNetwork.createInitSufficientStatistics();
+        actual.sumFrom(flat, 0);
+        SufficientStatistics prior = efBayesianNetwork.createInitSufficientStatistics();
+
+        assertEquals(0.0, flat[expected.size()]);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), flat[i], 1e-8);
+            assertEquals(expected.get(i) + prior.get(i), actual.get(i), 1e-8);
+        }
+    }
+
+}
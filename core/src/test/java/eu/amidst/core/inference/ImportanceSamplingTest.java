@@ -0,0 +1,109 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.inference;
+
+import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.inference.messagepassing.VMP;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Checks the posteriors estimated by {@link ImportanceSampling#getPosteriors(List)}.
+ */
+public class ImportanceSamplingTest extends TestCase {
+
+    public void testPosteriorsOfNaiveBayes() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(2);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(2, 2);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateNaiveBayes(3);
+
+        Variable classVar = bn.getVariables().getVariableByName("ClassVar");
+        HashMapAssignment evidence = new HashMapAssignment(4);
+        for (Variable var : bn.getVariables()) {
+            if (var != classVar) {
+                evidence.setValue(var, var.isNormal() ? 0.5 : 1);
+            }
+        }
+
+        //With all the children observed, VMP computes the exact posterior of the class variable.
+        VMP vmp = new VMP();
+        vmp.setModel(bn);
+        vmp.setEvidence(evidence);
+        vmp.runInference();
+
+        for (boolean keepDataOnMemory : new boolean[]{true, false}) {
+            ImportanceSampling importanceSampling = new ImportanceSampling();
+            importanceSampling.setModel(bn);
+            importanceSampling.setSampleSize(20000);
+            importanceSampling.setSeed(0);
+            importanceSampling.setKeepDataOnMemory(keepDataOnMemory);
+            importanceSampling.setEvidence(evidence);
+            importanceSampling.runInference();
+
+            List<Variable> vars = bn.getVariables().getListOfVariables();
+            List<UnivariateDistribution> posteriors = importanceSampling.getPosteriors(vars);
+            assertEquals(vars.size(), posteriors.size());
+
+            for (int i = 0; i < vars.size(); i++) {
+                Variable var = vars.get(i);
+                if (var == classVar) {
+                    Multinomial expected = vmp.getPosterior(classVar);
+                    Multinomial actual = (Multinomial) posteriors.get(i);
+                    for (int k = 0; k < classVar.getNumberOfStates(); k++) {
+                        assertEquals(expected.getProbability(k), actual.getProbability(k), 0.03);
+                    }
+                } else if (var.isMultinomial()) {
+                    assertEquals(1.0, ((Multinomial) posteriors.get(i)).getProbability(1), 1e-10);
+                }
+            }
+        }
+    }
+
+    public void testUnlikelyEvidenceDoesNotUnderflow() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(5);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(0, 2);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateNaiveBayes(2);
+
+        Variable classVar = bn.getVariables().getVariableByName("ClassVar");
+        HashMapAssignment evidence = new HashMapAssignment(5);
+        for (Variable var : bn.getVariables()) {
+            if (var != classVar) {
+                evidence.setValue(var, 500);
+            }
+        }
+
+        ImportanceSampling importanceSampling = new ImportanceSampling();
+        importanceSampling.setModel(bn);
+        importanceSampling.setSampleSize(1000);
+        importanceSampling.setEvidence(evidence);
+        importanceSampling.runInference();
+
+        Multinomial posterior = importanceSampling.getPosterior(classVar);
+        assertEquals(1.0, posterior.getProbability(0) + posterior.getProbability(1), 1e-10);
+        assertFalse(Double.isNaN(posterior.getProbability(0)));
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.inference;
+
+import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.distribution.Normal;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.potential.MultinomialPotential;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the posteriors of {@link JunctionTreeInference} against the enumeration of all the configurations.
+ */
+public class JunctionTreeInferenceTest extends TestCase {
+
+    /**
+     * Computes the unnormalized posteriors of the multinomial variables by enumeration. The last position of
+     * the returned array contains the probability of the evidence.
+     */
+    private static double[][] enumerate(BayesianNetwork bn, HashMapAssignment evidence) {
+        List<Variable> discreteVars = bn.getVariables().getListOfVariables().stream()
+                .filter(Variable::isMultinomial).collect(Collectors.toList());
+        double[][] posteriors = new double[discreteVars.size() + 1][];
+        for (int i = 0; i < discreteVars.size(); i++) {
+            posteriors[i] = new double[discreteVars.get(i).getNumberOfStates()];
+        }
+        posteriors[discreteVars.size()] = new double[1];
+
+        MultinomialPotential configurations = new MultinomialPotential(discreteVars);
+        for (int index = 0; index < configurations.size(); index++) {
+            HashMapAssignment assignment = configurations.getAssignment(index);
+            boolean consistent = true;
+            for (Variable var : evidence.getVariables()) {
+                if (var.isMultinomial())
+                    consistent &= assignment.getValue(var) == evidence.getValue(var);
+                else
+                    assignment.setValue(var, evidence.getValue(var));
+            }
+            if (!consistent)
+                continue;
+
+            //Non-observed normal variables are summed out, i.e., they are left out of the product.
+            double logProb = 0;
+            for (Variable var : bn.getVariables()) {
+                if (!Utils.isMissingValue(assignment.getValue(var)))
+                    logProb += bn.getConditionalDistribution(var).getLogConditionalProbability(assignment);
+            }
+            double prob = Math.exp(logProb);
+            for (int i = 0; i < discreteVars.size(); i++) {
+                posteriors[i][(int) assignment.getValue(discreteVars.get(i))] += prob;
+            }
+            posteriors[discreteVars.size()][0] += prob;
+        }
+        return posteriors;
+    }
+
+    private static void assertPosteriors(BayesianNetwork bn, HashMapAssignment evidence, JunctionTreeInference inference) {
+        double[][] expected = enumerate(bn, evidence);
+        double probabilityOfEvidence = expected[expected.length - 1][0];
+        assertEquals(Math.log(probabilityOfEvidence), inference.getLogProbabilityOfEvidence(), 1e-8);
+
+        List<Variable> discreteVars = bn.getVariables().getListOfVariables().stream()
+                .filter(Variable::isMultinomial).collect(Collectors.toList());
+        for (int i = 0; i < discreteVars.size(); i++) {
+            Multinomial posterior = inference.getPosterior(discreteVars.get(i));
+            for (int k = 0; k < discreteVars.get(i).getNumberOfStates(); k++) {
+                assertEquals(expected[i][k] / probabilityOfEvidence, posterior.getProbability(k), 1e-8);
+            }
+        }
+    }
+
+    private static BayesianNetwork generateMultinomialNetwork() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(0);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(9, 3);
+        BayesianNetworkGenerator.setNumberOfLinks(14);
+        return BayesianNetworkGenerator.generateBayesianNetwork();
+    }
+
+    public void testMultinomialNetwork() {
+        BayesianNetwork bn = generateMultinomialNetwork();
+
+        JunctionTreeInference inference = new JunctionTreeInference();
+        inference.setModel(bn);
+
+        HashMapAssignment evidence = new HashMapAssignment(0);
+        inference.setEvidence(evidence);
+        inference.runInference();
+        assertPosteriors(bn, evidence, inference);
+
+        evidence.setValue(bn.getVariables().getVariableById(2), 1);
+        evidence.setValue(bn.getVariables().getVariableById(7), 0);
+        inference.setEvidence(evidence);
+        inference.runInference();
+        assertPosteriors(bn, evidence, inference);
+    }
+
+    public void testEvidenceRetraction() {
+        BayesianNetwork bn = generateMultinomialNetwork();
+
+        JunctionTreeInference inference = new JunctionTreeInference();
+        inference.setModel(bn);
+
+        //New findings are entered on top of the previous ones.
+        HashMapAssignment evidence = new HashMapAssignment(0);
+        evidence.setValue(bn.getVariables().getVariableById(8), 2);
+        inference.setEvidence(evidence);
+        inference.runInference();
+        evidence.setValue(bn.getVariables().getVariableById(1), 0);
+        evidence.setValue(bn.getVariables().getVariableById(4), 1);
+        inference.runInference();
+        assertPosteriors(bn, evidence, inference);
+
+        //Retracted and changed findings restore the compiled tables.
+        HashMapAssignment retracted = new HashMapAssignment(0);
+        retracted.setValue(bn.getVariables().getVariableById(1), 0);
+        inference.setEvidence(retracted);
+        inference.runInference();
+        assertPosteriors(bn, retracted, inference);
+
+        retracted.setValue(bn.getVariables().getVariableById(1), 2);
+        inference.runInference();
+        assertPosteriors(bn, retracted, inference);
+    }
+
+    public void testNaiveBayesWithNormalVariables() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(3);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(3, 2);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateNaiveBayes(3);
+
+        Variable classVar = bn.getVariables().getVariableByName("ClassVar");
+        Variable hiddenGaussianVar = bn.getVariables().getVariableByName("GaussianVar2");
+        HashMapAssignment evidence = new HashMapAssignment(0);
+        evidence.setValue(bn.getVariables().getVariableByName("GaussianVar0"), 0.5);
+        evidence.setValue(bn.getVariables().getVariableByName("GaussianVar1"), -1.0);
+        evidence.setValue(bn.getVariables().getVariableByName("DiscreteVar0"), 1);
+
+        JunctionTreeInference inference = new JunctionTreeInference();
+        inference.setModel(bn);
+        inference.setEvidence(evidence);
+        inference.runInference();
+
+        //The non-observed normal variable is barren, so it does not change the posteriors.
+        assertPosteriors(bn, evidence, inference);
+
+        Multinomial classPosterior = inference.getPosterior(classVar);
+        double mean = 0;
+        double secondMoment = 0;
+        for (int k = 0; k < classVar.getNumberOfStates(); k++) {
+            HashMapAssignment parents = new HashMapAssignment(1);
+            parents.setValue(classVar, k);
+            Normal normal = (Normal) bn.getConditionalDistribution(hiddenGaussianVar).getUnivariateDistribution(parents);
+            mean += classPosterior.getProbability(k) * normal.getMean();
+            secondMoment += classPosterior.getProbability(k) * (normal.getVariance() + normal.getMean() * normal.getMean());
+        }
+        Normal posterior = inference.getPosterior(hiddenGaussianVar);
+        assertEquals(mean, posterior.getMean(), 1e-8);
+        assertEquals(secondMoment - mean * mean, posterior.getVariance(), 1e-8);
+    }
+
+    public void testObservedNormalVariableWithHiddenParent() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(2);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(2, 2);
+        BayesianNetworkGenerator.setNumberOfLinks(3);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        Variable child = bn.getVariables().getListOfVariables().stream()
+                .filter(var -> var.isNormal() && bn.getDAG().getParentSet(var).getParents().stream().anyMatch(Variable::isNormal))
+                .findFirst().orElse(null);
+        if (child == null)
+            return;
+
+        HashMapAssignment evidence = new HashMapAssignment(0);
+        evidence.setValue(child, 0.0);
+
+        JunctionTreeInference inference = new JunctionTreeInference();
+        inference.setModel(bn);
+        inference.setEvidence(evidence);
+        try {
+            inference.runInference();
+            fail("Expected an UnsupportedOperationException");
+        } catch (UnsupportedOperationException ex) {
+            assertTrue(Utils.isMissingValue(evidence.getValue(bn.getDAG().getParentSet(child).getParents().stream()
+                    .filter(Variable::isNormal).findFirst().get())));
+        }
+    }
+}
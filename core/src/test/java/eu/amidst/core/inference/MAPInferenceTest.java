@@ -0,0 +1,182 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.inference;
+
+import eu.amidst.core.io.BayesianNetworkLoader;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.potential.MultinomialPotential;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the estimates of {@link MAPInference} against the exact MAP configuration.
+ */
+public class MAPInferenceTest extends TestCase {
+
+    public void testMAPEstimateOfAsia() throws Exception {
+        BayesianNetwork bn = BayesianNetworkLoader.loadFromFile("../networks/dataWeka/asia.bn");
+
+        HashMapAssignment evidence = new HashMapAssignment(2);
+        evidence.setValue(bn.getVariables().getVariableByName("X"), 1);
+        evidence.setValue(bn.getVariables().getVariableByName("D"), 1);
+        List<Variable> MAPvariables = Arrays.asList(bn.getVariables().getVariableByName("L"),
+                bn.getVariables().getVariableByName("B"));
+
+        //The exact MAP configuration, by enumeration of the MAP variables with exact inference.
+        JunctionTreeInference junctionTree = new JunctionTreeInference();
+        junctionTree.setModel(bn);
+        MultinomialPotential configurations = new MultinomialPotential(MAPvariables);
+        double bestLogProbability = Double.NEGATIVE_INFINITY;
+        Assignment exactMAP = null;
+        for (int index = 0; index < configurations.size(); index++) {
+            HashMapAssignment assignment = configurations.getAssignment(index);
+            HashMapAssignment augmented = new HashMapAssignment(assignment);
+            evidence.getVariables().forEach(var -> augmented.setValue(var, evidence.getValue(var)));
+            junctionTree.setEvidence(augmented);
+            junctionTree.runInference();
+            if (junctionTree.getLogProbabilityOfEvidence() > bestLogProbability) {
+                bestLogProbability = junctionTree.getLogProbabilityOfEvidence();
+                exactMAP = assignment;
+            }
+        }
+
+        for (boolean parallelMode : new boolean[]{false, true}) {
+            for (int cacheSize : new int[]{0, 1000}) {
+                MAPInference mapInference = new MAPInference();
+                mapInference.setModel(bn);
+                mapInference.setSeed(0);
+                mapInference.setParallelMode(parallelMode);
+                mapInference.setCacheSize(cacheSize);
+                mapInference.setSampleSize(10);
+                mapInference.setMAPVariables(MAPvariables);
+                mapInference.setEvidence(evidence);
+                mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+
+                Assignment estimate = mapInference.getEstimate();
+                for (Variable var : MAPvariables) {
+                    assertEquals(var.getName(), exactMAP.getValue(var), estimate.getValue(var));
+                }
+            }
+        }
+    }
+
+    private static MAPInference asiaMAPInference(BayesianNetwork bn) {
+        HashMapAssignment evidence = new HashMapAssignment(2);
+        evidence.setValue(bn.getVariables().getVariableByName("X"), 1);
+        evidence.setValue(bn.getVariables().getVariableByName("D"), 1);
+
+        MAPInference mapInference = new MAPInference();
+        mapInference.setModel(bn);
+        mapInference.setSeed(0);
+        mapInference.setParallelMode(false);
+        mapInference.setSampleSize(10);
+        mapInference.setMAPVariables(Arrays.asList(bn.getVariables().getVariableByName("L"),
+                bn.getVariables().getVariableByName("B")));
+        mapInference.setEvidence(evidence);
+        return mapInference;
+    }
+
+    public void testEstimatesCache() throws Exception {
+        BayesianNetwork bn = BayesianNetworkLoader.loadFromFile("../networks/dataWeka/asia.bn");
+        MAPInference mapInference = asiaMAPInference(bn);
+
+        mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+        assertTrue(mapInference.getNumberOfCachedEstimates() > 0);
+        assertTrue(mapInference.getNumberOfCacheHits() > 0);
+        Assignment estimate = mapInference.getEstimate();
+        double logProbability = mapInference.getLogProbabilityOfEstimate();
+
+        //Without the cache, the search visits the same configurations with the same estimates.
+        mapInference.setCacheSize(0);
+        assertEquals(0, mapInference.getNumberOfCachedEstimates());
+        mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+        assertEquals(0, mapInference.getNumberOfCachedEstimates());
+        assertEquals(0, mapInference.getNumberOfCacheHits());
+        assertEquals(estimate.outputString(), mapInference.getEstimate().outputString());
+        assertEquals(logProbability, mapInference.getLogProbabilityOfEstimate());
+
+        //The cache is cleared when the estimates it holds are no longer valid.
+        mapInference.setCacheSize(1000);
+        mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+        assertTrue(mapInference.getNumberOfCachedEstimates() > 0);
+        mapInference.setEvidence(null);
+        assertEquals(0, mapInference.getNumberOfCachedEstimates());
+        assertEquals(0, mapInference.getNumberOfCacheHits());
+
+        mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+        assertTrue(mapInference.getNumberOfCachedEstimates() > 0);
+        mapInference.setMAPVariables(Arrays.asList(bn.getVariables().getVariableByName("L")));
+        assertEquals(0, mapInference.getNumberOfCachedEstimates());
+
+        mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+        assertTrue(mapInference.getNumberOfCachedEstimates() > 0);
+        mapInference.setSeed(1);
+        assertEquals(0, mapInference.getNumberOfCachedEstimates());
+
+        mapInference.runInference(MAPInference.SearchAlgorithm.HC_LOCAL);
+        assertTrue(mapInference.getNumberOfCachedEstimates() > 0);
+        mapInference.setModel(bn);
+        assertEquals(0, mapInference.getNumberOfCachedEstimates());
+    }
+
+    public void testParallelAndSequentialSearchesAgree() throws Exception {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(3);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(6, 3);
+        BayesianNetworkGenerator.setNumberOfLinks(12);
+        BayesianNetwork hybrid = BayesianNetworkGenerator.generateBayesianNetwork();
+        BayesianNetwork asia = BayesianNetworkLoader.loadFromFile("../networks/dataWeka/asia.bn");
+
+        for (BayesianNetwork bn : new BayesianNetwork[]{asia, hybrid}) {
+            List<Variable> MAPvariables = bn.getVariables().getListOfVariables().stream()
+                    .filter(Variable::isMultinomial).limit(3).collect(Collectors.toList());
+            HashMapAssignment evidence = new HashMapAssignment(1);
+            Variable evidenceVar = bn.getVariables().getListOfVariables().get(bn.getNumberOfVars() - 1);
+            evidence.setValue(evidenceVar, evidenceVar.isMultinomial() ? 0 : 0.5);
+
+            for (MAPInference.SearchAlgorithm searchAlgorithm : new MAPInference.SearchAlgorithm[]{
+                    MAPInference.SearchAlgorithm.HC_LOCAL, MAPInference.SearchAlgorithm.SA_GLOBAL}) {
+                String[] estimates = new String[2];
+                double[] logProbabilities = new double[2];
+                for (int mode = 0; mode < 2; mode++) {
+                    MAPInference mapInference = new MAPInference();
+                    mapInference.setModel(bn);
+                    mapInference.setSeed(5);
+                    mapInference.setParallelMode(mode == 1);
+                    mapInference.setSampleSize(20);
+                    mapInference.setNumberOfIterations(40);
+                    mapInference.setPruningRatio(0.5);
+                    mapInference.setMAPVariables(MAPvariables);
+                    mapInference.setEvidence(evidence);
+                    mapInference.runInference(searchAlgorithm);
+                    estimates[mode] = mapInference.getEstimate().outputString();
+                    logProbabilities[mode] = mapInference.getLogProbabilityOfEstimate();
+                }
+                assertEquals(estimates[0], estimates[1]);
+                assertEquals(logProbabilities[0], logProbabilities[1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.inference;
+
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.inference.messagepassing.VMP;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.utils.BayesianNetworkSampler;
+import eu.amidst.core.variables.Assignment;
+import eu.amidst.core.variables.HashMapAssignment;
+import eu.amidst.core.variables.Variable;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks that the batch queries of {@link PooledInferenceEngine} match independent runs of {@link VMP}.
+ */
+public class PooledInferenceEngineTest extends TestCase {
+
+    public void testBatchPosteriorsMatchSequentialVMP() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(3);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(3, 2);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateNaiveBayes(3);
+
+        //With all the children observed, VMP computes the exact posterior of the class variable.
+        Variable classVar = bn.getVariables().getVariableByName("ClassVar");
+        List<Assignment> evidences = new ArrayList<>();
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(0);
+        sampler.sampleToDataStream(50).forEach(instance -> {
+            HashMapAssignment evidence = new HashMapAssignment(bn.getNumberOfVars() - 1);
+            for (Variable var : bn.getVariables()) {
+                if (var != classVar)
+                    evidence.setValue(var, instance.getValue(var));
+            }
+            evidences.add(evidence);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PooledInferenceEngine engine = new PooledInferenceEngine(bn, VMP::new, 2);
+            engine.setExecutor(executor);
+            List<List<UnivariateDistribution>> posteriors = engine.posteriors(evidences, Arrays.asList(classVar));
+
+            assertEquals(evidences.size(), posteriors.size());
+            for (int i = 0; i < evidences.size(); i++) {
+                VMP vmp = new VMP();
+                vmp.setModel(bn);
+                vmp.setEvidence(evidences.get(i));
+                vmp.runInference();
+                UnivariateDistribution expected = vmp.getPosterior(classVar);
+                UnivariateDistribution actual = posteriors.get(i).get(0);
+                for (int k = 0; k < classVar.getNumberOfStates(); k++) {
+                    assertEquals(expected.getProbability(k), actual.getProbability(k), 1e-4);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
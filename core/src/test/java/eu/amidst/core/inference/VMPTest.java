@@ -24,6 +24,7 @@ import eu.amidst.core.exponentialfamily.EF_Multinomial;
 import eu.amidst.core.inference.messagepassing.VMP;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
 import eu.amidst.core.utils.MultinomialIndex;
 import eu.amidst.core.utils.Utils;
 import eu.amidst.core.variables.Assignment;
@@ -997,4 +998,46 @@ public class VMPTest extends TestCase {
 
     }
 
+
+    public static void testCompiledMode() {
+
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(5);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(5, 3);
+        BayesianNetworkGenerator.setNumberOfLinks(12);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        List<Variable> vars = bn.getVariables().getListOfVariables();
+        HashMapAssignment assignment = new HashMapAssignment(3);
+        for (int i = 0; i < 3; i++) {
+            Variable var = vars.get(2*i);
+            assignment.setValue(var, var.isMultinomial() ? 1 : 0.5);
+        }
+
+        VMP vmp = new VMP();
+        vmp.setModel(bn);
+        vmp.setEvidence(assignment);
+        vmp.runInference();
+
+        VMP compiledVMP = new VMP();
+        compiledVMP.setCompiledMode(true);
+        compiledVMP.setModel(bn);
+        compiledVMP.setEvidence(assignment);
+        compiledVMP.runInference();
+
+        assertEquals(vmp.getLogProbabilityOfEvidence(), compiledVMP.getLogProbabilityOfEvidence(), 1e-10);
+        for (Variable var : vars) {
+            if (!Utils.isMissingValue(assignment.getValue(var)))
+                continue;
+            assertTrue(vmp.getPosterior(var).equalDist(compiledVMP.getPosterior(var), 1e-10));
+        }
+
+        //The reused buffers must not keep results of previous runs.
+        assignment.setValue(vars.get(0), vars.get(0).isMultinomial() ? 0 : -0.5);
+        vmp.setEvidence(assignment);
+        vmp.runInference();
+        compiledVMP.setEvidence(assignment);
+        compiledVMP.runInference();
+        assertEquals(vmp.getLogProbabilityOfEvidence(), compiledVMP.getLogProbabilityOfEvidence(), 1e-10);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.io;
+
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.core.variables.Variables;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Testing the binary format of {@link BayesianNetworkCodec} and the typed copies of distributions and variables.
+ */
+public class BayesianNetworkCodecTest {
+
+    private static BayesianNetwork roundTrip(BayesianNetwork bn) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BayesianNetworkCodec.write(bn, out);
+        return BayesianNetworkCodec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTripOfStoredNetworks() throws Exception {
+        File folder = new File("../networks/simulated/");
+        for (File fileEntry : folder.listFiles()) {
+            if (!fileEntry.getName().endsWith(".bn"))
+                continue;
+
+            BayesianNetwork bn = BayesianNetworkLoader.loadFromFile(fileEntry.getPath());
+            BayesianNetwork bn2 = roundTrip(bn);
+
+            Assert.assertEquals(bn.getName(), bn2.getName());
+            Assert.assertEquals(bn.getNumberOfVars(), bn2.getNumberOfVars());
+            for (Variable var : bn.getVariables()) {
+                Variable var2 = bn2.getVariables().getVariableById(var.getVarID());
+                Assert.assertEquals(var.getName(), var2.getName());
+                Assert.assertEquals(var.getDistributionTypeEnum(), var2.getDistributionTypeEnum());
+                Assert.assertEquals(var.getNumberOfStates(), var2.getNumberOfStates());
+            }
+            Assert.assertTrue("Round trip failed for " + fileEntry.getName(), bn.equalBNs(bn2, 0.0));
+        }
+    }
+
+    @Test
+    public void testLoaderDetectsBinaryFormat() throws Exception {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(3);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(3, 2);
+        BayesianNetworkGenerator.setNumberOfLinks(8);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        File file = File.createTempFile("codec", ".bn");
+        file.deleteOnExit();
+        BayesianNetworkWriter.saveBinary(bn, file.getPath());
+        Assert.assertTrue(bn.equalBNs(BayesianNetworkLoader.loadFromFile(file.getPath()), 0.0));
+
+        BayesianNetworkWriter.save(bn, file.getPath());
+        Assert.assertTrue(bn.equalBNs(BayesianNetworkLoader.loadFromFile(file.getPath()), 0.0));
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        BayesianNetwork bn = BayesianNetworkLoader.loadFromFile("../networks/simulated/Normal_MultinomialNormalParents.bn");
+
+        for (Variable var : bn.getVariables()) {
+            ConditionalDistribution dist = bn.getConditionalDistribution(var);
+            ConditionalDistribution copy = dist.copy();
+            Assert.assertEquals(dist.getClass(), copy.getClass());
+            Assert.assertTrue(dist.equalDist(copy, 0.0));
+
+            copy.randomInitialization(new Random(0));
+            if (dist.getNumberOfParameters() > 0)
+                Assert.assertFalse(dist.equalDist(copy, 0.0));
+        }
+
+        Variables variables = bn.getVariables().copy();
+        Assert.assertEquals(bn.getNumberOfVars(), variables.getNumberOfVars());
+        for (Variable var : bn.getVariables()) {
+            Variable copy = variables.getVariableByName(var.getName());
+            Assert.assertNotSame(var, copy);
+            Assert.assertEquals(var, copy);
+            Assert.assertEquals(var.getNumberOfStates(), copy.getNumberOfStates());
+        }
+    }
+}
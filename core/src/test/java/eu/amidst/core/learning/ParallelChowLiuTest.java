@@ -0,0 +1,121 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.learning;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.learning.structural.ParallelChowLiu;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.models.DAG;
+import eu.amidst.core.utils.BayesianNetworkSampler;
+import eu.amidst.core.variables.Variable;
+import eu.amidst.core.variables.Variables;
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Checks that {@link ParallelChowLiu} recovers the tree of a sampled TAN model.
+ */
+public class ParallelChowLiuTest extends TestCase {
+
+    private BayesianNetwork bn;
+    private DataStream<DataInstance> data;
+
+    protected void setUp() {
+        Variables variables = new Variables();
+        Variable classVar = variables.newMultinomialVariable("C", 2);
+        Variable a = variables.newMultinomialVariable("A", 3);
+        Variable b = variables.newMultinomialVariable("B", 2);
+        Variable c = variables.newMultinomialVariable("D", 2);
+        Variable x = variables.newGaussianVariable("X");
+        Variable y = variables.newGaussianVariable("Y");
+
+        DAG dag = new DAG(variables);
+        for (Variable var : variables) {
+            if (!var.equals(classVar))
+                dag.getParentSet(var).addParent(classVar);
+        }
+        dag.getParentSet(b).addParent(a);
+        dag.getParentSet(c).addParent(a);
+        dag.getParentSet(x).addParent(b);
+        dag.getParentSet(y).addParent(x);
+
+        bn = new BayesianNetwork(dag);
+        bn.randomInitialization(new Random(0));
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(0);
+        data = sampler.sampleToDataStream(20000).toDataOnMemory();
+    }
+
+    public void testRecoversTAN() {
+        ParallelChowLiu chowLiu = new ParallelChowLiu();
+        chowLiu.setNameTarget("C");
+        chowLiu.setNameRoot("A");
+        chowLiu.setDataStream(data);
+        chowLiu.runLearning();
+        DAG learnt = chowLiu.getLearntDAG();
+
+        for (Variable var : bn.getVariables()) {
+            assertEquals(bn.getDAG().getParentSet(var).getNumberOfParents(), learnt.getParentSet(var).getNumberOfParents());
+            for (Variable parent : bn.getDAG().getParentSet(var)) {
+                assertTrue(learnt.getParentSet(var).contains(parent));
+            }
+        }
+    }
+
+    public void testBatchesAndSequentialMode() {
+        ParallelChowLiu parallel = new ParallelChowLiu();
+        parallel.setNameTarget("C");
+        parallel.setDataStream(data);
+        parallel.runLearning();
+
+        ParallelChowLiu batches = new ParallelChowLiu();
+        batches.setNameTarget("C");
+        batches.setParallelMode(false);
+        batches.initLearning();
+        for (DataOnMemory<DataInstance> batch : data.iterableOverBatches(777)) {
+            batches.updateModel(batch);
+        }
+
+        Variables variables = bn.getVariables();
+        for (Variable var1 : variables) {
+            for (Variable var2 : variables) {
+                if (var1.getVarID() < var2.getVarID() && !var1.getName().equals("C") && !var2.getName().equals("C"))
+                    assertEquals(parallel.getMutualInformation(var1, var2), batches.getMutualInformation(var1, var2), 1e-8);
+            }
+        }
+        assertEquals(parallel.getLearntDAG().toString(), batches.getLearntDAG().toString());
+    }
+
+    public void testNormalRoot() {
+        ParallelChowLiu chowLiu = new ParallelChowLiu();
+        chowLiu.setNameTarget("C");
+        chowLiu.setNameRoot("X");
+        chowLiu.setDataStream(data);
+        chowLiu.runLearning();
+        try {
+            chowLiu.getLearntDAG();
+            fail();
+        } catch (IllegalArgumentException ex) {
+            //Normal variables can not be parents of multinomial ones.
+        }
+    }
+}
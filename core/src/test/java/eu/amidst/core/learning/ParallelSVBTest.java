@@ -108,6 +108,46 @@ public class ParallelSVBTest extends TestCase {
     }
 
 
+    public static void testAsiaNcorePipelined() throws IOException, ClassNotFoundException{
+
+        BayesianNetwork asianet = BayesianNetworkLoader.loadFromFile("../networks/dataWeka/asia.bn");
+        asianet.randomInitialization(new Random(0));
+        if (Main.VERBOSE) System.out.println("\nAsia network \n ");
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(asianet);
+        sampler.setSeed(0);
+        DataStream<DataInstance> data = sampler.sampleToDataStream(10000);
+
+        for (int staleness : new int[]{0, 4}) {
+            SVB svb = new SVB();
+            svb.setWindowsSize(500);
+            svb.setSeed(5);
+            VMP vmp = svb.getPlateuStructure().getVMP();
+            vmp.setTestELBO(true);
+            vmp.setMaxIter(1000);
+            vmp.setThreshold(0.1);
+
+            ParallelSVB parallelSVB = new ParallelSVB();
+            parallelSVB.setNCores(4);
+            parallelSVB.setSVBEngine(svb);
+            parallelSVB.setPipelinedMode(true);
+            parallelSVB.setPrefetchSize(3);
+            parallelSVB.setStaleness(staleness);
+
+            parallelSVB.setDAG(asianet.getDAG());
+            parallelSVB.setDataStream(data);
+            parallelSVB.runLearning();
+
+            if (Main.VERBOSE) System.out.println(parallelSVB.getLogMarginalProbability());
+
+            BayesianNetwork learnAsianet = parallelSVB.getLearntBayesianNetwork();
+
+            if (Main.VERBOSE) System.out.println(learnAsianet.toString());
+            assertTrue(asianet.equalBNs(learnAsianet, 0.05));
+        }
+    }
+
+
     public static void testAsiaNcore2() throws IOException, ClassNotFoundException{
 
         BayesianNetwork asianet = BayesianNetworkLoader.loadFromFile("../networks/dataWeka/asia.bn");
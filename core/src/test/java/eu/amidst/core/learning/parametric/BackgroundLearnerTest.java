@@ -0,0 +1,100 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.learning.parametric;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.learning.parametric.bayesian.SVB;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.BayesianNetworkGenerator;
+import eu.amidst.core.utils.BayesianNetworkSampler;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that {@link BackgroundLearner} learns the same model as running the learning algorithm inline.
+ */
+public class BackgroundLearnerTest extends TestCase {
+
+    public void testSameModelAsInlineLearning() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(3);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(3, 2);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateNaiveBayes(2);
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(0);
+        List<DataOnMemory<DataInstance>> batches = sampler.sampleToDataStream(1000).streamOfBatches(100).collect(Collectors.toList());
+
+        SVB inline = new SVB();
+        inline.setDAG(bn.getDAG());
+        inline.initLearning();
+        for (DataOnMemory<DataInstance> batch : batches) {
+            inline.updateModel(batch);
+        }
+        BayesianNetwork expected = inline.getLearntBayesianNetwork();
+
+        SVB svb = new SVB();
+        svb.setDAG(bn.getDAG());
+        svb.initLearning();
+        BackgroundLearner<BayesianNetwork> learner = new BackgroundLearner<>(svb, Function.identity(), 1);
+        try {
+            assertNull(learner.getScorer());
+            for (DataOnMemory<DataInstance> batch : batches) {
+                learner.submit(batch);
+            }
+            learner.awaitPendingBatches();
+
+            assertEquals(batches.size(), learner.getNumberOfLearntBatches());
+            assertTrue(expected.equalBNs(learner.getScorer(), 1e-8));
+        } finally {
+            learner.close();
+        }
+    }
+
+    public void testFailureIsReported() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(0);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(2, 2);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateNaiveBayes(2);
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(0);
+        DataOnMemory<DataInstance> batch = sampler.sampleToDataStream(10).toDataOnMemory();
+
+        SVB svb = new SVB();
+        svb.setDAG(bn.getDAG());
+        svb.initLearning();
+        BackgroundLearner<BayesianNetwork> learner = new BackgroundLearner<>(svb, model -> {
+            throw new UnsupportedOperationException("No scorer");
+        });
+        try {
+            learner.submit(batch);
+            learner.awaitPendingBatches();
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getCause() instanceof UnsupportedOperationException);
+        } finally {
+            learner.close();
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.io.DataStreamLoader;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.variables.Variable;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the parallel sampling methods of {@link BayesianNetworkSampler}.
+ */
+public class BayesianNetworkSamplerTest extends TestCase {
+
+    private static final int N_SAMPLES = 2500;
+
+    private BayesianNetwork bn;
+
+    protected void setUp() {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(3);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(4, 2);
+        BayesianNetworkGenerator.setNumberOfLinks(8);
+        bn = BayesianNetworkGenerator.generateBayesianNetwork();
+    }
+
+    private BayesianNetworkSampler newSampler() {
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setSeed(1);
+        sampler.setChunkSize(100);
+        sampler.setHiddenVar(bn.getVariables().getVariableById(0));
+        sampler.setMARVar(bn.getVariables().getVariableById(1), 0.2);
+        return sampler;
+    }
+
+    private static void assertEqualData(List<double[]> expected, List<double[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(Arrays.equals(expected.get(i), actual.get(i)));
+        }
+    }
+
+    private static List<double[]> toArrays(DataStream<DataInstance> data) {
+        return data.stream().map(DataInstance::toArray).collect(Collectors.toList());
+    }
+
+    public void testIndependentOfTheNumberOfThreads() throws Exception {
+        ColumnarDataOnMemory parallel = newSampler().sampleToDataOnMemory(N_SAMPLES);
+        ColumnarDataOnMemory sequential = new ForkJoinPool(1).submit(() -> newSampler().sampleToDataOnMemory(N_SAMPLES)).get();
+
+        assertEquals(N_SAMPLES, parallel.getNumberOfDataInstances());
+        assertEqualData(toArrays(parallel), toArrays(sequential));
+
+        Variable hidden = bn.getVariables().getVariableById(0);
+        Variable mar = bn.getVariables().getVariableById(1);
+        assertTrue(parallel.stream().allMatch(d -> Utils.isMissingValue(d.getValue(hidden))));
+        long nMissing = parallel.stream().filter(d -> Utils.isMissingValue(d.getValue(mar))).count();
+        assertTrue(nMissing > 0.15 * N_SAMPLES && nMissing < 0.25 * N_SAMPLES);
+    }
+
+    public void testParallelDataStream() {
+        List<double[]> expected = toArrays(newSampler().sampleToDataOnMemory(N_SAMPLES));
+
+        DataStream<DataInstance> stream = newSampler().sampleToParallelDataStream(N_SAMPLES);
+        assertEqualData(expected, toArrays(stream));
+        assertEqualData(expected, toArrays(stream));
+    }
+
+    public void testSampleToBinaryFile() throws Exception {
+        File file = File.createTempFile("samples", ".bin");
+        file.deleteOnExit();
+
+        BayesianNetworkSampler sampler = newSampler();
+        sampler.sampleToFile(N_SAMPLES, file.getPath());
+
+        DataStream<DataInstance> data = DataStreamLoader.open(file.getPath());
+        assertEquals(bn.getNumberOfVars(), data.getAttributes().getNumberOfAttributes());
+        assertEqualData(toArrays(sampler.sampleToDataOnMemory(N_SAMPLES)), toArrays(data));
+        data.close();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks the {@link BoundedPool} class.
+ */
+public class BoundedPoolTest extends TestCase {
+
+    public void testBlockedWorkerIsCompensated() throws Exception {
+        BoundedPool<Object> pool = new BoundedPool<>(1, Object::new);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(1);
+        try {
+            //The only worker waits for the pooled object, which is only released once another task has run.
+            Object leased = pool.lease();
+            Future<Integer> waiting = forkJoinPool.submit(() -> pool.apply(object -> 1));
+            Future<Integer> other = forkJoinPool.submit(() -> 2);
+            assertEquals(2, (int) other.get(10, TimeUnit.SECONDS));
+            pool.release(leased);
+            assertEquals(1, (int) waiting.get(10, TimeUnit.SECONDS));
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+
+    public void testApplyAll() {
+        AtomicInteger created = new AtomicInteger();
+        BoundedPool<Integer> pool = new BoundedPool<>(2, created::incrementAndGet);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            assertEquals(Arrays.asList(10, 20, 30, 40, 50),
+                    pool.applyAll(Arrays.asList(1, 2, 3, 4, 5), (object, input) -> 10 * input, forkJoinPool));
+            assertTrue(created.get() <= pool.getCapacity());
+        } finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.io.DataStreamLoader;
+import eu.amidst.core.models.BayesianNetwork;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the {@link ExternalShuffler} class and the buffered shuffle of {@link DataStream}.
+ */
+public class ExternalShufflerTest extends TestCase {
+
+    private static final int N_SAMPLES = 3000;
+
+    private File directory;
+    private String inputPath;
+
+    protected void setUp() throws Exception {
+        BayesianNetworkGenerator.setSeed(0);
+        BayesianNetworkGenerator.setNumberOfGaussianVars(2);
+        BayesianNetworkGenerator.setNumberOfMultinomialVars(3, 2);
+        BayesianNetworkGenerator.setNumberOfLinks(5);
+        BayesianNetwork bn = BayesianNetworkGenerator.generateBayesianNetwork();
+
+        directory = Files.createTempDirectory("shuffle").toFile();
+        inputPath = new File(directory, "data.arff").getPath();
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(bn);
+        sampler.setMARVar(bn.getVariables().getVariableById(0), 0.1);
+        sampler.sampleToFile(N_SAMPLES, inputPath);
+    }
+
+    protected void tearDown() {
+        for (File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    private static List<String> toStrings(DataStream<DataInstance> data) {
+        return data.stream().map(d -> Arrays.toString(d.toArray())).collect(Collectors.toList());
+    }
+
+    private static void assertIsPermutation(List<String> expected, List<String> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertFalse(expected.equals(actual));
+        assertEquals(expected.stream().sorted().collect(Collectors.toList()), actual.stream().sorted().collect(Collectors.toList()));
+    }
+
+    public void testExternalShuffle() throws Exception {
+        String outputPath = new File(directory, "shuffled.arff").getPath();
+        ExternalShuffler shuffler = new ExternalShuffler();
+        shuffler.setSeed(1);
+        shuffler.setNumberOfBuckets(7);
+        shuffler.shuffle(inputPath, outputPath);
+
+        List<String> input = toStrings(DataStreamLoader.open(inputPath));
+        List<String> shuffled = toStrings(DataStreamLoader.open(outputPath));
+        assertIsPermutation(input, shuffled);
+
+        //The buckets have been removed, and the same seed gives the same shuffle.
+        assertEquals(2, directory.listFiles().length);
+        String binaryPath = new File(directory, "shuffled.bin").getPath();
+        shuffler.shuffle(inputPath, binaryPath);
+        assertEquals(shuffled, toStrings(DataStreamLoader.open(binaryPath)));
+    }
+
+    public void testHierarchicalScatter() throws Exception {
+        DataStream<DataInstance> data = DataStreamLoader.open(inputPath);
+        long rowSize = 8L * data.getAttributes().getFullListOfAttributes().size();
+
+        //At most 3 buckets are open at the same time, and each bucket holds at most 100 data instances.
+        ExternalShuffler shuffler = new ExternalShuffler();
+        shuffler.setSeed(2);
+        shuffler.setMaxOpenFiles(3);
+        shuffler.setBucketSize(100 * rowSize);
+
+        File bucketsDirectory = new File(directory, "buckets");
+        assertTrue(bucketsDirectory.mkdir());
+        Path[] buckets = shuffler.scatter(data, bucketsDirectory.toPath(), 1);
+        assertTrue(buckets.length >= N_SAMPLES / 100);
+        assertEquals(buckets.length, bucketsDirectory.listFiles().length);
+        long nRows = 0;
+        for (Path bucket : buckets) {
+            assertTrue(Files.size(bucket) <= 100 * rowSize);
+            nRows += Files.size(bucket) / rowSize;
+            Files.delete(bucket);
+        }
+        assertEquals(N_SAMPLES, nRows);
+        assertTrue(bucketsDirectory.delete());
+
+        String outputPath = new File(directory, "shuffled.arff").getPath();
+        shuffler.shuffle(inputPath, outputPath);
+        assertIsPermutation(toStrings(data), toStrings(DataStreamLoader.open(outputPath)));
+        data.close();
+    }
+
+    public void testBufferedShuffle() {
+        DataStream<DataInstance> data = DataStreamLoader.loadDataOnMemoryFromFile(inputPath);
+        List<String> input = toStrings(data);
+
+        DataStream<DataInstance> shuffled = data.shuffle(100, 1);
+        List<String> epoch0 = toStrings(shuffled);
+        List<String> epoch1 = toStrings(shuffled);
+        assertIsPermutation(input, epoch0);
+        assertIsPermutation(input, epoch1);
+        assertFalse(epoch0.equals(epoch1));
+
+        assertEquals(epoch0, toStrings(data.shuffle(100, 1)));
+    }
+}
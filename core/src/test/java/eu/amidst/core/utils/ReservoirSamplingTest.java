@@ -0,0 +1,135 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.utils;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.ColumnarDataOnMemory;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataStream;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the {@link ReservoirSampling} class.
+ */
+public class ReservoirSamplingTest extends TestCase {
+
+    private static Map<DataInstance, Integer> positions(DataOnMemory<DataInstance> data) {
+        Map<DataInstance, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < data.getNumberOfDataInstances(); i++)
+            positions.put(data.getDataInstance(i), i);
+        return positions;
+    }
+
+    public void testUniformSampling() {
+        DataOnMemory<DataInstance> data = DataSetGenerator.generate(0, 1000, 2, 2).toDataOnMemory();
+        Map<DataInstance, Integer> positions = positions(data);
+
+        int[] counts = new int[1000];
+        for (int seed = 0; seed < 2000; seed++) {
+            DataOnMemory<DataInstance> sample = ReservoirSampling.samplingNumberOfSamples(100, data, seed);
+            assertEquals(100, sample.getNumberOfDataInstances());
+            for (DataInstance instance : sample.getList())
+                counts[positions.get(instance)]++;
+
+            //The skips over a data set and over a stream give the same sample.
+            if (seed < 20) {
+                DataOnMemory<DataInstance> streamSample = ReservoirSampling.samplingNumberOfSamples(100, data.filter(d -> true), seed);
+                assertEquals(sample.getList(), streamSample.getList());
+            }
+        }
+
+        //Each data instance is expected to be sampled 200 times.
+        for (int count : counts)
+            assertTrue(count > 120 && count < 280);
+    }
+
+    public void testParallelSampling() {
+        DataOnMemory<DataInstance> data = DataSetGenerator.generate(0, 20000, 2, 2).toDataOnMemory();
+        Map<DataInstance, Integer> positions = positions(data);
+
+        int firstHalf = 0;
+        for (int seed = 0; seed < 50; seed++) {
+            DataOnMemory<DataInstance> sample = ReservoirSampling.parallelSamplingNumberOfSamples(500, data, seed, 1000);
+            assertEquals(500, sample.getNumberOfDataInstances());
+            Set<Integer> sampled = sample.stream().map(positions::get).collect(Collectors.toSet());
+            assertEquals(500, sampled.size());
+            firstHalf += sampled.stream().filter(i -> i < 10000).count();
+        }
+        assertEquals(0.5, firstHalf / 25000.0, 0.02);
+
+        assertEquals(data.getNumberOfDataInstances(),
+                ReservoirSampling.parallelSamplingNumberOfSamples(30000, data, 0, 1000).getNumberOfDataInstances());
+    }
+
+    public void testParallelSamplingDoesNotDependOnThreads() throws Exception {
+        DataOnMemory<DataInstance> data = DataSetGenerator.generate(0, 20000, 2, 2).toDataOnMemory();
+        Map<DataInstance, Integer> positions = positions(data);
+
+        List<Integer> expected = null;
+        for (int nThreads : new int[]{1, 3, Runtime.getRuntime().availableProcessors()}) {
+            ForkJoinPool pool = new ForkJoinPool(nThreads);
+            try {
+                List<Integer> sampled = pool.submit(() -> ReservoirSampling.parallelSamplingNumberOfSamples(300, data, 7, 100))
+                        .get().stream().map(positions::get).collect(Collectors.toList());
+                if (expected == null)
+                    expected = sampled;
+                assertEquals(expected, sampled);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        assertEquals(expected, ReservoirSampling.parallelSamplingNumberOfSamples(300, data, 7, 100)
+                .stream().map(positions::get).collect(Collectors.toList()));
+    }
+
+    public void testStratifiedSampling() {
+        DataOnMemory<DataInstance> data = DataSetGenerator.generate(0, 5000, 2, 2).toDataOnMemory();
+        Attribute classAtt = data.getAttributes().getFullListOfAttributes().get(0);
+        Map<Double, Long> classCounts = data.stream().collect(Collectors.groupingBy(d -> d.getValue(classAtt), Collectors.counting()));
+
+        DataOnMemory<DataInstance> sample = ReservoirSampling.stratifiedSamplingNumberOfSamples(300, data, classAtt, 0);
+        Map<Double, Long> sampleCounts = sample.stream().collect(Collectors.groupingBy(d -> d.getValue(classAtt), Collectors.counting()));
+
+        assertEquals(classCounts.keySet(), sampleCounts.keySet());
+        for (Double value : classCounts.keySet())
+            assertEquals(Math.min(300, classCounts.get(value)), (long) sampleCounts.get(value));
+    }
+
+    public void testSamplingNumberOfGBs() {
+        DataStream<DataInstance> data = DataSetGenerator.generate(0, 1000, 2, 2);
+        int nAtts = data.getAttributes().getNumberOfAttributes();
+        double numberOfGB = 50 * 8.0 * nAtts / (0.9 * 1073741824.0);
+
+        DataOnMemory sample = ReservoirSampling.samplingNumberOfGBs(numberOfGB, data);
+        assertTrue(sample instanceof ColumnarDataOnMemory);
+        assertEquals(50, sample.getNumberOfDataInstances(), 1);
+
+        List<String> rows = data.stream().map(d -> Arrays.toString(d.toArray())).collect(Collectors.toList());
+        for (Object instance : sample.getList())
+            assertTrue(rows.contains(Arrays.toString(((DataInstance) instance).toArray())));
+    }
+}
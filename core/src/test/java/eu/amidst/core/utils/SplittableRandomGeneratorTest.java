@@ -0,0 +1,46 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+package eu.amidst.core.utils;
+
+import junit.framework.TestCase;
+
+import java.util.SplittableRandom;
+
+/**
+ * Checks the {@link SplittableRandomGenerator} class.
+ */
+public class SplittableRandomGeneratorTest extends TestCase {
+
+    public void testSetSeed() {
+        SplittableRandomGenerator random = new SplittableRandomGenerator(new SplittableRandom(1));
+        random.nextDouble();
+        random.nextGaussian();
+
+        random.setSeed(5);
+        SplittableRandom expected = new SplittableRandom(5);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.nextLong(), random.nextLong());
+        }
+
+        //Reseeding restarts the sequence, also for the generators created from a seed.
+        SplittableRandomGenerator seeded = new SplittableRandomGenerator(5);
+        random.setSeed(5);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(seeded.nextGaussian(), random.nextGaussian());
+        }
+    }
+}
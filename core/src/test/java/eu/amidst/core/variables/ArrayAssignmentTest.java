@@ -0,0 +1,96 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.core.variables;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the behaviour of {@link ArrayAssignment} against {@link HashMapAssignment}.
+ */
+public class ArrayAssignmentTest extends TestCase {
+
+    public void testSetAndGetValues() {
+        Variables variables = new Variables();
+        Variable a = variables.newMultinomialVariable("A", 2);
+        Variable b = variables.newGaussianVariable("B");
+        Variable c = variables.newGaussianVariable("C");
+
+        ArrayAssignment assignment = variables.newAssignment();
+        assertTrue(Double.isNaN(assignment.getValue(a)));
+        assertTrue(assignment.getVariables().isEmpty());
+
+        assignment.setValue(a, 1);
+        assignment.setValue(c, 0.5);
+
+        assertEquals(1.0, assignment.getValue(a));
+        assertTrue(Double.isNaN(assignment.getValue(b)));
+        assertEquals(0.5, assignment.getValue(c));
+        assertEquals(2, assignment.getVariables().size());
+
+        HashMapAssignment hashMapAssignment = new HashMapAssignment(assignment);
+        ArrayAssignment copy = new ArrayAssignment(hashMapAssignment);
+        assertEquals(1.0, copy.getValue(a));
+        assertEquals(0.5, copy.getValue(c));
+        assertEquals(assignment.getVariables(), copy.getVariables());
+    }
+
+    public void testVariablesFromDifferentObjects() {
+        Variables variables = new Variables();
+        Variable a = variables.newMultinomialVariable("A", 2);
+
+        ArrayAssignment assignment = new ArrayAssignment(0);
+        assignment.setValue(a, 1);
+
+        //A variable with the same ID but different class is not confused with A.
+        Variable other = new Variable() {
+            @Override public String getName() { return "Other"; }
+            @Override public int getVarID() { return 0; }
+            @Override public boolean isObservable() { return true; }
+            @Override public <E extends StateSpaceType> E getStateSpaceType() { return a.getStateSpaceType(); }
+            @Override public int getNumberOfStates() { return 2; }
+            @Override public DistributionTypeEnum getDistributionTypeEnum() { return a.getDistributionTypeEnum(); }
+            @Override public <E extends DistributionType> E getDistributionType() { return a.getDistributionType(); }
+            @Override public boolean isInterfaceVariable() { return false; }
+            @Override public boolean isDynamicVariable() { return false; }
+            @Override public boolean isParameterVariable() { return true; }
+            @Override public eu.amidst.core.datastream.Attribute getAttribute() { return null; }
+            @Override public VariableBuilder getVariableBuilder() { return null; }
+            @Override public int hashCode() { return 0; }
+            @Override public boolean equals(Object o) { return this == o; }
+        };
+
+        assertTrue(Double.isNaN(assignment.getValue(other)));
+
+        //Both variables are stored, as in a HashMapAssignment.
+        assignment.setValue(other, 0);
+        assertEquals(1.0, assignment.getValue(a));
+        assertEquals(0.0, assignment.getValue(other));
+        assertEquals(2, assignment.getVariables().size());
+
+        ArrayAssignment copy = new ArrayAssignment(assignment);
+        copy.setValue(other, 1);
+        assertEquals(1.0, copy.getValue(a));
+        assertEquals(1.0, copy.getValue(other));
+        assertEquals(0.0, assignment.getValue(other));
+
+        HashMapAssignment hashMapAssignment = new HashMapAssignment(copy);
+        assertEquals(copy.getVariables(), hashMapAssignment.getVariables());
+        assertEquals(1.0, new ArrayAssignment(hashMapAssignment).getValue(other));
+    }
+
+}
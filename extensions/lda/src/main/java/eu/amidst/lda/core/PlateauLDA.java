@@ -20,6 +20,8 @@ import eu.amidst.core.inference.messagepassing.Node;
 import eu.amidst.core.inference.messagepassing.VMP;
 import eu.amidst.core.learning.parametric.bayesian.utils.PlateuStructure;
 import eu.amidst.core.models.DAG;
+import eu.amidst.core.models.ParentSet;
+import eu.amidst.core.utils.SparseVectorDefaultValue;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.core.variables.Variables;
 
@@ -95,7 +97,7 @@ public class PlateauLDA extends PlateuStructure {
 
 
         List<EF_ConditionalDistribution> dists = dagLDA.getParentSets().stream()
-                .map(pSet -> pSet.getMainVar().getDistributionType().<EF_ConditionalDistribution>newEFConditionalDistribution(pSet.getParents()))
+                .map(pSet -> newEFConditionalDistribution(pSet))
                 .collect(Collectors.toList());
 
         ef_learningmodel = new EF_LearningBayesianNetwork(dists);
@@ -120,13 +122,26 @@ public class PlateauLDA extends PlateuStructure {
 
             NaturalParameters vec = this.ef_learningmodel.getDistribution(variable).getNaturalParameters();
 
-            for (int i = 0; i < vec.size(); i++) {
-                vec.set(i, TOPIC_PRIOR);
+            if (vec instanceof SparseVectorDefaultValue) {
+                ((SparseVectorDefaultValue) vec).setDefaultValue(TOPIC_PRIOR);
+            } else {
+                for (int i = 0; i < vec.size(); i++) {
+                    vec.set(i, TOPIC_PRIOR);
+                }
             }
         }
 
     }
 
+    /**
+     * Creates the exponential family distribution of a given parent set of the LDA DAG.
+     * @param pSet a {@link ParentSet} object.
+     * @return an {@link EF_ConditionalDistribution} object.
+     */
+    EF_ConditionalDistribution newEFConditionalDistribution(ParentSet pSet) {
+        return pSet.getMainVar().getDistributionType().newEFConditionalDistribution(pSet.getParents());
+    }
+
     /**
      * Sets the evidence for this PlateuStructure.
      *
@@ -407,7 +422,7 @@ public class PlateauLDA extends PlateuStructure {
         return local_elbo;
     }
 
-    private boolean testConvergence() {
+    boolean testConvergence() {
         boolean convergence = false;
 
         //Compute lower-bound
@@ -429,7 +444,7 @@ public class PlateauLDA extends PlateuStructure {
         return convergence;
     }
 
-    private double computeELBO() {
+    double computeELBO() {
 
 
         double elbo = this.vmp.getNodes().parallelStream().filter(node -> node.isActive() && !node.isObserved()).mapToDouble(node -> this.vmp.computeELBO(node)).sum();
@@ -448,8 +463,8 @@ public class PlateauLDA extends PlateuStructure {
                     int wordIndex = (int) node.getAssignment().getValue(node.getMainVariable())%node.getMainVariable().getNumberOfStates();
 
                     for (int i = 0; i < topicMoments.size(); i++) {
-                        EF_SparseMultinomial_Dirichlet dist = (EF_SparseMultinomial_Dirichlet)base.getBaseEFConditionalDistribution(i);
-                        MomentParameters dirichletMoments = momentParents.get(dist.getDirichletVariable());
+                        Variable dirichletVariable = base.getBaseEFConditionalDistribution(i).getConditioningVariables().get(0);
+                        MomentParameters dirichletMoments = momentParents.get(dirichletVariable);
                         localELBO += node.getSufficientStatistics().get(wordIndex)*dirichletMoments.get(wordIndex)*topicMoments.get(i);
                     }
 
@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.  See the NOTICE file distributed with this work for additional information regarding copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package eu.amidst.lda.core;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.Attributes;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.exponentialfamily.EF_BaseDistribution_MultinomialParents;
+import eu.amidst.core.exponentialfamily.EF_ConditionalDistribution;
+import eu.amidst.core.exponentialfamily.EF_SparseDirichlet;
+import eu.amidst.core.exponentialfamily.EF_SparseMultinomial;
+import eu.amidst.core.exponentialfamily.NaturalParameters;
+import eu.amidst.core.inference.messagepassing.Message;
+import eu.amidst.core.inference.messagepassing.Node;
+import eu.amidst.core.models.ParentSet;
+import eu.amidst.core.variables.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * This class extends {@link PlateauLDA} for large vocabularies and long streams of documents.
+ *
+ * <p> The topic-word distributions are {@link EF_SparseDirichlet} parameters, which only store the words observed so
+ * far, and they are updated by adding the expected counts of the words of the batch, instead of combining one message
+ * per word node. The nodes of the documents are kept in pools and reused across batches, so that a new batch only
+ * sets the evidence of the word nodes and allocates nodes for the documents or words exceeding the pool. </p>
+ */
+public class PlateauSparseLDA extends PlateauLDA {
+
+    /** Represents the pooled nodes, one {@link DocumentNodes} object per document position in the batch. */
+    transient List<DocumentNodes> documentPool;
+
+    /** Represents the topic-word Dirichlet nodes, indexed by topic. */
+    transient Node[] topicWordNodes;
+
+    /** Represents the topic nodes of the words of the current batch. */
+    transient Node[] batchTopicNodes;
+
+    /** Represents the word ids of the current batch. */
+    transient int[] batchWordIds;
+
+    /** Represents the word counts of the current batch. */
+    transient double[] batchWordCounts;
+
+    public PlateauSparseLDA(Attributes attributes, String wordDocumentName, String wordCountName) {
+        super(attributes, wordDocumentName, wordCountName);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The topic-word distributions are defined with a sparse Dirichlet parameter.
+     */
+    @Override
+    EF_ConditionalDistribution newEFConditionalDistribution(ParentSet pSet) {
+        EF_ConditionalDistribution dist = super.newEFConditionalDistribution(pSet);
+
+        if (pSet.getMainVar() == word) {
+            EF_BaseDistribution_MultinomialParents<EF_SparseMultinomial> base = (EF_BaseDistribution_MultinomialParents<EF_SparseMultinomial>) dist;
+            for (int i = 0; i < base.numberOfConfigurations(); i++) {
+                base.getBaseEFDistribution(i).setSparseDirichletParameter(true);
+            }
+        }
+
+        return dist;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replicateModel() {
+        super.replicateModel();
+
+        EF_BaseDistribution_MultinomialParents base = (EF_BaseDistribution_MultinomialParents) ef_learningmodel.getDistribution(word);
+        topicWordNodes = new Node[base.numberOfConfigurations()];
+        for (int k = 0; k < topicWordNodes.length; k++) {
+            Variable dirichletVariable = base.getBaseEFConditionalDistribution(k).getConditioningVariables().get(0);
+            topicWordNodes[k] = this.getNodeOfNonReplicatedVar(dirichletVariable);
+        }
+
+        //The pooled word nodes point to the topic-word nodes, so they can not be reused.
+        documentPool = new ArrayList<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The nodes of the documents are taken from the pool, which only grows when the batch has more documents, or
+     * longer documents, than the previous ones.
+     */
+    @Override
+    public void setEvidence(List<? extends DataInstance> data) {
+        this.data = data;
+
+        int nWords = data.size();
+        batchTopicNodes = new Node[nWords];
+        batchWordIds = new int[nWords];
+        batchWordCounts = new double[nWords];
+
+        replicatedNodes = new ArrayList<>();
+        List<Node> wordNodes = new ArrayList<>(nWords);
+
+        Attribute seqIDAtt = this.attributes.getSeq_id();
+        int nDocs = 0;
+        int start = 0;
+        for (int i = 1; i <= nWords; i++) {
+
+            if (i < nWords && data.get(i).getValue(seqIDAtt) == data.get(start).getValue(seqIDAtt))
+                continue;
+
+            DocumentNodes document = this.getDocumentNodes(nDocs++, i - start);
+            List<Node> documentNodes = new ArrayList<>(2 * (i - start) + 1);
+            documentNodes.add(document.mixingNode);
+
+            for (int j = start; j < i; j++) {
+                Node nodeTopic = document.topicNodes.get(j - start);
+                Node nodeWord = document.wordNodes.get(j - start);
+
+                nodeWord.setAssignment(data.get(j));
+                nodeWord.getSufficientStatistics().multiplyBy(data.get(j).getValue(wordCountAtt));
+
+                batchTopicNodes[j] = nodeTopic;
+                batchWordIds[j] = (int) data.get(j).getValue(word);
+                batchWordCounts[j] = data.get(j).getValue(wordCountAtt);
+
+                documentNodes.add(nodeTopic);
+                documentNodes.add(nodeWord);
+                wordNodes.add(nodeWord);
+            }
+
+            document.mixingNode.setChildren(document.topicNodes.subList(0, i - start));
+            replicatedNodes.add(documentNodes);
+            start = i;
+        }
+
+        for (Node nonReplictedNode : nonReplictedNodes) {
+            nonReplictedNode.setChildren(wordNodes);
+        }
+
+        List<Node> allNodes = new ArrayList<>();
+        allNodes.addAll(this.nonReplictedNodes);
+        for (List<Node> documentNodes : replicatedNodes) {
+            allNodes.addAll(documentNodes);
+        }
+        this.vmp.setNodes(allNodes);
+
+        //The Q's of the pooled nodes are reset in place.
+        this.getReplicatedNodes().filter(node -> !node.isObserved()).forEach(node -> {
+            node.getQDist().randomInitialization(this.vmp.getRandom());
+        });
+    }
+
+    /**
+     * Returns the pooled nodes of the document at a given position of the batch, with at least a given number of words.
+     * @param position the position of the document in the batch.
+     * @param nWords the number of words of the document.
+     * @return a {@link DocumentNodes} object.
+     */
+    private DocumentNodes getDocumentNodes(int position, int nWords) {
+        if (position == documentPool.size()) {
+            Node nodeDirichletMixingTopics = new Node(ef_learningmodel.getDistribution(dirichletMixingTopics));
+            nodeDirichletMixingTopics.setCompiled(true);
+            documentPool.add(new DocumentNodes(nodeDirichletMixingTopics));
+        }
+
+        DocumentNodes document = documentPool.get(position);
+
+        while (document.topicNodes.size() < nWords) {
+            Node nodeTopic = new Node(ef_learningmodel.getDistribution(topicIndicator));
+            Node nodeWord = new Node(ef_learningmodel.getDistribution(word));
+
+            nodeTopic.setParents(Arrays.asList(document.mixingNode));
+            nodeTopic.setChildren(Arrays.asList(nodeWord));
+
+            List<Node> p = new ArrayList<>();
+            p.addAll(this.nonReplictedNodes);
+            p.add(nodeTopic);
+            nodeWord.setParents(p);
+
+            nodeTopic.setCompiled(true);
+            nodeWord.setCompiled(true);
+
+            document.topicNodes.add(nodeTopic);
+            document.wordNodes.add(nodeWord);
+        }
+
+        return document;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The documents are updated in parallel, and then the topic-word nodes are updated in parallel, one per topic.
+     */
+    @Override
+    public void runInference() {
+
+        boolean convergence = false;
+        local_elbo = Double.NEGATIVE_INFINITY;
+        local_iter = 0;
+        while (!convergence && (local_iter++) < this.vmp.getMaxIter()) {
+
+            this.replicatedNodes
+                    .parallelStream()
+                    .forEach(nodes -> {
+                        for (Node node : nodes) {
+                            if (!node.isActive() || node.isObserved())
+                                continue;
+
+                            Message<NaturalParameters> selfMessage = this.vmp.newSelfMessage(node);
+
+                            Optional<Message<NaturalParameters>> message = node.getChildren()
+                                    .stream()
+                                    .filter(children -> children.isActive())
+                                    .map(children -> this.vmp.newMessageToParent(children, node))
+                                    .reduce(Message::combineNonStateless);
+
+                            if (message.isPresent())
+                                selfMessage.combine(message.get());
+
+                            this.vmp.updateCombinedMessage(node, selfMessage);
+                        }
+                    });
+
+            IntStream.range(0, topicWordNodes.length)
+                    .parallel()
+                    .filter(topic -> topicWordNodes[topic].isActive())
+                    .forEach(topic -> this.updateTopicWordNode(topic));
+
+            convergence = this.testConvergence();
+        }
+
+        if (this.vmp.isOutput()) {
+            System.out.println("N Iter: " + local_iter + ", elbo:" + local_elbo);
+        }
+    }
+
+    /**
+     * Updates the Dirichlet node of a given topic. The message of each word node to this node only has a non-zero
+     * entry, the word id weighted by its count and the probability of the topic, so the messages are directly added
+     * to the sparse natural parameters.
+     * @param topic the index of the topic.
+     */
+    private void updateTopicWordNode(int topic) {
+        Node node = topicWordNodes[topic];
+
+        Message<NaturalParameters> selfMessage = this.vmp.newSelfMessage(node);
+        NaturalParameters naturalParameters = selfMessage.getVector();
+
+        for (int i = 0; i < batchWordIds.length; i++) {
+            double expectedCount = batchWordCounts[i] * batchTopicNodes[i].getQMomentParameters().get(topic);
+            naturalParameters.set(batchWordIds[i], naturalParameters.get(batchWordIds[i]) + expectedCount);
+        }
+
+        this.vmp.updateCombinedMessage(node, selfMessage);
+    }
+
+    /**
+     * This class groups the pooled nodes of a document: the Dirichlet node of its topic mixture, and the topic and
+     * word nodes of its words, which are linked once when they are created.
+     */
+    static class DocumentNodes {
+
+        /** Represents the Dirichlet node of the topic mixture. */
+        final Node mixingNode;
+
+        /** Represents the topic nodes, children of the mixing node. */
+        final List<Node> topicNodes = new ArrayList<>();
+
+        /** Represents the word nodes, children of the topic nodes at the same position. */
+        final List<Node> wordNodes = new ArrayList<>();
+
+        DocumentNodes(Node mixingNode) {
+            this.mixingNode = mixingNode;
+        }
+    }
+}
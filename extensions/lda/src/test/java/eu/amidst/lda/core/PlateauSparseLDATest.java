@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.  See the NOTICE file distributed with this work for additional information regarding copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *
+ * See the License for the specific language governing permissions and limitations under the License.
+ *
+ */
+
+package eu.amidst.lda.core;
+
+import eu.amidst.core.datastream.Attribute;
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.exponentialfamily.NaturalParameters;
+import eu.amidst.core.inference.messagepassing.Node;
+import eu.amidst.core.io.DataStreamLoader;
+import eu.amidst.core.utils.SparseVectorDefaultValue;
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tests the pooled nodes and the sparse topic-word updates of {@link PlateauSparseLDA}.
+ */
+public class PlateauSparseLDATest extends TestCase {
+
+    public static void testPooledNodes() {
+
+        DataStream<DataInstance> dataInstances = DataStreamLoader.open("../../datasets/simulated/simulatedText.arff");
+
+        List<DataOnMemory<DataInstance>> listA =
+                BatchSpliteratorByID.streamOverDocuments(dataInstances, 2).collect(Collectors.toList());
+
+        PlateauSparseLDA plateauLDA = new PlateauSparseLDA(dataInstances.getAttributes(), "word", "count");
+        plateauLDA.setDAG(null);
+        plateauLDA.setNTopics(2);
+        plateauLDA.replicateModel();
+        plateauLDA.setEvidence(listA.get(0).getList());
+
+        assertEquals(2, plateauLDA.getNonReplictedNodes().count());
+        assertEquals(2 * 3 + 1 + 2 * 3 + 1, plateauLDA.getReplicatedNodes().count());
+        plateauLDA.getNonReplictedNodes().forEach(node -> assertEquals(6, node.getChildren().size()));
+
+        Attribute count = listA.get(0).getAttributes().getAttributeByName("count");
+        List<Node> listNodeWords = plateauLDA.getReplicatedNodes()
+                .filter(node -> node.getName().compareTo(plateauLDA.word.getName()) == 0)
+                .collect(Collectors.toList());
+        for (int i = 0; i < listA.get(0).getList().size(); i++) {
+            DataInstance instance = listA.get(0).getDataInstance(i);
+            assertEquals(instance.getValue(count), listNodeWords.get(i).getSufficientStatistics().get((int) instance.getValue(plateauLDA.word)));
+        }
+
+        Set<Node> firstBatchNodes = plateauLDA.getReplicatedNodes().collect(Collectors.toSet());
+
+        //The second batch has two documents with 2 and 1 words, so all its nodes are taken from the pool.
+        plateauLDA.setEvidence(listA.get(1).getList());
+
+        assertEquals(2 * 2 + 1 + 2 * 1 + 1, plateauLDA.getReplicatedNodes().count());
+        plateauLDA.getReplicatedNodes().forEach(node -> assertTrue(firstBatchNodes.contains(node)));
+        plateauLDA.getNonReplictedNodes().forEach(node -> assertEquals(3, node.getChildren().size()));
+
+        plateauLDA.getReplicatedNodes()
+                .filter(node -> node.getName().compareTo(plateauLDA.dirichletMixingTopics.getName()) == 0)
+                .forEach(node -> assertTrue(node.getChildren().size() == 2 || node.getChildren().size() == 1));
+    }
+
+    public static void testSparseTopicWordPosterior() {
+
+        DataStream<DataInstance> dataInstances = DataStreamLoader.open("../../datasets/simulated/simulatedText.arff");
+
+        List<DataOnMemory<DataInstance>> listA =
+                BatchSpliteratorByID.streamOverDocuments(dataInstances, 2).collect(Collectors.toList());
+
+        PlateauSparseLDA plateauLDA = new PlateauSparseLDA(dataInstances.getAttributes(), "word", "count");
+        plateauLDA.setDAG(null);
+        plateauLDA.setNTopics(2);
+        plateauLDA.getVMP().setMaxIter(100);
+        plateauLDA.getVMP().setThreshold(0.0001);
+
+        plateauLDA.replicateModel();
+        plateauLDA.resetQs();
+        plateauLDA.setEvidence(listA.get(0).getList());
+        plateauLDA.runInference();
+
+        //The word 4 is not observed, and the expected counts of the topics add up to the 18 words of the batch.
+        double expectedCounts = 0;
+        for (Node node : plateauLDA.getNonReplictedNodes().collect(Collectors.toList())) {
+            SparseVectorDefaultValue naturalParameters = (SparseVectorDefaultValue) node.getQDist().getNaturalParameters();
+            assertEquals(PlateauLDA.TOPIC_PRIOR, naturalParameters.getDefaultValue(), 0.0);
+            assertFalse(naturalParameters.getNonZeroEntries().contains(4));
+            for (Integer word : naturalParameters.getNonZeroEntries()) {
+                expectedCounts += naturalParameters.get(word) - PlateauLDA.TOPIC_PRIOR;
+            }
+        }
+        assertEquals(18, expectedCounts, 1e-6);
+
+        plateauLDA.updateNaturalParameterPrior(plateauLDA.getPlateauNaturalParameterPosterior());
+        plateauLDA.setEvidence(listA.get(1).getList());
+        plateauLDA.runInference();
+
+        assertFalse(Double.isNaN(plateauLDA.getLogProbabilityOfEvidence()));
+    }
+
+    public static void testMatchesDensePlateau() {
+
+        DataStream<DataInstance> dataInstances = DataStreamLoader.open("../../datasets/simulated/simulatedText.arff");
+
+        List<DataOnMemory<DataInstance>> listA =
+                BatchSpliteratorByID.streamOverDocuments(dataInstances, 2).collect(Collectors.toList());
+
+        PlateauLDA denseLDA = new PlateauLDA(dataInstances.getAttributes(), "word", "count");
+        PlateauSparseLDA sparseLDA = new PlateauSparseLDA(dataInstances.getAttributes(), "word", "count");
+
+        for (PlateauLDA plateauLDA : new PlateauLDA[]{denseLDA, sparseLDA}) {
+            plateauLDA.setDAG(null);
+            plateauLDA.setNTopics(2);
+            plateauLDA.getVMP().setMaxIter(100);
+            plateauLDA.getVMP().setThreshold(0.0001);
+            plateauLDA.getVMP().setSeed(0);
+            plateauLDA.replicateModel();
+            initializeTopicWordNodes(plateauLDA);
+        }
+
+        //Both plateaus draw the same initial Q's of the documents, so they must reach the same posteriors.
+        for (DataOnMemory<DataInstance> batch : listA) {
+            for (PlateauLDA plateauLDA : new PlateauLDA[]{denseLDA, sparseLDA}) {
+                plateauLDA.setEvidence(batch.getList());
+                plateauLDA.runInference();
+            }
+
+            assertEquals(denseLDA.getLogProbabilityOfEvidence(), sparseLDA.getLogProbabilityOfEvidence(), 1e-6);
+
+            List<Node> denseNodes = denseLDA.getNonReplictedNodes().collect(Collectors.toList());
+            List<Node> sparseNodes = sparseLDA.getNonReplictedNodes().collect(Collectors.toList());
+            assertEquals(denseNodes.size(), sparseNodes.size());
+            for (int k = 0; k < denseNodes.size(); k++) {
+                NaturalParameters dense = denseNodes.get(k).getQDist().getNaturalParameters();
+                NaturalParameters sparse = sparseNodes.get(k).getQDist().getNaturalParameters();
+                for (int word = 0; word < denseLDA.word.getNumberOfStates(); word++) {
+                    assertEquals(dense.get(word), sparse.get(word), 1e-6);
+                }
+            }
+
+            for (PlateauLDA plateauLDA : new PlateauLDA[]{denseLDA, sparseLDA}) {
+                plateauLDA.updateNaturalParameterPrior(plateauLDA.getPlateauNaturalParameterPosterior());
+            }
+        }
+    }
+
+    /**
+     * Sets the same Q's of the topic-word nodes, which are otherwise randomly initialized in a different way by the
+     * dense and the sparse Dirichlet distributions.
+     * @param plateauLDA a {@link PlateauLDA} object.
+     */
+    private static void initializeTopicWordNodes(PlateauLDA plateauLDA) {
+        List<Node> nodes = plateauLDA.getNonReplictedNodes().collect(Collectors.toList());
+        for (int k = 0; k < nodes.size(); k++) {
+            NaturalParameters naturalParameters = nodes.get(k).getQDist().getNaturalParameters();
+            for (int word = 0; word < plateauLDA.word.getNumberOfStates(); word++) {
+                naturalParameters.set(word, 1 + k + 0.5 * word);
+            }
+            nodes.get(k).getQDist().updateMomentFromNaturalParameters();
+        }
+    }
+}
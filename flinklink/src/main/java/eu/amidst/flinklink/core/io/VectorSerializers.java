@@ -0,0 +1,94 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.flinklink.core.io;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import eu.amidst.core.utils.ArrayVector;
+import eu.amidst.core.utils.CompoundVector;
+import eu.amidst.core.utils.Vector;
+import org.apache.flink.api.common.ExecutionConfig;
+
+/**
+ * This class defines the Kryo serializers of the vectors shipped between Flink operators, such as sufficient
+ * statistics. Without them, Flink falls back to the generic Kryo field serializer, which walks the object graph
+ * by reflection.
+ */
+public final class VectorSerializers {
+
+    private VectorSerializers() {
+    }
+
+    /**
+     * Registers the serializers of {@link ArrayVector} and {@link CompoundVector} in a given execution config.
+     * Registering them more than once has no effect.
+     * @param config an {@link ExecutionConfig} object.
+     */
+    public static void registerSerializers(ExecutionConfig config) {
+        config.registerTypeWithKryoSerializer(ArrayVector.class, ArrayVectorSerializer.class);
+        config.registerTypeWithKryoSerializer(CompoundVector.class, CompoundVectorSerializer.class);
+    }
+
+    /**
+     * Serializes an {@link ArrayVector} as its length followed by its values.
+     */
+    public static class ArrayVectorSerializer extends Serializer<ArrayVector> {
+
+        @Override
+        public void write(Kryo kryo, Output output, ArrayVector vector) {
+            double[] values = vector.toArray();
+            output.writeInt(values.length, true);
+            output.writeDoubles(values);
+        }
+
+        @Override
+        public ArrayVector read(Kryo kryo, Input input, Class<ArrayVector> type) {
+            int length = input.readInt(true);
+            return new ArrayVector(input.readDoubles(length));
+        }
+    }
+
+    /**
+     * Serializes a {@link CompoundVector} as its size and number of base vectors, followed by the base vectors.
+     * Base vectors are written with their class, since they depend on the distribution they belong to.
+     */
+    public static class CompoundVectorSerializer extends Serializer<CompoundVector> {
+
+        @Override
+        public void write(Kryo kryo, Output output, CompoundVector vector) {
+            output.writeInt(vector.size(), true);
+            output.writeInt(vector.getNumberOfBaseVectors(), true);
+            for (int i = 0; i < vector.getNumberOfBaseVectors(); i++) {
+                kryo.writeClassAndObject(output, vector.getVectorByPosition(i));
+            }
+        }
+
+        @Override
+        public CompoundVector read(Kryo kryo, Input input, Class<CompoundVector> type) {
+            int size = input.readInt(true);
+            int nVectors = input.readInt(true);
+            CompoundVector vector = new CompoundVector(nVectors, size);
+            for (int i = 0; i < nVectors; i++) {
+                vector.setVectorByPosition(i, (Vector) kryo.readClassAndObject(input));
+            }
+            return vector;
+        }
+    }
+}
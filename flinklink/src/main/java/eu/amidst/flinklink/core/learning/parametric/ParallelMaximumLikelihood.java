@@ -23,14 +23,19 @@ import eu.amidst.core.exponentialfamily.EF_BayesianNetwork;
 import eu.amidst.core.exponentialfamily.SufficientStatistics;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
+import eu.amidst.core.utils.ArrayVector;
 import eu.amidst.flinklink.core.data.DataFlink;
 import eu.amidst.core.utils.Serialization;
+import eu.amidst.flinklink.core.io.VectorSerializers;
 import org.apache.flink.api.common.JobExecutionResult;
 import org.apache.flink.api.common.accumulators.DoubleCounter;
 import org.apache.flink.api.common.functions.RichMapFunction;
+import org.apache.flink.api.common.functions.RichMapPartitionFunction;
 import org.apache.flink.api.common.functions.RichReduceFunction;
 import org.apache.flink.api.java.DataSet;
+import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.util.Collector;
 
 import java.lang.reflect.UndeclaredThrowableException;
 
@@ -61,6 +66,12 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm {
 
     double numInstances;
 
+    /**
+     * Represents whether each partition folds its data instances into a single flat vector of sufficient
+     * statistics before shuffling them, instead of shipping a vector per data instance.
+     */
+    protected boolean partitionAggregation = true;
+
     public static String EFBN_NAME = "EFBN";
 
     public static String COUNTER_NAME = "COUNTER";
@@ -76,6 +87,17 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm {
     public void setBatchSize(int batchSize) {
     }
 
+    /**
+     * Sets whether the sufficient statistics are aggregated per partition. In this mode, each partition
+     * emits a single {@link ArrayVector} with the sum of the statistics of its data instances and their count,
+     * and the partitions are merged in a two-level tree, so only one vector per partition is shuffled.
+     * Otherwise, a sufficient statistics vector is computed for every data instance and reduced pairwise.
+     * @param partitionAggregation a {@code boolean} value, {@code true} by default.
+     */
+    public void setPartitionAggregation(boolean partitionAggregation) {
+        this.partitionAggregation = partitionAggregation;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -97,6 +119,26 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm {
             config.setBytes(EFBN_NAME, Serialization.serializeObject(efBayesianNetwork));
 
             DataSet<DataInstance> dataset = dataUpdate.getDataSet();
+
+            if (this.partitionAggregation) {
+                VectorSerializers.registerSerializers(dataset.getExecutionEnvironment().getConfig());
+
+                double[] flatSS = dataset.mapPartition(new SufficientStatisticsPartitionMAP())
+                        .withParameters(config)
+                        .groupBy(0)
+                        .reduce(new FlatSufficientStatisticsReduce())
+                        .reduce(new FlatSufficientStatisticsReduce())
+                        .collect().get(0).f1.toArray();
+
+                //Add the prior, the last position contains the number of instances
+                this.sumSS = efBayesianNetwork.createInitSufficientStatistics();
+                this.sumSS.sumFrom(flatSS, 0);
+                numInstances = flatSS[flatSS.length - 1];
+                numInstances++;//Initial counts
+
+                return this.getLogMarginalProbability();
+            }
+
             this.sumSS = dataset.map(new SufficientSatisticsMAP())
                     .withParameters(config)
                     .reduce(new SufficientSatisticsReduce())
@@ -187,4 +229,46 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Folds the data instances of a partition into a flat vector of sufficient statistics, whose last position
+     * contains the number of instances. The vector is keyed by the group of partitions it is first merged with.
+     */
+    static class SufficientStatisticsPartitionMAP extends RichMapPartitionFunction<DataInstance, Tuple2<Integer, ArrayVector>> {
+
+        EF_BayesianNetwork ef_bayesianNetwork;
+
+        @Override
+        public void open(Configuration parameters) throws Exception {
+            super.open(parameters);
+            ef_bayesianNetwork = Serialization.deserializeObject(parameters.getBytes(EFBN_NAME, null));
+        }
+
+        @Override
+        public void mapPartition(Iterable<DataInstance> values, Collector<Tuple2<Integer, ArrayVector>> out) throws Exception {
+            SufficientStatistics accumulator = this.ef_bayesianNetwork.createZeroSufficientStatistics();
+            double count = 0;
+            for (DataInstance value : values) {
+                this.ef_bayesianNetwork.addSufficientStatisticsTo(value, accumulator, 1.0);
+                count++;
+            }
+
+            double[] flatSS = new double[accumulator.size() + 1];
+            accumulator.sumTo(flatSS, 0);
+            flatSS[accumulator.size()] = count;
+
+            //Partitions are merged in groups of about sqrt(parallelism) elements before the final reduce
+            int nTasks = getRuntimeContext().getNumberOfParallelSubtasks();
+            int fanIn = (int) Math.ceil(Math.sqrt(nTasks));
+            out.collect(new Tuple2<>(getRuntimeContext().getIndexOfThisSubtask() / fanIn, new ArrayVector(flatSS)));
+        }
+    }
+
+    static class FlatSufficientStatisticsReduce extends RichReduceFunction<Tuple2<Integer, ArrayVector>> {
+        @Override
+        public Tuple2<Integer, ArrayVector> reduce(Tuple2<Integer, ArrayVector> value1, Tuple2<Integer, ArrayVector> value2) throws Exception {
+            value2.f1.sum(value1.f1);
+            return value2;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import eu.amidst.core.utils.CompoundVector;
 import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.flinklink.core.data.DataFlink;
+import eu.amidst.flinklink.core.io.VectorSerializers;
 import eu.amidst.flinklink.core.learning.parametric.utils.IdenitifableModelling;
 import eu.amidst.flinklink.core.learning.parametric.utils.ParameterIdentifiableModel;
 import org.apache.flink.api.common.aggregators.ConvergenceCriterion;
@@ -235,6 +236,9 @@ public class ParallelVB implements BayesianParameterLearningAlgorithm, Serializa
         try{
             final ExecutionEnvironment env = dataUpdate.getDataSet().getExecutionEnvironment();
 
+            //The parameter vectors broadcast at every superstep use the compact binary serializers.
+            VectorSerializers.registerSerializers(env.getConfig());
+
             // get input data
             CompoundVector parameterPrior = this.svb.getNaturalParameterPrior();
 
@@ -438,8 +442,12 @@ public class ParallelVB implements BayesianParameterLearningAlgorithm, Serializa
         public void open(Configuration parameters) throws Exception {
             super.open(parameters);
             bnName = parameters.getString(BN_NAME, "");
-            svb = Serialization.deserializeObject(parameters.getBytes(SVB, null));
-            svb.initLearning();
+
+            //The SVB and its plateau structure are built once per task and kept across supersteps.
+            if (svb == null) {
+                svb = Serialization.deserializeObject(parameters.getBytes(SVB, null));
+                svb.initLearning();
+            }
 
             Collection<CompoundVector> collection = getRuntimeContext().getBroadcastVariable("VB_PARAMS_" + bnName);
             updatedPrior = collection.iterator().next();
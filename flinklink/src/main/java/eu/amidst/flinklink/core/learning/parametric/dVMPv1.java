@@ -28,6 +28,7 @@ import eu.amidst.core.utils.CompoundVector;
 import eu.amidst.core.utils.Serialization;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.flinklink.core.data.DataFlink;
+import eu.amidst.flinklink.core.io.VectorSerializers;
 import eu.amidst.flinklink.core.learning.parametric.utils.GlobalvsLocalUpdate;
 import eu.amidst.flinklink.core.learning.parametric.utils.IdenitifableModelling;
 import eu.amidst.flinklink.core.learning.parametric.utils.ParameterIdentifiableModel;
@@ -247,6 +248,9 @@ public class dVMPv1 implements BayesianParameterLearningAlgorithm, Serializable
         try{
             final ExecutionEnvironment env = dataUpdate.getDataSet().getExecutionEnvironment();
 
+            //The parameter vectors broadcast at every superstep use the compact binary serializers.
+            VectorSerializers.registerSerializers(env.getConfig());
+
             // get input data
             CompoundVector parameterPrior = this.svb.getNaturalParameterPrior();
 
@@ -435,8 +439,13 @@ public class dVMPv1 implements BayesianParameterLearningAlgorithm, Serializable
         public void open(Configuration parameters) throws Exception {
             super.open(parameters);
             bnName = parameters.getString(BN_NAME, "");
-            svb = Serialization.deserializeObject(parameters.getBytes(SVB, null));
             int superstep = getIterationRuntimeContext().getSuperstepNumber() - 1;
+
+            //The SVB and its plateau structure are built once per task and kept across supersteps, unless the VMP
+            //engine is swapped between the first and the following supersteps.
+            boolean rebuild = svb == null || INITIALIZE;
+            if (rebuild)
+                svb = Serialization.deserializeObject(parameters.getBytes(SVB, null));
             if (INITIALIZE && superstep==0) {
                 VMP vmp = new VMP();
                 vmp.setMaxIter(this.svb.getPlateuStructure().getVMP().getMaxIter());
@@ -453,7 +462,8 @@ public class dVMPv1 implements BayesianParameterLearningAlgorithm, Serializable
                 ((GlobalvsLocalUpdate)this.svb.getPlateuStructure()).setGlobalUpdate(false);
             }
             
-            svb.initLearning();
+            if (rebuild)
+                svb.initLearning();
 
             CompoundVector newVector = (CompoundVector)getRuntimeContext().getBroadcastVariable("VB_PARAMS_" + bnName).iterator().next();
 
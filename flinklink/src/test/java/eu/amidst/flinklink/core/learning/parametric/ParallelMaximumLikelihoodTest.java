@@ -133,4 +133,36 @@ public class ParallelMaximumLikelihoodTest extends TestCase {
         //Or check directly if the true and learned networks are equals
         Assert.assertTrue(bnet.equalBNs(asianet, 0.2));
     }
-}
\ No newline at end of file
+
+    public void testingPartitionAggregation() throws IOException, ClassNotFoundException {
+        //Set-up Flink session.
+        Configuration conf = new Configuration();
+        conf.setInteger("taskmanager.network.numberOfBuffers", 12000);
+        final ExecutionEnvironment env = ExecutionEnvironment.createLocalEnvironment(conf);
+                env.getConfig().disableSysoutLogging();         env.setParallelism(Main.PARALLELISM);
+
+        BayesianNetwork wastenet = BayesianNetworkLoader.loadFromFile("../networks/simulated/WasteIncinerator.bn");
+
+        BayesianNetworkSampler sampler = new BayesianNetworkSampler(wastenet);
+        sampler.setSeed(0);
+        DataStream<DataInstance> data = sampler.sampleToDataStream(1000);
+
+        DataStreamWriter.writeDataToFile(data,"../datasets/tmp.arff");
+
+        DataFlink<DataInstance> dataFlink = DataFlinkLoader.loadDataFromFile(env, "../datasets/tmp.arff", false);
+
+        //The flat per-partition aggregation must learn the same network as the per-instance reduce
+        ParallelMaximumLikelihood perInstance = new ParallelMaximumLikelihood();
+        perInstance.setPartitionAggregation(false);
+        perInstance.setDAG(wastenet.getDAG());
+        perInstance.initLearning();
+        perInstance.updateModel(dataFlink);
+
+        ParallelMaximumLikelihood perPartition = new ParallelMaximumLikelihood();
+        perPartition.setDAG(wastenet.getDAG());
+        perPartition.initLearning();
+        perPartition.updateModel(dataFlink);
+
+        Assert.assertTrue(perPartition.getLearntBayesianNetwork().equalBNs(perInstance.getLearntBayesianNetwork(), 1e-8));
+    }
+}
@@ -16,6 +16,7 @@ import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.inference.KalmanFilterForDBN;
 import eu.amidst.dynamic.models.DynamicDAG;
 import eu.amidst.dynamic.utils.DataSetGenerator;
 
@@ -119,6 +120,19 @@ public class SwitchingKalmanFilter  extends DynamicModel<SwitchingKalmanFilter>
     }
 
 
+    /**
+     * Returns a closed-form inference algorithm set to the learnt model, which filters the data without running
+     * variational message passing at each time step.
+     * @return a {@link KalmanFilterForDBN} object, or {@code null} if the model has not been learnt yet.
+     */
+    public KalmanFilterForDBN getInferenceAlgorithm() {
+        if (this.getModel() == null)
+            return null;
+        KalmanFilterForDBN inferenceAlgorithm = new KalmanFilterForDBN();
+        inferenceAlgorithm.setModel(this.getModel());
+        return inferenceAlgorithm;
+    }
+
     public static void main(String[] args) {
 
         DataStream<DynamicDataInstance> dataGaussians = DataSetGenerator.generate(1,1000,0,10);
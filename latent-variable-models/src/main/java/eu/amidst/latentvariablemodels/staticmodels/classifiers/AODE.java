@@ -23,6 +23,7 @@ import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.distribution.Multinomial;
 import eu.amidst.core.learning.parametric.ParallelMaximumLikelihood;
+import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
 import eu.amidst.core.utils.DataSetGenerator;
 import eu.amidst.core.utils.Serialization;
@@ -34,6 +35,7 @@ import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfiguration
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -167,6 +169,47 @@ public class AODE extends Classifier<AODE> {
         return posteriors.get(0);
     }
 
+    /**
+     * {@inheritDoc}
+     * The posterior of the class variable of each one-dependence estimator is computed in closed form, and the
+     * posteriors are averaged as in {@link #predict(DataInstance)}.
+     */
+    @Override
+    public List<Multinomial> predict(DataOnMemory<DataInstance> batch) {
+        BayesianNetwork model = this.getModel();
+
+        double[][] vectorPosteriors = new double[batch.getNumberOfDataInstances()][];
+        for (Variable classVariable : classVariables) {
+            Optional<ClosedFormClassPosterior> posterior = ClosedFormClassPosterior.compile(model, classVariable);
+            if (!posterior.isPresent())
+                return batch.getList().stream().map(this::predict).collect(Collectors.toList());
+
+            double[][] probabilities = posterior.get().predict(batch);
+            for (int i = 0; i < vectorPosteriors.length; i++) {
+                if (probabilities[i] == null)
+                    continue;
+                if (vectorPosteriors[i] == null)
+                    vectorPosteriors[i] = new double[classVar.getNumberOfStates()];
+                for (int j = 0; j < classVar.getNumberOfStates(); j++) {
+                    vectorPosteriors[i][j] += probabilities[i][j];
+                }
+            }
+        }
+
+        List<Multinomial> posteriors = new ArrayList<>(vectorPosteriors.length);
+        for (int i = 0; i < vectorPosteriors.length; i++) {
+            if (vectorPosteriors[i] == null) {
+                posteriors.add(this.predict(batch.getDataInstance(i)));
+            } else {
+                Multinomial multinomial = new Multinomial(classVar);
+                multinomial.setProbabilities(Utils.normalize(vectorPosteriors[i]));
+                posteriors.add(multinomial);
+            }
+        }
+
+        return posteriors;
+    }
+
     @Override
     public boolean isValidConfiguration() {
 
@@ -20,6 +20,7 @@ package eu.amidst.latentvariablemodels.staticmodels.classifiers;
 
 import eu.amidst.core.datastream.Attributes;
 import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.distribution.Multinomial;
 import eu.amidst.core.inference.ImportanceSampling;
 import eu.amidst.core.inference.InferenceAlgorithm;
@@ -28,6 +29,10 @@ import eu.amidst.core.variables.Variable;
 import eu.amidst.latentvariablemodels.staticmodels.Model;
 import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfigurationException;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * The Classifier abstract class is defined for Bayesian classification models.
  */
@@ -80,6 +85,34 @@ public abstract class Classifier<T extends Classifier> extends Model<T> {
 
     }
 
+    /**
+     * Predicts the class membership probabilities for a batch of instances. When the class posterior is in closed
+     * form, i.e. the variables which are not observed are multinomial, the learnt model is compiled once with
+     * {@link ClosedFormClassPosterior} and the whole batch is scored in parallel, without running the inference
+     * algorithm. Otherwise, and for the instances with missing attribute values, {@link #predict(DataInstance)} is used.
+     * @param batch the data instances to be classified. The values associated to the class variable must be
+     *              missing values (i.e. NaN)
+     * @return the list of posterior probabilities of the class variable, in the same order as the instances
+     */
+    public List<Multinomial> predict(DataOnMemory<DataInstance> batch) {
+        Optional<ClosedFormClassPosterior> posterior = ClosedFormClassPosterior.compile(this.getModel(), classVar);
+
+        double[][] probabilities = posterior.isPresent() ? posterior.get().predict(batch) : new double[batch.getNumberOfDataInstances()][];
+
+        List<Multinomial> posteriors = new ArrayList<>(probabilities.length);
+        for (int i = 0; i < probabilities.length; i++) {
+            if (probabilities[i] == null) {
+                posteriors.add(this.predict(batch.getDataInstance(i)));
+            } else {
+                Multinomial multinomial = new Multinomial(classVar);
+                multinomial.setProbabilities(probabilities[i]);
+                posteriors.add(multinomial);
+            }
+        }
+
+        return posteriors;
+    }
+
 
 
     /////// getters and setters ///////
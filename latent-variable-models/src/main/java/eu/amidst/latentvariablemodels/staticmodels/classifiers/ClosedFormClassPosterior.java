@@ -0,0 +1,422 @@
+/*
+ *
+ *
+ *    Licensed to the Apache Software Foundation (ASF) under one or more contributor license agreements.
+ *    See the NOTICE file distributed with this work for additional information regarding copyright ownership.
+ *    The ASF licenses this file to You under the Apache License, Version 2.0 (the "License"); you may not use
+ *    this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software distributed under the License is
+ *    distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and limitations under the License.
+ *
+ *
+ */
+
+package eu.amidst.latentvariablemodels.staticmodels.classifiers;
+
+import eu.amidst.core.datastream.DataInstance;
+import eu.amidst.core.datastream.DataOnMemory;
+import eu.amidst.core.distribution.BaseDistribution_MultinomialParents;
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.distribution.ConditionalLinearGaussian;
+import eu.amidst.core.distribution.Distribution;
+import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.distribution.Multinomial_MultinomialParents;
+import eu.amidst.core.distribution.Normal;
+import eu.amidst.core.distribution.Normal_MultinomialNormalParents;
+import eu.amidst.core.distribution.Normal_MultinomialParents;
+import eu.amidst.core.distribution.UnivariateDistribution;
+import eu.amidst.core.models.BayesianNetwork;
+import eu.amidst.core.utils.MultinomialIndex;
+import eu.amidst.core.variables.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * This class computes the exact posterior of a class variable given fully observed attributes, for whole batches of
+ * data instances, without running an inference algorithm.
+ *
+ * <p> The learnt {@link BayesianNetwork} is compiled into flat arrays: log-probability tables for the multinomial
+ * variables, and intercepts, coefficients and log-normalization constants for the Gaussian variables. The variables
+ * that are not observed at prediction time, i.e. the class variable, its replicas and the hidden variables connected to
+ * it, are enumerated, so the model is only compiled when all of them are multinomial. The factors which do not involve
+ * any of the enumerated variables are skipped, since they cancel out when the posterior is normalized. </p>
+ *
+ * <p> The rows of a batch are scored in parallel. A row with a missing attribute value gets a {@code null} posterior,
+ * and has to be predicted with an inference algorithm. </p>
+ */
+public final class ClosedFormClassPosterior {
+
+    /** Represents the class variable. */
+    private final Variable classVar;
+
+    /** Represents the observed variables, whose values are read from the attributes of each data instance. */
+    private final Variable[] observedVars;
+
+    /** Represents the number of joint configurations of the enumerated variables. */
+    private final int nConfigurations;
+
+    /** Represents the compiled factors. */
+    private final Factor[] factors;
+
+    /**
+     * Creates a new ClosedFormClassPosterior.
+     * @param classVar the class variable.
+     * @param observedVars the observed variables.
+     * @param nConfigurations the number of joint configurations of the enumerated variables.
+     * @param factors the compiled factors.
+     */
+    private ClosedFormClassPosterior(Variable classVar, List<Variable> observedVars, int nConfigurations, List<Factor> factors) {
+        this.classVar = classVar;
+        this.observedVars = observedVars.toArray(new Variable[observedVars.size()]);
+        this.nConfigurations = nConfigurations;
+        this.factors = factors.toArray(new Factor[factors.size()]);
+    }
+
+    /**
+     * Compiles a learnt {@link BayesianNetwork} for computing the posterior of a class variable.
+     * @param bn a learnt {@link BayesianNetwork}.
+     * @param classVar the multinomial class variable of the model.
+     * @return the compiled posterior, or an empty {@code Optional} if the posterior is not in closed form, i.e. if a
+     * Gaussian variable is not observed, an indicator variable is involved, or some distribution is of an unsupported type.
+     */
+    public static Optional<ClosedFormClassPosterior> compile(BayesianNetwork bn, Variable classVar) {
+
+        //The enumerated variables are found from the class variable, through the families of the network.
+        List<Variable> enumeratedVars = new ArrayList<>();
+        enumeratedVars.add(classVar);
+        List<Variable> familyVars = new ArrayList<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Variable var : bn.getVariables()) {
+                List<Variable> family = new ArrayList<>(bn.getConditionalDistribution(var).getConditioningVariables());
+                family.add(var);
+                if (family.stream().noneMatch(enumeratedVars::contains))
+                    continue;
+                if (!familyVars.contains(var))
+                    familyVars.add(var);
+                for (Variable member : family) {
+                    if (member.isIndicator())
+                        return Optional.empty();
+                    if (!enumeratedVars.contains(member) && !isObserved(member, classVar)) {
+                        if (!member.isMultinomial())
+                            return Optional.empty();
+                        enumeratedVars.add(member);
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        int nConfigurations = MultinomialIndex.getNumberOfPossibleAssignments(enumeratedVars);
+
+        List<Variable> observedVars = new ArrayList<>();
+        List<Factor> factors = new ArrayList<>();
+        for (Variable var : familyVars) {
+            Optional<Factor> factor = compileFactor(bn.getConditionalDistribution(var), enumeratedVars, observedVars, nConfigurations);
+            if (!factor.isPresent())
+                return Optional.empty();
+            factors.add(factor.get());
+        }
+
+        return Optional.of(new ClosedFormClassPosterior(classVar, observedVars, nConfigurations, factors));
+    }
+
+    /**
+     * Tests whether a variable is observed when predicting, i.e. it is not hidden and it is not a replica of the class.
+     * @param var a {@link Variable} object.
+     * @param classVar the class variable.
+     * @return {@code true} if the variable is observed, {@code false} otherwise.
+     */
+    private static boolean isObserved(Variable var, Variable classVar) {
+        return var.isObservable() && var.getAttribute() != null && !var.getAttribute().equals(classVar.getAttribute());
+    }
+
+    /**
+     * Compiles the conditional distribution of a variable into a {@link Factor}.
+     * @param dist a {@link ConditionalDistribution} object.
+     * @param enumeratedVars the enumerated variables.
+     * @param observedVars the observed variables read so far, which is extended with the ones of this distribution.
+     * @param nConfigurations the number of joint configurations of the enumerated variables.
+     * @return the compiled factor, or an empty {@code Optional} if the distribution is of an unsupported type.
+     */
+    private static Optional<Factor> compileFactor(ConditionalDistribution dist, List<Variable> enumeratedVars,
+                                                  List<Variable> observedVars, int nConfigurations) {
+        List<Variable> multinomialParents;
+        List<? extends Distribution> bases;
+        if (dist instanceof Multinomial_MultinomialParents) {
+            multinomialParents = dist.getConditioningVariables();
+            bases = ((Multinomial_MultinomialParents) dist).getMultinomialDistributions();
+        } else if (dist instanceof Normal_MultinomialParents) {
+            multinomialParents = dist.getConditioningVariables();
+            bases = ((Normal_MultinomialParents) dist).getNormalDistributions();
+        } else if (dist instanceof Normal_MultinomialNormalParents) {
+            multinomialParents = ((Normal_MultinomialNormalParents) dist).getMultinomialParents();
+            bases = ((Normal_MultinomialNormalParents) dist).getDistribution();
+        } else if (dist instanceof UnivariateDistribution) {
+            multinomialParents = Collections.emptyList();
+            bases = Collections.singletonList((UnivariateDistribution) dist);
+        } else if (dist instanceof BaseDistribution_MultinomialParents) {
+            multinomialParents = ((BaseDistribution_MultinomialParents<?>) dist).getMultinomialParents();
+            bases = ((BaseDistribution_MultinomialParents<?>) dist).getBaseDistributions();
+        } else {
+            return Optional.empty();
+        }
+
+        Factor factor = new Factor();
+        factor.nBases = bases.size();
+
+        //The offsets of the enumerated parents are precomputed for each joint configuration.
+        List<Integer> observedParents = new ArrayList<>();
+        List<Integer> observedStrides = new ArrayList<>();
+        factor.enumeratedOffsets = new int[nConfigurations];
+        int stride = 1;
+        for (Variable parent : multinomialParents) {
+            int enumeratedIndex = enumeratedVars.indexOf(parent);
+            if (enumeratedIndex >= 0) {
+                for (int k = 0; k < nConfigurations; k++) {
+                    factor.enumeratedOffsets[k] += stateOf(enumeratedVars, enumeratedIndex, k) * stride;
+                }
+            } else {
+                observedParents.add(columnOf(parent, observedVars));
+                observedStrides.add(stride);
+            }
+            stride *= parent.getNumberOfStates();
+        }
+        factor.observedParents = observedParents.stream().mapToInt(Integer::intValue).toArray();
+        factor.observedStrides = observedStrides.stream().mapToInt(Integer::intValue).toArray();
+
+        Variable var = dist.getVariable();
+        int enumeratedIndex = enumeratedVars.indexOf(var);
+        if (enumeratedIndex >= 0) {
+            factor.column = -1;
+            factor.enumeratedStates = new int[nConfigurations];
+            for (int k = 0; k < nConfigurations; k++) {
+                factor.enumeratedStates[k] = stateOf(enumeratedVars, enumeratedIndex, k);
+            }
+        } else {
+            factor.column = columnOf(var, observedVars);
+        }
+
+        if (bases.get(0) instanceof Multinomial) {
+            factor.nStates = var.getNumberOfStates();
+            factor.logProbabilities = new double[factor.nBases * factor.nStates];
+            for (int i = 0; i < factor.nBases; i++) {
+                double[] probabilities = ((Multinomial) bases.get(i)).getProbabilities();
+                for (int j = 0; j < factor.nStates; j++) {
+                    factor.logProbabilities[i * factor.nStates + j] = Math.log(probabilities[j]);
+                }
+            }
+        } else if (factor.column >= 0 && (bases.get(0) instanceof Normal || bases.get(0) instanceof ConditionalLinearGaussian)) {
+            factor.intercepts = new double[factor.nBases];
+            factor.logNormalizers = new double[factor.nBases];
+            factor.halfPrecisions = new double[factor.nBases];
+            if (bases.get(0) instanceof ConditionalLinearGaussian) {
+                List<Variable> normalParents = ((ConditionalLinearGaussian) bases.get(0)).getConditioningVariables();
+                factor.normalParents = normalParents.stream().mapToInt(parent -> columnOf(parent, observedVars)).toArray();
+                factor.coefficients = new double[factor.nBases * normalParents.size()];
+            } else {
+                factor.normalParents = new int[0];
+                factor.coefficients = new double[0];
+            }
+            for (int i = 0; i < factor.nBases; i++) {
+                double variance;
+                if (bases.get(i) instanceof ConditionalLinearGaussian) {
+                    ConditionalLinearGaussian clg = (ConditionalLinearGaussian) bases.get(i);
+                    factor.intercepts[i] = clg.getIntercept();
+                    System.arraycopy(clg.getCoeffParents(), 0, factor.coefficients, i * factor.normalParents.length, factor.normalParents.length);
+                    variance = clg.getVariance();
+                } else {
+                    Normal normal = (Normal) bases.get(i);
+                    factor.intercepts[i] = normal.getMean();
+                    variance = normal.getVariance();
+                }
+                factor.logNormalizers[i] = -0.5 * Math.log(variance) - 0.5 * Math.log(2 * Math.PI);
+                factor.halfPrecisions[i] = 0.5 / variance;
+            }
+        } else {
+            return Optional.empty();
+        }
+
+        return Optional.of(factor);
+    }
+
+    /**
+     * Returns the state of an enumerated variable in a joint configuration, following {@link MultinomialIndex}.
+     * @param enumeratedVars the enumerated variables.
+     * @param index the index of the variable.
+     * @param configuration the index of the joint configuration.
+     * @return the state of the variable.
+     */
+    private static int stateOf(List<Variable> enumeratedVars, int index, int configuration) {
+        for (int i = 0; i < index; i++) {
+            configuration /= enumeratedVars.get(i).getNumberOfStates();
+        }
+        return configuration % enumeratedVars.get(index).getNumberOfStates();
+    }
+
+    /**
+     * Returns the column of an observed variable, adding it to the observed variables if needed.
+     * @param var a {@link Variable} object.
+     * @param observedVars the observed variables.
+     * @return the column of the variable.
+     */
+    private static int columnOf(Variable var, List<Variable> observedVars) {
+        int column = observedVars.indexOf(var);
+        if (column < 0) {
+            observedVars.add(var);
+            column = observedVars.size() - 1;
+        }
+        return column;
+    }
+
+    /**
+     * Returns the class variable.
+     * @return a {@link Variable} object.
+     */
+    public Variable getClassVar() {
+        return classVar;
+    }
+
+    /**
+     * Computes the posterior probabilities of the class variable for all the instances of a batch, in parallel.
+     * @param batch a {@link DataOnMemory} object.
+     * @return an array with the posterior probabilities of each instance, or {@code null} for the instances with a
+     * missing attribute value.
+     */
+    public double[][] predict(DataOnMemory<DataInstance> batch) {
+        double[][] posteriors = new double[batch.getNumberOfDataInstances()][];
+        IntStream.range(0, posteriors.length)
+                .parallel()
+                .forEach(i -> posteriors[i] = this.predict(batch.getDataInstance(i)));
+        return posteriors;
+    }
+
+    /**
+     * Computes the posterior probabilities of the class variable for a data instance.
+     * @param instance a {@link DataInstance} object.
+     * @return the posterior probabilities, or {@code null} if an attribute value is missing.
+     */
+    public double[] predict(DataInstance instance) {
+        double[] row = new double[observedVars.length];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = instance.getValue(observedVars[j].getAttribute());
+            if (Double.isNaN(row[j]))
+                return null;
+        }
+
+        double[] logJoint = new double[nConfigurations];
+        for (Factor factor : factors) {
+            factor.addLogProbabilities(row, logJoint);
+        }
+
+        //The class variable is the first enumerated variable, so its state is the configuration modulo its states.
+        int nStates = classVar.getNumberOfStates();
+        double max = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < nConfigurations; k++) {
+            max = Math.max(max, logJoint[k]);
+        }
+
+        double[] posterior = new double[nStates];
+        if (max == Double.NEGATIVE_INFINITY) {
+            Arrays.fill(posterior, 1.0 / nStates);
+            return posterior;
+        }
+
+        double sum = 0;
+        for (int k = 0; k < nConfigurations; k++) {
+            double value = Math.exp(logJoint[k] - max);
+            posterior[k % nStates] += value;
+            sum += value;
+        }
+        for (int s = 0; s < nStates; s++) {
+            posterior[s] /= sum;
+        }
+
+        return posterior;
+    }
+
+    /**
+     * This class represents the compiled conditional distribution of a variable, as flat arrays indexed by the
+     * configuration of its multinomial parents.
+     */
+    private static final class Factor {
+
+        /** Represents the column of the variable, or -1 if the variable is enumerated. */
+        int column;
+
+        /** Represents the state of the enumerated variable in each joint configuration. */
+        int[] enumeratedStates;
+
+        /** Represents the number of parent configurations. */
+        int nBases;
+
+        /** Represents the offset of the enumerated parents in each joint configuration. */
+        int[] enumeratedOffsets;
+
+        /** Represents the columns of the observed multinomial parents. */
+        int[] observedParents;
+
+        /** Represents the strides of the observed multinomial parents. */
+        int[] observedStrides;
+
+        /** Represents the number of states of a multinomial variable. */
+        int nStates;
+
+        /** Represents the log-probabilities of a multinomial variable, indexed by parent configuration and state. */
+        double[] logProbabilities;
+
+        /** Represents the intercepts (or means) of a Gaussian variable, indexed by parent configuration. */
+        double[] intercepts;
+
+        /** Represents the columns of the Gaussian parents of a Gaussian variable. */
+        int[] normalParents;
+
+        /** Represents the coefficients of a Gaussian variable, indexed by parent configuration and Gaussian parent. */
+        double[] coefficients;
+
+        /** Represents the log-normalization constants of a Gaussian variable, indexed by parent configuration. */
+        double[] logNormalizers;
+
+        /** Represents the half precisions of a Gaussian variable, indexed by parent configuration. */
+        double[] halfPrecisions;
+
+        /**
+         * Adds the log-probability of this factor to the log-joint probability of each configuration.
+         * @param row the values of the observed variables.
+         * @param logJoint the log-joint probabilities, indexed by joint configuration.
+         */
+        void addLogProbabilities(double[] row, double[] logJoint) {
+            int observedOffset = 0;
+            for (int j = 0; j < observedParents.length; j++) {
+                observedOffset += (int) row[observedParents[j]] * observedStrides[j];
+            }
+
+            if (logProbabilities != null) {
+                for (int k = 0; k < logJoint.length; k++) {
+                    int state = (column < 0) ? enumeratedStates[k] : (int) row[column];
+                    logJoint[k] += logProbabilities[(observedOffset + enumeratedOffsets[k]) * nStates + state];
+                }
+            } else {
+                double value = row[column];
+                for (int k = 0; k < logJoint.length; k++) {
+                    int base = observedOffset + enumeratedOffsets[k];
+                    double mean = intercepts[base];
+                    for (int j = 0; j < normalParents.length; j++) {
+                        mean += coefficients[base * normalParents.length + j] * row[normalParents[j]];
+                    }
+                    logJoint[k] += logNormalizers[base] - (value - mean) * (value - mean) * halfPrecisions[base];
+                }
+            }
+        }
+    }
+}
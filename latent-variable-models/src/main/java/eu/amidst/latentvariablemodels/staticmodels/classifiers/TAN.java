@@ -17,16 +17,14 @@
 
 package eu.amidst.latentvariablemodels.staticmodels.classifiers;
 
-import COM.hugin.HAPI.ExceptionHugin;
 import eu.amidst.core.datastream.Attributes;
 import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.learning.parametric.bayesian.SVB;
-import eu.amidst.core.models.DAG;
+import eu.amidst.core.learning.structural.ParallelChowLiu;
 import eu.amidst.core.utils.DataSetGenerator;
 import eu.amidst.core.variables.StateSpaceTypeEnum;
 import eu.amidst.core.variables.Variable;
-import eu.amidst.huginlink.learning.ParallelTAN;
 import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfigurationException;
 
 /**
@@ -40,8 +38,8 @@ import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfiguration
 public class TAN extends Classifier<TAN> {
 
 
-    /** This class provides a link to the <a href="https://www.hugin.com">Hugin</a>'s functionality to learn in parallel a TAN model.*/
-    private ParallelTAN parallelTAN;
+    /** Represents the structural learning algorithm used to learn in parallel the tree of the TAN model.*/
+    private ParallelChowLiu parallelTAN;
 
     /** String with the name of the node used as a root */
     private String rootVarName;
@@ -57,7 +55,7 @@ public class TAN extends Classifier<TAN> {
 
 
     /**
-     * In this class this method does nothing: the DAG is built in the hugin classes
+     * In this class this method does nothing: the DAG is learnt from the data in {@link #updateModel(DataStream)}
      */
     @Override
     protected void buildDAG() {
@@ -81,20 +79,14 @@ public class TAN extends Classifier<TAN> {
                     .filter(variable -> !variable.equals(classVar)).findAny().get().getName();
         }
 
-        parallelTAN = new ParallelTAN();
-        this.dag = new DAG(this.vars);
-
+        parallelTAN = new ParallelChowLiu();
         parallelTAN.setNameTarget(classVar.getName());
         parallelTAN.setNameRoot(rootVarName);
-        parallelTAN.setNumCores(1);
-        parallelTAN.setNumSamplesOnMemory(5000);
+        parallelTAN.setWindowsSize(5000);
+        parallelTAN.setDataStream(dataStream);
+        parallelTAN.runLearning();
 
-        try {
-            this.dag = parallelTAN.learnDAG(dataStream);
-        }
-        catch (ExceptionHugin e) {
-            System.out.println(e.getMessage());
-        }
+        this.dag = parallelTAN.getLearntDAG();
 
         learningAlgorithm = new SVB();
         learningAlgorithm.setDAG(this.dag);
@@ -19,11 +19,20 @@ package eu.amidst.latentvariablemodels;
 
 import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
+import eu.amidst.core.distribution.ConditionalDistribution;
+import eu.amidst.core.distribution.ConditionalLinearGaussian;
+import eu.amidst.core.distribution.Normal;
+import eu.amidst.core.variables.Variable;
 import eu.amidst.dynamic.datastream.DynamicDataInstance;
+import eu.amidst.dynamic.inference.KalmanFilterForDBN;
+import eu.amidst.dynamic.models.DynamicBayesianNetwork;
 import eu.amidst.dynamic.utils.DataSetGenerator;
 import eu.amidst.latentvariablemodels.dynamicmodels.KalmanFilter;
 import junit.framework.TestCase;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * Created by ana@cs.aau.dk on 08/03/16.
  */
@@ -66,4 +75,56 @@ public class KalmanFilterTest extends TestCase{
         System.out.println(KF.getModel());
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the intercept, the coefficient of a parent and the variance of a linear Gaussian distribution with at
+     * most one parent.
+     */
+    private static double[] linearGaussian(ConditionalDistribution dist, Variable parent) {
+        if (dist instanceof Normal)
+            return new double[]{((Normal) dist).getMean(), 0, ((Normal) dist).getVariance()};
+        ConditionalLinearGaussian clg = (ConditionalLinearGaussian) dist;
+        assertEquals(1, clg.getConditioningVariables().size());
+        return new double[]{clg.getIntercept(), clg.getCoeffForParent(parent), clg.getVariance()};
+    }
+
+    public void test4(){
+        KalmanFilter KF = new KalmanFilter(dataGaussians.getAttributes());
+        KF.setNumHidden(1);
+        KF.updateModel(dataGaussians);
+        DynamicBayesianNetwork dbn = KF.getModel();
+
+        KalmanFilterForDBN inferenceAlgorithm = KF.getInferenceAlgorithm();
+        Variable hidden = inferenceAlgorithm.getHiddenVars().get(0);
+        List<Variable> observedVars = dbn.getDynamicVariables().getListOfDynamicVariables().stream()
+                .filter(var -> !var.equals(hidden)).collect(Collectors.toList());
+
+        //The filtered posterior of the hidden variable, computed by hand with the scalar Kalman recursion.
+        double mean = 0;
+        double variance = 0;
+        for (DynamicDataInstance instance : dataGaussians.stream().limit(100).collect(Collectors.toList())) {
+            boolean time0 = instance.getTimeID() == 0;
+            if (time0)
+                inferenceAlgorithm.reset();
+
+            double[] transition = linearGaussian(time0 ? dbn.getConditionalDistributionTime0(hidden)
+                    : dbn.getConditionalDistributionTimeT(hidden), hidden.getInterfaceVariable());
+            mean = transition[0] + transition[1] * mean;
+            variance = transition[1] * transition[1] * variance + transition[2];
+
+            for (Variable observed : observedVars) {
+                double[] emission = linearGaussian(time0 ? dbn.getConditionalDistributionTime0(observed)
+                        : dbn.getConditionalDistributionTimeT(observed), hidden);
+                double gain = variance * emission[1] / (emission[1] * emission[1] * variance + emission[2]);
+                mean += gain * (instance.getValue(observed) - emission[0] - emission[1] * mean);
+                variance -= gain * emission[1] * variance;
+            }
+
+            inferenceAlgorithm.addDynamicEvidence(instance);
+            inferenceAlgorithm.runInference();
+            Normal posterior = inferenceAlgorithm.getFilteredPosterior(hidden);
+            assertEquals(mean, posterior.getMean(), 1e-6 * Math.max(1, Math.abs(mean)));
+            assertEquals(variance, posterior.getVariance(), 1e-6 * variance);
+        }
+    }
+
+}
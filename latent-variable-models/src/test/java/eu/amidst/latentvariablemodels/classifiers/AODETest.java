@@ -15,8 +15,11 @@ import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.utils.DataSetGenerator;
+import eu.amidst.core.utils.MultinomialIndex;
 import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.HashMapAssignment;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.latentvariablemodels.staticmodels.classifiers.AODE;
 import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfigurationException;
@@ -105,4 +108,54 @@ public class AODETest extends TestCase {
 //        assertTrue(hits==9);
     }
 
+    public void testBatchPrediction() {
+
+        DataOnMemory<DataInstance> batch = data.streamOfBatches(20).findFirst().get();
+        batch.stream().forEach(d -> d.setValue(aode.getClassVar(), Utils.missingValue()));
+
+        List<Multinomial> posteriors = aode.predict(batch);
+
+        //The exact posteriors of the class variables of all the estimators are computed from the joint probability.
+        BayesianNetwork bn = aode.getModel();
+        Variable classVar = aode.getClassVar();
+        List<Variable> classVariables = bn.getVariables().getListOfVariables().stream()
+                .filter(v -> v.getAttribute().equals(classVar.getAttribute()))
+                .collect(Collectors.toList());
+        int nStates = classVar.getNumberOfStates();
+        int nConfigurations = MultinomialIndex.getNumberOfPossibleAssignments(classVariables);
+        for (int i = 0; i < batch.getNumberOfDataInstances(); i++) {
+            DataInstance d = batch.getDataInstance(i);
+            HashMapAssignment assignment = new HashMapAssignment();
+            bn.getVariables().getListOfVariables().stream()
+                    .filter(v -> !classVariables.contains(v))
+                    .forEach(v -> assignment.setValue(v, d.getValue(v.getAttribute())));
+
+            double[][] marginals = new double[classVariables.size()][nStates];
+            for (int k = 0; k < nConfigurations; k++) {
+                double[] states = MultinomialIndex.getVariableArrayAssignmentFromIndex(classVariables, k);
+                for (int c = 0; c < classVariables.size(); c++) {
+                    assignment.setValue(classVariables.get(c), states[c]);
+                }
+                double probability = Math.exp(bn.getLogProbabiltyOf(assignment));
+                for (int c = 0; c < classVariables.size(); c++) {
+                    marginals[c][(int) states[c]] += probability;
+                }
+            }
+
+            double[] expected = new double[nStates];
+            for (double[] marginal : marginals) {
+                double[] posterior = Utils.normalize(marginal);
+                for (int j = 0; j < nStates; j++) {
+                    expected[j] += posterior[j];
+                }
+            }
+            expected = Utils.normalize(expected);
+
+            double[] values = posteriors.get(i).getProbabilities();
+            for (int j = 0; j < nStates; j++) {
+                assertEquals(expected[j], values[j], 1e-6);
+            }
+        }
+    }
+
 }
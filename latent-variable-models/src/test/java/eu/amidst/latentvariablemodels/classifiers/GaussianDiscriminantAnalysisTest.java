@@ -15,8 +15,10 @@ import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.utils.DataSetGenerator;
 import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.HashMapAssignment;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.latentvariablemodels.staticmodels.classifiers.GaussianDiscriminantAnalysis;
 import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfigurationException;
@@ -124,4 +126,32 @@ public class GaussianDiscriminantAnalysisTest extends TestCase {
 
 
 
+    public void testBatchPrediction() {
+
+        DataOnMemory<DataInstance> batch = data.streamOfBatches(50).findFirst().get();
+        batch.stream().forEach(d -> d.setValue(gda.getClassVar(), Utils.missingValue()));
+
+        List<Multinomial> posteriors = gda.predict(batch);
+
+        BayesianNetwork bn = gda.getModel();
+        Variable classVar = gda.getClassVar();
+        for (int i = 0; i < batch.getNumberOfDataInstances(); i++) {
+            DataInstance d = batch.getDataInstance(i);
+            HashMapAssignment assignment = new HashMapAssignment();
+            bn.getVariables().getListOfVariables().forEach(v -> assignment.setValue(v, d.getValue(v)));
+
+            double[] logExpected = new double[classVar.getNumberOfStates()];
+            for (int c = 0; c < logExpected.length; c++) {
+                assignment.setValue(classVar, c);
+                logExpected[c] = bn.getLogProbabiltyOf(assignment);
+            }
+            double[] expected = Utils.logs2probs(logExpected);
+
+            double[] values = posteriors.get(i).getProbabilities();
+            for (int c = 0; c < expected.length; c++) {
+                assertEquals(expected[c], values[c], 1e-6);
+            }
+        }
+    }
+
 }
@@ -15,8 +15,10 @@ import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.utils.DataSetGenerator;
 import eu.amidst.core.utils.Utils;
+import eu.amidst.core.variables.HashMapAssignment;
 import eu.amidst.core.variables.Variable;
 import eu.amidst.latentvariablemodels.staticmodels.classifiers.HODE;
 import eu.amidst.latentvariablemodels.staticmodels.exceptions.WrongConfigurationException;
@@ -124,4 +126,39 @@ public class HODETest extends TestCase{
 
     }
 
+    public void testBatchPrediction() {
+
+        DataOnMemory<DataInstance> batch = data.streamOfBatches(50).findFirst().get();
+        batch.stream().forEach(d -> d.setValue(hode.getClassVar(), Utils.missingValue()));
+
+        List<Multinomial> posteriors = hode.predict(batch);
+
+        //The exact posterior sums the joint probability over the states of the hidden super parent.
+        BayesianNetwork bn = hode.getModel();
+        Variable classVar = hode.getClassVar();
+        Variable superParentVar = bn.getVariables().getVariableByName("superParentVar");
+        for (int i = 0; i < batch.getNumberOfDataInstances(); i++) {
+            DataInstance d = batch.getDataInstance(i);
+            HashMapAssignment assignment = new HashMapAssignment();
+            bn.getVariables().getListOfVariables().stream()
+                    .filter(v -> v.isObservable() && !v.equals(classVar))
+                    .forEach(v -> assignment.setValue(v, d.getValue(v)));
+
+            double[] expected = new double[classVar.getNumberOfStates()];
+            for (int c = 0; c < expected.length; c++) {
+                for (int z = 0; z < superParentVar.getNumberOfStates(); z++) {
+                    assignment.setValue(classVar, c);
+                    assignment.setValue(superParentVar, z);
+                    expected[c] += Math.exp(bn.getLogProbabiltyOf(assignment));
+                }
+            }
+            expected = Utils.normalize(expected);
+
+            double[] values = posteriors.get(i).getProbabilities();
+            for (int c = 0; c < expected.length; c++) {
+                assertEquals(expected[c], values[c], 1e-6);
+            }
+        }
+    }
+
 }
\ No newline at end of file
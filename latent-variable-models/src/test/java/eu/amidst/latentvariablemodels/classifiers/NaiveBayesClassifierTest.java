@@ -15,6 +15,7 @@ import eu.amidst.core.datastream.DataInstance;
 import eu.amidst.core.datastream.DataOnMemory;
 import eu.amidst.core.datastream.DataStream;
 import eu.amidst.core.distribution.Multinomial;
+import eu.amidst.core.inference.messagepassing.VMP;
 import eu.amidst.core.learning.parametric.ParallelMaximumLikelihood;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.utils.DataSetGenerator;
@@ -127,6 +128,25 @@ public class NaiveBayesClassifierTest extends TestCase {
     }
 
 
+    public void testBatchPrediction() {
+
+        DataOnMemory<DataInstance> batch = data.streamOfBatches(50).findFirst().get();
+        batch.stream().forEach(d -> d.setValue(nb.getClassVar(), Utils.missingValue()));
+
+        List<Multinomial> posteriors = nb.predict(batch);
+
+        //With only the class variable unobserved, VMP computes the exact posterior.
+        nb.setInferenceAlgoPredict(new VMP());
+        for (int i = 0; i < batch.getNumberOfDataInstances(); i++) {
+            double[] expected = nb.predict(batch.getDataInstance(i)).getProbabilities();
+            double[] values = posteriors.get(i).getProbabilities();
+            for (int j = 0; j < expected.length; j++) {
+                assertEquals(expected[j], values[j], 1e-6);
+            }
+        }
+    }
+
+
     public void testNBClassifier() {
 
         long time = System.nanoTime();
@@ -24,6 +24,7 @@ import eu.amidst.core.datastream.filereaders.DataInstanceFromDataRow;
 import eu.amidst.core.distribution.Normal;
 import eu.amidst.core.inference.InferenceAlgorithm;
 import eu.amidst.core.inference.messagepassing.VMP;
+import eu.amidst.core.learning.parametric.BackgroundLearner;
 import eu.amidst.core.learning.parametric.ParameterLearningAlgorithm;
 import eu.amidst.core.learning.parametric.bayesian.SVB;
 import eu.amidst.core.models.BayesianNetwork;
@@ -61,6 +62,9 @@ public class AmidstRegressor extends AbstractClassifier implements Regressor {
     /** Represents the parallel mode. */
     protected boolean parallelMode_ = false;
 
+    /** Represents the background learning mode. */
+    protected boolean backgroundLearning_ = false;
+
     /** Represents a {@link DAG} object. */
     private DAG dag = null;
 
@@ -79,6 +83,9 @@ public class AmidstRegressor extends AbstractClassifier implements Regressor {
     /** Represents the used {@link InferenceAlgorithm}. */
     InferenceAlgorithm predictions_;
 
+    /** Represents the {@link BackgroundLearner} used in background learning mode. */
+    private transient BackgroundLearner<InferenceAlgorithm> backgroundLearner_;
+
     /** Represents the set of {@link Attributes}. */
     Attributes attributes_;
 
@@ -177,12 +184,39 @@ public class AmidstRegressor extends AbstractClassifier implements Regressor {
         this.parallelMode_ = parallelMode_;
     }
 
+    /**
+     * Creates a new object of the class {@link moa.options.FlagOption}.
+     * Specifies whether full windows are learnt on a background thread.
+     */
+    public FlagOption backgroundLearningOption = new FlagOption("backgroundLearning", 'b',
+            "Learn full windows on a background thread, and swap the model used for predictions when ready");
+
+    /**
+     * Tests whether full windows are learnt on a background thread. In this mode, training never waits for learning,
+     * and predictions use the last learnt model until the next one is ready.
+     * @return {@code true} if the background learning mode is used, {@code false} otherwise.
+     */
+    public boolean isBackgroundLearning_() {
+        return backgroundLearning_;
+    }
+
+    /**
+     * Sets the background learning mode.
+     * @param backgroundLearning_ a {@code boolean} that represents the background learning mode value to be set.
+     */
+    public void setBackgroundLearning_(boolean backgroundLearning_) {
+        this.backgroundLearning_ = backgroundLearning_;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void resetLearningImpl() {
-
+        if (backgroundLearner_ != null) {
+            backgroundLearner_.close();
+            backgroundLearner_ = null;
+        }
     }
 
     /**
@@ -195,6 +229,7 @@ public class AmidstRegressor extends AbstractClassifier implements Regressor {
         setnOfGaussianHiddenVars_(nOfGaussianHiddenVarsOption.getValue());
         setnOfStatesMultHiddenVar_(nOfStatesMultHiddenVarOption.getValue());
         setParallelMode_(parallelModeOption.isSet());
+        setBackgroundLearning_(backgroundLearningOption.isSet());
 
         attributes_ = Converter.convertAttributes(this.modelContext);
         Variables modelHeader = new Variables(attributes_);
@@ -268,20 +303,51 @@ public class AmidstRegressor extends AbstractClassifier implements Regressor {
             batch_.add(dataInstance);
         }else{                                                  //store & learn
             batch_.add(dataInstance);
-            if(bnModel_==null) {
-                //parameterLearningAlgorithm_.setParallelMode(isParallelMode_());
-                parameterLearningAlgorithm_.setDAG(dag);
-                parameterLearningAlgorithm_.initLearning();
-                parameterLearningAlgorithm_.updateModel(batch_);
-            }else{
-                parameterLearningAlgorithm_.updateModel(batch_);
+            if(isBackgroundLearning_()) {                         //the window is learnt on the background thread
+                getBackgroundLearner().submit(batch_);
+            }else {
+                if(bnModel_==null) {
+                    //parameterLearningAlgorithm_.setParallelMode(isParallelMode_());
+                    parameterLearningAlgorithm_.setDAG(dag);
+                    parameterLearningAlgorithm_.initLearning();
+                    parameterLearningAlgorithm_.updateModel(batch_);
+                }else{
+                    parameterLearningAlgorithm_.updateModel(batch_);
+                }
+                bnModel_ = parameterLearningAlgorithm_.getLearntBayesianNetwork();
+                predictions_.setModel(bnModel_);
             }
-            bnModel_ = parameterLearningAlgorithm_.getLearntBayesianNetwork();
-            predictions_.setModel(bnModel_);
             batch_ = new DataOnMemoryListContainer(attributes_);
         }
     }
 
+    /**
+     * Returns the {@link BackgroundLearner} of this AmidstRegressor, initializing the learning the first time.
+     * @return a {@link BackgroundLearner} object.
+     */
+    private BackgroundLearner<InferenceAlgorithm> getBackgroundLearner() {
+        if (backgroundLearner_ == null) {
+            parameterLearningAlgorithm_.setDAG(dag);
+            parameterLearningAlgorithm_.initLearning();
+            backgroundLearner_ = new BackgroundLearner<>(parameterLearningAlgorithm_, this::newPredictions);
+        }
+        return backgroundLearner_;
+    }
+
+    /**
+     * Creates the {@link InferenceAlgorithm} used for predictions with a given model. It is run on the background
+     * thread, so the model is already compiled when the predictions are swapped.
+     * @param model a {@link BayesianNetwork} object.
+     * @return an {@link InferenceAlgorithm} object.
+     */
+    private InferenceAlgorithm newPredictions(BayesianNetwork model) {
+        VMP vmp = new VMP();
+        vmp.setCompiledMode(true);
+        vmp.setSeed(this.randomSeed);
+        vmp.setModel(model);
+        return vmp;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -311,16 +377,21 @@ public class AmidstRegressor extends AbstractClassifier implements Regressor {
      */
     @Override
     public double[] getVotesForInstance(Instance instance) {
-        if(bnModel_ == null) {
+
+        InferenceAlgorithm predictions = (isBackgroundLearning_())?
+                ((backgroundLearner_ == null)? null : backgroundLearner_.getScorer()) :
+                ((bnModel_ == null)? null : predictions_);
+
+        if(predictions == null) {
             return new double[0];
         }
 
         DataInstance dataInstance = new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_));
         double realValue = dataInstance.getValue(targetVar_);
         dataInstance.setValue(targetVar_, Utils.missingValue());
-        this.predictions_.setEvidence(dataInstance);
-        this.predictions_.runInference();
-        Normal normal = this.predictions_.getPosterior(targetVar_);
+        predictions.setEvidence(dataInstance);
+        predictions.runInference();
+        Normal normal = predictions.getPosterior(targetVar_);
         dataInstance.setValue(targetVar_, realValue);
         return new double[] {normal.getMean()};
     }
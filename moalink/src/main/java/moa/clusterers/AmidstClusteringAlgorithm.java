@@ -24,6 +24,7 @@ import eu.amidst.core.datastream.filereaders.DataInstanceFromDataRow;
 import eu.amidst.core.distribution.Multinomial;
 import eu.amidst.core.inference.InferenceAlgorithm;
 import eu.amidst.core.inference.messagepassing.VMP;
+import eu.amidst.core.learning.parametric.BackgroundLearner;
 import eu.amidst.core.learning.parametric.ParameterLearningAlgorithm;
 import eu.amidst.core.learning.parametric.bayesian.SVB;
 import eu.amidst.core.models.BayesianNetwork;
@@ -58,6 +59,9 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
     /** Represents the parallel mode. */
     protected boolean parallelMode_ = false;
 
+    /** Represents the background learning mode. */
+    protected boolean backgroundLearning_ = false;
+
     /** Represents the data stream batch. */
     private DataOnMemoryListContainer<DataInstance> batch_;
 
@@ -76,6 +80,9 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
     /** Represents the used {@link InferenceAlgorithm}. */
     InferenceAlgorithm predictions_;
 
+    /** Represents the {@link BackgroundLearner} used in background learning mode. */
+    private transient BackgroundLearner<InferenceAlgorithm> backgroundLearner_;
+
     /**
      * Creates a new object of the class {@link moa.options.IntOption}.
      * Specifies the window size for this AmidstClusteringAlgorithm.
@@ -129,6 +136,30 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
         this.parallelMode_ = parallelMode_;
     }
 
+    /**
+     * Creates a new object of the class {@link moa.options.FlagOption}.
+     * Specifies whether full windows are learnt on a background thread.
+     */
+    public FlagOption backgroundLearningOption = new FlagOption("backgroundLearning", 'b',
+            "Learn each full window on a background thread, and cluster with the last learnt model");
+
+    /**
+     * Tests whether full windows are learnt on a background thread. In this mode, {@link #getClusteringResult()}
+     * does not learn, and it assigns the clusters with the last learnt model.
+     * @return {@code true} if the background learning mode is used, {@code false} otherwise.
+     */
+    public boolean isBackgroundLearning_() {
+        return backgroundLearning_;
+    }
+
+    /**
+     * Sets the background learning mode.
+     * @param backgroundLearning_ a {@code boolean} that represents the background learning mode value to be set.
+     */
+    public void setBackgroundLearning_(boolean backgroundLearning_) {
+        this.backgroundLearning_ = backgroundLearning_;
+    }
+
     /**
      * Returns the data set.
      * @param numatt an {@code int} that represents the number of attributes.
@@ -163,6 +194,30 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
     public void resetLearningImpl() {
         batch_ = null;
         windowCounter = 0;
+        if (backgroundLearner_ != null) {
+            backgroundLearner_.close();
+            backgroundLearner_ = null;
+        }
+    }
+
+    /**
+     * Returns the {@link BackgroundLearner} of this AmidstClusteringAlgorithm, initializing the learning the first time.
+     * @return a {@link BackgroundLearner} object.
+     */
+    private BackgroundLearner<InferenceAlgorithm> getBackgroundLearner() {
+        if (backgroundLearner_ == null) {
+            parameterLearningAlgorithm_.setDAG(dag);
+            ((SVB)parameterLearningAlgorithm_).setWindowsSize(timeWindowOption.getValue());
+            parameterLearningAlgorithm_.initLearning();
+            backgroundLearner_ = new BackgroundLearner<>(parameterLearningAlgorithm_, model -> {
+                VMP vmp = new VMP();
+                vmp.setCompiledMode(true);
+                vmp.setSeed(this.randomSeed);
+                vmp.setModel(model);
+                return vmp;
+            });
+        }
+        return backgroundLearner_;
     }
 
     /**
@@ -172,6 +227,7 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
     public void trainOnInstanceImpl(Instance instance) {
         if(batch_ == null){
             setParallelMode_(parallelModeOption.isSet());
+            setBackgroundLearning_(backgroundLearningOption.isSet());
             setNumClusters(numberClustersOption.getValue());
 
             attributes_ = Converter.convertAttributes(getDataset(instance.numAttributes(), 0).enumerateAttributes());
@@ -205,6 +261,8 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
         }
 
         if(windowCounter >= timeWindowOption.getValue()){
+            if (isBackgroundLearning_())
+                getBackgroundLearner().submit(batch_);
             batch_ = new DataOnMemoryListContainer(attributes_);
             windowCounter = 0;
         }
@@ -223,23 +281,33 @@ public class AmidstClusteringAlgorithm extends AbstractClusterer {
         Instances dataset = getDataset(attributes_.getNumberOfAttributes(), getNumClusters());
         Instances newInstances = new Instances(dataset);
 
-        if(bnModel_==null) {
-            //parameterLearningAlgorithm_.setParallelMode(isParallelMode_());
-            parameterLearningAlgorithm_.setDAG(dag);
-            ((SVB)parameterLearningAlgorithm_).setWindowsSize(timeWindowOption.getValue());
-            parameterLearningAlgorithm_.initLearning();
-            parameterLearningAlgorithm_.updateModel(batch_);
+        InferenceAlgorithm predictions;
+        if(isBackgroundLearning_()) {
+            predictions = (backgroundLearner_ == null)? null : backgroundLearner_.getScorer();
+            if (predictions == null) {                      //no window has been learnt yet
+                clustering = new Clustering();
+                return clustering;
+            }
         }else {
-            parameterLearningAlgorithm_.updateModel(batch_);
-        }
+            if(bnModel_==null) {
+                //parameterLearningAlgorithm_.setParallelMode(isParallelMode_());
+                parameterLearningAlgorithm_.setDAG(dag);
+                ((SVB)parameterLearningAlgorithm_).setWindowsSize(timeWindowOption.getValue());
+                parameterLearningAlgorithm_.initLearning();
+                parameterLearningAlgorithm_.updateModel(batch_);
+            }else {
+                parameterLearningAlgorithm_.updateModel(batch_);
+            }
 
-        bnModel_ = parameterLearningAlgorithm_.getLearntBayesianNetwork();
-        predictions_.setModel(bnModel_);
+            bnModel_ = parameterLearningAlgorithm_.getLearntBayesianNetwork();
+            predictions_.setModel(bnModel_);
+            predictions = predictions_;
+        }
 
         for (DataInstance dataInstance: batch_) {
-            this.predictions_.setEvidence(dataInstance);
-            this.predictions_.runInference();
-            Multinomial multinomial = this.predictions_.getPosterior(clusterVar_);
+            predictions.setEvidence(dataInstance);
+            predictions.runInference();
+            Multinomial multinomial = predictions.getPosterior(clusterVar_);
 
             double[] results =  multinomial.getProbabilities();
 
@@ -23,6 +23,7 @@ import eu.amidst.core.exponentialfamily.EF_BayesianNetwork;
 import eu.amidst.core.exponentialfamily.SufficientStatistics;
 import eu.amidst.core.models.BayesianNetwork;
 import eu.amidst.core.models.DAG;
+import eu.amidst.core.utils.ArrayVector;
 import eu.amidst.sparklink.core.data.DataSpark;
 
 
@@ -61,6 +62,12 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm, Se
 
     double numInstances;
 
+    /**
+     * Represents whether each partition folds its data instances into a single flat vector of sufficient
+     * statistics, merged with a tree reduce.
+     */
+    protected boolean partitionAggregation = true;
+
     public void initLearning() {
         efBayesianNetwork = new EF_BayesianNetwork(dag);
         sumSS = efBayesianNetwork.createInitSufficientStatistics();
@@ -76,6 +83,16 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm, Se
         return 0;
     }
 
+    /**
+     * Sets whether the sufficient statistics are aggregated per partition. In this mode, each partition
+     * emits a single {@link ArrayVector} with the sum of the statistics of its data instances and their count,
+     * and the partitions are merged with a tree reduce instead of on the driver.
+     * @param partitionAggregation a {@code boolean} value, {@code true} by default.
+     */
+    public void setPartitionAggregation(boolean partitionAggregation) {
+        this.partitionAggregation = partitionAggregation;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -108,6 +125,22 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm, Se
     @Override
     public double updateModel(DataSpark dataUpdate) {
 
+            if (this.partitionAggregation) {
+                EF_BayesianNetwork ef_bayesianNetwork = this.efBayesianNetwork;
+                double[] flatSS = dataUpdate.getDataSet()
+                        .mapPartitions(iter -> flatSufficientStatisticsMap(iter, ef_bayesianNetwork))
+                        .treeReduce(ParallelMaximumLikelihood::flatSufficientStatisticsReduce)
+                        .toArray();
+
+                //Add the prior, the last position contains the number of instances
+                this.sumSS = efBayesianNetwork.createInitSufficientStatistics();
+                this.sumSS.sumFrom(flatSS, 0);
+                numInstances = flatSS[flatSS.length - 1];
+                numInstances++;//Initial counts
+
+                return this.getLogMarginalProbability();
+            }
+
             //this.sumSS = computeSufficientStatistics(dataUpdate, efBayesianNetwork);
 
             this.sumSS = dataUpdate.getDataSet()
@@ -187,6 +220,31 @@ public class ParallelMaximumLikelihood implements ParameterLearningAlgorithm, Se
         return result;
     }
 
+    private static Iterable<ArrayVector> flatSufficientStatisticsMap(Iterator<DataInstance> iter, EF_BayesianNetwork ef_bayesianNetwork) {
+
+        SufficientStatistics accumulator = ef_bayesianNetwork.createZeroSufficientStatistics();
+        double count = 0;
+        while (iter.hasNext()) {
+            ef_bayesianNetwork.addSufficientStatisticsTo(iter.next(), accumulator, 1.0);
+            count++;
+        }
+
+        double[] flatSS = new double[accumulator.size() + 1];
+        accumulator.sumTo(flatSS, 0);
+        flatSS[accumulator.size()] = count;
+
+        ArrayList<ArrayVector> result = new ArrayList<>(1);
+        result.add(new ArrayVector(flatSS));
+        return result;
+    }
+
+    private static ArrayVector flatSufficientStatisticsReduce(ArrayVector vector1, ArrayVector vector2) {
+
+        vector1.sum(vector2);
+
+        return vector1;
+    }
+
     private static SufficientStatistics sufficientStatisticsReduce(SufficientStatistics sta1, SufficientStatistics sta2) {
 
         sta1.sum(sta2);
@@ -24,6 +24,7 @@ import eu.amidst.core.datastream.filereaders.DataInstanceFromDataRow;
 import eu.amidst.core.distribution.Multinomial;
 import eu.amidst.core.inference.ImportanceSampling;
 import eu.amidst.core.inference.InferenceAlgorithm;
+import eu.amidst.core.learning.parametric.BackgroundLearner;
 import eu.amidst.core.learning.parametric.ParameterLearningAlgorithm;
 import eu.amidst.core.learning.parametric.bayesian.SVB;
 import eu.amidst.core.models.BayesianNetwork;
@@ -69,6 +70,18 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
     /** Represents the set of {@link Attributes}. */
     Attributes attributes_;
 
+    /** Represents whether the updates are learnt on a background thread. */
+    protected boolean backgroundLearning_ = false;
+
+    /** Represents the number of instances of the windows learnt in background learning mode. */
+    protected int windowSize_ = 100;
+
+    /** Represents the {@link BackgroundLearner} used in background learning mode. */
+    private transient BackgroundLearner<InferenceAlgorithm> backgroundLearner_;
+
+    /** Represents the window of instances waiting to be learnt in background learning mode. */
+    private transient DataOnMemoryListContainer<DataInstance> window_;
+
     public int getnOfGaussianHiddenVars_() {
         return nOfGaussianHiddenVars_;
     }
@@ -85,6 +98,28 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
         this.nOfStatesMultHiddenVar_ = nOfStatesMultHiddenVar_;
     }
 
+    /**
+     * Tests whether the updates are learnt on a background thread. In this mode, {@link #updateClassifier(Instance)}
+     * collects the instances in windows, which are learnt on a background thread, and the predictions use the last
+     * learnt model until the next one is ready.
+     * @return {@code true} if the background learning mode is used, {@code false} otherwise.
+     */
+    public boolean isBackgroundLearning_() {
+        return backgroundLearning_;
+    }
+
+    public void setBackgroundLearning_(boolean backgroundLearning_) {
+        this.backgroundLearning_ = backgroundLearning_;
+    }
+
+    public int getWindowSize_() {
+        return windowSize_;
+    }
+
+    public void setWindowSize_(int windowSize_) {
+        this.windowSize_ = windowSize_;
+    }
+
     /**
      * Returns default capabilities of the classifier.
      *
@@ -180,6 +215,11 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
 
         System.out.println(bnModel_);
         inferenceAlgorithm_.setModel(bnModel_);
+
+        if (backgroundLearner_ != null)
+            backgroundLearner_.close();
+        backgroundLearner_ = null;
+        window_ = null;
     }
 
     /**
@@ -190,6 +230,19 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
      *              model.
      */
     public void updateClassifier(Instance instance) throws Exception {
+        if (isBackgroundLearning_()) {
+            if (backgroundLearner_ == null) {
+                backgroundLearner_ = new BackgroundLearner<>(parameterLearningAlgorithm_, this::newInferenceAlgorithm);
+                window_ = new DataOnMemoryListContainer(attributes_);
+            }
+            window_.add(new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_)));
+            if (window_.getNumberOfDataInstances() >= getWindowSize_()) {
+                backgroundLearner_.submit(window_);
+                window_ = new DataOnMemoryListContainer(attributes_);
+            }
+            return;
+        }
+
         DataOnMemoryListContainer<DataInstance> batch_ = new DataOnMemoryListContainer(attributes_);
 
         batch_.add(new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_)));
@@ -200,6 +253,29 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
         inferenceAlgorithm_.setModel(bnModel_);
     }
 
+    /**
+     * Creates the {@link InferenceAlgorithm} used for predictions with a given model. In background learning mode,
+     * it is run on the background thread, so the model is already set when the predictions are swapped.
+     * @param model a {@link BayesianNetwork} object.
+     * @return an {@link InferenceAlgorithm} object.
+     */
+    private InferenceAlgorithm newInferenceAlgorithm(BayesianNetwork model) {
+        InferenceAlgorithm inferenceAlgorithm = new ImportanceSampling();
+        inferenceAlgorithm.setSeed(this.getSeed());
+        inferenceAlgorithm.setModel(model);
+        return inferenceAlgorithm;
+    }
+
+    /**
+     * Returns the {@link InferenceAlgorithm} used for predictions, i.e., the one of the last model learnt on the
+     * background thread, if any.
+     * @return an {@link InferenceAlgorithm} object.
+     */
+    private InferenceAlgorithm getInferenceAlgorithm() {
+        InferenceAlgorithm inferenceAlgorithm = (backgroundLearner_ == null)? null : backgroundLearner_.getScorer();
+        return (inferenceAlgorithm == null)? inferenceAlgorithm_ : inferenceAlgorithm;
+    }
+
     /**
      * Calculates the class membership probabilities for the given test instance.
      *
@@ -214,12 +290,14 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
             //return new double[0];
         }
 
+        InferenceAlgorithm inferenceAlgorithm = this.getInferenceAlgorithm();
+
         DataInstance dataInstance = new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_));
         double realValue = dataInstance.getValue(classVar_);
         dataInstance.setValue(classVar_, eu.amidst.core.utils.Utils.missingValue());
-        this.inferenceAlgorithm_.setEvidence(dataInstance);
-        this.inferenceAlgorithm_.runInference();
-        Multinomial multinomial = this.inferenceAlgorithm_.getPosterior(classVar_);
+        inferenceAlgorithm.setEvidence(dataInstance);
+        inferenceAlgorithm.runInference();
+        Multinomial multinomial = inferenceAlgorithm.getPosterior(classVar_);
         dataInstance.setValue(classVar_, realValue);
         return multinomial.getProbabilities();
     }
@@ -232,7 +310,7 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
     @Override
     public Enumeration<Option> listOptions() {
 
-        Vector<Option> newVector = new Vector<Option>(2);
+        Vector<Option> newVector = new Vector<Option>(4);
 
         newVector.addElement(new Option(
                 "\tNumber of Gaussian hidden variables.\n"+
@@ -242,6 +320,14 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
                 "\tNumber of states of the discrete hidden variable.\n"+
                         "\t(Default = 0)",
                 "S", 1,"-S <number of states>"));
+        newVector.addElement(new Option(
+                "\tLearn the updates on a background thread.\n"+
+                        "\t(Default = false)",
+                "B", 0,"-B"));
+        newVector.addElement(new Option(
+                "\tNumber of instances of the windows learnt in background.\n"+
+                        "\t(Default = 100)",
+                "W", 1,"-W <window size>"));
 
         newVector.addAll(Collections.list(super.listOptions()));
 
@@ -265,6 +351,16 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
      *  Number of states of the hidden discrete variables
      * </pre>
      *
+     * <pre>
+     * -B
+     *  Learn the updates on a background thread
+     * </pre>
+     *
+     * <pre>
+     * -W
+     *  Number of instances of the windows learnt in background
+     * </pre>
+     *
      * <!-- options-end -->
      *
      * @param options the list of options as an array of strings
@@ -285,6 +381,15 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
         } else {
             setnOfStatesMultHiddenVar_(0);
         }
+
+        setBackgroundLearning_(Utils.getFlag('B', options));
+
+        String windowSizeString = Utils.getOption('W', options);
+        if (windowSizeString.length() != 0) {
+            setWindowSize_(Integer.parseInt(windowSizeString));
+        } else {
+            setWindowSize_(100);
+        }
     }
 
     /**
@@ -298,6 +403,9 @@ public class AmidstClassifier extends AbstractClassifier implements OptionHandle
         Vector<String> options = new Vector<String>();
         options.add("-G"); options.add("" + getnOfGaussianHiddenVars_());
         options.add("-S"); options.add("" + getnOfStatesMultHiddenVar_());
+        if (isBackgroundLearning_())
+            options.add("-B");
+        options.add("-W"); options.add("" + getWindowSize_());
 
         Collections.addAll(options, super.getOptions());
 
@@ -24,6 +24,7 @@ import eu.amidst.core.datastream.filereaders.DataInstanceFromDataRow;
 import eu.amidst.core.distribution.Normal;
 import eu.amidst.core.inference.ImportanceSampling;
 import eu.amidst.core.inference.InferenceAlgorithm;
+import eu.amidst.core.learning.parametric.BackgroundLearner;
 import eu.amidst.core.learning.parametric.ParameterLearningAlgorithm;
 import eu.amidst.core.learning.parametric.bayesian.SVB;
 import eu.amidst.core.models.BayesianNetwork;
@@ -66,6 +67,18 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
     /** Represents the set of {@link Attributes}. */
     Attributes attributes_;
 
+    /** Represents whether the updates are learnt on a background thread. */
+    protected boolean backgroundLearning_ = false;
+
+    /** Represents the number of instances of the windows learnt in background learning mode. */
+    protected int windowSize_ = 100;
+
+    /** Represents the {@link BackgroundLearner} used in background learning mode. */
+    private transient BackgroundLearner<InferenceAlgorithm> backgroundLearner_;
+
+    /** Represents the window of instances waiting to be learnt in background learning mode. */
+    private transient DataOnMemoryListContainer<DataInstance> window_;
+
     public int getnOfGaussianHiddenVars_() {
         return nOfGaussianHiddenVars_;
     }
@@ -74,6 +87,28 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
         this.nOfGaussianHiddenVars_ = nOfGaussianHiddenVars_;
     }
 
+    /**
+     * Tests whether the updates are learnt on a background thread. In this mode, {@link #updateClassifier(Instance)}
+     * collects the instances in windows, which are learnt on a background thread, and the predictions use the last
+     * learnt model until the next one is ready.
+     * @return {@code true} if the background learning mode is used, {@code false} otherwise.
+     */
+    public boolean isBackgroundLearning_() {
+        return backgroundLearning_;
+    }
+
+    public void setBackgroundLearning_(boolean backgroundLearning_) {
+        this.backgroundLearning_ = backgroundLearning_;
+    }
+
+    public int getWindowSize_() {
+        return windowSize_;
+    }
+
+    public void setWindowSize_(int windowSize_) {
+        this.windowSize_ = windowSize_;
+    }
+
     /**
      * Returns default capabilities of the classifier.
      *
@@ -160,6 +195,11 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
 
         System.out.println(bnModel_);
         inferenceAlgorithm_.setModel(bnModel_);
+
+        if (backgroundLearner_ != null)
+            backgroundLearner_.close();
+        backgroundLearner_ = null;
+        window_ = null;
     }
 
     /**
@@ -170,6 +210,19 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
      *              model.
      */
     public void updateClassifier(Instance instance) throws Exception {
+        if (isBackgroundLearning_()) {
+            if (backgroundLearner_ == null) {
+                backgroundLearner_ = new BackgroundLearner<>(parameterLearningAlgorithm_, this::newInferenceAlgorithm);
+                window_ = new DataOnMemoryListContainer(attributes_);
+            }
+            window_.add(new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_)));
+            if (window_.getNumberOfDataInstances() >= getWindowSize_()) {
+                backgroundLearner_.submit(window_);
+                window_ = new DataOnMemoryListContainer(attributes_);
+            }
+            return;
+        }
+
         DataOnMemoryListContainer<DataInstance> batch_ = new DataOnMemoryListContainer(attributes_);
 
         batch_.add(new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_)));
@@ -180,6 +233,29 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
         inferenceAlgorithm_.setModel(bnModel_);
     }
 
+    /**
+     * Creates the {@link InferenceAlgorithm} used for predictions with a given model. In background learning mode,
+     * it is run on the background thread, so the model is already set when the predictions are swapped.
+     * @param model a {@link BayesianNetwork} object.
+     * @return an {@link InferenceAlgorithm} object.
+     */
+    private InferenceAlgorithm newInferenceAlgorithm(BayesianNetwork model) {
+        InferenceAlgorithm inferenceAlgorithm = new ImportanceSampling();
+        inferenceAlgorithm.setSeed(this.getSeed());
+        inferenceAlgorithm.setModel(model);
+        return inferenceAlgorithm;
+    }
+
+    /**
+     * Returns the {@link InferenceAlgorithm} used for predictions, i.e., the one of the last model learnt on the
+     * background thread, if any.
+     * @return an {@link InferenceAlgorithm} object.
+     */
+    private InferenceAlgorithm getInferenceAlgorithm() {
+        InferenceAlgorithm inferenceAlgorithm = (backgroundLearner_ == null)? null : backgroundLearner_.getScorer();
+        return (inferenceAlgorithm == null)? inferenceAlgorithm_ : inferenceAlgorithm;
+    }
+
 
     @Override
     public double classifyInstance(Instance instance) throws Exception {
@@ -187,12 +263,14 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
             throw new UnsupportedOperationException("The model was not learnt");
         }
 
+        InferenceAlgorithm inferenceAlgorithm = this.getInferenceAlgorithm();
+
         DataInstance dataInstance = new DataInstanceFromDataRow(new DataRowWeka(instance, this.attributes_));
         double realValue = dataInstance.getValue(targetVar_);
         dataInstance.setValue(targetVar_, eu.amidst.core.utils.Utils.missingValue());
-        this.inferenceAlgorithm_.setEvidence(dataInstance);
-        this.inferenceAlgorithm_.runInference();
-        Normal normal = this.inferenceAlgorithm_.getPosterior(targetVar_);
+        inferenceAlgorithm.setEvidence(dataInstance);
+        inferenceAlgorithm.runInference();
+        Normal normal = inferenceAlgorithm.getPosterior(targetVar_);
         dataInstance.setValue(targetVar_, realValue);
         return normal.getMean();
     }
@@ -205,12 +283,20 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
     @Override
     public Enumeration<Option> listOptions() {
 
-        Vector<Option> newVector = new Vector<Option>(1);
+        Vector<Option> newVector = new Vector<Option>(3);
 
         newVector.addElement(new Option(
                 "\tNumber of Gaussian hidden variables.\n"+
                         "\t(Default = 0)",
                 "G", 1,"-G <number of Gaussian hidden>"));
+        newVector.addElement(new Option(
+                "\tLearn the updates on a background thread.\n"+
+                        "\t(Default = false)",
+                "B", 0,"-B"));
+        newVector.addElement(new Option(
+                "\tNumber of instances of the windows learnt in background.\n"+
+                        "\t(Default = 100)",
+                "W", 1,"-W <window size>"));
 
         newVector.addAll(Collections.list(super.listOptions()));
 
@@ -229,6 +315,16 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
      *  Number of hidden Gaussian variables
      * </pre>
      *
+     * <pre>
+     * -B
+     *  Learn the updates on a background thread
+     * </pre>
+     *
+     * <pre>
+     * -W
+     *  Number of instances of the windows learnt in background
+     * </pre>
+     *
      * <!-- options-end -->
      *
      * @param options the list of options as an array of strings
@@ -242,6 +338,15 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
         } else {
             setnOfGaussianHiddenVars_(0);
         }
+
+        setBackgroundLearning_(Utils.getFlag('B', options));
+
+        String windowSizeString = Utils.getOption('W', options);
+        if (windowSizeString.length() != 0) {
+            setWindowSize_(Integer.parseInt(windowSizeString));
+        } else {
+            setWindowSize_(100);
+        }
     }
 
     /**
@@ -254,6 +359,9 @@ public class AmidstRegressor extends AbstractClassifier implements OptionHandler
 
         Vector<String> options = new Vector<String>();
         options.add("-G"); options.add("" + getnOfGaussianHiddenVars_());
+        if (isBackgroundLearning_())
+            options.add("-B");
+        options.add("-W"); options.add("" + getWindowSize_());
 
         Collections.addAll(options, super.getOptions());
 